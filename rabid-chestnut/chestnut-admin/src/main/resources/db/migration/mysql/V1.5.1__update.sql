@@ -0,0 +1,42 @@
+ALTER TABLE `cms_site_visit_log` ADD INDEX `idx_evt_time` (`evt_time`);
+ALTER TABLE `cms_site_visit_log` ADD INDEX `idx_site_evt_time` (`site_id`, `evt_time`);
+
+-- ----------------------------
+-- Table structure for cms_site_visit_hour_stat
+-- ----------------------------
+CREATE TABLE `cms_site_visit_hour_stat` (
+  `stat_id` bigint NOT NULL AUTO_INCREMENT COMMENT 'ID',
+  `site_id` bigint NOT NULL COMMENT '站点ID',
+  `hour` varchar(10) NOT NULL COMMENT '统计周期，格式：yyyyMMddHH',
+  `dim_type` varchar(20) NOT NULL COMMENT '统计维度',
+  `dim_value` varchar(200) NOT NULL COMMENT '维度值',
+  `pv` bigint NOT NULL DEFAULT '0' COMMENT '浏览量',
+  `ip` bigint NOT NULL DEFAULT '0' COMMENT '独立IP数',
+  PRIMARY KEY (`stat_id`),
+  UNIQUE KEY `uk_site_dim_hour` (`site_id`, `dim_type`, `hour`, `dim_value`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- ----------------------------
+-- Table structure for cms_site_visit_day_stat
+-- ----------------------------
+CREATE TABLE `cms_site_visit_day_stat` (
+  `stat_id` bigint NOT NULL AUTO_INCREMENT COMMENT 'ID',
+  `site_id` bigint NOT NULL COMMENT '站点ID',
+  `day` varchar(8) NOT NULL COMMENT '统计周期，格式：yyyyMMdd',
+  `dim_type` varchar(20) NOT NULL COMMENT '统计维度',
+  `dim_value` varchar(200) NOT NULL COMMENT '维度值',
+  `pv` bigint NOT NULL DEFAULT '0' COMMENT '浏览量',
+  `ip` bigint NOT NULL DEFAULT '0' COMMENT '独立IP数',
+  PRIMARY KEY (`stat_id`),
+  UNIQUE KEY `uk_site_dim_day` (`site_id`, `dim_type`, `day`, `dim_value`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- ----------------------------
+-- Table structure for cms_site_visit_rollup
+-- ----------------------------
+CREATE TABLE `cms_site_visit_rollup` (
+  `rollup_type` varchar(10) NOT NULL COMMENT '汇总类型：hour/day',
+  `watermark` datetime NOT NULL COMMENT '水位线，此时间之前的访问日志已汇总',
+  `update_time` datetime DEFAULT NULL COMMENT '更新时间',
+  PRIMARY KEY (`rollup_type`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
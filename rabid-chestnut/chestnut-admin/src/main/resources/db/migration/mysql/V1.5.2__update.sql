@@ -0,0 +1,10 @@
+-- 搜索词按来源唯一，合并已有重复数据
+UPDATE `search_word` SET `source` = '' WHERE `source` IS NULL;
+UPDATE `search_word` w INNER JOIN (
+  SELECT MIN(`word_id`) AS `word_id`, SUM(`search_total`) AS `search_total` FROM `search_word`
+  GROUP BY `word`, `source` HAVING COUNT(*) > 1
+) d ON w.`word_id` = d.`word_id` SET w.`search_total` = d.`search_total`;
+DELETE w FROM `search_word` w INNER JOIN `search_word` k
+  ON w.`word` = k.`word` AND w.`source` = k.`source` AND w.`word_id` > k.`word_id`;
+ALTER TABLE `search_word` MODIFY COLUMN `source` varchar(255) NOT NULL DEFAULT '';
+ALTER TABLE `search_word` ADD UNIQUE INDEX `uk_word_source` (`word`, `source`);
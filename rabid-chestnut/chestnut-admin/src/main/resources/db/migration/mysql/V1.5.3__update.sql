@@ -0,0 +1,6 @@
+-- 评论点赞记录按评论+用户唯一，删除已有重复数据
+DELETE l FROM `cc_comment_like` l INNER JOIN `cc_comment_like` k
+  ON l.`comment_id` = k.`comment_id` AND l.`uid` = k.`uid` AND l.`log_id` > k.`log_id`;
+ALTER TABLE `cc_comment_like` ADD UNIQUE INDEX `uk_comment_uid` (`comment_id`, `uid`);
+-- 按点赞记录修正评论点赞数
+UPDATE `cc_comment` c SET c.`like_count` = (SELECT COUNT(*) FROM `cc_comment_like` l WHERE l.`comment_id` = c.`comment_id`);
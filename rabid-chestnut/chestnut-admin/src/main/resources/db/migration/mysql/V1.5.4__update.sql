@@ -0,0 +1,2 @@
+-- 经验值次数计数初始化时按会员+操作项+等级类型统计日志
+ALTER TABLE `cc_member_exp_log` ADD INDEX `idx_member_op_level` (`member_id`, `op_type`, `level_type`, `log_time`);
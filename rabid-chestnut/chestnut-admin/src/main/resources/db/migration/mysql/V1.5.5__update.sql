@@ -0,0 +1,2 @@
+-- 投票次数计数初始化时按问卷+投票人统计日志
+ALTER TABLE `cc_vote_log` ADD INDEX `idx_vote_user` (`vote_id`, `user_type`, `user_id`, `log_time`);
@@ -26,6 +26,7 @@ import com.chestnut.common.staticize.tag.TagAttr;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.domain.CmsContent;
 import com.chestnut.contentcore.enums.ContentCopyType;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.mapper.CmsContentMapper;
 import freemarker.core.Environment;
 import freemarker.template.TemplateException;
@@ -86,6 +87,7 @@ public class CmsArticleTag extends AbstractTag {
 		if (ContentCopyType.isMapping(content.getCopyType())) {
 			contentId = content.getCopyId();
 		}
+		FreeMarkerUtils.getTemplateContext(env).addDependency(PublishDependencyService.contentOf(contentId));
 		CmsArticleDetail articleDetail = this.articleMapper.selectById(contentId);
 		if (Objects.isNull(articleDetail)) {
 			throw new TemplateException("Article details not found: " + contentId, env);
@@ -20,6 +20,8 @@ import com.chestnut.common.utils.SpringUtils;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.common.utils.file.FileExUtils;
 import com.chestnut.contentcore.ContentCoreConsts;
+import com.chestnut.contentcore.config.properties.CMSDynamicPageProperties;
+import com.chestnut.contentcore.config.properties.CMSImageProperties;
 import com.chestnut.contentcore.config.properties.CMSProperties;
 import com.chestnut.contentcore.config.properties.CMSPublishProperties;
 import com.chestnut.contentcore.publish.CmsStaticizeService;
@@ -48,7 +50,8 @@ import java.util.Collection;
  */
 @Slf4j
 @Configuration
-@EnableConfigurationProperties({ CMSProperties.class, CMSPublishProperties.class })
+@EnableConfigurationProperties({ CMSProperties.class, CMSPublishProperties.class, CMSImageProperties.class,
+		CMSDynamicPageProperties.class })
 public class CMSConfig implements WebMvcConfigurer {
 
 	public static String CachePrefix = "cms:";
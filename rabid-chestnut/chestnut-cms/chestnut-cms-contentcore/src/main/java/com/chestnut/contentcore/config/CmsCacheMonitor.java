@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.contentcore.config;
+
+import com.chestnut.common.i18n.I18nUtils;
+import com.chestnut.common.redis.IMonitoredCache;
+import com.chestnut.contentcore.service.impl.CatalogServiceImpl;
+import com.chestnut.contentcore.service.impl.SiteServiceImpl;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * CMS缓存监控
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Configuration
+public class CmsCacheMonitor {
+
+	@Bean
+	public IMonitoredCache cmsSiteCache() {
+		return new IMonitoredCache() {
+
+			@Override
+			public String getCacheName() {
+				return I18nUtils.get("{MONITORED.CACHE.CMS_SITE}");
+			}
+
+			@Override
+			public String getCacheKey() {
+				return SiteServiceImpl.CACHE_PREFIX;
+			}
+		};
+	}
+
+	@Bean
+	public IMonitoredCache cmsCatalogCache() {
+		return new IMonitoredCache() {
+
+			@Override
+			public String getCacheName() {
+				return I18nUtils.get("{MONITORED.CACHE.CMS_CATALOG}");
+			}
+
+			@Override
+			public String getCacheKey() {
+				return CatalogServiceImpl.CACHE_PREFIX_ID;
+			}
+		};
+	}
+
+	@Bean
+	public IMonitoredCache cmsCatalogAliasCache() {
+		return new IMonitoredCache() {
+
+			@Override
+			public String getCacheName() {
+				return I18nUtils.get("{MONITORED.CACHE.CMS_CATALOG_ALIAS}");
+			}
+
+			@Override
+			public String getCacheKey() {
+				return CatalogServiceImpl.CACHE_PREFIX_ALIAS;
+			}
+		};
+	}
+}
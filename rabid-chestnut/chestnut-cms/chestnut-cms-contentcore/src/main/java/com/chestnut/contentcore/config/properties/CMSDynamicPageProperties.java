@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.contentcore.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 动态模板页面配置
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = CMSDynamicPageProperties.PREFIX)
+public class CMSDynamicPageProperties {
+
+	public static final String PREFIX = "chestnut.cms.dynamic-page";
+
+	private final Cache cache = new Cache();
+
+	@Getter
+	@Setter
+	public static class Cache {
+
+		/**
+		 * 是否开启动态页面渲染结果缓存
+		 */
+		private boolean enable = true;
+
+		/**
+		 * 缓存有效期，过期前直接使用缓存结果
+		 */
+		private Duration ttl = Duration.ofSeconds(60);
+
+		/**
+		 * 过期后可继续使用旧结果的时长，期间由一个请求重新渲染，其他请求直接返回旧结果
+		 */
+		private Duration staleTtl = Duration.ofMinutes(5);
+
+		/**
+		 * 缓存页面总大小上限
+		 */
+		private DataSize maxSize = DataSize.ofMegabytes(64);
+
+		/**
+		 * 等待其他请求渲染同一页面的最长时间，超时后自行渲染
+		 */
+		private Duration renderWaitTimeout = Duration.ofSeconds(10);
+
+		/**
+		 * 缓存键最大长度，超过时不使用缓存
+		 */
+		private int maxKeyLength = 512;
+
+		/**
+		 * 不参与缓存键计算的请求参数，例如时间戳、统计来源等
+		 */
+		private Set<String> ignoredParams = new HashSet<>(Set.of("_", "t", "timestamp", "spm",
+				"utm_source", "utm_medium", "utm_campaign", "utm_term", "utm_content"));
+	}
+}
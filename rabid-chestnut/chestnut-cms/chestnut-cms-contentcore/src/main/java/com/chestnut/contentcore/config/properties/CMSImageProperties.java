@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.contentcore.config.properties;
+
+import com.chestnut.common.config.properties.AsyncProperties;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 图片衍生图（缩略图）生成配置
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = CMSImageProperties.PREFIX)
+public class CMSImageProperties {
+
+	public static final String PREFIX = "chestnut.cms.image";
+
+	/**
+	 * 上传图片时预生成的缩略图尺寸，格式：宽x高，例如：300x200
+	 */
+	private List<String> presetSizes = new ArrayList<>();
+
+	/**
+	 * 已生成缩略图记录最大数量，命中记录时模板函数不再检查文件是否存在
+	 */
+	private long generatedCacheSize = 100_000;
+
+	/**
+	 * 已生成缩略图记录过期时间
+	 */
+	private Duration generatedCacheExpire = Duration.ofHours(6);
+
+	private final AsyncProperties.Pool pool = new AsyncProperties.Pool();
+
+	private final AsyncProperties.Shutdown shutdown = new AsyncProperties.Shutdown();
+
+	public CMSImageProperties() {
+		this.pool.setThreadNamePrefix("ImageDerivative-");
+		this.pool.setCoreSize(2);
+		this.pool.setMaxSize(2);
+		this.pool.setQueueCapacity(10_000);
+		this.shutdown.setAwaitTermination(false);
+	}
+}
@@ -20,6 +20,8 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 /**
  * CMS发布配置
  *
@@ -51,4 +53,49 @@ public class CMSPublishProperties {
 	private final AsyncProperties.Pool pool = new AsyncProperties.Pool();
 
 	private final AsyncProperties.Shutdown shutdown = new AsyncProperties.Shutdown();
+
+	private final Stream stream = new Stream();
+
+	private final Coalescing coalescing = new Coalescing();
+
+	/**
+	 * Redis Stream发布策略配置
+	 */
+	@Getter
+	@Setter
+	public static class Stream {
+
+		/**
+		 * 批量消费模式：批量拉取消息，批内去重后静态化，批量确认删除消息
+		 */
+		private boolean batchMode = false;
+
+		/**
+		 * 一次拉取消息数量
+		 */
+		private int batchSize = 10;
+
+		/**
+		 * 拉取消息超时时间
+		 */
+		private Duration pollTimeout = Duration.ofSeconds(2);
+
+		/**
+		 * 批量消费模式下，未确认消息空闲超过此时长视为消费者异常，由其他消费者认领重新处理
+		 */
+		private Duration claimIdleTimeout = Duration.ofMinutes(5);
+	}
+
+	/**
+	 * Coalescing发布策略配置
+	 */
+	@Getter
+	@Setter
+	public static class Coalescing {
+
+		/**
+		 * 合并窗口：任务入队后延迟此时长执行，窗口内重复的发布任务合并为一次
+		 */
+		private Duration debounce = Duration.ofSeconds(2);
+	}
 }
@@ -332,13 +332,13 @@ public class CatalogController extends BaseRestController {
 	@PostMapping("/move/{from}/{to}")
 	public R<?> moveCatalog(@PathVariable("from") @LongId Long fromCatalogId,
 			@PathVariable("to") @NotNull @Min(0) Long toCatalogId) {
-		CmsCatalog fromCatalog = this.catalogService.getCatalog(fromCatalogId);
+		CmsCatalog fromCatalog = this.catalogService.getById(fromCatalogId);
 		Assert.notNull(fromCatalog,
 				() -> CommonErrorCode.DATA_NOT_FOUND_BY_ID.exception("fromCatalogId", fromCatalogId));
 
 		CmsCatalog toCatalog = null;
 		if (IdUtils.validate(toCatalogId)) {
-			toCatalog = this.catalogService.getCatalog(toCatalogId);
+			toCatalog = this.catalogService.getById(toCatalogId);
 			Assert.notNull(toCatalog, () -> CommonErrorCode.DATA_NOT_FOUND_BY_ID.exception("toCatalogId", toCatalogId));
 
 			// 目标栏目不能是源栏目的子栏目或自身，且目标栏目不是当前栏目的父级栏目
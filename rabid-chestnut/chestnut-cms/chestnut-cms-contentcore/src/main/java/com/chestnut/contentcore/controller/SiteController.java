@@ -268,7 +268,7 @@ public class SiteController extends BaseRestController {
     @Log(title = "站点扩展", businessType = BusinessType.UPDATE, isSaveRequestData = false)
     @PostMapping("/extends/{siteId}")
     public R<?> saveSiteExtends(@PathVariable("siteId") @LongId Long siteId, @RequestBody Map<String, String> configs) {
-        CmsSite site = this.siteService.getSite(siteId);
+        CmsSite site = this.siteService.getById(siteId);
         Assert.notNull(site, () -> CommonErrorCode.DATA_NOT_FOUND_BY_ID.exception("siteId", siteId));
 
         this.siteService.saveSiteExtend(site, configs, StpAdminUtil.getLoginUser().getUsername());
@@ -361,7 +361,8 @@ public class SiteController extends BaseRestController {
     public R<?> importSiteTheme(@RequestParam("siteId") @LongId Long siteId,
                            @RequestParam("file") @NotNull MultipartFile multipartFile) throws Exception {
         try {
-            CmsSite site = this.siteService.getSite(siteId);
+            // 导入过程会修改站点数据，不能使用缓存对象
+            CmsSite site = this.siteService.getById(siteId);
             Assert.notNull(site, () -> CommonErrorCode.DATA_NOT_FOUND_BY_ID.exception("siteId", siteId));
 
             String path = SiteUtils.getSiteResourceRoot(site.getPath()) + "importTheme.zip";
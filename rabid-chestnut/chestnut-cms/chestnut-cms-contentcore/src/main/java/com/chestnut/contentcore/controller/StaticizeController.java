@@ -16,15 +16,19 @@
 package com.chestnut.contentcore.controller;
 
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.chestnut.common.domain.R;
 import com.chestnut.common.i18n.I18nUtils;
 import com.chestnut.common.security.anno.Priv;
 import com.chestnut.common.security.web.BaseRestController;
+import com.chestnut.common.staticize.core.RenderProfiler;
 import com.chestnut.common.staticize.func.IFunction;
 import com.chestnut.common.staticize.tag.ITag;
 import com.chestnut.contentcore.domain.vo.TemplateFuncVO;
@@ -50,6 +54,8 @@ public class StaticizeController extends BaseRestController {
 
 	private final List<IFunction> functions;
 
+	private final RenderProfiler renderProfiler;
+
 	/**
 	 * 获取静态化自定义模板标签列表
 	 */
@@ -84,4 +90,26 @@ public class StaticizeController extends BaseRestController {
 		}).toList();
 		return R.ok(list);
 	}
+
+	/**
+	 * 模板及模板标签渲染耗时统计，按总耗时倒序
+	 *
+	 * @param limit 返回数量
+	 */
+	@GetMapping("/profile")
+	public R<?> getRenderProfile(@RequestParam(required = false, defaultValue = "20") Integer limit) {
+		return R.ok(Map.of(
+				"templates", this.renderProfiler.getTemplateStats(limit),
+				"tags", this.renderProfiler.getTagStats(limit)
+		));
+	}
+
+	/**
+	 * 重置渲染耗时统计
+	 */
+	@DeleteMapping("/profile")
+	public R<?> resetRenderProfile() {
+		this.renderProfiler.reset();
+		return R.ok();
+	}
 }
@@ -70,6 +70,15 @@ public interface IDynamicPageType {
         return List.of();
     }
 
+    /**
+     * 是否缓存页面渲染结果，仅适用于输出只由请求参数决定、与会员身份无关的页面
+     * <p>
+     * 缓存时模板及initTemplateData只能获取到{@link #getRequestArgs()}中声明的非空参数
+     */
+    default boolean isOutputCacheable() {
+        return false;
+    }
+
     /**
      * 校验请求参数
      *
@@ -24,9 +24,6 @@ import java.util.Objects;
 
 import javax.imageio.ImageIO;
 
-import com.chestnut.common.utils.file.ImageUtils;
-import com.chestnut.contentcore.properties.ThumbnailHeightProperty;
-import com.chestnut.contentcore.properties.ThumbnailWidthProperty;
 import lombok.extern.slf4j.Slf4j;
 import net.coobird.thumbnailator.Thumbnailator;
 import net.coobird.thumbnailator.util.ThumbnailatorUtils;
@@ -95,13 +92,6 @@ public class ResourceType_Image implements IResourceType {
 			BufferedImage bi = ImageIO.read(is);
 			resource.setWidth(bi.getWidth());
 			resource.setHeight(bi.getHeight());
-			// 默认缩略图处理
-			int w = ThumbnailWidthProperty.getValue(site.getConfigProps());
-			int h = ThumbnailHeightProperty.getValue(site.getConfigProps());
-			if (w > 0 && h > 0) {
-				String siteResourceRoot = SiteUtils.getSiteResourceRoot(site);
-				Thumbnails.of(bi).size(w, h).toFile(siteResourceRoot + ImageUtils.getThumbnailFileName(resource.getPath(), w, h));
-			}
 			// 添加水印
 			if (ImageWatermarkProperty.getValue(site.getConfigProps())
 					&& !"webp".equalsIgnoreCase(resource.getSuffix())) {
@@ -49,21 +49,19 @@ public class ContentDynamicDataVO {
     }
 
     public void increase(DynamicDataType type) {
-        switch(type) {
-            case Favorite -> this.favorites++;
-            case Like -> this.likes++;
-            case Comment -> this.comments++;
-            case View -> this.views++;
-        }
-        this.updated = true;
+        this.increase(type, 1);
     }
 
     public void decrease(DynamicDataType type) {
+        this.increase(type, -1);
+    }
+
+    public void increase(DynamicDataType type, long delta) {
         switch(type) {
-            case Favorite -> this.favorites--;
-            case Like -> this.likes--;
-            case Comment -> this.comments--;
-            case View -> this.views--;
+            case Favorite -> this.favorites += delta;
+            case Like -> this.likes += delta;
+            case Comment -> this.comments += delta;
+            case View -> this.views += delta;
         }
         this.updated = true;
     }
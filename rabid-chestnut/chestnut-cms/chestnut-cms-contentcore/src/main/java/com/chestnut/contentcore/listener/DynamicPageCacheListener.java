@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.contentcore.listener;
+
+import com.chestnut.contentcore.listener.event.*;
+import com.chestnut.contentcore.service.impl.DynamicPageOutputCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 站点内容变更时失效动态模板页面缓存
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Component
+@RequiredArgsConstructor
+public class DynamicPageCacheListener {
+
+	private final DynamicPageOutputCache dynamicPageOutputCache;
+
+	@EventListener
+	public void afterContentPublish(AfterContentPublishEvent event) {
+		this.dynamicPageOutputCache.invalidate(event.getContent().getSiteId());
+	}
+
+	@EventListener
+	public void afterContentOffline(AfterContentOfflineEvent event) {
+		this.dynamicPageOutputCache.invalidate(event.getContent().getSiteId());
+	}
+
+	@EventListener
+	public void afterContentDelete(AfterContentDeleteEvent event) {
+		this.dynamicPageOutputCache.invalidate(event.getContent().getSiteId());
+	}
+
+	@EventListener
+	public void afterCatalogSave(AfterCatalogSaveEvent event) {
+		this.dynamicPageOutputCache.invalidate(event.getCatalog().getSiteId());
+	}
+
+	@EventListener
+	public void afterCatalogDelete(AfterCatalogDeleteEvent event) {
+		this.dynamicPageOutputCache.invalidate(event.getCatalog().getSiteId());
+	}
+
+	@EventListener
+	public void afterSiteSave(AfterSiteSaveEvent event) {
+		this.dynamicPageOutputCache.invalidate(event.getSite().getSiteId());
+	}
+
+	@EventListener
+	public void afterSiteDelete(AfterSiteDeleteEvent event) {
+		this.dynamicPageOutputCache.invalidate(event.getSite().getSiteId());
+	}
+}
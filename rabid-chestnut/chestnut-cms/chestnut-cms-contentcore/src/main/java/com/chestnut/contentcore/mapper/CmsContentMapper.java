@@ -17,9 +17,11 @@ package com.chestnut.contentcore.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.chestnut.contentcore.domain.CmsContent;
+import com.chestnut.contentcore.domain.vo.ContentDynamicDataVO;
 import com.chestnut.contentcore.service.impl.SiteStatServiceImpl.SiteStatData;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import java.util.List;
 
@@ -39,4 +41,22 @@ public interface CmsContentMapper extends BaseMapper<CmsContent> {
 			</script>
 			""")
 	List<SiteStatData> countContentGroupByType(@Param("siteId") Long siteId);
+
+	/**
+	 * 批量更新内容动态数据（收藏、点赞、评论、浏览数）
+	 *
+	 * @param list 动态数据列表
+	 * @return 更新行数
+	 */
+	@Update("""
+			<script>
+			UPDATE cms_content SET
+			favorite_count = CASE content_id <foreach collection='list' item='d'> WHEN #{d.contentId} THEN #{d.favorites} </foreach> ELSE favorite_count END,
+			like_count = CASE content_id <foreach collection='list' item='d'> WHEN #{d.contentId} THEN #{d.likes} </foreach> ELSE like_count END,
+			comment_count = CASE content_id <foreach collection='list' item='d'> WHEN #{d.contentId} THEN #{d.comments} </foreach> ELSE comment_count END,
+			view_count = CASE content_id <foreach collection='list' item='d'> WHEN #{d.contentId} THEN #{d.views} </foreach> ELSE view_count END
+			WHERE content_id IN <foreach collection='list' item='d' open='(' separator=',' close=')'>#{d.contentId}</foreach>
+			</script>
+			""")
+	int updateDynamicDataBatch(@Param("list") List<ContentDynamicDataVO> list);
 }
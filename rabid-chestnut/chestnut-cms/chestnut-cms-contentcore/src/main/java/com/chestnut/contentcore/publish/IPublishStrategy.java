@@ -15,6 +15,8 @@
  */
 package com.chestnut.contentcore.publish;
 
+import java.util.Collection;
+
 /**
  * IPublishStrategy
  *
@@ -36,6 +38,16 @@ public interface IPublishStrategy {
      */
     void publish(String dataType, String dataId);
 
+    /**
+     * 批量创建发布任务
+     *
+     * @param dataType 数据类型
+     * @param dataIds 数据ID列表
+     */
+    default void publish(String dataType, Collection<String> dataIds) {
+        dataIds.forEach(dataId -> publish(dataType, dataId));
+    }
+
     /**
      * 获取待处理发布任务数量
      */
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.contentcore.publish;
+
+import com.chestnut.common.utils.StringUtils;
+import com.chestnut.contentcore.config.CMSConfig;
+import com.chestnut.contentcore.domain.CmsContent;
+import com.chestnut.contentcore.util.CatalogUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 发布依赖关系
+ *
+ * <p>
+ * 栏目、站点页面静态化时记录模板标签读取的数据依赖（依赖标识 -> 发布单元），
+ * 内容变更时只需重新发布依赖了该内容的页面。
+ * 未记录过依赖关系的发布单元视为未知，由调用方按原逻辑全部发布。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Service
+@RequiredArgsConstructor
+public class PublishDependencyService {
+
+    private static final String DEPENDENCY_CACHE_PREFIX = CMSConfig.CachePrefix + "publish:deps:";
+
+    private static final String UNIT_CACHE_PREFIX = CMSConfig.CachePrefix + "publish:unit:";
+
+    /**
+     * 发布单元依赖集合占位元素，保证无依赖的发布单元也能标识为已记录
+     */
+    private static final String TRACKED_MARKER = "-";
+
+    private static final String INCLUDE_PREFIX = "include:";
+
+    /**
+     * 替换发布单元依赖记录：移除旧依赖的反向索引，重写发布单元依赖集合并添加新依赖的反向索引
+     * <p>
+     * KEYS[1]=发布单元依赖集合，ARGV[1]=发布单元，ARGV[2]=依赖反向索引前缀，ARGV[3]=占位元素，ARGV[4..]=依赖标识
+     */
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>("""
+            local current = {}
+            for i = 4, #ARGV do
+                current[ARGV[i]] = true
+            end
+            for _, d in ipairs(redis.call('smembers', KEYS[1])) do
+                if d ~= ARGV[3] and not current[d] then
+                    redis.call('srem', ARGV[2] .. d, ARGV[1])
+                end
+            end
+            redis.call('del', KEYS[1])
+            redis.call('sadd', KEYS[1], ARGV[3])
+            for i = 4, #ARGV do
+                redis.call('sadd', KEYS[1], ARGV[i])
+                redis.call('sadd', ARGV[2] .. ARGV[i], ARGV[1])
+            end
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 发布单元标识，格式同发布任务：类型-ID
+     */
+    public static String unit(String staticizeType, Object dataId) {
+        return staticizeType + "-" + dataId;
+    }
+
+    /**
+     * 依赖：指定内容
+     */
+    public static String contentOf(Long contentId) {
+        return "content:id:" + contentId;
+    }
+
+    /**
+     * 依赖：指定栏目下的内容
+     */
+    public static String contentOfCatalog(Long catalogId) {
+        return "content:catalog:" + catalogId;
+    }
+
+    /**
+     * 依赖：指定栏目及其子栏目下的内容
+     */
+    public static String contentOfCatalogTree(Long catalogId) {
+        return "content:tree:" + catalogId;
+    }
+
+    /**
+     * 依赖：站点下任意内容
+     */
+    public static String contentOfSite(Long siteId) {
+        return "content:site:" + siteId;
+    }
+
+    /**
+     * 依赖：站点栏目结构
+     */
+    public static String catalogOfSite(Long siteId) {
+        return "catalog:site:" + siteId;
+    }
+
+    /**
+     * 依赖：页面部件
+     */
+    public static String pageWidget(Long siteId, String code) {
+        return "pagewidget:" + siteId + ":" + code;
+    }
+
+    /**
+     * 依赖：包含模板，cacheKey为包含模板静态内容缓存键
+     */
+    public static String include(String cacheKey) {
+        return INCLUDE_PREFIX + cacheKey;
+    }
+
+    /**
+     * 是否包含模板发布单元
+     */
+    public static boolean isInclude(String unit) {
+        return unit.startsWith(INCLUDE_PREFIX);
+    }
+
+    /**
+     * 包含模板发布单元的静态内容缓存键
+     */
+    public static String getIncludeCacheKey(String unit) {
+        return unit.substring(INCLUDE_PREFIX.length());
+    }
+
+    /**
+     * 内容变更会影响到的依赖标识
+     */
+    public static Set<String> getContentDependencies(CmsContent content) {
+        Set<String> dependencies = new HashSet<>();
+        dependencies.add(contentOf(content.getContentId()));
+        dependencies.add(contentOfCatalog(content.getCatalogId()));
+        dependencies.add(contentOfSite(content.getSiteId()));
+        if (StringUtils.isNotEmpty(content.getCatalogAncestors())) {
+            for (String catalogId : content.getCatalogAncestors().split(CatalogUtils.ANCESTORS_SPLITER)) {
+                dependencies.add(contentOfCatalogTree(Long.valueOf(catalogId)));
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * 记录发布单元的依赖，覆盖上次记录
+     *
+     * @param unit 发布单元，栏目/站点为{@link #unit(String, Object)}，包含模板为{@link #include(String)}
+     * @param dependencies 依赖标识
+     */
+    public void record(String unit, Collection<String> dependencies) {
+        List<String> args = new ArrayList<>(dependencies.size() + 3);
+        args.add(unit);
+        args.add(DEPENDENCY_CACHE_PREFIX);
+        args.add(TRACKED_MARKER);
+        args.addAll(new LinkedHashSet<>(dependencies));
+        redisTemplate.execute(RECORD_SCRIPT, List.of(UNIT_CACHE_PREFIX + unit), args.toArray());
+    }
+
+    /**
+     * 发布单元是否记录过依赖关系
+     */
+    public boolean isTracked(String unit) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(UNIT_CACHE_PREFIX + unit));
+    }
+
+    /**
+     * 查找依赖了指定标识的发布单元，包含模板会展开为引用它的页面
+     *
+     * @param dependencies 变更的依赖标识
+     * @return 需要重新发布的发布单元，包含受影响的包含模板单元，需由调用方清理其静态内容缓存
+     */
+    public Set<String> getDependentUnits(Collection<String> dependencies) {
+        Set<String> units = new HashSet<>();
+        Set<String> visited = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>(dependencies);
+        while (!queue.isEmpty()) {
+            String dependency = queue.poll();
+            if (!visited.add(dependency)) {
+                continue;
+            }
+            Set<String> members = redisTemplate.opsForSet().members(DEPENDENCY_CACHE_PREFIX + dependency);
+            if (Objects.isNull(members)) {
+                continue;
+            }
+            for (String member : members) {
+                units.add(member);
+                if (isInclude(member)) {
+                    queue.add(member);
+                }
+            }
+        }
+        return units;
+    }
+}
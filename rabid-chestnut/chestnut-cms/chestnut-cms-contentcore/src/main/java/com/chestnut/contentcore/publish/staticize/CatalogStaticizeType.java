@@ -30,6 +30,7 @@ import com.chestnut.contentcore.domain.CmsPublishPipe;
 import com.chestnut.contentcore.domain.CmsSite;
 import com.chestnut.contentcore.properties.MaxPageOnContentPublishProperty;
 import com.chestnut.contentcore.publish.IStaticizeType;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.service.ICatalogService;
 import com.chestnut.contentcore.service.IPublishPipeService;
 import com.chestnut.contentcore.service.ISiteService;
@@ -44,8 +45,10 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * CatalogStaticizeType
@@ -69,6 +72,8 @@ public class CatalogStaticizeType implements IStaticizeType {
 
     private final StaticizeService staticizeService;
 
+    private final PublishDependencyService publishDependencyService;
+
     @Override
     public String getType() {
         return TYPE;
@@ -95,13 +100,15 @@ public class CatalogStaticizeType implements IStaticizeType {
         if (!catalog.isStaticize() || !catalog.isVisible() || CatalogType_Link.ID.equals(catalog.getCatalogType())) {
             return;
         }
+        Set<String> dependencies = new HashSet<>();
         List<CmsPublishPipe> publishPipes = this.publishPipeService.getPublishPipes(catalog.getSiteId());
         for (CmsPublishPipe pp : publishPipes) {
-            this.doCatalogStaticize(catalog, pp.getCode(), pageMax);
+            this.doCatalogStaticize(catalog, pp.getCode(), pageMax, dependencies);
         }
+        this.publishDependencyService.record(PublishDependencyService.unit(TYPE, catalog.getCatalogId()), dependencies);
     }
 
-    private void doCatalogStaticize(CmsCatalog catalog, String publishPipeCode, int pageMax) {
+    private void doCatalogStaticize(CmsCatalog catalog, String publishPipeCode, int pageMax, Set<String> dependencies) {
         CmsSite site = this.siteService.getSite(catalog.getSiteId());
         if (!catalog.isStaticize()) {
             logger.warn("【{}】未启用静态化的栏目跳过静态化：{}", publishPipeCode, catalog.getName());
@@ -147,8 +154,10 @@ public class CatalogStaticizeType implements IStaticizeType {
                 templateType.initTemplateData(catalog.getCatalogId(), templateContext);
                 // staticize
                 this.staticizeService.process(templateContext);
+                dependencies.addAll(templateContext.getDependencies());
                 logger.debug("[{}]栏目首页模板解析：{}，耗时：{}ms", publishPipeCode, catalog.getCatalogId() + "#" + catalog.getName(), (System.currentTimeMillis() - s));
             } catch (IOException | TemplateException e) {
+                dependencies.add(PublishDependencyService.contentOfSite(site.getSiteId())); // 依赖不完整，任意内容变更都需要重新发布
                 logger.error(AsyncTaskManager.addErrMessage(StringUtils.messageFormat("[{0}]栏目首页解析失败：{1}",
                         publishPipeCode, catalog.getCatalogId() + "#" + catalog.getName())), e);
             }
@@ -172,8 +181,10 @@ public class CatalogStaticizeType implements IStaticizeType {
                 templateType.initTemplateData(catalog.getCatalogId(), templateContext);
                 // staticize
                 this.staticizeService.process(templateContext);
+                dependencies.addAll(templateContext.getDependencies());
                 logger.debug("[{}]栏目列表模板解析：{}，耗时：{}ms", publishPipeCode, catalog.getCatalogId() + "#" + catalog.getName(), (System.currentTimeMillis() - s));
             } catch (Exception e1) {
+                dependencies.add(PublishDependencyService.contentOfSite(site.getSiteId()));
                 logger.error(AsyncTaskManager.addErrMessage(StringUtils.messageFormat("[{0}]栏目列表页解析失败：{1}",
                         publishPipeCode, catalog.getCatalogId() + "#" + catalog.getName())), e1);
             }
@@ -22,6 +22,7 @@ import com.chestnut.common.utils.IdUtils;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.domain.CmsSite;
 import com.chestnut.contentcore.publish.IStaticizeType;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.service.IPublishPipeService;
 import com.chestnut.contentcore.service.ISiteService;
 import com.chestnut.contentcore.service.ITemplateService;
@@ -33,7 +34,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * SiteStaticizeType
@@ -55,6 +58,8 @@ public class SiteStaticizeType implements IStaticizeType {
 
     private final StaticizeService staticizeService;
 
+    private final PublishDependencyService publishDependencyService;
+
     @Override
     public String getType() {
         return TYPE;
@@ -72,11 +77,13 @@ public class SiteStaticizeType implements IStaticizeType {
     }
 
     public void siteStaticize(CmsSite site) {
+        Set<String> dependencies = new HashSet<>();
         this.publishPipeService.getPublishPipes(site.getSiteId())
-                .forEach(pp -> doSiteStaticize(site, pp.getCode()));
+                .forEach(pp -> doSiteStaticize(site, pp.getCode(), dependencies));
+        this.publishDependencyService.record(PublishDependencyService.unit(TYPE, site.getSiteId()), dependencies);
     }
 
-    private void doSiteStaticize(CmsSite site, String publishPipeCode) {
+    private void doSiteStaticize(CmsSite site, String publishPipeCode, Set<String> dependencies) {
         try {
             AsyncTaskManager
                     .setTaskMessage(StringUtils.messageFormat("[{0}]正在发布站点首页：{1}", publishPipeCode, site.getName()));
@@ -101,8 +108,10 @@ public class SiteStaticizeType implements IStaticizeType {
             context.setDirectory(SiteUtils.getSiteRoot(site, publishPipeCode));
             context.setFirstFileName("index" + StringUtils.DOT + site.getStaticSuffix(publishPipeCode));
             this.staticizeService.process(context);
+            dependencies.addAll(context.getDependencies());
             logger.debug("[{}]首页模板解析：{}，耗时：{}ms", publishPipeCode, site.getName(), (System.currentTimeMillis() - s));
         } catch (Exception e) {
+            dependencies.add(PublishDependencyService.contentOfSite(site.getSiteId())); // 依赖不完整，任意内容变更都需要重新发布
             logger.error(AsyncTaskManager.addErrMessage(StringUtils.messageFormat("[{0}][{1}]站点首页解析失败：{2}",
                     publishPipeCode, site.getName(), e.getMessage())), e);
         }
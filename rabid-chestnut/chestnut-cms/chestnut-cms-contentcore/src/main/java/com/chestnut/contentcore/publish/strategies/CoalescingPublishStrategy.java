@@ -0,0 +1,328 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.contentcore.publish.strategies;
+
+import com.chestnut.contentcore.config.properties.CMSPublishProperties;
+import com.chestnut.contentcore.dao.CmsContentDAO;
+import com.chestnut.contentcore.domain.CmsCatalog;
+import com.chestnut.contentcore.domain.CmsContent;
+import com.chestnut.contentcore.publish.CmsStaticizeService;
+import com.chestnut.contentcore.publish.IPublishStrategy;
+import com.chestnut.contentcore.publish.IStaticizeType;
+import com.chestnut.contentcore.publish.staticize.CatalogStaticizeType;
+import com.chestnut.contentcore.publish.staticize.ContentStaticizeType;
+import com.chestnut.contentcore.publish.staticize.SiteStaticizeType;
+import com.chestnut.contentcore.service.ICatalogService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 发布策略：Coalescing
+ *
+ * <p>
+ * 发布任务入队后延迟合并窗口时长执行，窗口内相同类型+ID的任务合并为一次，
+ * 避免频繁编辑时站点首页、栏目页被重复静态化。
+ * 任务按内容 > 栏目 > 站点优先级分道执行，同一优先级下各站点轮流执行，避免单站点批量发布阻塞其他站点。
+ * 任务开始执行后即移出待处理集合，执行期间再次入队的相同任务会重新排队，保证最终页面为最新数据。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = CMSPublishProperties.PREFIX, name = "strategy", havingValue = CoalescingPublishStrategy.ID)
+public class CoalescingPublishStrategy implements IPublishStrategy, CommandLineRunner {
+
+    public static final String ID = "Coalescing";
+
+    private static final int LANE_CONTENT = 0;
+
+    private static final int LANE_CATALOG = 1;
+
+    private static final int LANE_OTHER = 2;
+
+    private final CMSPublishProperties properties;
+
+    private final CmsStaticizeService cmsStaticizeService;
+
+    private final ICatalogService catalogService;
+
+    private final CmsContentDAO contentDAO;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition taskChanged = lock.newCondition();
+
+    /**
+     * 待处理任务，key：类型-ID
+     */
+    private final Map<String, PublishTask> pendingTasks = new HashMap<>();
+
+    private final Lane[] lanes = { new Lane(), new Lane(), new Lane() };
+
+    private ThreadPoolTaskExecutor threadPoolTaskExecutor;
+
+    private Semaphore workerPermits;
+
+    private Thread dispatcher;
+
+    private volatile boolean running = true;
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public void publish(String dataType, String dataId) {
+        String key = dataType + "-" + dataId;
+        lock.lock();
+        try {
+            if (pendingTasks.containsKey(key)) {
+                return; // 合并窗口内已有相同任务
+            }
+        } finally {
+            lock.unlock();
+        }
+        // 站点ID查询放在锁外，重复任务在上面已经被合并不会查询
+        Long siteId = this.resolveSiteId(dataType, dataId);
+        long dueTime = System.currentTimeMillis() + properties.getCoalescing().getDebounce().toMillis();
+        lock.lock();
+        try {
+            if (pendingTasks.containsKey(key)) {
+                return;
+            }
+            PublishTask task = new PublishTask(key, dataType, dataId, siteId, dueTime);
+            pendingTasks.put(key, task);
+            lanes[getLane(dataType)].add(task);
+            taskChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getTaskCount() {
+        lock.lock();
+        try {
+            return pendingTasks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void cleanTasks() {
+        lock.lock();
+        try {
+            pendingTasks.clear();
+            for (Lane lane : lanes) {
+                lane.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(properties.getPool().getThreadNamePrefix());
+        executor.setCorePoolSize(properties.getPool().getCoreSize());
+        executor.setMaxPoolSize(properties.getPool().getCoreSize());
+        executor.setKeepAliveSeconds((int) properties.getPool().getKeepAlive().getSeconds());
+        executor.setAllowCoreThreadTimeOut(this.properties.getPool().isAllowCoreThreadTimeout());
+        executor.setWaitForTasksToCompleteOnShutdown(properties.getShutdown().isAwaitTermination());
+        executor.setAwaitTerminationSeconds((int) properties.getShutdown().getAwaitTerminationPeriod().toSeconds());
+        executor.initialize();
+        this.threadPoolTaskExecutor = executor;
+        // 有空闲线程时才从队列取任务，保证取任务时按最新的优先级选择
+        this.workerPermits = new Semaphore(properties.getPool().getCoreSize());
+
+        this.dispatcher = new Thread(this::dispatch, properties.getPool().getThreadNamePrefix() + "DISPATCHER");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.running = false;
+        if (Objects.nonNull(this.dispatcher)) {
+            this.dispatcher.interrupt();
+        }
+        if (Objects.nonNull(this.threadPoolTaskExecutor)) {
+            this.threadPoolTaskExecutor.shutdown();
+        }
+    }
+
+    private void dispatch() {
+        while (running) {
+            try {
+                workerPermits.acquire();
+                PublishTask task;
+                try {
+                    task = this.takeReadyTask();
+                } catch (InterruptedException e) {
+                    workerPermits.release();
+                    throw e;
+                }
+                threadPoolTaskExecutor.execute(() -> {
+                    try {
+                        IStaticizeType staticizeType = cmsStaticizeService.getStaticizeType(task.dataType());
+                        if (Objects.nonNull(staticizeType)) {
+                            staticizeType.staticize(task.dataId());
+                        }
+                    } catch (Exception e) {
+                        IStaticizeType.logger.error("静态化失败", e);
+                    } finally {
+                        workerPermits.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                IStaticizeType.logger.error("Publish task dispatch err.", e);
+            }
+        }
+    }
+
+    /**
+     * 阻塞直到有到期任务，按优先级从高到低取第一个到期任务
+     */
+    private PublishTask takeReadyTask() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                long now = System.currentTimeMillis();
+                long nextDueTime = Long.MAX_VALUE;
+                for (Lane lane : lanes) {
+                    PublishTask task = lane.pollReady(now);
+                    if (Objects.nonNull(task)) {
+                        pendingTasks.remove(task.key());
+                        return task;
+                    }
+                    nextDueTime = Math.min(nextDueTime, lane.nextDueTime());
+                }
+                if (nextDueTime == Long.MAX_VALUE) {
+                    taskChanged.await();
+                } else {
+                    taskChanged.await(Math.max(1, nextDueTime - now), TimeUnit.MILLISECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int getLane(String dataType) {
+        if (ContentStaticizeType.TYPE.equals(dataType)) {
+            return LANE_CONTENT;
+        } else if (CatalogStaticizeType.TYPE.equals(dataType)) {
+            return LANE_CATALOG;
+        }
+        return LANE_OTHER;
+    }
+
+    private Long resolveSiteId(String dataType, String dataId) {
+        try {
+            if (SiteStaticizeType.TYPE.equals(dataType)) {
+                return Long.valueOf(dataId);
+            } else if (CatalogStaticizeType.TYPE.equals(dataType)) {
+                CmsCatalog catalog = catalogService.getCatalog(Long.valueOf(dataId));
+                return Objects.nonNull(catalog) ? catalog.getSiteId() : 0L;
+            } else if (ContentStaticizeType.TYPE.equals(dataType)) {
+                CmsContent content = contentDAO.lambdaQuery().select(CmsContent::getSiteId)
+                        .eq(CmsContent::getContentId, Long.valueOf(dataId)).one();
+                return Objects.nonNull(content) ? content.getSiteId() : 0L;
+            }
+        } catch (Exception e) {
+            IStaticizeType.logger.warn("Resolve publish task site failed: {}-{}", dataType, dataId);
+        }
+        return 0L;
+    }
+
+    private record PublishTask(String key, String dataType, String dataId, Long siteId, long dueTime) {
+    }
+
+    /**
+     * 同一优先级的任务队列，按站点分队列轮流出队
+     *
+     * <p>合并窗口固定，各站点队列内任务到期时间与入队顺序一致，只需检查队首</p>
+     */
+    private static class Lane {
+
+        private final Map<Long, ArrayDeque<PublishTask>> siteQueues = new HashMap<>();
+
+        private final ArrayDeque<Long> siteRotation = new ArrayDeque<>();
+
+        void add(PublishTask task) {
+            ArrayDeque<PublishTask> queue = siteQueues.get(task.siteId());
+            if (Objects.isNull(queue)) {
+                queue = new ArrayDeque<>();
+                siteQueues.put(task.siteId(), queue);
+                siteRotation.add(task.siteId());
+            }
+            queue.add(task);
+        }
+
+        PublishTask pollReady(long now) {
+            for (int i = siteRotation.size(); i > 0; i--) {
+                Long siteId = siteRotation.poll();
+                ArrayDeque<PublishTask> queue = siteQueues.get(siteId);
+                PublishTask head = queue.peek();
+                if (Objects.nonNull(head) && head.dueTime() <= now) {
+                    queue.poll();
+                    if (queue.isEmpty()) {
+                        siteQueues.remove(siteId);
+                    } else {
+                        siteRotation.add(siteId);
+                    }
+                    return head;
+                }
+                siteRotation.add(siteId);
+            }
+            return null;
+        }
+
+        long nextDueTime() {
+            long nextDueTime = Long.MAX_VALUE;
+            for (ArrayDeque<PublishTask> queue : siteQueues.values()) {
+                PublishTask head = queue.peek();
+                if (Objects.nonNull(head)) {
+                    nextDueTime = Math.min(nextDueTime, head.dueTime());
+                }
+            }
+            return nextDueTime;
+        }
+
+        void clear() {
+            siteQueues.clear();
+            siteRotation.clear();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.contentcore.publish.strategies;
+
+import com.chestnut.contentcore.config.properties.CMSPublishProperties;
+import com.chestnut.contentcore.publish.CmsStaticizeService;
+import com.chestnut.contentcore.publish.IStaticizeType;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.*;
+
+/**
+ * 发布任务批量消费者
+ *
+ * <p>
+ * 每次拉取一批消息，按type+id去重后静态化，再通过一次pipeline批量确认并删除消息。
+ * 未确认消息空闲超过{@link CMSPublishProperties.Stream#getClaimIdleTimeout()}时由当前消费者认领重新处理，
+ * 认领使用XPENDING+XCLAIM以兼容Redis 6.2以下版本。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@RequiredArgsConstructor
+public class PublishTaskBatchConsumer implements Runnable {
+
+    private final static Logger logger = LoggerFactory.getLogger("publish");
+
+    private final CmsStaticizeService cmsStaticizeService;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final CMSPublishProperties.Stream properties;
+
+    private final Consumer consumer;
+
+    private volatile boolean running = true;
+
+    private long lastClaimTime = System.currentTimeMillis();
+
+    @Override
+    public void run() {
+        StreamReadOptions readOptions = StreamReadOptions.empty()
+                .count(properties.getBatchSize())
+                .block(properties.getPollTimeout());
+        StreamOffset<String> offset = StreamOffset.create(RedisStreamPublishStrategy.PublishStreamName,
+                ReadOffset.lastConsumed());
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                        .read(consumer, readOptions, offset);
+                if (Objects.nonNull(records) && !records.isEmpty()) {
+                    this.process(records);
+                }
+                if (System.currentTimeMillis() - lastClaimTime >= properties.getClaimIdleTimeout().toMillis()) {
+                    this.claimPendingRecords();
+                    lastClaimTime = System.currentTimeMillis();
+                }
+            } catch (Exception e) {
+                if (running) {
+                    logger.error("Publish stream consume err.", e);
+                }
+            }
+        }
+    }
+
+    public void stop() {
+        this.running = false;
+    }
+
+    /**
+     * 认领空闲超时的未确认消息
+     */
+    private void claimPendingRecords() {
+        String stream = RedisStreamPublishStrategy.PublishStreamName;
+        String group = RedisStreamPublishStrategy.PublishConsumerGroup;
+        PendingMessages pendingMessages = redisTemplate.opsForStream()
+                .pending(stream, group, Range.unbounded(), properties.getBatchSize());
+        RecordId[] idleIds = pendingMessages.stream()
+                .filter(pm -> pm.getElapsedTimeSinceLastDelivery().compareTo(properties.getClaimIdleTimeout()) >= 0)
+                .map(PendingMessage::getId)
+                .toArray(RecordId[]::new);
+        if (idleIds.length == 0) {
+            return;
+        }
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().claim(stream, group,
+                consumer.getName(), RedisStreamCommands.XClaimOptions.minIdle(properties.getClaimIdleTimeout()).ids(idleIds));
+        logger.info("Publish stream claimed {} idle pending records.", records.size());
+        if (!records.isEmpty()) {
+            this.process(records);
+        }
+    }
+
+    private void process(List<MapRecord<String, Object, Object>> records) {
+        // 批内去重，相同type+id只静态化一次
+        Map<String, String[]> tasks = new LinkedHashMap<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<Object, Object> map = record.getValue();
+            String type = Objects.toString(map.get("type"), null);
+            String id = Objects.toString(map.get("id"), null);
+            tasks.putIfAbsent(type + "-" + id, new String[] { type, id });
+        }
+        try {
+            for (String[] task : tasks.values()) {
+                try {
+                    IStaticizeType staticizeType = cmsStaticizeService.getStaticizeType(task[0]);
+                    if (Objects.nonNull(staticizeType)) {
+                        staticizeType.staticize(task[1]);
+                    }
+                } catch (Exception e) {
+                    logger.error("Publish err.", e);
+                }
+            }
+        } finally {
+            String[] recordIds = records.stream().map(r -> r.getId().getValue()).toArray(String[]::new);
+            redisTemplate.executePipelined(new SessionCallback<>() {
+                @Override
+                public Object execute(@NotNull RedisOperations operations) {
+                    String stream = RedisStreamPublishStrategy.PublishStreamName;
+                    operations.opsForStream().acknowledge(stream, RedisStreamPublishStrategy.PublishConsumerGroup, recordIds);
+                    operations.opsForStream().delete(stream, recordIds);
+                    return null;
+                }
+            });
+        }
+    }
+}
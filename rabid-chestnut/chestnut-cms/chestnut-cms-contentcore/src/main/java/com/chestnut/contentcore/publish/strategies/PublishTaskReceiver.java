@@ -23,10 +23,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.MapUtils;
+import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.connection.stream.Consumer;
 import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.stream.StreamListener;
 
@@ -68,12 +71,16 @@ public class PublishTaskReceiver implements StreamListener<String, MapRecord<Str
             } catch(Exception e) {
                 logger.error("Publish err.", e);
             } finally {
-                redisTemplate.opsForStream().acknowledge(
-                        stream,
-                        RedisStreamPublishStrategy.PublishConsumerGroup,
-                        message.getId().getValue()
-                );
-                redisTemplate.opsForStream().delete(stream, message.getId().getValue());
+                // 确认和删除消息合并为一次pipeline请求
+                String recordId = message.getId().getValue();
+                redisTemplate.executePipelined(new SessionCallback<>() {
+                    @Override
+                    public Object execute(@NotNull RedisOperations operations) {
+                        operations.opsForStream().acknowledge(stream, RedisStreamPublishStrategy.PublishConsumerGroup, recordId);
+                        operations.opsForStream().delete(stream, recordId);
+                        return null;
+                    }
+                });
             }
         }
     }
@@ -20,15 +20,23 @@ import com.chestnut.contentcore.publish.CmsStaticizeService;
 import com.chestnut.contentcore.publish.IPublishStrategy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.stream.StreamMessageListenerContainer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -41,7 +49,7 @@ import java.util.Map;
 @Component
 @RequiredArgsConstructor
 @ConditionalOnProperty(prefix = CMSPublishProperties.PREFIX, name = "strategy", havingValue = RedisStreamPublishStrategy.ID)
-public class RedisStreamPublishStrategy implements IPublishStrategy {
+public class RedisStreamPublishStrategy implements IPublishStrategy, CommandLineRunner {
 
     public static final String ID = "RedisStream";
 
@@ -55,6 +63,8 @@ public class RedisStreamPublishStrategy implements IPublishStrategy {
 
     private final CmsStaticizeService cmsStaticizeService;
 
+    private final List<PublishTaskBatchConsumer> batchConsumers = new ArrayList<>();
+
     @Override
     public String getId() {
         return ID;
@@ -62,11 +72,29 @@ public class RedisStreamPublishStrategy implements IPublishStrategy {
 
     @Override
     public void publish(String dataType, String dataId) {
-        MapRecord<String, String, String> record = MapRecord.create(PublishStreamName, Map.of(
+        redisTemplate.opsForStream().add(newRecord(dataType, dataId));
+    }
+
+    @Override
+    public void publish(String dataType, Collection<String> dataIds) {
+        if (dataIds.isEmpty()) {
+            return;
+        }
+        // pipeline批量添加消息
+        redisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            public Object execute(@NotNull RedisOperations operations) {
+                dataIds.forEach(dataId -> operations.opsForStream().add(newRecord(dataType, dataId)));
+                return null;
+            }
+        });
+    }
+
+    private MapRecord<String, String, String> newRecord(String dataType, String dataId) {
+        return MapRecord.create(PublishStreamName, Map.of(
                 "type", dataType,
                 "id", dataId
         ));
-        redisTemplate.opsForStream().add(record);
     }
 
     @Override
@@ -84,28 +112,23 @@ public class RedisStreamPublishStrategy implements IPublishStrategy {
 		}
     }
 
+    /**
+     * 非批量消费模式：消费者注册到监听容器，由发布线程池处理消息
+     */
     @Bean
+    @ConditionalOnProperty(prefix = CMSPublishProperties.PREFIX, name = "stream.batch-mode", havingValue = "false", matchIfMissing = true)
     public StreamMessageListenerContainer<String, MapRecord<String, String, String>> streamMessageListenerContainer() {
-        // 启动清理消息队列数据
-        if (properties.isClearOnStart()) {
-            redisTemplate.delete(PublishStreamName);
-        }
+        this.initStream();
         // 监听容器配置
         StreamMessageListenerContainer.StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> streamMessageListenerContainerOptions = StreamMessageListenerContainer.StreamMessageListenerContainerOptions
                 .builder()
-                .batchSize(10) // 一次拉取消息数量
-                .pollTimeout(Duration.ofSeconds(2)) // 拉取消息超时时间
+                .batchSize(properties.getStream().getBatchSize()) // 一次拉取消息数量
+                .pollTimeout(properties.getStream().getPollTimeout()) // 拉取消息超时时间
                 .executor(cmsPublishThreadPoolTaskExecutor())
                 .build();
         // 创建监听容器
         StreamMessageListenerContainer<String, MapRecord<String, String, String>> container = StreamMessageListenerContainer
                 .create(redisTemplate.getRequiredConnectionFactory(), streamMessageListenerContainerOptions);
-        //创建消费者组
-        try {
-            redisTemplate.opsForStream().createGroup(PublishStreamName, PublishConsumerGroup);
-        } catch (Exception e) {
-            log.info("消费者组:{} 已存在", PublishConsumerGroup);
-        }
         // 添加消费者
         for (int i = 0; i < properties.getConsumerCount(); i++) {
             Consumer consumer = Consumer.from(PublishConsumerGroup, "cms-publish-consumer-" + i);
@@ -117,6 +140,45 @@ public class RedisStreamPublishStrategy implements IPublishStrategy {
         return container;
     }
 
+    /**
+     * 批量消费模式：每个消费者使用独立线程运行拉取循环，不占用发布线程池
+     */
+    @Override
+    public void run(String... args) throws Exception {
+        if (!properties.getStream().isBatchMode()) {
+            return;
+        }
+        this.initStream();
+        for (int i = 0; i < properties.getConsumerCount(); i++) {
+            Consumer consumer = Consumer.from(PublishConsumerGroup, "cms-publish-consumer-" + i);
+            PublishTaskBatchConsumer batchConsumer = new PublishTaskBatchConsumer(cmsStaticizeService, redisTemplate,
+                    properties.getStream(), consumer);
+            batchConsumers.add(batchConsumer);
+            Thread thread = new Thread(batchConsumer, properties.getPool().getThreadNamePrefix() + "CONSUMER-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * 启动时按配置清理消息队列并创建消费者组
+     */
+    private void initStream() {
+        if (properties.isClearOnStart()) {
+            redisTemplate.delete(PublishStreamName);
+        }
+        try {
+            redisTemplate.opsForStream().createGroup(PublishStreamName, PublishConsumerGroup);
+        } catch (Exception e) {
+            log.info("消费者组:{} 已存在", PublishConsumerGroup);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stopBatchConsumers() {
+        batchConsumers.forEach(PublishTaskBatchConsumer::stop);
+    }
+
     @Bean
     ThreadPoolTaskExecutor cmsPublishThreadPoolTaskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -32,6 +32,7 @@ public interface ICatalogService extends IService<CmsCatalog> {
 	
 	/**
 	 * 根据栏目ID查找栏目数据
+	 * <p>返回本地缓存共享对象，不可修改，需要修改时使用getById</p>
 	 * 
 	 * @param catalogId
 	 * @return
@@ -40,6 +41,7 @@ public interface ICatalogService extends IService<CmsCatalog> {
 
 	/**
 	 * 根据栏目别名查找栏目数据
+	 * <p>返回本地缓存共享对象，不可修改，需要修改时使用getById</p>
 	 * 
 	 * @param siteId
 	 * @param catalogAlias
@@ -45,6 +45,7 @@ public interface ISiteService extends IService<CmsSite> {
 
 	/**
 	 * 获取站点数据
+	 * <p>返回本地缓存共享对象，不可修改，需要修改时使用getById</p>
 	 * 
 	 * @param siteId
 	 * @return
@@ -23,7 +23,7 @@ import com.chestnut.common.async.AsyncTask;
 import com.chestnut.common.async.AsyncTaskManager;
 import com.chestnut.common.domain.TreeNode;
 import com.chestnut.common.exception.CommonErrorCode;
-import com.chestnut.common.redis.RedisCache;
+import com.chestnut.common.redis.TwoLevelCache;
 import com.chestnut.common.security.domain.LoginUser;
 import com.chestnut.common.staticize.core.TemplateContext;
 import com.chestnut.common.utils.*;
@@ -76,7 +76,7 @@ public class CatalogServiceImpl extends ServiceImpl<CmsCatalogMapper, CmsCatalog
 
 	private final ISiteService siteService;
 
-	private final RedisCache redisCache;
+	private final TwoLevelCache twoLevelCache;
 
 	private final RedissonClient redissonClient;
 
@@ -91,14 +91,7 @@ public class CatalogServiceImpl extends ServiceImpl<CmsCatalogMapper, CmsCatalog
 		if (!IdUtils.validate(catalogId)) {
 			return null;
 		}
-		CmsCatalog catalog = this.redisCache.getCacheObject(CACHE_PREFIX_ID + catalogId);
-		if (Objects.isNull(catalog)) {
-			catalog = this.getById(catalogId);
-			if (Objects.nonNull(catalog)) {
-				this.setCatalogCache(catalog);
-			}
-		}
-		return catalog;
+		return this.twoLevelCache.getCacheObject(CACHE_PREFIX_ID, String.valueOf(catalogId), () -> this.getById(catalogId));
 	}
 
 	@Override
@@ -107,14 +100,8 @@ public class CatalogServiceImpl extends ServiceImpl<CmsCatalogMapper, CmsCatalog
 			return null;
 		}
 		Assert.notNull(catalogAlias, () -> CommonErrorCode.NOT_EMPTY.exception("CatalogAlias: " + catalogAlias));
-		CmsCatalog catalog = this.redisCache.getCacheObject(CACHE_PREFIX_ALIAS + siteId + ":" + catalogAlias);
-		if (Objects.isNull(catalog)) {
-			catalog = this.lambdaQuery().eq(CmsCatalog::getSiteId, siteId).eq(CmsCatalog::getAlias, catalogAlias).one();
-			if (Objects.nonNull(catalog)) {
-				this.setCatalogCache(catalog);
-			}
-		}
-		return catalog;
+		return this.twoLevelCache.getCacheObject(CACHE_PREFIX_ALIAS, siteId + ":" + catalogAlias, () ->
+				this.lambdaQuery().eq(CmsCatalog::getSiteId, siteId).eq(CmsCatalog::getAlias, catalogAlias).one());
 	}
 
 	@Override
@@ -422,18 +409,13 @@ public class CatalogServiceImpl extends ServiceImpl<CmsCatalogMapper, CmsCatalog
 
 	@Override
 	public void clearCache(CmsCatalog catalog) {
-		this.redisCache.deleteObject(CACHE_PREFIX_ID + catalog.getCatalogId());
-		this.redisCache.deleteObject(CACHE_PREFIX_ALIAS + catalog.getSiteId() + ":" + catalog.getAlias());
-	}
-
-	private void setCatalogCache(CmsCatalog catalog) {
-		this.redisCache.setCacheObject(CACHE_PREFIX_ID + catalog.getCatalogId(), catalog);
-		this.redisCache.setCacheObject(CACHE_PREFIX_ALIAS + catalog.getSiteId() + ":" + catalog.getAlias(), catalog);
+		this.twoLevelCache.deleteObject(CACHE_PREFIX_ID, String.valueOf(catalog.getCatalogId()));
+		this.twoLevelCache.deleteObject(CACHE_PREFIX_ALIAS, catalog.getSiteId() + ":" + catalog.getAlias());
 	}
 
 	@Override
 	public void changeVisible(Long catalogId, String visible) {
-		CmsCatalog catalog = this.getCatalog(catalogId);
+		CmsCatalog catalog = this.getById(catalogId);
 		if (StringUtils.equals(visible, catalog.getVisibleFlag())) {
 			return;
 		}
@@ -540,7 +522,7 @@ public class CatalogServiceImpl extends ServiceImpl<CmsCatalogMapper, CmsCatalog
 
 	@Override
 	public void saveCatalogExtends(Long catalogId, Map<String, String> configs, String operator) {
-		CmsCatalog catalog = this.getCatalog(catalogId);
+		CmsCatalog catalog = this.getById(catalogId);
 		ConfigPropertyUtils.filterConfigProps(configs, catalog.getConfigProps(), IProperty.UseType.Catalog);
 
 		catalog.setConfigProps(configs);
@@ -15,26 +15,32 @@
  */
 package com.chestnut.contentcore.service.impl;
 
-import com.chestnut.common.redis.RedisCache;
 import com.chestnut.common.utils.IdUtils;
 import com.chestnut.contentcore.domain.CmsContent;
 import com.chestnut.contentcore.domain.vo.ContentDynamicDataVO;
+import com.chestnut.contentcore.mapper.CmsContentMapper;
 import com.chestnut.contentcore.service.IContentService;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.*;
 
 /**
  * 内容动态数据服务类
  *
+ * <p>
+ * 每个内容的动态数据保存在独立的Redis Hash中，计数变更使用HINCRBY原子累加，无需加锁。
+ * 变更的内容ID记录在Redis Set中，定时批量更新到数据库，多实例部署时由任一实例更新均可。
+ * </p>
+ *
  * @author 兮玥
  * @email 190785909@qq.com
  */
@@ -44,122 +50,202 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ContentDynamicDataService {
 
     /**
-     * 内容浏览次数缓存KEY
+     * 内容动态数据缓存KEY前缀，Hash结构
      */
-    private static final String CONTENT_DYNAMIC_DATA_CACHE = "cms:content:dynamic";
+    private static final String CONTENT_DYNAMIC_DATA_CACHE = "cms:content:dynamic:";
 
-    private final IContentService contentService;
+    /**
+     * 有变更待更新到数据库的内容ID集合
+     */
+    private static final String CONTENT_DYNAMIC_DATA_CHANGES = "cms:content:dynamic-changes";
+
+    private static final String FIELD_FAVORITES = "favorites";
+
+    private static final String FIELD_LIKES = "likes";
+
+    private static final String FIELD_COMMENTS = "comments";
 
-    private final RedisCache redisCache;
+    private static final String FIELD_VIEWS = "views";
 
-    private final RedissonClient redissonClient;
+    private static final String FIELD_CONTRIBUTOR = "contributorId";
 
-    private static final ConcurrentHashMap<Long, ContentDynamicDataVO> dynamicUpdates = new ConcurrentHashMap<>();
+    private static final List<Object> FIELDS = List.of(FIELD_FAVORITES, FIELD_LIKES, FIELD_COMMENTS, FIELD_VIEWS,
+            FIELD_CONTRIBUTOR);
+
+    /**
+     * 批量更新数据库数量
+     */
+    private static final int SAVE_BATCH_SIZE = 500;
+
+    /**
+     * 缓存存在时原子累加并记录变更，缓存不存在返回null由调用方初始化后重试
+     */
+    private static final RedisScript<Long> INCREASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('exists', KEYS[1]) == 0 then
+                return nil
+            end
+            local value = redis.call('hincrby', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('sadd', KEYS[2], ARGV[3])
+            return value
+            """, Long.class);
+
+    /**
+     * 初始化缓存，所有字段在同一脚本中HSETNX，避免并发累加在初始化过程中创建出从0开始的字段
+     */
+    private static final RedisScript<Long> INIT_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #ARGV, 2 do
+                redis.call('hsetnx', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            return 1
+            """, Long.class);
+
+    private final IContentService contentService;
+
+    private final CmsContentMapper contentMapper;
+
+    private final StringRedisTemplate redisTemplate;
 
     public void increaseFavoriteCount(Long contentId) {
-        this.updateContentDynamicData(contentId, ContentDynamicDataVO.DynamicDataType.Favorite, true);
+        this.updateContentDynamicData(contentId, FIELD_FAVORITES, 1);
     }
 
     public void decreaseFavoriteCount(Long contentId) {
-        this.updateContentDynamicData(contentId, ContentDynamicDataVO.DynamicDataType.Favorite, false);
+        this.updateContentDynamicData(contentId, FIELD_FAVORITES, -1);
     }
 
     public void increaseCommentCount(Long contentId) {
-        this.updateContentDynamicData(contentId, ContentDynamicDataVO.DynamicDataType.Comment, true);
+        this.updateContentDynamicData(contentId, FIELD_COMMENTS, 1);
     }
 
     public void decreaseCommentCount(Long contentId) {
-        this.updateContentDynamicData(contentId, ContentDynamicDataVO.DynamicDataType.Comment, false);
+        this.updateContentDynamicData(contentId, FIELD_COMMENTS, -1);
     }
 
     public void increaseLikeCount(Long contentId) {
-        this.updateContentDynamicData(contentId, ContentDynamicDataVO.DynamicDataType.Like, true);
+        this.updateContentDynamicData(contentId, FIELD_LIKES, 1);
     }
 
     public void decreaseLikeCount(Long contentId) {
-        this.updateContentDynamicData(contentId, ContentDynamicDataVO.DynamicDataType.Like, false);
+        this.updateContentDynamicData(contentId, FIELD_LIKES, -1);
     }
 
     public void increaseViewCount(Long contentId) {
-        this.updateContentDynamicData(contentId, ContentDynamicDataVO.DynamicDataType.View, true);
+        this.updateContentDynamicData(contentId, FIELD_VIEWS, 1);
+    }
+
+    /**
+     * 批量增加内容浏览量，用于合并后的浏览量更新
+     *
+     * @param contentId 内容ID
+     * @param delta 增加数量
+     */
+    public void increaseViewCount(Long contentId, long delta) {
+        this.updateContentDynamicData(contentId, FIELD_VIEWS, delta);
     }
 
     public List<ContentDynamicDataVO> getContentDynamicDataList(List<String> contentIds) {
         if (contentIds.isEmpty()) {
             return List.of();
         }
-        List<ContentDynamicDataVO> values = new ArrayList<>(contentIds.size());
-        List<String> findContentIds = new ArrayList<>();
-        this.redisCache.getMultiCacheMapValue(CONTENT_DYNAMIC_DATA_CACHE, contentIds).forEach(o -> {
-            if (o != null) {
-                ContentDynamicDataVO vo = (ContentDynamicDataVO) o;
-                values.add(vo);
-                findContentIds.add(vo.getContentId().toString());
+        List<Object> results = this.redisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            public Object execute(@NotNull RedisOperations operations) {
+                contentIds.forEach(contentId -> operations.opsForHash().multiGet(CONTENT_DYNAMIC_DATA_CACHE + contentId, FIELDS));
+                return null;
             }
         });
-        contentIds.forEach(contentId -> {
-            if (!findContentIds.contains(contentId)) {
-                CmsContent content = this.contentService.dao().getById(contentId);
-                if (content != null) {
-                    ContentDynamicDataVO data = new ContentDynamicDataVO(content);
-                    this.redisCache.setCacheMapValue(CONTENT_DYNAMIC_DATA_CACHE, contentId, data);
-                    values.add(data);
-                }
+        List<ContentDynamicDataVO> values = new ArrayList<>(contentIds.size());
+        List<Long> findContentIds = new ArrayList<>();
+        for (int i = 0; i < contentIds.size(); i++) {
+            ContentDynamicDataVO vo = toContentDynamicData(Long.valueOf(contentIds.get(i)), (List<?>) results.get(i));
+            if (Objects.nonNull(vo)) {
+                values.add(vo);
+            } else {
+                findContentIds.add(Long.valueOf(contentIds.get(i)));
             }
-        });
+        }
+        if (!findContentIds.isEmpty()) {
+            this.contentService.dao().listByIds(findContentIds).forEach(content -> {
+                ContentDynamicDataVO data = new ContentDynamicDataVO(content);
+                this.initCache(data);
+                values.add(data);
+            });
+        }
         return values;
     }
 
     /**
      * 更新内容动态数据缓存
      *
-     * @param contentId
-     * @param type
-     * @return
+     * @param contentId 内容ID
+     * @param field 动态数据字段
+     * @param delta 变更数量
      */
-    private void updateContentDynamicData(Long contentId, ContentDynamicDataVO.DynamicDataType type, boolean increase) {
-        if (!IdUtils.validate(contentId)) {
+    private void updateContentDynamicData(Long contentId, String field, long delta) {
+        if (!IdUtils.validate(contentId) || delta == 0) {
             return;
         }
-        RLock lock = redissonClient.getLock("ContentView-" + contentId);
-        lock.lock();
-        try {
-            ContentDynamicDataVO data = this.redisCache.getCacheMapValue(CONTENT_DYNAMIC_DATA_CACHE, contentId.toString());
-            if (Objects.isNull(data)) {
-                CmsContent content = this.contentService.dao().getById(contentId);
-                if (Objects.isNull(content)) {
-                    return;
-                }
-                data = new ContentDynamicDataVO(content);
-            }
-            if (increase) {
-                data.increase(type);
-            } else {
-                data.decrease(type);
-            }
+        List<String> keys = List.of(CONTENT_DYNAMIC_DATA_CACHE + contentId, CONTENT_DYNAMIC_DATA_CHANGES);
+        Long value = this.redisTemplate.execute(INCREASE_SCRIPT, keys, field, String.valueOf(delta), contentId.toString());
+        if (Objects.nonNull(value)) {
+            return;
+        }
+        CmsContent content = this.contentService.dao().getById(contentId);
+        if (Objects.isNull(content)) {
+            return;
+        }
+        this.initCache(new ContentDynamicDataVO(content));
+        this.redisTemplate.execute(INCREASE_SCRIPT, keys, field, String.valueOf(delta), contentId.toString());
+    }
+
+    /**
+     * 初始化内容动态数据缓存，使用HSETNX避免覆盖并发初始化后已累加的数据
+     */
+    private void initCache(ContentDynamicDataVO data) {
+        String cacheKey = CONTENT_DYNAMIC_DATA_CACHE + data.getContentId();
+        this.redisTemplate.execute(INIT_SCRIPT, List.of(cacheKey),
+                FIELD_FAVORITES, String.valueOf(Objects.requireNonNullElse(data.getFavorites(), 0L)),
+                FIELD_LIKES, String.valueOf(Objects.requireNonNullElse(data.getLikes(), 0L)),
+                FIELD_COMMENTS, String.valueOf(Objects.requireNonNullElse(data.getComments(), 0L)),
+                FIELD_VIEWS, String.valueOf(Objects.requireNonNullElse(data.getViews(), 0L)),
+                FIELD_CONTRIBUTOR, String.valueOf(Objects.requireNonNullElse(data.getContributorId(), 0L)));
+    }
 
-            this.redisCache.setCacheMapValue(CONTENT_DYNAMIC_DATA_CACHE, contentId.toString(), data);
-            dynamicUpdates.put(contentId, data);
-        } finally {
-            lock.unlock();
+    private ContentDynamicDataVO toContentDynamicData(Long contentId, List<?> values) {
+        if (Objects.isNull(values) || values.stream().anyMatch(Objects::isNull)) {
+            return null;
         }
+        ContentDynamicDataVO vo = new ContentDynamicDataVO();
+        vo.setContentId(contentId);
+        vo.setFavorites(Long.valueOf(values.get(0).toString()));
+        vo.setLikes(Long.valueOf(values.get(1).toString()));
+        vo.setComments(Long.valueOf(values.get(2).toString()));
+        vo.setViews(Long.valueOf(values.get(3).toString()));
+        vo.setContributorId(Long.valueOf(values.get(4).toString()));
+        return vo;
     }
 
     /**
      * 每5分钟更新记录的动态数据缓存到数据库
      */
     public void saveDynamicDataToDB() {
-        dynamicUpdates.keys().asIterator().forEachRemaining(contentId -> {
-            ContentDynamicDataVO data = dynamicUpdates.remove(contentId);
-            if (data != null) {
-                this.contentService.dao().lambdaUpdate().set(CmsContent::getFavoriteCount, data.getFavorites())
-                        .set(CmsContent::getLikeCount, data.getLikes())
-                        .set(CmsContent::getCommentCount, data.getComments())
-                        .set(CmsContent::getViewCount, data.getViews())
-                        .eq(CmsContent::getContentId, data.getContentId())
-                        .update();
+        List<String> contentIds;
+        do {
+            contentIds = this.redisTemplate.opsForSet().pop(CONTENT_DYNAMIC_DATA_CHANGES, SAVE_BATCH_SIZE);
+            if (Objects.isNull(contentIds) || contentIds.isEmpty()) {
+                return;
             }
-        });
+            List<ContentDynamicDataVO> list = this.getContentDynamicDataList(contentIds);
+            if (!list.isEmpty()) {
+                try {
+                    this.contentMapper.updateDynamicDataBatch(list);
+                } catch (Exception e) {
+                    // 更新失败放回变更集合，下次重试
+                    this.redisTemplate.opsForSet().add(CONTENT_DYNAMIC_DATA_CHANGES, contentIds.toArray(String[]::new));
+                    throw e;
+                }
+            }
+        } while (contentIds.size() >= SAVE_BATCH_SIZE);
     }
 
     @PreDestroy
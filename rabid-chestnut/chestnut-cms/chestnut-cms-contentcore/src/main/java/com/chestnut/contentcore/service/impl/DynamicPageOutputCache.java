@@ -0,0 +1,244 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.contentcore.service.impl;
+
+import com.chestnut.common.redis.TwoLevelCache;
+import com.chestnut.common.utils.StringUtils;
+import com.chestnut.contentcore.config.properties.CMSDynamicPageProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 动态模板页面渲染结果缓存
+ *
+ * <p>
+ * 缓存键由页面、发布通道、会员登录状态及规范化后的白名单请求参数组成。
+ * 过期后的stale期内仅由一个请求重新渲染，其他请求直接返回旧结果；未命中时同一页面并发请求只渲染一次。
+ * 站点内容发布等变更时递增站点缓存版本，旧版本缓存直接失效，并通过二级缓存失效通知通道通知其他节点。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DynamicPageOutputCache {
+
+	/**
+	 * 集群失效通知类型
+	 */
+	private static final String INVALIDATE_OP = "DYNAMIC_PAGE";
+
+	private static final String ALL_SITES = "*";
+
+	private final CMSDynamicPageProperties properties;
+
+	private final TwoLevelCache twoLevelCache;
+
+	/**
+	 * 渲染中的页面 <cacheKey, future>
+	 */
+	private final Map<String, CompletableFuture<String>> renderings = new ConcurrentHashMap<>();
+
+	/**
+	 * 站点缓存版本 <siteId, generation>
+	 */
+	private final Map<Long, AtomicLong> siteGenerations = new ConcurrentHashMap<>();
+
+	private Cache<String, Entry> cache;
+
+	@PostConstruct
+	public void init() {
+		CMSDynamicPageProperties.Cache config = this.properties.getCache();
+		this.cache = Caffeine.newBuilder()
+				.maximumWeight(config.getMaxSize().toBytes())
+				.weigher((String key, Entry entry) -> (int) Math.min(Integer.MAX_VALUE,
+						2L * (key.length() + entry.html().length())))
+				.expireAfterWrite(config.getTtl().plus(config.getStaleTtl()))
+				.build();
+		this.twoLevelCache.subscribe(INVALIDATE_OP, target -> {
+			if (ALL_SITES.equals(target)) {
+				this.invalidateAllLocal();
+			} else {
+				this.invalidateLocal(Long.valueOf(target));
+			}
+		});
+	}
+
+	public boolean isEnable() {
+		return this.properties.getCache().isEnable();
+	}
+
+	/**
+	 * 生成缓存键，不可缓存时返回null
+	 *
+	 * @param siteId 站点ID
+	 * @param page 页面标识
+	 * @param publishPipeCode 发布通道编码
+	 * @param memberLogin 会员是否已登录
+	 * @param parameters 请求参数
+	 * @param allowedParam 参与缓存键计算的参数白名单
+	 */
+	public String getCacheKey(Long siteId, String page, String publishPipeCode, boolean memberLogin,
+							  Map<String, String> parameters, Predicate<String> allowedParam) {
+		if (!this.isEnable()) {
+			return null;
+		}
+		CMSDynamicPageProperties.Cache config = this.properties.getCache();
+		TreeMap<String, String> normalized = this.getCacheParameters(parameters, allowedParam);
+		StringBuilder key = new StringBuilder().append(siteId).append(":").append(page)
+				.append(":").append(publishPipeCode).append(":").append(memberLogin ? "M" : "G");
+		char separator = '?';
+		for (Map.Entry<String, String> e : normalized.entrySet()) {
+			key.append(separator).append(e.getKey()).append("=").append(e.getValue());
+			if (key.length() > config.getMaxKeyLength()) {
+				return null;
+			}
+			separator = '&';
+		}
+		return key.toString();
+	}
+
+	/**
+	 * 参与缓存键计算的请求参数，按名称排序，忽略空值及无关参数，不含站点、发布通道及预览参数
+	 * <p>
+	 * 可缓存页面渲染时只能使用此参数及站点、发布通道参数，否则不同请求会命中同一缓存
+	 *
+	 * @param parameters 请求参数
+	 * @param allowedParam 参与缓存键计算的参数白名单
+	 */
+	public TreeMap<String, String> getCacheParameters(Map<String, String> parameters, Predicate<String> allowedParam) {
+		CMSDynamicPageProperties.Cache config = this.properties.getCache();
+		TreeMap<String, String> normalized = new TreeMap<>();
+		if (Objects.nonNull(parameters)) {
+			parameters.forEach((name, value) -> {
+				if (StringUtils.isBlank(value) || config.getIgnoredParams().contains(name)
+						|| "sid".equals(name) || "pp".equals(name) || "preview".equals(name)
+						|| !allowedParam.test(name)) {
+					return;
+				}
+				normalized.put(name, value.trim());
+			});
+		}
+		return normalized;
+	}
+
+	/**
+	 * 获取页面渲染结果，未命中或已过期时调用renderer渲染
+	 *
+	 * @param siteId 站点ID
+	 * @param cacheKey 缓存键
+	 * @param renderer 页面渲染
+	 */
+	public String get(Long siteId, String cacheKey, Renderer renderer) throws Exception {
+		long generation = this.getGeneration(siteId);
+		Entry entry = this.cache.getIfPresent(cacheKey);
+		if (Objects.nonNull(entry) && entry.generation() == generation) {
+			if (System.currentTimeMillis() < entry.staleAt()) {
+				return entry.html();
+			}
+			// 已过期：其他请求正在重新渲染时直接返回旧结果
+			CompletableFuture<String> future = new CompletableFuture<>();
+			if (Objects.nonNull(this.renderings.putIfAbsent(cacheKey, future))) {
+				return entry.html();
+			}
+			return this.render(siteId, cacheKey, generation, future, renderer);
+		}
+		CompletableFuture<String> future = new CompletableFuture<>();
+		CompletableFuture<String> rendering = this.renderings.putIfAbsent(cacheKey, future);
+		if (Objects.isNull(rendering)) {
+			return this.render(siteId, cacheKey, generation, future, renderer);
+		}
+		// 等待同一页面的渲染结果，渲染失败或超时时自行渲染
+		try {
+			return rendering.get(this.properties.getCache().getRenderWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+		} catch (ExecutionException | TimeoutException e) {
+			return renderer.render();
+		}
+	}
+
+	private String render(Long siteId, String cacheKey, long generation, CompletableFuture<String> future,
+						  Renderer renderer) throws Exception {
+		try {
+			String html = renderer.render();
+			// 渲染期间站点有变更时不缓存
+			if (generation == this.getGeneration(siteId)) {
+				long staleAt = System.currentTimeMillis() + this.properties.getCache().getTtl().toMillis();
+				this.cache.put(cacheKey, new Entry(html, generation, staleAt));
+			}
+			future.complete(html);
+			return html;
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.renderings.remove(cacheKey, future);
+		}
+	}
+
+	private long getGeneration(Long siteId) {
+		AtomicLong generation = this.siteGenerations.get(siteId);
+		return Objects.isNull(generation) ? 0 : generation.get();
+	}
+
+	/**
+	 * 站点缓存失效
+	 *
+	 * @param siteId 站点ID
+	 */
+	public void invalidate(Long siteId) {
+		if (Objects.isNull(siteId)) {
+			return;
+		}
+		this.invalidateLocal(siteId);
+		this.twoLevelCache.broadcast(INVALIDATE_OP, siteId.toString());
+	}
+
+	public void invalidateAll() {
+		this.invalidateAllLocal();
+		this.twoLevelCache.broadcast(INVALIDATE_OP, ALL_SITES);
+	}
+
+	private void invalidateLocal(Long siteId) {
+		this.siteGenerations.computeIfAbsent(siteId, id -> new AtomicLong()).incrementAndGet();
+	}
+
+	private void invalidateAllLocal() {
+		this.siteGenerations.values().forEach(AtomicLong::incrementAndGet);
+		this.cache.invalidateAll();
+	}
+
+	@FunctionalInterface
+	public interface Renderer {
+
+		String render() throws Exception;
+	}
+
+	private record Entry(String html, long generation, long staleAt) {
+	}
+}
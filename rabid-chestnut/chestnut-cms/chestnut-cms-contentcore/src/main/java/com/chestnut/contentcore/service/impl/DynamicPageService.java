@@ -25,7 +25,7 @@ import com.chestnut.contentcore.service.ISiteService;
 import com.chestnut.contentcore.service.ITemplateService;
 import com.chestnut.contentcore.util.SiteUtils;
 import com.chestnut.contentcore.util.TemplateUtils;
-import jakarta.servlet.http.HttpServletRequest;
+import freemarker.template.TemplateException;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,9 +33,12 @@ import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 系统动态模板页面服务类
@@ -58,6 +61,8 @@ public class DynamicPageService {
 
     private final StaticizeService staticizeService;
 
+    private final DynamicPageOutputCache outputCache;
+
     private IDynamicPageType getDynamicPageType(String type) {
         return dynamicPageTypeMap.get(IDynamicPageType.BEAN_PREFIX + type);
     }
@@ -74,33 +79,56 @@ public class DynamicPageService {
             return;
         }
         IDynamicPageType dpt = this.getDynamicPageType(dynamicPageType);
-        String template = this.publishPipeService.getPublishPipePropValue(dpt.getPublishPipeKey(), publishPipeCode, site.getPublishPipeProps());
-        File templateFile = this.templateService.findTemplateFile(site, template, publishPipeCode);
-        if (Objects.isNull(templateFile) || !templateFile.exists()) {
-            this.catchException(SiteUtils.getSiteLink(site, publishPipeCode, preview), response, new RuntimeException("Template not found: " + template));
-            return;
-        }
         long s = System.currentTimeMillis();
         try {
             // 校验输入参数
             dpt.validate(parameters);
-            // 生成静态页面
-            // 模板ID = 通道:站点目录:模板文件名
-            String templateKey = SiteUtils.getTemplateKey(site, publishPipeCode, template);
-            TemplateContext templateContext = new TemplateContext(templateKey, preview, publishPipeCode);
-            // init template datamode
-            TemplateUtils.initGlobalVariables(site, templateContext);
-            // init templateType data to datamode
-            templateContext.getVariables().put(TemplateUtils.TemplateVariable_Request, parameters);
-            dpt.initTemplateData(parameters, templateContext);
-            // staticize
-            this.staticizeService.process(templateContext, response.getWriter());
+            String cacheKey = null;
+            Map<String, String> renderParameters = parameters;
+            if (!preview && dpt.isOutputCacheable()) {
+                Set<String> allowedParams = dpt.getRequestArgs().stream()
+                        .map(IDynamicPageType.RequestArg::name).collect(Collectors.toSet());
+                cacheKey = this.outputCache.getCacheKey(siteId, "type:" + dpt.getType(), publishPipeCode,
+                        false, parameters, allowedParams::contains);
+                if (Objects.nonNull(cacheKey)) {
+                    // 缓存页面只使用参与缓存键计算的参数渲染
+                    renderParameters = this.outputCache.getCacheParameters(parameters, allowedParams::contains);
+                    renderParameters.put("sid", siteId.toString());
+                    renderParameters.put("pp", publishPipeCode);
+                }
+            }
+            Map<String, String> finalRenderParameters = renderParameters;
+            DynamicPageOutputCache.Renderer renderer = () -> this.renderDynamicPage(dpt, site, publishPipeCode, preview, finalRenderParameters);
+            String html = Objects.isNull(cacheKey) ? renderer.render() : this.outputCache.get(siteId, cacheKey, renderer);
+            response.getWriter().write(html);
             log.debug("动态模板解析，耗时：{} ms", System.currentTimeMillis() - s);
         } catch (Exception e) {
             this.catchException(SiteUtils.getSiteLink(site, publishPipeCode, preview), response, e);
         }
     }
 
+    private String renderDynamicPage(IDynamicPageType dpt, CmsSite site, String publishPipeCode, Boolean preview,
+                                     Map<String, String> parameters) throws TemplateException, IOException {
+        String template = this.publishPipeService.getPublishPipePropValue(dpt.getPublishPipeKey(), publishPipeCode, site.getPublishPipeProps());
+        File templateFile = this.templateService.findTemplateFile(site, template, publishPipeCode);
+        if (Objects.isNull(templateFile) || !templateFile.exists()) {
+            throw new RuntimeException("Template not found: " + template);
+        }
+        // 生成静态页面
+        // 模板ID = 通道:站点目录:模板文件名
+        String templateKey = SiteUtils.getTemplateKey(site, publishPipeCode, template);
+        TemplateContext templateContext = new TemplateContext(templateKey, preview, publishPipeCode);
+        // init template datamode
+        TemplateUtils.initGlobalVariables(site, templateContext);
+        // init templateType data to datamode
+        templateContext.getVariables().put(TemplateUtils.TemplateVariable_Request, parameters);
+        dpt.initTemplateData(parameters, templateContext);
+        // staticize
+        StringWriter writer = new StringWriter();
+        this.staticizeService.process(templateContext, writer);
+        return writer.toString();
+    }
+
     private void catchException(String redirectLink, HttpServletResponse response, Exception e) throws IOException {
         if (log.isDebugEnabled()) {
             e.printStackTrace(response.getWriter());
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.contentcore.service.impl;
+
+import com.chestnut.common.storage.*;
+import com.chestnut.common.storage.exception.StorageErrorCode;
+import com.chestnut.common.storage.local.LocalFileStorageType;
+import com.chestnut.common.utils.Assert;
+import com.chestnut.common.utils.StringUtils;
+import com.chestnut.common.utils.file.ImageUtils;
+import com.chestnut.contentcore.config.properties.CMSImageProperties;
+import com.chestnut.contentcore.domain.CmsResource;
+import com.chestnut.contentcore.domain.CmsSite;
+import com.chestnut.contentcore.properties.FileStorageArgsProperty;
+import com.chestnut.contentcore.properties.FileStorageArgsProperty.FileStorageArgs;
+import com.chestnut.contentcore.properties.ThumbnailHeightProperty;
+import com.chestnut.contentcore.properties.ThumbnailWidthProperty;
+import com.chestnut.contentcore.service.ISiteService;
+import com.chestnut.contentcore.util.SiteUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.coobird.thumbnailator.Thumbnails;
+import net.coobird.thumbnailator.geometry.Positions;
+import org.apache.commons.lang3.ArrayUtils;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 图片衍生图（缩略图）服务
+ *
+ * <p>
+ * 缩略图路径由原图路径及尺寸确定（原图名_宽x高.后缀），模板函数请求缩略图时立即返回该路径，
+ * 缩略图不存在时提交到有界线程池后台生成，相同站点+缩略图路径的生成任务同一时间只执行一次。
+ * 线程池队列已满时返回false，调用方使用原图地址，不阻塞模板渲染。
+ * 缩略图通过资源所属存储方式（{@link IFileStorageType}）读写，不限于本地存储。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageDerivativeService {
+
+	/**
+	 * 支持生成缩略图的图片格式
+	 */
+	private static final String[] DERIVABLE_SUFFIX = { "jpg", "jpeg", "png", "gif", "bmp" };
+
+	private final CMSImageProperties properties;
+
+	private final ISiteService siteService;
+
+	private final Map<String, IFileStorageType> fileStorageTypes;
+
+	/**
+	 * 生成中的缩略图
+	 */
+	private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * 已确认存在的缩略图，命中时不再检查文件
+	 */
+	private Cache<String, Boolean> generatedKeys;
+
+	/**
+	 * 配置的预生成尺寸 [宽, 高]
+	 */
+	private List<int[]> presetSizes;
+
+	private ThreadPoolTaskExecutor executor;
+
+	@PostConstruct
+	public void init() {
+		this.generatedKeys = Caffeine.newBuilder()
+				.maximumSize(properties.getGeneratedCacheSize())
+				.expireAfterWrite(properties.getGeneratedCacheExpire())
+				.build();
+		this.presetSizes = new ArrayList<>();
+		for (String size : properties.getPresetSizes()) {
+			int[] wh = parseSize(size);
+			if (Objects.isNull(wh)) {
+				log.warn("Invalid image preset size: {}", size);
+			} else {
+				this.presetSizes.add(wh);
+			}
+		}
+
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix(properties.getPool().getThreadNamePrefix());
+		executor.setCorePoolSize(properties.getPool().getCoreSize());
+		executor.setMaxPoolSize(Math.max(properties.getPool().getCoreSize(), properties.getPool().getMaxSize()));
+		executor.setQueueCapacity(properties.getPool().getQueueCapacity());
+		executor.setKeepAliveSeconds((int) properties.getPool().getKeepAlive().getSeconds());
+		executor.setAllowCoreThreadTimeOut(properties.getPool().isAllowCoreThreadTimeout());
+		executor.setWaitForTasksToCompleteOnShutdown(properties.getShutdown().isAwaitTermination());
+		executor.setAwaitTerminationSeconds((int) properties.getShutdown().getAwaitTerminationPeriod().toSeconds());
+		executor.initialize();
+		this.executor = executor;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (Objects.nonNull(this.executor)) {
+			this.executor.shutdown();
+		}
+	}
+
+	/**
+	 * 是否支持生成缩略图
+	 *
+	 * @param path 图片路径
+	 */
+	public static boolean isDerivable(String path) {
+		return ArrayUtils.contains(DERIVABLE_SUFFIX, StringUtils.substringAfterLast(path, ".").toLowerCase());
+	}
+
+	/**
+	 * 请求图片缩略图，缩略图不存在时提交后台生成
+	 *
+	 * @param siteId 站点ID
+	 * @param storageType 图片存储方式
+	 * @param path 图片路径
+	 * @param width 缩略图宽度
+	 * @param height 缩略图高度
+	 * @param crop 是否缩放后居中裁剪
+	 * @return 缩略图已存在或已提交生成时返回true，否则应使用原图
+	 */
+	public boolean requestDerivative(long siteId, String storageType, String path, int width, int height, boolean crop) {
+		if (!isDerivable(path)) {
+			return false;
+		}
+		String destPath = ImageUtils.getThumbnailFileName(path, width, height);
+		String key = getKey(siteId, destPath);
+		if (Objects.nonNull(this.generatedKeys.getIfPresent(key))) {
+			return true;
+		}
+		if (LocalFileStorageType.TYPE.equals(storageType)) {
+			CmsSite site = this.siteService.getSite(siteId);
+			if (Files.exists(Path.of(SiteUtils.getSiteResourceRoot(site) + destPath))) {
+				this.generatedKeys.put(key, Boolean.TRUE);
+				return true;
+			}
+		}
+		return this.submit(key, () -> {
+			CmsSite site = this.siteService.getSite(siteId);
+			StorageTarget target = this.getStorageTarget(site, storageType);
+			StorageExistArgs existArgs = StorageExistArgs.builder().endpoint(target.endpoint())
+					.accessKey(target.accessKey()).accessSecret(target.accessSecret())
+					.bucket(target.bucket()).path(destPath).build();
+			if (target.storageType().exists(existArgs)) {
+				return;
+			}
+			StorageReadArgs readArgs = StorageReadArgs.builder().endpoint(target.endpoint())
+					.accessKey(target.accessKey()).accessSecret(target.accessSecret())
+					.bucket(target.bucket()).path(path).build();
+			byte[] bytes;
+			try (InputStream is = target.storageType().read(readArgs)) {
+				bytes = resize(is, path, width, height, crop);
+			}
+			this.write(target, destPath, bytes);
+		});
+	}
+
+	/**
+	 * 图片资源写入存储后预生成缩略图，包括站点默认缩略图尺寸及配置的预生成尺寸，已存在的缩略图会被覆盖
+	 *
+	 * @param site 站点
+	 * @param resource 图片资源，需已设置存储方式
+	 * @param bytes 写入存储的图片数据
+	 */
+	public void generatePresets(CmsSite site, CmsResource resource, byte[] bytes) {
+		if (!isDerivable(resource.getPath())) {
+			return;
+		}
+		this.evict(site.getSiteId(), resource.getPath());
+		List<int[]> sizes = new ArrayList<>(this.presetSizes);
+		int w = ThumbnailWidthProperty.getValue(site.getConfigProps());
+		int h = ThumbnailHeightProperty.getValue(site.getConfigProps());
+		if (w > 0 && h > 0) {
+			sizes.add(new int[] { w, h });
+		}
+		for (int[] size : sizes) {
+			String destPath = ImageUtils.getThumbnailFileName(resource.getPath(), size[0], size[1]);
+			boolean submitted = this.submit(getKey(site.getSiteId(), destPath), () -> {
+				StorageTarget target = this.getStorageTarget(site, resource.getStorageType());
+				byte[] thumbnail = resize(new ByteArrayInputStream(bytes), resource.getPath(), size[0], size[1], false);
+				this.write(target, destPath, thumbnail);
+			});
+			if (!submitted) {
+				log.warn("Image derivative queue is full, skip preset: {}", destPath);
+			}
+		}
+	}
+
+	/**
+	 * 清除图片缩略图的已生成记录
+	 *
+	 * @param siteId 站点ID
+	 * @param path 原图路径
+	 */
+	public void evict(long siteId, String path) {
+		String prefix = getKey(siteId, StringUtils.substringBeforeLast(path, ".") + "_");
+		this.generatedKeys.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+	}
+
+	private boolean submit(String key, GenerateTask task) {
+		if (!this.pendingKeys.add(key)) {
+			return true; // 相同缩略图生成中
+		}
+		try {
+			this.executor.execute(() -> {
+				try {
+					task.run();
+					this.generatedKeys.put(key, Boolean.TRUE);
+				} catch (Exception e) {
+					log.warn("Generate image derivative failed: " + key, e);
+				} finally {
+					this.pendingKeys.remove(key);
+				}
+			});
+			return true;
+		} catch (TaskRejectedException e) {
+			this.pendingKeys.remove(key);
+			return false;
+		}
+	}
+
+	private void write(StorageTarget target, String path, byte[] bytes) {
+		StorageWriteArgs writeArgs = StorageWriteArgs.builder().endpoint(target.endpoint())
+				.accessKey(target.accessKey()).accessSecret(target.accessSecret())
+				.bucket(target.bucket()).path(path)
+				.inputStream(new ByteArrayInputStream(bytes)).length((long) bytes.length).build();
+		target.storageType().write(writeArgs);
+	}
+
+	private StorageTarget getStorageTarget(CmsSite site, String storageType) {
+		String type = StringUtils.isEmpty(storageType) ? LocalFileStorageType.TYPE : storageType;
+		IFileStorageType fst = this.fileStorageTypes.get(IFileStorageType.BEAN_NAME_PREIFX + type);
+		Assert.notNull(fst, () -> StorageErrorCode.UNSUPPORTED_STORAGE_TYPE.exception(type));
+		if (LocalFileStorageType.TYPE.equals(type)) {
+			return new StorageTarget(fst, null, null, null, SiteUtils.getSiteResourceRoot(site));
+		}
+		FileStorageArgs args = FileStorageArgsProperty.getValue(site.getConfigProps());
+		return new StorageTarget(fst, args.getEndpoint(), args.getAccessKey(), args.getAccessSecret(), args.getBucket());
+	}
+
+	private static byte[] resize(InputStream is, String path, int width, int height, boolean crop) throws IOException {
+		Thumbnails.Builder<? extends InputStream> builder = Thumbnails.of(is).size(width, height);
+		if (crop) {
+			builder.crop(Positions.CENTER);
+		}
+		try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+			builder.outputFormat(StringUtils.substringAfterLast(path, ".")).toOutputStream(os);
+			return os.toByteArray();
+		}
+	}
+
+	private static int[] parseSize(String size) {
+		String[] arr = StringUtils.split(StringUtils.lowerCase(StringUtils.trim(size)), "x");
+		if (Objects.isNull(arr) || arr.length != 2) {
+			return null;
+		}
+		try {
+			int w = Integer.parseInt(arr[0].trim());
+			int h = Integer.parseInt(arr[1].trim());
+			return w > 0 && h > 0 ? new int[] { w, h } : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static String getKey(long siteId, String destPath) {
+		return siteId + ":" + destPath;
+	}
+
+	@FunctionalInterface
+	private interface GenerateTask {
+
+		void run() throws Exception;
+	}
+
+	private record StorageTarget(IFileStorageType storageType, String endpoint, String accessKey,
+								 String accessSecret, String bucket) {
+	}
+}
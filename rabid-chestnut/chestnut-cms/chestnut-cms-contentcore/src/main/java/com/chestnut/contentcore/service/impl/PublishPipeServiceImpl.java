@@ -144,7 +144,7 @@ public class PublishPipeServiceImpl extends ServiceImpl<CmsPublishPipeMapper, Cm
 		this.save(publishPipe);
 
 		// 创建发布通道目录
-		CmsSite site = this.siteService.getSite(publishPipe.getSiteId());
+		CmsSite site = this.siteService.getById(publishPipe.getSiteId());
 		String siteRoot = SiteUtils.getSiteRoot(site, publishPipe.getCode());
 		FileExUtils.mkdirs(siteRoot + "js"); // js文件目录
 		FileExUtils.mkdirs(siteRoot + "css"); // css文件目录
@@ -37,6 +37,7 @@ import com.chestnut.contentcore.enums.ContentCopyType;
 import com.chestnut.contentcore.exception.ContentCoreErrorCode;
 import com.chestnut.contentcore.listener.event.AfterContentPublishEvent;
 import com.chestnut.contentcore.publish.IPublishStrategy;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.publish.staticize.CatalogStaticizeType;
 import com.chestnut.contentcore.publish.staticize.ContentStaticizeType;
 import com.chestnut.contentcore.publish.staticize.SiteStaticizeType;
@@ -84,6 +85,8 @@ public class PublishServiceImpl implements IPublishService, ApplicationContextAw
 
 	private final IPublishStrategy publishStrategy;
 
+	private final PublishDependencyService publishDependencyService;
+
 	private ApplicationContext applicationContext;
 
 	@Override
@@ -132,40 +135,8 @@ public class PublishServiceImpl implements IPublishService, ApplicationContextAw
 
 				List<CmsCatalog> catalogList = catalogService
 						.list(new LambdaQueryWrapper<CmsCatalog>().eq(CmsCatalog::getSiteId, site.getSiteId()));
-				for (CmsCatalog catalog : catalogList) {
-					// 先发布内容
-					int pageSize = 500;
-					long lastContentId = 0L;
-					long total = contentService.dao().lambdaQuery().eq(CmsContent::getCatalogId, catalog.getCatalogId())
-							.eq(CmsContent::getStatus, contentStatus)
-							.ne(CmsContent::getLinkFlag, YesOrNo.YES)
-							.count();
-					int count = 1;
-					while (true) {
-						LambdaQueryWrapper<CmsContent> q = new LambdaQueryWrapper<CmsContent>()
-								.eq(CmsContent::getCatalogId, catalog.getCatalogId())
-								.eq(CmsContent::getStatus, contentStatus)
-								.ne(CmsContent::getLinkFlag, YesOrNo.YES)
-								.gt(CmsContent::getContentId, lastContentId)
-								.orderByAsc(CmsContent::getContentId);
-						Page<CmsContent> page = contentService.dao().page(new Page<>(0, pageSize, false), q);
-						for (CmsContent xContent : page.getRecords()) {
-							this.setProgressInfo((int) (count * 100 / total),
-									"正在发布内容：" + catalog.getName() + "[" + count + " / " + total + "]");
-							lastContentId = xContent.getContentId();
-							IContentType contentType = ContentCoreUtils.getContentType(xContent.getContentType());
-							IContent<?> content = contentType.newContent();
-							content.setContentEntity(xContent);
-							content.setOperator(operator);
-							content.publish();
-							this.checkInterrupt();
-							count++;
-						}
-						if (page.getRecords().size() < pageSize) {
-							break;
-						}
-					}
-				}
+				// 先发布内容
+				publishCatalogContents(this, catalogList, contentStatus, operator, 500);
 				// 发布栏目
 				for (int i = 0; i < catalogList.size(); i++) {
 					CmsCatalog catalog = catalogList.get(i);
@@ -186,6 +157,63 @@ public class PublishServiceImpl implements IPublishService, ApplicationContextAw
 		return asyncTask;
 	}
 
+	/**
+	 * 发布栏目下指定状态的内容
+	 *
+	 * <p>
+	 * 按内容ID分批读取，在发布任务线程中逐条发布，进度汇总到发布任务。
+	 * 内容发布只更新状态并提交静态化消息，页面渲染由发布策略的消费者并发执行。
+	 * </p>
+	 *
+	 * @param task 发布任务
+	 * @param catalogs 栏目列表
+	 * @param contentStatus 内容状态
+	 * @param operator 操作人
+	 * @param pageSize 每批读取内容数
+	 */
+	private void publishCatalogContents(AsyncTask task, List<CmsCatalog> catalogs, String contentStatus,
+										LoginUser operator, int pageSize) throws InterruptedException {
+		if (catalogs.isEmpty()) {
+			return;
+		}
+		List<Long> catalogIds = catalogs.stream().map(CmsCatalog::getCatalogId).toList();
+		long total = contentService.dao().lambdaQuery().in(CmsContent::getCatalogId, catalogIds)
+				.eq(CmsContent::getStatus, contentStatus)
+				.ne(CmsContent::getLinkFlag, YesOrNo.YES)
+				.count();
+		if (total == 0) {
+			return;
+		}
+		long count = 0;
+		for (CmsCatalog catalog : catalogs) {
+			long lastContentId = 0L;
+			while (true) {
+				LambdaQueryWrapper<CmsContent> q = new LambdaQueryWrapper<CmsContent>()
+						.eq(CmsContent::getCatalogId, catalog.getCatalogId())
+						.eq(CmsContent::getStatus, contentStatus)
+						.ne(CmsContent::getLinkFlag, YesOrNo.YES)
+						.gt(CmsContent::getContentId, lastContentId)
+						.orderByAsc(CmsContent::getContentId);
+				List<CmsContent> records = contentService.dao().page(new Page<>(0, pageSize, false), q).getRecords();
+				for (CmsContent xContent : records) {
+					IContentType contentType = ContentCoreUtils.getContentType(xContent.getContentType());
+					IContent<?> content = contentType.newContent();
+					content.setContentEntity(xContent);
+					content.setOperator(operator);
+					content.publish();
+					count++;
+					task.setProgressInfo((int) (count * 100 / total),
+							"正在发布内容：" + catalog.getName() + "[" + count + " / " + total + "]");
+					task.checkInterrupt(); // 允许中断
+				}
+				if (records.size() < pageSize) {
+					break;
+				}
+				lastContentId = records.get(records.size() - 1).getContentId();
+			}
+		}
+	}
+
 	private void asyncPublishSite(CmsSite site) {
 		publishStrategy.publish(SiteStaticizeType.TYPE, site.getSiteId().toString());
 	}
@@ -263,39 +291,7 @@ public class PublishServiceImpl implements IPublishService, ApplicationContextAw
 				}
 				// 先发布内容
 				if (publishDetail) {
-					for (CmsCatalog catalog : catalogs) {
-						int pageSize = 100;
-						long lastContentId = 0L;
-						long total = contentService.dao().lambdaQuery().eq(CmsContent::getCatalogId, catalog.getCatalogId())
-								.eq(CmsContent::getStatus, publishStatus)
-								.ne(CmsContent::getLinkFlag, YesOrNo.YES)
-								.count();
-						int count = 1;
-						while (true) {
-							LambdaQueryWrapper<CmsContent> q = new LambdaQueryWrapper<CmsContent>()
-									.eq(CmsContent::getCatalogId, catalog.getCatalogId())
-									.eq(CmsContent::getStatus, publishStatus)
-									.ne(CmsContent::getLinkFlag, YesOrNo.YES)
-									.gt(CmsContent::getContentId, lastContentId)
-									.orderByAsc(CmsContent::getContentId);
-							Page<CmsContent> page = contentService.dao().page(new Page<>(0, pageSize, false), q);
-							for (CmsContent xContent : page.getRecords()) {
-								this.setProgressInfo((int) (count * 100 / total),
-										"正在发布内容：" + catalog.getName() + "[" + count + " / " + total + "]");
-								lastContentId = xContent.getContentId();
-								IContentType contentType = ContentCoreUtils.getContentType(xContent.getContentType());
-								IContent<?> content = contentType.newContent();
-								content.setContentEntity(xContent);
-								content.setOperator(operator);
-								content.publish();
-								this.checkInterrupt();
-								count++;
-							}
-							if (page.getRecords().size() < pageSize) {
-								break;
-							}
-						}
-					}
+					publishCatalogContents(this, catalogs, publishStatus, operator, 100);
 				}
 				// 发布栏目
 				for (int i = 0; i < catalogs.size(); i++) {
@@ -418,13 +414,41 @@ public class PublishServiceImpl implements IPublishService, ApplicationContextAw
 					parentId = parent.getParentId();
 				}
 			});
-			CmsSite site = siteService.getSite(list.get(0).getSiteId());
-			catalogMap.values().forEach(this::asyncPublishCatalog);
+			// 依赖了变更内容的页面，未记录过依赖关系的页面按原逻辑发布
+			Set<String> dependencies = new HashSet<>();
+			list.forEach(c -> dependencies.addAll(PublishDependencyService.getContentDependencies(c)));
+			Set<String> dependentUnits = publishDependencyService.getDependentUnits(dependencies);
+			// 包含模板内容失效，清理缓存后由引用页面重新生成
+			dependentUnits.stream().filter(PublishDependencyService::isInclude)
+					.forEach(unit -> templateService.clearTemplateStaticContentCache(PublishDependencyService.getIncludeCacheKey(unit)));
+			List<CmsCatalog> publishCatalogs = new ArrayList<>();
+			catalogMap.values().stream()
+					.filter(catalog -> isDependentUnit(CatalogStaticizeType.TYPE, catalog.getCatalogId(), dependentUnits))
+					.forEach(publishCatalogs::add);
+			String catalogUnitPrefix = PublishDependencyService.unit(CatalogStaticizeType.TYPE, StringUtils.EMPTY);
+			dependentUnits.stream().filter(unit -> unit.startsWith(catalogUnitPrefix))
+					.map(unit -> Long.valueOf(unit.substring(catalogUnitPrefix.length())))
+					.filter(catalogId -> !catalogMap.containsKey(catalogId))
+					.map(catalogService::getCatalog)
+					.filter(Objects::nonNull)
+					.forEach(publishCatalogs::add);
+			List<String> catalogIds = publishCatalogs.stream()
+					.filter(catalog -> !CatalogType_Link.ID.equals(catalog.getCatalogType())) // 链接栏目直接跳过
+					.map(catalog -> catalog.getCatalogId().toString()).toList();
+			publishStrategy.publish(CatalogStaticizeType.TYPE, catalogIds);
 			// 发布站点首页
-			asyncPublishSite(site);
+			CmsSite site = siteService.getSite(list.get(0).getSiteId());
+			if (isDependentUnit(SiteStaticizeType.TYPE, site.getSiteId(), dependentUnits)) {
+				asyncPublishSite(site);
+			}
 		});
 	}
 
+	private boolean isDependentUnit(String staticizeType, Long dataId, Set<String> dependentUnits) {
+		String unit = PublishDependencyService.unit(staticizeType, dataId);
+		return dependentUnits.contains(unit) || !publishDependencyService.isTracked(unit);
+	}
+
 	@Override
 	public void asyncPublishContent(IContent<?> content) {
 		CmsCatalog catalog = this.catalogService.getCatalog(content.getCatalogId());
@@ -435,15 +459,18 @@ public class PublishServiceImpl implements IPublishService, ApplicationContextAw
 		if (publishPipeCodes.isEmpty()) {
 			return;
 		}
-		publishStrategy.publish(ContentStaticizeType.TYPE, content.getContentEntity().getContentId().toString());
+		List<String> contentIds = new ArrayList<>();
+		contentIds.add(content.getContentEntity().getContentId().toString());
 		// 关联内容静态化，映射的引用内容
 		LambdaQueryWrapper<CmsContent> q = new LambdaQueryWrapper<CmsContent>()
+				.select(CmsContent::getContentId)
 				.eq(CmsContent::getCopyId, content.getContentEntity().getContentId())
 				.eq(CmsContent::getCopyType, ContentCopyType.Mapping);
 		List<CmsContent> mappingContents = contentService.dao().list(q);
 		for (CmsContent mappingContent : mappingContents) {
-			publishStrategy.publish(ContentStaticizeType.TYPE, mappingContent.getContentId().toString());
+			contentIds.add(mappingContent.getContentId().toString());
 		}
+		publishStrategy.publish(ContentStaticizeType.TYPE, contentIds);
 	}
 
 	@Override
@@ -69,6 +69,8 @@ public class ResourceServiceImpl extends ServiceImpl<CmsResourceMapper, CmsResou
 
 	private final ISiteService siteService;
 
+	private final ImageDerivativeService imageDerivativeService;
+
 	@Override
 	public CmsResource downloadImageFromUrl(String url, long siteId, String operator) throws Exception {
 		if (!ServletUtils.isHttpUrl(url)) {
@@ -256,6 +258,10 @@ public class ResourceServiceImpl extends ServiceImpl<CmsResourceMapper, CmsResou
 		resource.setStorageType(fst.getType());
 		// 内部链接
 		resource.setInternalUrl(InternalDataType_Resource.getInternalUrl(resource));
+		// 后台预生成缩略图
+		if (ResourceType_Image.ID.equals(resourceType.getId())) {
+			this.imageDerivativeService.generatePresets(site, resource, bytes);
+		}
 	}
 
 	@Override
@@ -282,6 +288,7 @@ public class ResourceServiceImpl extends ServiceImpl<CmsResourceMapper, CmsResou
 				} catch (IOException e) {
 					log.error("Delete resource file failed: " + r.getPath());
 				}
+				this.imageDerivativeService.evict(r.getSiteId(), r.getPath());
 				// 删除数据库记录
 				this.removeById(r.getResourceId());
 			});
@@ -18,7 +18,7 @@ package com.chestnut.contentcore.service.impl;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chestnut.common.async.AsyncTaskManager;
 import com.chestnut.common.exception.CommonErrorCode;
-import com.chestnut.common.redis.RedisCache;
+import com.chestnut.common.redis.TwoLevelCache;
 import com.chestnut.common.security.domain.LoginUser;
 import com.chestnut.common.utils.*;
 import com.chestnut.common.utils.file.FileExUtils;
@@ -72,7 +72,7 @@ public class SiteServiceImpl extends ServiceImpl<CmsSiteMapper, CmsSite> impleme
 	/**
 	 * 缓存key前缀
 	 */
-	private static final String CACHE_PREFIX = CMSConfig.CachePrefix + "site:";
+	public static final String CACHE_PREFIX = CMSConfig.CachePrefix + "site:";
 
 	private final ApplicationContext applicationContext;
 
@@ -80,16 +80,12 @@ public class SiteServiceImpl extends ServiceImpl<CmsSiteMapper, CmsSite> impleme
 
 	private final Map<String, IPublishPipeProp> publishPipeProps;
 
-	private final RedisCache redisCache;
+	private final TwoLevelCache twoLevelCache;
 
 	@Override
 	public CmsSite getSite(Long siteId) {
-		CmsSite site = this.redisCache.getCacheObject(CACHE_PREFIX + siteId);
-		if (Objects.isNull(site)) {
-			site = this.getById(siteId);
-			Assert.notNull(site, () -> CommonErrorCode.DATA_NOT_FOUND_BY_ID.exception("siteId", siteId));
-			this.redisCache.setCacheObject(CACHE_PREFIX + siteId, site);
-		}
+		CmsSite site = this.twoLevelCache.getCacheObject(CACHE_PREFIX, String.valueOf(siteId), () -> this.getById(siteId));
+		Assert.notNull(site, () -> CommonErrorCode.DATA_NOT_FOUND_BY_ID.exception("siteId", siteId));
 		return site;
 	}
 
@@ -222,7 +218,7 @@ public class SiteServiceImpl extends ServiceImpl<CmsSiteMapper, CmsSite> impleme
 
 	@Override
 	public void saveSiteDefaultTemplate(SiteDefaultTemplateDTO dto) {
-		CmsSite site = this.getSite(dto.getSiteId());
+		CmsSite site = this.getById(dto.getSiteId());
 		List<PublishPipeProp> publishPipeProps = dto.getPublishPipeProps();
 		for (PublishPipeProp ppp : publishPipeProps) {
 			Map<String, Object> sitePublishPipeProps = site.getPublishPipeProps(ppp.getPipeCode());
@@ -246,6 +242,6 @@ public class SiteServiceImpl extends ServiceImpl<CmsSiteMapper, CmsSite> impleme
 
 	@Override
 	public void clearCache(long siteId) {
-		this.redisCache.deleteObject(CACHE_PREFIX + siteId);
+		this.twoLevelCache.deleteObject(CACHE_PREFIX, String.valueOf(siteId));
 	}
 }
@@ -75,6 +75,13 @@ public class SiteThemeService {
 
     private final List<ICoreDataHandler> contentCoreHandlers;
 
+    /**
+     * 导入站点主题
+     *
+     * @param site 站点数据，导入过程会修改此对象，需从数据库读取，不能传入缓存对象
+     * @param zipFile 主题文件
+     * @param operator 操作人
+     */
     public AsyncTask importSiteTheme(CmsSite site, final File zipFile, LoginUser operator) {
         // TODO 校验数据，必须无栏目、内容、页面部件等数据的站点才能导入
         AsyncTask asyncTask = new AsyncTask() {
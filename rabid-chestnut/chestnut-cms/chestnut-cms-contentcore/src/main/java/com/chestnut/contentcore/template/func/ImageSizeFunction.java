@@ -15,44 +15,36 @@
  */
 package com.chestnut.contentcore.template.func;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 
+import com.chestnut.common.storage.local.LocalFileStorageType;
 import com.chestnut.common.utils.ObjectUtils;
+import com.chestnut.common.utils.file.ImageUtils;
 import com.chestnut.contentcore.core.impl.InternalDataType_Resource;
+import com.chestnut.contentcore.service.impl.ImageDerivativeService;
 import freemarker.template.TemplateBooleanModel;
-import lombok.extern.slf4j.Slf4j;
-import net.coobird.thumbnailator.geometry.Positions;
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.collections4.MapUtils;
 import org.springframework.stereotype.Component;
 
 import com.chestnut.common.staticize.FreeMarkerUtils;
 import com.chestnut.common.staticize.core.TemplateContext;
 import com.chestnut.common.staticize.func.AbstractFunc;
-import com.chestnut.common.storage.local.LocalFileStorageType;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.core.InternalURL;
-import com.chestnut.contentcore.domain.CmsResource;
-import com.chestnut.contentcore.service.IResourceService;
-import com.chestnut.contentcore.service.ISiteService;
 import com.chestnut.contentcore.util.InternalUrlUtils;
-import com.chestnut.contentcore.util.SiteUtils;
 
 import freemarker.core.Environment;
 import freemarker.template.SimpleNumber;
 import freemarker.template.SimpleScalar;
 import freemarker.template.TemplateModelException;
 import lombok.RequiredArgsConstructor;
-import net.coobird.thumbnailator.Thumbnails;
 
 /**
  * Freemarker模板自定义函数：生成图片缩略图
+ *
+ * <p>直接返回缩略图地址，缩略图不存在时由{@link ImageDerivativeService}后台生成，生成队列已满时返回原图地址</p>
  */
-@Slf4j
 @Component
 @RequiredArgsConstructor
 public class ImageSizeFunction extends AbstractFunc {
@@ -61,9 +53,7 @@ public class ImageSizeFunction extends AbstractFunc {
 
 	private static final String DESC = "{FREEMARKER.FUNC.DESC." + FUNC_NAME + "}";
 
-	private final ISiteService siteService;
-
-	private final IResourceService resourceService;
+	private final ImageDerivativeService imageDerivativeService;
 
 	@Override
 	public String getFuncName() {
@@ -100,27 +90,11 @@ public class ImageSizeFunction extends AbstractFunc {
 		}
 		String actualUrl = InternalUrlUtils.getActualUrl(internalUrl, context.getPublishPipeCode(),
 				context.isPreview());
-		String siteResourceRoot = SiteUtils.getSiteResourceRoot(siteService.getSite(Long.valueOf(internalUrl.getParams().get("sid"))));
-		String destPath = StringUtils.substringBeforeLast(internalUrl.getPath(), ".") + "_" + width + "x" + height
-				+ "." + StringUtils.substringAfterLast(internalUrl.getPath(), ".");
-		if (Files.exists(Path.of(siteResourceRoot + destPath))) {
-			return StringUtils.substringBeforeLast(actualUrl, ".") + "_" + width + "x" + height + "."
-					+ StringUtils.substringAfterLast(actualUrl, ".");
-		}
-		try {
-			CmsResource resource = this.resourceService.getById(internalUrl.getId());
-			if (Objects.nonNull(resource) && LocalFileStorageType.TYPE.equals(resource.getStorageType())) {
-				Thumbnails.Builder<File> builder = Thumbnails.of(siteResourceRoot + resource.getPath())
-						.size(width, height);
-				if (crop) {
-					builder.crop(Positions.CENTER);
-				}
-				builder.toFile(siteResourceRoot + destPath);
-				actualUrl = StringUtils.substringBeforeLast(actualUrl, ".") + "_" + width + "x" + height + "."
-						+ StringUtils.substringAfterLast(actualUrl, ".");
-			}
-		} catch (IOException e) {
-			log.warn("Generate thumbnail failed: " + actualUrl, e);
+		long siteId = MapUtils.getLongValue(internalUrl.getParams(), InternalDataType_Resource.InternalUrl_Param_SiteId);
+		String storageType = MapUtils.getString(internalUrl.getParams(),
+				InternalDataType_Resource.InternalUrl_Param_StorageType, LocalFileStorageType.TYPE);
+		if (this.imageDerivativeService.requestDerivative(siteId, storageType, internalUrl.getPath(), width, height, crop)) {
+			return ImageUtils.getThumbnailFileName(actualUrl, width, height);
 		}
 		return actualUrl;
 	}
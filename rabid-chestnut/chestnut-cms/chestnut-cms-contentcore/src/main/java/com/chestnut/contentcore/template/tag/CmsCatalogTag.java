@@ -25,6 +25,7 @@ import com.chestnut.common.staticize.tag.TagAttr;
 import com.chestnut.common.staticize.tag.TagAttrOption;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.domain.CmsCatalog;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.service.ICatalogService;
 import com.chestnut.contentcore.template.exception.CatalogNotFoundException;
 import com.chestnut.contentcore.util.TemplateUtils;
@@ -95,6 +96,7 @@ public class CmsCatalogTag extends AbstractListTag {
 		q.orderByAsc(CmsCatalog::getSortFlag);
 
 		TemplateContext context = FreeMarkerUtils.getTemplateContext(env);
+		context.addDependency(PublishDependencyService.catalogOfSite(siteId));
 		Page<CmsCatalog> pageResult = this.catalogService.page(new Page<>(pageIndex, size, page), q);
 		pageResult.getRecords().forEach(c -> {
 			c.setLink(catalogService.getCatalogLink(c, 1, context.getPublishPipeCode(), context.isPreview()));
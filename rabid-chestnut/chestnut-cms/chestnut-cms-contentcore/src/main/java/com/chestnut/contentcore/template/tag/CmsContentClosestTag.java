@@ -28,6 +28,7 @@ import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.domain.CmsContent;
 import com.chestnut.contentcore.domain.dto.ContentDTO;
 import com.chestnut.contentcore.fixed.dict.ContentStatus;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.service.IContentService;
 import com.chestnut.contentcore.util.InternalUrlUtils;
 import freemarker.core.Environment;
@@ -83,6 +84,7 @@ public class CmsContentClosestTag extends AbstractListTag {
 			q.orderBy(true, isNext, CmsContent::getSortFlag);
 		}
 		TemplateContext context = FreeMarkerUtils.getTemplateContext(env);
+		context.addDependency(PublishDependencyService.contentOfCatalog(content.getCatalogId()));
 		Page<CmsContent> pageResult = this.contentService.dao().page(new Page<>(1, 1, false), q);
 		if (pageResult.getRecords().isEmpty()) {
 			return TagPageData.of(List.of(), 0);
@@ -26,6 +26,7 @@ import com.chestnut.contentcore.domain.CmsContent;
 import com.chestnut.contentcore.domain.CmsContentRela;
 import com.chestnut.contentcore.domain.dto.ContentDTO;
 import com.chestnut.contentcore.mapper.CmsContentRelaMapper;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.service.IContentService;
 import freemarker.core.Environment;
 import freemarker.template.TemplateException;
@@ -65,11 +66,13 @@ public class CmsContentRelaTag extends AbstractListTag {
 			throw new TemplateException("内容ID错误：" + contentId, env);
 		}
 		TemplateContext context = FreeMarkerUtils.getTemplateContext(env);
+		context.addDependency(PublishDependencyService.contentOf(contentId));
 		Page<CmsContentRela> pageResult = contentRelaMapper.selectPage(new Page<>(pageIndex, size, page),
 				new LambdaQueryWrapper<CmsContentRela>().eq(CmsContentRela::getContentId, contentId));
 		if (!pageResult.getRecords().isEmpty()) {
 			List<Long> contentIds = pageResult.getRecords().stream().map(CmsContentRela::getRelaContentId).toList();
 			List<CmsContent> contents = this.contentService.dao().lambdaQuery().in(CmsContent::getContentId, contentIds).list();
+			contentIds.forEach(id -> context.addDependency(PublishDependencyService.contentOf(id)));
 			List<ContentDTO> result = contents.stream().map(c -> {
 				ContentDTO dto = ContentDTO.newInstance(c);
 				dto.setLink(this.contentService.getContentLink(c, 1,
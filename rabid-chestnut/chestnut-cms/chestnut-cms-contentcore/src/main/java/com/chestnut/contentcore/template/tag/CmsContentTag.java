@@ -29,6 +29,7 @@ import com.chestnut.contentcore.domain.CmsContent;
 import com.chestnut.contentcore.domain.dto.ContentDTO;
 import com.chestnut.contentcore.fixed.dict.ContentAttribute;
 import com.chestnut.contentcore.fixed.dict.ContentStatus;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.service.ICatalogService;
 import com.chestnut.contentcore.service.IContentService;
 import com.chestnut.contentcore.template.exception.CatalogNotFoundException;
@@ -90,16 +91,22 @@ public class CmsContentTag extends AbstractListTag {
 		String condition = MapUtils.getString(attrs, TagAttr.AttrName_Condition);
 		String status = MapUtils.getString(attrs, "status", ContentStatus.PUBLISHED);
 
+		TemplateContext context = FreeMarkerUtils.getTemplateContext(env);
 		LambdaQueryWrapper<CmsContent> q = new LambdaQueryWrapper<>();
 		q.eq(CmsContent::getSiteId, siteId).eq(!"-1".equals(status), CmsContent::getStatus, ContentStatus.PUBLISHED);
-		if (Objects.nonNull(catalog)) {
+		if (Objects.nonNull(catalog) && !LevelTagAttr.isRoot(level)) {
 			if (LevelTagAttr.isCurrent(level)) {
 				q.eq(CmsContent::getCatalogId, catalog.getCatalogId());
+				context.addDependency(PublishDependencyService.contentOfCatalog(catalog.getCatalogId()));
 			} else if (LevelTagAttr.isChild(level)) {
 				q.likeRight(CmsContent::getCatalogAncestors, catalog.getAncestors() + CatalogUtils.ANCESTORS_SPLITER);
+				context.addDependency(PublishDependencyService.contentOfCatalogTree(catalog.getCatalogId()));
 			} else if (LevelTagAttr.isCurrentAndChild(level)) {
 				q.likeRight(CmsContent::getCatalogAncestors, catalog.getAncestors());
+				context.addDependency(PublishDependencyService.contentOfCatalogTree(catalog.getCatalogId()));
 			}
+		} else {
+			context.addDependency(PublishDependencyService.contentOfSite(siteId));
 		}
 		String hasAttribute = MapUtils.getString(attrs, "hasattribute");
 		if (StringUtils.isNotEmpty(hasAttribute)) {
@@ -126,7 +133,6 @@ public class CmsContentTag extends AbstractListTag {
 			q.orderByDesc(CmsContent::getSortFlag);
 		}
 
-		TemplateContext context = FreeMarkerUtils.getTemplateContext(env);
 		Page<CmsContent> pageResult = this.contentService.dao().page(new Page<>(pageIndex, size, page), q);
 		if (pageIndex > 1 & pageResult.getRecords().isEmpty()) {
 			throw new TemplateException("内容列表页码超出上限：" + pageIndex, env);
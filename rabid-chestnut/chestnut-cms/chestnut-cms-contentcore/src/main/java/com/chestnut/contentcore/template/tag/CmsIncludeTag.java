@@ -24,6 +24,7 @@ import com.chestnut.common.utils.Assert;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.domain.CmsSite;
 import com.chestnut.contentcore.properties.EnableSSIProperty;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.service.ISiteService;
 import com.chestnut.contentcore.service.ITemplateService;
 import com.chestnut.contentcore.util.SiteUtils;
@@ -41,10 +42,7 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -95,6 +93,8 @@ public class CmsIncludeTag extends AbstractTag {
 
 	private final ITemplateService templateService;
 
+	private final PublishDependencyService publishDependencyService;
+
 	@Override
 	public List<TagAttr> getTagAttrs() {
 		List<TagAttr> tagAttrs = new ArrayList<>();
@@ -146,7 +146,19 @@ public class CmsIncludeTag extends AbstractTag {
 					context.getPublishPipeCode(), includeTemplateKey);
 			String staticContent = cache ? templateService.getTemplateStaticContentCache(cacheKey) : null;
 			if (Objects.isNull(staticContent) || !new File(siteRoot + staticFilePath).exists()) {
-				staticContent = processTemplate(env, StringUtils.getPathParameterMap(file), includeTemplateKey);
+				// 缓存的包含模板单独记录依赖，命中缓存时页面只依赖包含模板
+				Set<String> dependencies = context.getDependencies();
+				if (cache) {
+					context.setDependencies(new HashSet<>());
+				}
+				try {
+					staticContent = processTemplate(env, StringUtils.getPathParameterMap(file), includeTemplateKey);
+					if (cache) {
+						this.publishDependencyService.record(PublishDependencyService.include(cacheKey), context.getDependencies());
+					}
+				} finally {
+					context.setDependencies(dependencies);
+				}
 				if (ssi) {
 					FileUtils.writeStringToFile(new File(siteRoot + staticFilePath), staticContent, StandardCharsets.UTF_8);
 				}
@@ -154,6 +166,9 @@ public class CmsIncludeTag extends AbstractTag {
 					this.templateService.setTemplateStaticContentCache(cacheKey, staticContent);
 				}
 			}
+			if (cache) {
+				context.addDependency(PublishDependencyService.include(cacheKey));
+			}
 			if (ssi) {
 				env.getOut().write(StringUtils.messageFormat(SSI_INCLUDE_TAG, "/" + staticFilePath));
 			} else {
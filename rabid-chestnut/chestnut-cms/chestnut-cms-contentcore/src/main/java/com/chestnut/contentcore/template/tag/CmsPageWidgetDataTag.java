@@ -26,6 +26,7 @@ import com.chestnut.common.utils.Assert;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.core.IPageWidgetType;
 import com.chestnut.contentcore.domain.CmsPageWidget;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.service.IPageWidgetService;
 import com.chestnut.contentcore.util.TemplateUtils;
 import freemarker.core.Environment;
@@ -91,6 +92,7 @@ public class CmsPageWidgetDataTag extends AbstractTag {
 		Assert.notNull(pwt, () -> new TemplateException(StringUtils.messageFormat("Unknow page widget type：{0}", pageWidget.getType()), env));
 		
 		TemplateContext context = FreeMarkerUtils.getTemplateContext(env);
+		context.addDependency(PublishDependencyService.pageWidget(siteId, code));
 		Object contentObj = pwt.parseContent(pageWidget, context.getPublishPipeCode(), context.isPreview());
 		pageWidget.setContentObj(contentObj);
 		return Map.of(StaticizeConstants.TemplateVariable_Data, this.wrap(env, pageWidget));
@@ -25,6 +25,7 @@ import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.core.IPageWidgetType;
 import com.chestnut.contentcore.domain.CmsPageWidget;
 import com.chestnut.contentcore.domain.CmsSite;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.properties.EnableSSIProperty;
 import com.chestnut.contentcore.service.IPageWidgetService;
 import com.chestnut.contentcore.service.ISiteService;
@@ -114,6 +115,7 @@ public class CmsPageWidgetTag extends AbstractTag {
 
 		boolean ssi = MapUtils.getBoolean(attrs, TagAttr_SSI, EnableSSIProperty.getValue(site.getConfigProps()));
 		String templateKey = SiteUtils.getTemplateKey(site, pw.getPublishPipeCode(), pw.getTemplate());
+		context.addDependency(PublishDependencyService.pageWidget(siteId, code));
 		if (context.isPreview()) {
 			env.getOut().write(this.processTemplate(env, pw, templateKey));
 		} else {
@@ -19,6 +19,7 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chestnut.cms.dynamic.controller.front.DynamicPageFrontController;
 import com.chestnut.cms.dynamic.core.DynamicPageRequestMappingHandlerMapping;
 import com.chestnut.cms.dynamic.core.IDynamicPageInitData;
+import com.chestnut.cms.dynamic.core.impl.MemberDynamicPageInitData;
 import com.chestnut.cms.dynamic.domain.CmsDynamicPage;
 import com.chestnut.cms.dynamic.mapper.CmsDynamicPageMapper;
 import com.chestnut.cms.dynamic.service.IDynamicPageService;
@@ -32,8 +33,11 @@ import com.chestnut.common.utils.SpringUtils;
 import com.chestnut.contentcore.domain.CmsSite;
 import com.chestnut.contentcore.service.ISiteService;
 import com.chestnut.contentcore.service.ITemplateService;
+import com.chestnut.contentcore.service.impl.DynamicPageOutputCache;
 import com.chestnut.contentcore.util.SiteUtils;
 import com.chestnut.contentcore.util.TemplateUtils;
+import com.chestnut.member.security.StpMemberUtil;
+import freemarker.template.TemplateException;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -45,6 +49,7 @@ import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandl
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.util.*;
@@ -67,6 +72,8 @@ public class DynamicPageServiceImpl extends ServiceImpl<CmsDynamicPageMapper, Cm
 
     private final DynamicPageHelper dynamicPageHelper;
 
+    private final DynamicPageOutputCache outputCache;
+
 
     @Override
     public void addDynamicPage(CmsDynamicPage dynamicPage) {
@@ -98,6 +105,7 @@ public class DynamicPageServiceImpl extends ServiceImpl<CmsDynamicPageMapper, Cm
         this.updateById(dbDynamicPage);
 
         dynamicPageHelper.updateCache(dbDynamicPage);
+        outputCache.invalidate(dbDynamicPage.getSiteId());
     }
 
     @Override
@@ -108,6 +116,7 @@ public class DynamicPageServiceImpl extends ServiceImpl<CmsDynamicPageMapper, Cm
         dynamicPages.forEach(dynamicPage -> {
             this.unregisterDynamicPageMapping(dynamicPage);
             dynamicPageHelper.clearCache(dynamicPage);
+            outputCache.invalidate(dynamicPage.getSiteId());
         });
     }
 
@@ -183,41 +192,68 @@ public class DynamicPageServiceImpl extends ServiceImpl<CmsDynamicPageMapper, Cm
             return;
         }
         CmsDynamicPage dynamicPage = dynamicPageHelper.getDynamicPageByPath(siteId, requestURI);
-        String template = dynamicPage.getTemplates().get(publishPipeCode);
-        File templateFile = this.templateService.findTemplateFile(site, template, publishPipeCode);
-        if (Objects.isNull(templateFile) || !templateFile.exists()) {
-            this.catchException(SiteUtils.getSiteLink(site, publishPipeCode, preview), response, new RuntimeException("Template not found: " + template));
-            return;
-        }
         long s = System.currentTimeMillis();
         try {
             // TODO 校验输入参数
 
-            // 生成静态页面
-            // 模板ID = 通道:站点目录:模板文件名
-            String templateKey = SiteUtils.getTemplateKey(site, publishPipeCode, template);
-            TemplateContext templateContext = new TemplateContext(templateKey, preview, publishPipeCode);
-            // init template datamode
-            TemplateUtils.initGlobalVariables(site, templateContext);
-            // init templateType data to datamode
-            templateContext.getVariables().put(TemplateUtils.TemplateVariable_Request, parameters);
-            // 动态页面自定义数据
-            if (Objects.nonNull(dynamicPage.getInitDataTypes())) {
-                dynamicPage.getInitDataTypes().forEach(initDataType -> {
-                    IDynamicPageInitData initData = dynamicPageHelper.getDynamicPageInitData(initDataType);
-                    if (Objects.nonNull(initData)) {
-                        initData.initTemplateData(templateContext, parameters);
-                    }
-                });
+            String cacheKey = null;
+            Map<String, String> renderParameters = parameters;
+            if (!preview) {
+                // 包含会员数据的页面已登录时按会员渲染，不缓存
+                boolean memberLogin = StpMemberUtil.isLogin();
+                boolean memberData = Objects.nonNull(dynamicPage.getInitDataTypes())
+                        && dynamicPage.getInitDataTypes().contains(MemberDynamicPageInitData.TYPE);
+                if (!memberLogin || !memberData) {
+                    cacheKey = this.outputCache.getCacheKey(siteId, "page:" + dynamicPage.getPath(), publishPipeCode,
+                            memberLogin, parameters, name -> true);
+                }
+                if (Objects.nonNull(cacheKey)) {
+                    // 缓存页面只使用参与缓存键计算的参数渲染
+                    renderParameters = this.outputCache.getCacheParameters(parameters, name -> true);
+                    renderParameters.put("sid", siteId.toString());
+                    renderParameters.put("pp", publishPipeCode);
+                }
             }
-            // staticize
-            this.staticizeService.process(templateContext, response.getWriter());
+            Map<String, String> finalRenderParameters = renderParameters;
+            DynamicPageOutputCache.Renderer renderer = () -> this.renderDynamicPage(dynamicPage, site, publishPipeCode, preview, finalRenderParameters);
+            String html = Objects.isNull(cacheKey) ? renderer.render() : this.outputCache.get(siteId, cacheKey, renderer);
+            response.getWriter().write(html);
             log.debug("动态模板解析，耗时：{} ms", System.currentTimeMillis() - s);
         } catch (Exception e) {
             this.catchException(SiteUtils.getSiteLink(site, publishPipeCode, preview), response, e);
         }
     }
 
+    private String renderDynamicPage(CmsDynamicPage dynamicPage, CmsSite site, String publishPipeCode, Boolean preview,
+                                     Map<String, String> parameters) throws TemplateException, IOException {
+        String template = dynamicPage.getTemplates().get(publishPipeCode);
+        File templateFile = this.templateService.findTemplateFile(site, template, publishPipeCode);
+        if (Objects.isNull(templateFile) || !templateFile.exists()) {
+            throw new RuntimeException("Template not found: " + template);
+        }
+        // 生成静态页面
+        // 模板ID = 通道:站点目录:模板文件名
+        String templateKey = SiteUtils.getTemplateKey(site, publishPipeCode, template);
+        TemplateContext templateContext = new TemplateContext(templateKey, preview, publishPipeCode);
+        // init template datamode
+        TemplateUtils.initGlobalVariables(site, templateContext);
+        // init templateType data to datamode
+        templateContext.getVariables().put(TemplateUtils.TemplateVariable_Request, parameters);
+        // 动态页面自定义数据
+        if (Objects.nonNull(dynamicPage.getInitDataTypes())) {
+            dynamicPage.getInitDataTypes().forEach(initDataType -> {
+                IDynamicPageInitData initData = dynamicPageHelper.getDynamicPageInitData(initDataType);
+                if (Objects.nonNull(initData)) {
+                    initData.initTemplateData(templateContext, parameters);
+                }
+            });
+        }
+        // staticize
+        StringWriter writer = new StringWriter();
+        this.staticizeService.process(templateContext, writer);
+        return writer.toString();
+    }
+
     private void catchException(String redirectLink, HttpServletResponse response, Exception e) throws IOException {
         if (log.isDebugEnabled()) {
             e.printStackTrace(response.getWriter());
@@ -26,6 +26,7 @@ import com.chestnut.contentcore.core.ICoreDataHandler;
 import com.chestnut.contentcore.core.SiteExportContext;
 import com.chestnut.contentcore.core.SiteImportContext;
 import com.chestnut.contentcore.domain.CmsCatalog;
+import com.chestnut.contentcore.domain.CmsSite;
 import com.chestnut.contentcore.service.ICatalogService;
 import com.chestnut.contentcore.service.ISiteService;
 import com.chestnut.contentcore.util.InternalUrlUtils;
@@ -210,10 +211,11 @@ public class EXModelCoreDataHandler implements ICoreDataHandler {
         try {
             Long siteModelId = ConvertUtils.toLong(SiteExtendModelProperty.getValue(context.getSite().getConfigProps()));
             if (IdUtils.validate(siteModelId) && modelIdMapping.containsKey(siteModelId)) {
-                context.getSite().getConfigProps().put(SiteExtendModelProperty.ID,
-                        modelIdMapping.get(siteModelId).toString());
-                siteService.updateById(context.getSite());
-                siteService.clearCache(context.getSite().getSiteId());
+                // 从数据库读取站点后修改，避免修改缓存对象
+                CmsSite site = siteService.getById(context.getSite().getSiteId());
+                site.getConfigProps().put(SiteExtendModelProperty.ID, modelIdMapping.get(siteModelId).toString());
+                siteService.updateById(site);
+                siteService.clearCache(site.getSiteId());
             }
             List<CmsCatalog> catalogs = catalogService.lambdaQuery().eq(CmsCatalog::getSiteId, context.getSite().getSiteId()).list();
             catalogs.forEach(catalog -> {
@@ -25,6 +25,7 @@ import com.chestnut.common.staticize.tag.TagAttr;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.domain.CmsContent;
 import com.chestnut.contentcore.enums.ContentCopyType;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.service.IContentService;
 import com.chestnut.contentcore.util.InternalUrlUtils;
 import com.chestnut.media.domain.CmsAudio;
@@ -68,6 +69,7 @@ public class CmsAudioTag extends AbstractListTag {
 		if (ContentCopyType.isMapping(c.getCopyType())) {
 			contentId = c.getCopyId();
 		}
+		FreeMarkerUtils.getTemplateContext(env).addDependency(PublishDependencyService.contentOf(contentId));
 		String condition = MapUtils.getString(attrs, TagAttr.AttrName_Condition);
 		LambdaQueryWrapper<CmsAudio> q = new LambdaQueryWrapper<CmsAudio>().eq(CmsAudio::getContentId, contentId);
 		q.apply(StringUtils.isNotEmpty(condition), condition);
@@ -31,6 +31,7 @@ import com.chestnut.common.staticize.tag.AbstractListTag;
 import com.chestnut.common.staticize.tag.TagAttr;
 import com.chestnut.contentcore.domain.CmsContent;
 import com.chestnut.contentcore.enums.ContentCopyType;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.service.IContentService;
 import com.chestnut.contentcore.util.InternalUrlUtils;
 import com.chestnut.media.domain.CmsVideo;
@@ -70,6 +71,7 @@ public class CmsVideoTag extends AbstractListTag {
 		if (ContentCopyType.isMapping(c.getCopyType())) {
 			contentId = c.getCopyId();
 		}
+		FreeMarkerUtils.getTemplateContext(env).addDependency(PublishDependencyService.contentOf(contentId));
 
 		LambdaQueryWrapper<CmsVideo> q = new LambdaQueryWrapper<CmsVideo>().eq(CmsVideo::getContentId, contentId);
 		String condition = MapUtils.getString(attrs, TagAttr.AttrName_Condition);
@@ -15,11 +15,6 @@
  */
 package com.chestnut.cms.search.controller;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.ElasticsearchException;
-import co.elastic.clients.elasticsearch._types.SortOrder;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
-import com.chestnut.cms.search.CmsSearchConstants;
 import com.chestnut.cms.search.es.doc.ESContent;
 import com.chestnut.cms.search.permission.CmsSearchPriv;
 import com.chestnut.cms.search.service.ContentIndexService;
@@ -46,12 +41,12 @@ import com.chestnut.contentcore.service.IContentService;
 import com.chestnut.contentcore.service.ISiteService;
 import com.chestnut.contentcore.util.CatalogUtils;
 import com.chestnut.contentcore.util.ContentCoreUtils;
-import com.chestnut.search.SearchConsts;
+import com.chestnut.search.core.SearchQuery;
+import com.chestnut.search.core.SearchResult;
 import com.chestnut.search.exception.SearchErrorCode;
 import com.chestnut.system.security.AdminUserType;
 import com.chestnut.system.validator.LongId;
 import com.chestnut.xmodel.core.IMetaModelType;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -78,69 +73,29 @@ public class ContentIndexController extends BaseRestController {
 
 	private final ContentIndexService searchService;
 
-	private final ElasticsearchClient esClient;
-
 	private void checkElasticSearchEnabled() {
-		Assert.isTrue(this.searchService.isElasticSearchAvailable(), SearchErrorCode.ESConnectFail::exception);
+		Assert.isTrue(this.searchService.isSearchAvailable(), SearchErrorCode.ESConnectFail::exception);
 	}
 
 	@GetMapping("/contents")
 	public R<?> selectDocumentList(@RequestParam(value = "query", required = false) String query,
 								   @RequestParam(value = "onlyTitle", required = false ,defaultValue = "false") Boolean onlyTitle,
-								   @RequestParam(value = "contentType", required = false) String contentType) throws ElasticsearchException, IOException {
+								   @RequestParam(value = "contentType", required = false) String contentType) throws IOException {
 		this.checkElasticSearchEnabled();
 		PageRequest pr = this.getPageRequest();
 		CmsSite site = this.siteService.getCurrentSite(ServletUtils.getRequest());
-		String indexName = CmsSearchConstants.indexName(site.getSiteId().toString());
-		SearchResponse<ObjectNode> sr = esClient.search(s -> {
-			s.index(indexName) // 索引
-					.query(q ->
-							q.bool(b -> {
-								if (StringUtils.isNotEmpty(contentType)) {
-									b.must(must -> must.term(tq -> tq.field("contentType").value(contentType)));
-								}
-								if (StringUtils.isNotEmpty(query)) {
-									if (onlyTitle) {
-										b.must(must -> must
-												.match(match -> match
-														.analyzer(SearchConsts.IKAnalyzeType_Smart)
-														.field("title")
-														.query(query)
-												)
-										);
-									} else {
-										b.must(must -> must
-												.multiMatch(match -> match
-														.analyzer(SearchConsts.IKAnalyzeType_Smart)
-														.fields("title^10", "fullText^1")
-														.query(query)
-												)
-										);
-									}
-								}
-								return b;
-							})
-					);
-			if (StringUtils.isNotEmpty(query)) {
-				s.highlight(h ->
-						h.fields("title", f -> f.preTags("<font color='red'>").postTags("</font>"))
-								.fields("fullText", f -> f.preTags("<font color='red'>").postTags("</font>")));
-			}
-			s.sort(sort -> sort.field(f -> f.field("_score").order(SortOrder.Desc)));
-			s.sort(sort -> sort.field(f -> f.field("publishDate").order(SortOrder.Desc))); // 排序: _score:desc + publishDate:desc
-//			s.source(source -> source.filter(f -> f.excludes("fullText"))); // 过滤字段
-			s.from((pr.getPageNumber() - 1) * pr.getPageSize()).size(pr.getPageSize());  // 分页
-			return s;
-		}, ObjectNode.class);
-		List<ESContentVO> list = sr.hits().hits().stream().map(hit -> {
-			ObjectNode source = hit.source();
-			ESContentVO vo = JacksonUtils.getObjectMapper().convertValue(source, ESContentVO.class);
-			source.fieldNames().forEachRemaining(fieldName -> {
+		SearchQuery searchQuery = ContentIndexService.newFullTextQuery(query, onlyTitle)
+				.filter("contentType", contentType)
+				.page(pr.getPageNumber(), pr.getPageSize());
+		SearchResult sr = this.searchService.search(site.getSiteId(), searchQuery);
+		List<ESContentVO> list = sr.getHits().stream().map(hit -> {
+			ESContentVO vo = JacksonUtils.getObjectMapper().convertValue(hit.getSource(), ESContentVO.class);
+			hit.getSource().forEach((fieldName, value) -> {
 				if (fieldName.startsWith(IMetaModelType.DATA_FIELD_PREFIX)) {
-					vo.getExtendData().put(fieldName, source.get(fieldName).asText());
+					vo.getExtendData().put(fieldName, String.valueOf(value));
 				}
 			});
-			vo.setHitScore(hit.score());
+			vo.setHitScore(hit.getScore());
 			vo.setPublishDateInstance(LocalDateTime.ofEpochSecond(vo.getPublishDate(), 0, ZoneOffset.UTC));
 			vo.setCreateTimeInstance(LocalDateTime.ofEpochSecond(vo.getCreateTime(), 0, ZoneOffset.UTC));
 			CmsCatalog catalog = this.catalogService.getCatalog(vo.getCatalogId());
@@ -151,7 +106,7 @@ public class ContentIndexController extends BaseRestController {
 				}).collect(Collectors.joining(" > "));
 				vo.setCatalogName(catalogName);
 			}
-			hit.highlight().forEach((key, value) -> {
+			hit.getHighlight().forEach((key, value) -> {
                 if (key.equals("fullText")) {
                     vo.setFullText(StringUtils.join(value.toArray(String[]::new)));
                 } else if (key.equals("title")) {
@@ -160,11 +115,11 @@ public class ContentIndexController extends BaseRestController {
             });
 			return vo;
 		}).toList();
-		return this.bindDataTable(list, sr.hits().total().value());
+		return this.bindDataTable(list, sr.getTotal());
 	}
 
 	@GetMapping("/content/{contentId}")
-	public R<?> selectDocumentDetail(@PathVariable(value = "contentId") @LongId Long contentId) throws ElasticsearchException, IOException {
+	public R<?> selectDocumentDetail(@PathVariable(value = "contentId") @LongId Long contentId) throws IOException {
 		this.checkElasticSearchEnabled();
 		CmsSite site = this.siteService.getCurrentSite(ServletUtils.getRequest());
 		ESContent source = this.searchService.getContentDocDetail(site.getSiteId(), contentId);
@@ -173,7 +128,7 @@ public class ContentIndexController extends BaseRestController {
 
 	@Log(title = "删除索引", businessType = BusinessType.DELETE)
 	@DeleteMapping("/contents")
-	public R<?> deleteDocuments(@RequestBody @NotEmpty List<Long> contentIds) throws ElasticsearchException, IOException {
+	public R<?> deleteDocuments(@RequestBody @NotEmpty List<Long> contentIds) throws IOException {
 		this.checkElasticSearchEnabled();
 		CmsSite site = this.siteService.getCurrentSite(ServletUtils.getRequest());
 		this.searchService.deleteContentDoc(site.getSiteId(), contentIds);
@@ -190,6 +145,7 @@ public class ContentIndexController extends BaseRestController {
 		IContentType ct = ContentCoreUtils.getContentType(content.getContentType());
 		IContent<?> icontent = ct.loadContent(content);
 		this.searchService.createContentDoc(icontent);
+		this.searchService.flushContentDocs();
 		return R.ok();
 	}
 
@@ -15,11 +15,8 @@
  */
 package com.chestnut.cms.search.controller;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.SortOrder;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.chestnut.cms.search.CmsSearchConstants;
+import com.chestnut.cms.search.service.ContentIndexService;
 import com.chestnut.common.utils.JacksonUtils;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.domain.CmsCatalog;
@@ -28,10 +25,10 @@ import com.chestnut.contentcore.mapper.CmsSiteMapper;
 import com.chestnut.contentcore.service.ICatalogService;
 import com.chestnut.contentcore.util.CatalogUtils;
 import com.chestnut.contentcore.util.InternalUrlUtils;
-import com.chestnut.search.SearchConsts;
+import com.chestnut.search.core.SearchQuery;
+import com.chestnut.search.core.SearchResult;
 import com.chestnut.search.exception.SearchErrorCode;
 import com.chestnut.xmodel.core.IMetaModelType;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -69,11 +66,10 @@ public class DirectPublicSearchController {
 
     private final ICatalogService catalogService;
 
-    private final ElasticsearchClient esClient;
+    private final ContentIndexService searchService;
 
     private void checkElasticSearchEnabled() {
-        // 简化检查，只检查ES客户端是否为null
-        if (esClient == null) {
+        if (!searchService.isSearchAvailable()) {
             throw SearchErrorCode.ESConnectFail.exception();
         }
     }
@@ -103,67 +99,31 @@ public class DirectPublicSearchController {
                 throw new RuntimeException("No site available");
             }
             
-            String indexName = CmsSearchConstants.indexName(site.getSiteId().toString());
-            SearchResponse<ObjectNode> sr = esClient.search(s -> {
-                s.index(indexName) // 索引
-                        .query(q ->
-                                q.bool(b -> {
-                                    if (StringUtils.isNotEmpty(contentType)) {
-                                        b.must(must -> must.term(tq -> tq.field("contentType").value(contentType)));
-                                    }
-                                    if (StringUtils.isNotEmpty(query)) {
-                                        if (onlyTitle) {
-                                            b.must(must -> must
-                                                    .match(match -> match
-                                                            .analyzer(SearchConsts.IKAnalyzeType_Smart)
-                                                            .field("title")
-                                                            .query(query)
-                                                    )
-                                            );
-                                        } else {
-                                            b.must(must -> must
-                                                    .multiMatch(match -> match
-                                                            .analyzer(SearchConsts.IKAnalyzeType_Smart)
-                                                            .fields("title^10", "fullText^1")
-                                                            .query(query)
-                                                    )
-                                            );
-                                        }
-                                    }
-                                    return b;
-                                })
-                        );
-                if (StringUtils.isNotEmpty(query)) {
-                    s.highlight(h ->
-                            h.fields("title", f -> f.preTags("<font color='red'>").postTags("</font>"))
-                                    .fields("fullText", f -> f.preTags("<font color='red'>").postTags("</font>")));
-                }
-                s.sort(sort -> sort.field(f -> f.field("_score").order(SortOrder.Desc))); // 主要排序：相关度分数降序
-                s.sort(sort -> sort.field(f -> f.field("publishDate").order(SortOrder.Desc))); // 次要排序：publishDate降序
-                s.from((pageNum - 1) * pageSize).size(pageSize);  // 分页
-                return s;
-            }, ObjectNode.class);
+            SearchQuery searchQuery = ContentIndexService.newFullTextQuery(query, onlyTitle)
+                    .filter("contentType", contentType)
+                    .page(pageNum, pageSize);
+            SearchResult sr = searchService.search(site.getSiteId(), searchQuery);
             
             // 处理搜索结果
-            List<Map<String, Object>> list = sr.hits().hits().stream().map(hit -> {
-                ObjectNode source = hit.source();
+            List<Map<String, Object>> list = sr.getHits().stream().map(hit -> {
+                Map<String, Object> source = hit.getSource();
                 Map<String, Object> item = new HashMap<>();
                 
                 // 复制所有字段
-                source.fieldNames().forEachRemaining(fieldName -> {
+                source.forEach((fieldName, value) -> {
                     if (fieldName.startsWith(IMetaModelType.DATA_FIELD_PREFIX)) {
                         // 扩展字段单独处理
                         Map<String, String> extendData = new HashMap<>();
-                        extendData.put(fieldName, source.get(fieldName).asText());
+                        extendData.put(fieldName, String.valueOf(value));
                         item.put("extendData", extendData);
                     } else {
                         // 普通字段直接复制
-                        item.put(fieldName, source.get(fieldName).asText());
+                        item.put(fieldName, String.valueOf(value));
                     }
                 });
                 
                 // 添加额外信息
-                item.put("hitScore", hit.score());
+                item.put("hitScore", hit.getScore());
                 
                 // 处理时间字段
                 if (item.containsKey("publishDate")) {
@@ -223,7 +183,7 @@ public class DirectPublicSearchController {
                 }
                 
                 // 处理高亮字段
-                hit.highlight().forEach((key, value) -> {
+                hit.getHighlight().forEach((key, value) -> {
                     if (key.equals("fullText") || key.equals("title")) {
                         item.put(key, StringUtils.join(value.toArray(String[]::new)));
                     }
@@ -235,7 +195,7 @@ public class DirectPublicSearchController {
             result.put("code", 200);
             result.put("msg", "操作成功");
             result.put("rows", list);
-            result.put("total", sr.hits().total().value());
+            result.put("total", sr.getTotal());
             
         } catch (Exception e) {
             result.put("code", 500);
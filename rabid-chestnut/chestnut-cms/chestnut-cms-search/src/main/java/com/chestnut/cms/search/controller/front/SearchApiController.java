@@ -15,14 +15,8 @@
  */
 package com.chestnut.cms.search.controller.front;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.ElasticsearchException;
-import co.elastic.clients.elasticsearch._types.SortOrder;
-import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
-import co.elastic.clients.elasticsearch.core.search.CompletionSuggestOption;
-import co.elastic.clients.elasticsearch.core.search.Suggestion;
 import com.chestnut.cms.search.CmsSearchConstants;
+import com.chestnut.cms.search.service.ContentIndexService;
 import com.chestnut.cms.search.vo.ESContentVO;
 import com.chestnut.common.domain.R;
 import com.chestnut.common.security.web.BaseRestController;
@@ -35,7 +29,8 @@ import com.chestnut.contentcore.domain.vo.ContentDynamicDataVO;
 import com.chestnut.contentcore.service.ICatalogService;
 import com.chestnut.contentcore.service.impl.ContentDynamicDataService;
 import com.chestnut.contentcore.util.InternalUrlUtils;
-import com.chestnut.search.SearchConsts;
+import com.chestnut.search.core.SearchQuery;
+import com.chestnut.search.core.SearchResult;
 import com.chestnut.search.service.ISearchLogService;
 import com.chestnut.system.validator.LongId;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -52,10 +47,10 @@ import org.springframework.web.bind.annotation.RestController;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -66,7 +61,7 @@ public class SearchApiController extends BaseRestController {
 
 	private final ICatalogService catalogService;
 
-	private final ElasticsearchClient esClient;
+	private final ContentIndexService searchService;
 
 	private final ISearchLogService logService;
 
@@ -80,53 +75,15 @@ public class SearchApiController extends BaseRestController {
 			@RequestParam(value = "ot", required = false ,defaultValue = "false") Boolean onlyTitle,
 			@RequestParam(value = "ct", required = false) String contentType,
 			@RequestParam(value = "page", required = false, defaultValue = "1") @Min(1) Integer page,
-			@RequestParam(value = "preview", required = false, defaultValue = "false") Boolean preview) throws ElasticsearchException, IOException {
+			@RequestParam(value = "preview", required = false, defaultValue = "false") Boolean preview) throws IOException {
 		int pageSize = 10;
-		String indexName = CmsSearchConstants.indexName(siteId.toString());
-		SearchResponse<ObjectNode> sr = esClient.search(s -> {
-			s.index(indexName) // 索引
-				.query(q ->
-					q.bool(b -> {
-						if (StringUtils.isNotEmpty(contentType)) {
-							b.must(must -> must.term(tq -> tq.field("contentType.keyword").value(contentType)));
-						}
-						if (StringUtils.isNotEmpty(query)) {
-							if (onlyTitle) {
-								b.must(must -> must
-										.match(match -> match
-												.analyzer(SearchConsts.IKAnalyzeType_Smart)
-												.field("title")
-												.query(query)
-										)
-								);
-							} else {
-								b.must(must -> must
-										.multiMatch(match -> match
-												.analyzer(SearchConsts.IKAnalyzeType_Smart)
-												.fields("title^10", "fullText^1")
-												.query(query)
-										)
-								);
-							}
-						}	
-						return b;
-					})
-				);
-			if (StringUtils.isNotEmpty(query)) {
-				s.highlight(h ->  
-					h.fields("title", f -> f.preTags("<font color='red'>").postTags("</font>"))
-						.fields("fullText", f -> f.preTags("<font color='red'>").postTags("</font>")));
-			}
-			s.sort(sort -> sort.field(f -> f.field("_score").order(SortOrder.Desc)));
-			s.sort(sort -> sort.field(f -> f.field("publishDate").order(SortOrder.Desc))); // 排序: _score:desc + publishDate:desc
-//			s.source(source -> source.filter(f -> f.excludes("fullText"))); // 过滤字段
-			s.from((page - 1) * pageSize).size(pageSize);  // 分页，0开始
-			return s;
-		}, ObjectNode.class);
-		List<ESContentVO> list = sr.hits().hits().stream().map(hit -> {
-			ObjectNode source = hit.source();
-			ESContentVO vo = JacksonUtils.getObjectMapper().convertValue(source, ESContentVO.class);
-			vo.setHitScore(hit.score());
+		SearchQuery searchQuery = ContentIndexService.newFullTextQuery(query, onlyTitle)
+				.filter("contentType", contentType)
+				.page(page, pageSize);
+		SearchResult sr = this.searchService.search(siteId, searchQuery);
+		List<ESContentVO> list = sr.getHits().stream().map(hit -> {
+			ESContentVO vo = JacksonUtils.getObjectMapper().convertValue(hit.getSource(), ESContentVO.class);
+			vo.setHitScore(hit.getScore());
 			vo.setPublishDateInstance(LocalDateTime.ofEpochSecond(vo.getPublishDate(), 0, ZoneOffset.UTC));
 			vo.setCreateTimeInstance(LocalDateTime.ofEpochSecond(vo.getCreateTime(), 0, ZoneOffset.UTC));
 			CmsCatalog catalog = this.catalogService.getCatalog(vo.getCatalogId());
@@ -135,7 +92,7 @@ public class SearchApiController extends BaseRestController {
 			}
 			vo.setLink(InternalUrlUtils.getActualUrl(vo.getLink(), publishPipeCode, preview));
 			vo.setLogo(InternalUrlUtils.getActualUrl(vo.getLogo(), publishPipeCode, preview));
-			hit.highlight().forEach((key, value) -> {
+			hit.getHighlight().forEach((key, value) -> {
 				try {
 					if (key.equals("fullText")) {
 						vo.setFullText(StringUtils.join(value.toArray(String[]::new)));
@@ -148,19 +105,10 @@ public class SearchApiController extends BaseRestController {
 			});
 			return vo;
 		}).toList();
-		List<String> contentIds = list.stream().map(c -> c.getContentId().toString()).toList();
-		Map<Long, ContentDynamicDataVO> map = this.contentDynamicDataService.getContentDynamicDataList(contentIds)
-				.stream().collect(Collectors.toMap(ContentDynamicDataVO::getContentId, i -> i));
-		list.forEach(c -> {
-			ContentDynamicDataVO cdd = map.get(c.getContentId());
-			c.setViewCount(cdd.getViews());
-			c.setFavoriteCount(cdd.getFavorites());
-			c.setLikeCount(cdd.getLikes());
-			c.setCommentCount(cdd.getComments());
-		});
+		this.fillDynamicData(list);
 		// 记录搜索日志
 		this.logService.addSearchLog(CmsSearchConstants.generateSearchSource(siteId), query, ServletUtils.getRequest());
-		return this.bindDataTable(list, Objects.isNull(sr.hits().total()) ? 0 : sr.hits().total().value());
+		return this.bindDataTable(list, sr.getTotal());
 	}
 
 	@GetMapping("/tag")
@@ -172,42 +120,19 @@ public class SearchApiController extends BaseRestController {
 			@RequestParam(value = "ct", required = false) String contentType,
 			@RequestParam(value = "page", required = false, defaultValue = "1") @Min(1) Integer page,
 			@RequestParam(value = "size", required = false, defaultValue = "10") @Min(1) Integer size,
-			@RequestParam(value = "preview", required = false, defaultValue = "false") Boolean preview) throws ElasticsearchException, IOException {
-		String indexName = CmsSearchConstants.indexName(siteId.toString());
-		SearchResponse<ObjectNode> sr = esClient.search(s -> {
-			s.index(indexName) // 索引
-				.query(q ->
-						q.bool(b -> {
-							if (IdUtils.validate(catalogId)) {
-								b.must(must -> must.term(tq -> tq.field("catalogId").value(catalogId)));
-							}
-							if (StringUtils.isNotEmpty(contentType)) {
-								b.must(must -> must.term(tq -> tq.field("contentType").value(contentType)));
-							}
-							if (StringUtils.isNotEmpty(query)) {
-								String[] tags = query.split("\\s+");
-								b.must(should -> {
-									for (String tag : tags) {
-										should.constantScore(cs ->
-												cs.boost(1F).filter(f ->
-														f.match(m ->
-																m.field("tags").query(tag))));
-									}
-									return should;
-								});
-							}
-							return b;
-						})
-				);
-			s.sort(sort -> sort.field(f -> f.field("_score").order(SortOrder.Desc)));
-			s.sort(sort -> sort.field(f -> f.field("publishDate").order(SortOrder.Desc))); // 排序: _score:desc + publishDate:desc
-			s.from((page - 1) * size).size(size);  // 分页，0开始
-			return s;
-		}, ObjectNode.class);
-		List<ESContentVO> list = sr.hits().hits().stream().map(hit -> {
-			ObjectNode source = hit.source();
-			ESContentVO vo = JacksonUtils.getObjectMapper().convertValue(source, ESContentVO.class);
-			vo.setHitScore(hit.score());
+			@RequestParam(value = "preview", required = false, defaultValue = "false") Boolean preview) throws IOException {
+		SearchQuery searchQuery = new SearchQuery()
+				.filter("catalogId", IdUtils.validate(catalogId) ? catalogId : null)
+				.filter("contentType", contentType)
+				.sortField("publishDate")
+				.page(page, size);
+		if (StringUtils.isNotEmpty(query)) {
+			searchQuery.tags("tags", Arrays.asList(query.split("\\s+")), false);
+		}
+		SearchResult sr = this.searchService.search(siteId, searchQuery);
+		List<ESContentVO> list = sr.getHits().stream().map(hit -> {
+			ESContentVO vo = JacksonUtils.getObjectMapper().convertValue(hit.getSource(), ESContentVO.class);
+			vo.setHitScore(hit.getScore());
 			vo.setPublishDateInstance(LocalDateTime.ofEpochSecond(vo.getPublishDate(), 0, ZoneOffset.UTC));
 			vo.setCreateTimeInstance(LocalDateTime.ofEpochSecond(vo.getCreateTime(), 0, ZoneOffset.UTC));
 			CmsCatalog catalog = this.catalogService.getCatalog(vo.getCatalogId());
@@ -218,6 +143,11 @@ public class SearchApiController extends BaseRestController {
 			vo.setLogo(InternalUrlUtils.getActualUrl(vo.getLogo(), publishPipeCode, preview));
 			return vo;
 		}).toList();
+		this.fillDynamicData(list);
+		return this.bindDataTable(list, sr.getTotal());
+	}
+
+	private void fillDynamicData(List<ESContentVO> list) {
 		List<String> contentIds = list.stream().map(c -> c.getContentId().toString()).toList();
 		Map<Long, ContentDynamicDataVO> map = this.contentDynamicDataService.getContentDynamicDataList(contentIds)
 				.stream().collect(Collectors.toMap(ContentDynamicDataVO::getContentId, i -> i));
@@ -228,7 +158,6 @@ public class SearchApiController extends BaseRestController {
 			c.setLikeCount(cdd.getLikes());
 			c.setCommentCount(cdd.getComments());
 		});
-		return this.bindDataTable(list, Objects.isNull(sr.hits().total()) ? 0 : sr.hits().total().value());
 	}
 
 	/**
@@ -239,94 +168,28 @@ public class SearchApiController extends BaseRestController {
 								@RequestParam(value = "cid", required = false, defaultValue = "0") Long catalogId,
 								@RequestParam(value = "q") @NotEmpty @Length(max = 50) String query,
 								@RequestParam(value = "ct", required = false) String contentType,
-								@RequestParam(value = "size", required = false) Integer size) throws IOException {
-		String suggester = "title-suggest";
-		String indexName = CmsSearchConstants.indexName(siteId.toString());
-		SearchResponse<ObjectNode> sr = esClient.search(s ->
-			s.index(indexName)
-				.query(q -> q
-					.bool(b -> {
-						if (IdUtils.validate(catalogId)) {
-							b.must(must -> must.term(term -> term.field("catalogId").value(catalogId)));
-						}
-						if (StringUtils.isNotEmpty(contentType)) {
-							b.must(must -> must.term(term -> term.field("contentType").value(contentType)));
-						}
-						return b;
-					})
-				)
-				.suggest(suggest -> suggest
-					.suggesters(suggester, f -> f
-						.prefix(query)
-						.completion(c -> c
-							.field("title.suggest")
-							.fuzzy(fuzzy -> fuzzy.fuzziness("2"))
-							.skipDuplicates(true)
-							.size(size)
-						)
-					)
-				)
-				.source(fn -> fn.fetch(false))
-				.size(0), ObjectNode.class);
-		Optional<Suggestion<ObjectNode>> first = sr.suggest().get(suggester).stream().findFirst();
-		if (first.isEmpty()) {
-			return R.ok(List.of());
-		}
-		List<String> list = first.get().completion().options().stream().map(CompletionSuggestOption::text).toList();
-		return R.ok(list);
+								@RequestParam(value = "size", required = false, defaultValue = "5") @Min(1) Integer size) throws IOException {
+		return R.ok(this.searchService.suggest(siteId, query, size));
 	}
 
 	@GetMapping("/group/catalog")
 	public R<?> groupBy(@RequestParam("sid") @LongId Long siteId,
 						@RequestParam(value = "q") @Length(max = 50) String query,
 						@RequestParam(value = "ot", required = false ,defaultValue = "false") Boolean onlyTitle,
-						@RequestParam(value = "ct", required = false) String contentType) throws ElasticsearchException, IOException {
-		String indexName = CmsSearchConstants.indexName(siteId.toString());
-		SearchResponse<ObjectNode> sr = esClient.search(s ->
-				s.index(indexName)
-						.query(q ->
-								q.bool(b -> {
-									if (StringUtils.isNotEmpty(contentType)) {
-										b.must(must -> must.term(tq -> tq.field("contentType.keyword").value(contentType)));
-									}
-									if (StringUtils.isNotEmpty(query)) {
-										if (onlyTitle) {
-											b.must(must -> must
-													.match(match -> match
-															.analyzer(SearchConsts.IKAnalyzeType_Smart)
-															.field("title")
-															.query(query)
-													)
-											);
-										} else {
-											b.must(must -> must
-													.multiMatch(match -> match
-															.analyzer(SearchConsts.IKAnalyzeType_Smart)
-															.fields("title^10", "fullText^1")
-															.query(query)
-													)
-											);
-										}
-									}
-									return b;
-								})
-						)
-						.aggregations("groupBy", f -> f.terms(terms -> terms
-								.field("catalogId")
-						))
-						.source(fn -> fn.fetch(false))
-						.size(0), ObjectNode.class);
-		Aggregate aggregate = sr.aggregations().get("groupBy");
-		List<ObjectNode> list = aggregate.lterms().buckets().array().stream().map(b -> {
-			Long catalogId = b.key();
-			CmsCatalog catalog = catalogService.getCatalog(b.key());
+						@RequestParam(value = "ct", required = false) String contentType) throws IOException {
+		SearchQuery searchQuery = ContentIndexService.newFullTextQuery(query, onlyTitle)
+				.filter("contentType", contentType);
+		Map<String, Long> counts = this.searchService.countByField(siteId, searchQuery, "catalogId", 10);
+		List<ObjectNode> list = counts.entrySet().stream().map(e -> {
+			Long catalogId = Long.valueOf(e.getKey());
+			CmsCatalog catalog = catalogService.getCatalog(catalogId);
 			if (Objects.isNull(catalog)) {
 				return null;
 			}
 			return JacksonUtils.objectNode()
 					.put("id", catalogId)
 					.put("name", catalog.getName())
-					.put("total", b.docCount());
+					.put("total", e.getValue());
 		}).filter(Objects::nonNull).toList();
 		return R.ok(list);
 	}
@@ -17,7 +17,6 @@ package com.chestnut.cms.search.impl;
 
 import com.chestnut.cms.search.publishpipe.PublishPipeProp_SearchTemplate;
 import com.chestnut.common.staticize.core.TemplateContext;
-import com.chestnut.common.utils.ServletUtils;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.core.IDynamicPageType;
 import com.chestnut.contentcore.util.TemplateUtils;
@@ -71,6 +70,11 @@ public class SearchDynamicPageType implements IDynamicPageType {
         return REQUEST_ARGS;
     }
 
+    @Override
+    public boolean isOutputCacheable() {
+        return true;
+    }
+
     @Override
     public String getPublishPipeKey() {
         return PublishPipeProp_SearchTemplate.KEY;
@@ -78,8 +82,7 @@ public class SearchDynamicPageType implements IDynamicPageType {
 
     @Override
     public void initTemplateData(Map<String, String> parameters, TemplateContext templateContext) {
-        templateContext.getVariables().put(TemplateUtils.TemplateVariable_Request, ServletUtils.getParameters());
-        String link = "_search?q=" + parameters.get("q");
+        String link = "_search?q=" + StringUtils.defaultString(parameters.get("q"));
         if (templateContext.isPreview()) {
             link += "&sid=" + parameters.get("sid") + "&pp=" + templateContext.getPublishPipeCode() + "&preview=true";
         }
@@ -38,7 +38,7 @@ public class ESSearchListener {
 
 	@EventListener
 	public void afterSiteDelete(AfterSiteDeleteEvent event) {
-		if (!contentIndexService.isElasticSearchAvailable()) {
+		if (!contentIndexService.isSearchAvailable()) {
 			return;
 		}
 		CmsSite site = event.getSite();
@@ -47,7 +47,7 @@ public class ESSearchListener {
 
 	@EventListener
 	public void afterSiteAdd(AfterSiteAddEvent event) {
-		if (!contentIndexService.isElasticSearchAvailable()) {
+		if (!contentIndexService.isSearchAvailable()) {
 			return;
 		}
 		contentIndexService.createIndex(event.getSite());
@@ -55,7 +55,7 @@ public class ESSearchListener {
 
 	@EventListener
 	public void afterContentDelete(AfterContentDeleteEvent event) {
-		if (!contentIndexService.isElasticSearchAvailable()) {
+		if (!contentIndexService.isSearchAvailable()) {
 			return;
 		}
 		CmsContent content = event.getContent().getContentEntity();
@@ -68,7 +68,7 @@ public class ESSearchListener {
 
 	@EventListener
 	public void afterContentPublish(AfterContentPublishEvent event) {
-		if (!contentIndexService.isElasticSearchAvailable()) {
+		if (!contentIndexService.isSearchAvailable()) {
 			return;
 		}
 		IContent<?> content = event.getContent();
@@ -77,7 +77,7 @@ public class ESSearchListener {
 
 	@EventListener
 	public void afterContentOfflineEvent(AfterContentOfflineEvent event) {
-		if (!contentIndexService.isElasticSearchAvailable()) {
+		if (!contentIndexService.isSearchAvailable()) {
 			return;
 		}
 		CmsContent content = event.getContent().getContentEntity();
@@ -90,7 +90,7 @@ public class ESSearchListener {
 
 	@EventListener
 	public void afterCatalogMoveEvent(AfterCatalogMoveEvent event) {
-		if (!contentIndexService.isElasticSearchAvailable()) {
+		if (!contentIndexService.isSearchAvailable()) {
 			return;
 		}
 		try {
@@ -15,11 +15,6 @@
  */
 package com.chestnut.cms.search.publicapi;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.ElasticsearchException;
-import co.elastic.clients.elasticsearch._types.SortOrder;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
-import com.chestnut.cms.search.CmsSearchConstants;
 import com.chestnut.cms.search.service.ContentIndexService;
 import com.chestnut.cms.search.vo.ESContentVO;
 import com.chestnut.common.domain.R;
@@ -31,10 +26,10 @@ import com.chestnut.contentcore.domain.CmsSite;
 import com.chestnut.contentcore.service.ICatalogService;
 import com.chestnut.contentcore.service.ISiteService;
 import com.chestnut.contentcore.util.CatalogUtils;
-import com.chestnut.search.SearchConsts;
+import com.chestnut.search.core.SearchQuery;
+import com.chestnut.search.core.SearchResult;
 import com.chestnut.search.exception.SearchErrorCode;
 import com.chestnut.xmodel.core.IMetaModelType;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -70,10 +65,8 @@ public class PublicSearchApiController {
 
     private final ContentIndexService searchService;
 
-    private final ElasticsearchClient esClient;
-
     private void checkElasticSearchEnabled() {
-        if (!this.searchService.isElasticSearchAvailable()) {
+        if (!this.searchService.isSearchAvailable()) {
             throw SearchErrorCode.ESConnectFail.exception();
         }
     }
@@ -86,63 +79,26 @@ public class PublicSearchApiController {
                                @RequestParam(value = "onlyTitle", required = false, defaultValue = "false") Boolean onlyTitle,
                                @RequestParam(value = "pageNum", required = false, defaultValue = "1") Integer pageNum,
                                @RequestParam(value = "pageSize", required = false, defaultValue = "10") Integer pageSize,
-                               @RequestParam(value = "contentType", required = false) String contentType) throws ElasticsearchException, IOException {
+                               @RequestParam(value = "contentType", required = false) String contentType) throws IOException {
         
         Map<String, Object> result = new HashMap<>();
         
         try {
             this.checkElasticSearchEnabled();
             CmsSite site = this.siteService.getCurrentSite(ServletUtils.getRequest());
-            String indexName = CmsSearchConstants.indexName(site.getSiteId().toString());
-            SearchResponse<ObjectNode> sr = esClient.search(s -> {
-                s.index(indexName) // 索引
-                        .query(q ->
-                                q.bool(b -> {
-                                    if (StringUtils.isNotEmpty(contentType)) {
-                                        b.must(must -> must.term(tq -> tq.field("contentType").value(contentType)));
-                                    }
-                                    if (StringUtils.isNotEmpty(query)) {
-                                        if (onlyTitle) {
-                                            b.must(must -> must
-                                                    .match(match -> match
-                                                            .analyzer(SearchConsts.IKAnalyzeType_Smart)
-                                                            .field("title")
-                                                            .query(query)
-                                                    )
-                                            );
-                                        } else {
-                                            b.must(must -> must
-                                                    .multiMatch(match -> match
-                                                            .analyzer(SearchConsts.IKAnalyzeType_Smart)
-                                                            .fields("title^10", "fullText^1")
-                                                            .query(query)
-                                                    )
-                                            );
-                                        }
-                                    }
-                                    return b;
-                                })
-                        );
-                if (StringUtils.isNotEmpty(query)) {
-                    s.highlight(h ->
-                            h.fields("title", f -> f.preTags("<font color='red'>").postTags("</font>"))
-                                    .fields("fullText", f -> f.preTags("<font color='red'>").postTags("</font>")));
-                }
-                s.sort(sort -> sort.field(f -> f.field("_score").order(SortOrder.Desc)));
-                s.sort(sort -> sort.field(f -> f.field("publishDate").order(SortOrder.Desc))); // 排序: _score:desc + publishDate:desc
-    //            s.source(source -> source.filter(f -> f.excludes("fullText"))); // 过滤字段
-                s.from((pageNum - 1) * pageSize).size(pageSize);  // 分页
-                return s;
-            }, ObjectNode.class);
-            List<ESContentVO> list = sr.hits().hits().stream().map(hit -> {
-                ObjectNode source = hit.source();
+            SearchQuery searchQuery = ContentIndexService.newFullTextQuery(query, onlyTitle)
+                    .filter("contentType", contentType)
+                    .page(pageNum, pageSize);
+            SearchResult sr = this.searchService.search(site.getSiteId(), searchQuery);
+            List<ESContentVO> list = sr.getHits().stream().map(hit -> {
+                Map<String, Object> source = hit.getSource();
                 ESContentVO vo = JacksonUtils.getObjectMapper().convertValue(source, ESContentVO.class);
-                source.fieldNames().forEachRemaining(fieldName -> {
+                source.forEach((fieldName, value) -> {
                     if (fieldName.startsWith(IMetaModelType.DATA_FIELD_PREFIX)) {
-                        vo.getExtendData().put(fieldName, source.get(fieldName).asText());
+                        vo.getExtendData().put(fieldName, String.valueOf(value));
                     }
                 });
-                vo.setHitScore(hit.score());
+                vo.setHitScore(hit.getScore());
                 vo.setPublishDateInstance(LocalDateTime.ofEpochSecond(vo.getPublishDate(), 0, ZoneOffset.UTC));
                 vo.setCreateTimeInstance(LocalDateTime.ofEpochSecond(vo.getCreateTime(), 0, ZoneOffset.UTC));
                 CmsCatalog catalog = this.catalogService.getCatalog(vo.getCatalogId());
@@ -153,7 +109,7 @@ public class PublicSearchApiController {
                     }).collect(Collectors.joining(" > "));
                     vo.setCatalogName(catalogName);
                 }
-                hit.highlight().forEach((key, value) -> {
+                hit.getHighlight().forEach((key, value) -> {
                     if (key.equals("fullText")) {
                         vo.setFullText(StringUtils.join(value.toArray(String[]::new)));
                     } else if (key.equals("title")) {
@@ -166,7 +122,7 @@ public class PublicSearchApiController {
             result.put("code", 200);
             result.put("msg", "操作成功");
             result.put("rows", list);
-            result.put("total", sr.hits().total().value());
+            result.put("total", sr.getTotal());
         } catch (Exception e) {
             result.put("code", 500);
             result.put("msg", "搜索失败: " + e.getMessage());
@@ -15,12 +15,6 @@
  */
 package com.chestnut.cms.search.service;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.ElasticsearchException;
-import co.elastic.clients.elasticsearch._types.mapping.TypeMapping;
-import co.elastic.clients.elasticsearch.core.GetResponse;
-import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
-import co.elastic.clients.elasticsearch.indices.CreateIndexResponse;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.chestnut.cms.search.CmsSearchConstants;
@@ -31,6 +25,8 @@ import com.chestnut.cms.search.properties.EnableIndexProperty;
 import com.chestnut.common.async.AsyncTask;
 import com.chestnut.common.async.AsyncTaskManager;
 import com.chestnut.common.utils.Assert;
+import com.chestnut.common.utils.JacksonUtils;
+import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.core.IContent;
 import com.chestnut.contentcore.core.IContentType;
 import com.chestnut.contentcore.core.impl.InternalDataType_Content;
@@ -45,21 +41,34 @@ import com.chestnut.contentcore.service.ISiteService;
 import com.chestnut.contentcore.util.ContentCoreUtils;
 import com.chestnut.contentcore.util.InternalUrlUtils;
 import com.chestnut.exmodel.service.ExModelService;
+import com.chestnut.search.SearchConsts;
+import com.chestnut.search.config.properties.SearchProperties;
+import com.chestnut.search.core.ISearchType;
+import com.chestnut.search.core.SearchQuery;
+import com.chestnut.search.core.SearchResult;
+import com.chestnut.search.domain.dto.SearchModelDTO;
+import com.chestnut.search.exception.SearchErrorCode;
 import com.chestnut.system.fixed.dict.YesOrNo;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -74,177 +83,302 @@ public class ContentIndexService implements CommandLineRunner {
 
 	private final AsyncTaskManager asyncTaskManager;
 
-	private final ElasticsearchClient esClient;
-
 	private final ExModelService extendModelService;
 
+	private final SearchProperties searchProperties;
+
+	private final List<ISearchType> searchTypes;
+
+	private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+
+	private static final DateTimeFormatter INDEX_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+	/**
+	 * 已确认存在的索引，避免每次写入文档都请求检索引擎判断索引是否存在
+	 */
+	private final Set<String> existsIndices = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * 待写入的内容索引Document
+	 */
+	private final Map<DocKey, Map<String, Object>> pendingDocs = new ConcurrentHashMap<>();
+
+	/**
+	 * 当前部署配置的检索引擎
+	 */
+	public ISearchType getSearchType() {
+		String type = this.searchProperties.getType();
+		Optional<ISearchType> opt = this.searchTypes.stream().filter(t -> t.getType().equals(type)).findFirst();
+		Assert.isTrue(opt.isPresent(), () -> SearchErrorCode.UNSUPPORTED_SEARCH_TYPE.exception(type));
+		return opt.get();
+	}
+
 	public void createIndex(CmsSite site) {
-		String indexName = CmsSearchConstants.indexName(site.getSiteId().toString());
+		createIndex(CmsSearchConstants.indexName(site.getSiteId().toString()));
+	}
+
+	private void createIndex(String indexName) {
+		if (this.existsIndices.contains(indexName)) {
+			return;
+		}
 		try {
-			boolean exists = esClient.indices().exists(fn -> fn.index(indexName)).value();
-			if (exists) {
+			ISearchType searchType = getSearchType();
+			if (searchType.existsIndex(indexName)) {
+				this.existsIndices.add(indexName);
 				return;
 			}
 			String analyzeType = SearchAnalyzeType.getValue();
 			// 创建索引
-			TypeMapping typeMapping = new TypeMapping.Builder()
-				.properties("title", fn -> fn.text(b -> b
-					.analyzer(analyzeType)
-					.fields("suggest", s -> s
-						.completion(c -> c
-							.analyzer(analyzeType) // The index analyzer to use, defaults to simple.
-							.searchAnalyzer(analyzeType) // The search analyzer to use, defaults to value of analyzer.
-//							.preserveSeparators(true) // 默认true，设置成false会忽略空格进行匹配
-//							.preservePositionIncrements(true) // 默认true，设置成false会忽略停用词
-							.maxInputLength(50)
-					))
-				))
-				.properties("fullText", fn -> fn.text(b -> b
-					.analyzer(analyzeType)
-				))
-				.properties("keywords", fn -> fn
-					.keyword(b -> b.index(false)
-//						.ignoreAbove(500) // keywords可通过设置ignoreAbove指定字段被索引的最大长度（默认值：256）。超过该长度的字符串将不会被索引，但依然会存储。
-					)
-				)
-				.properties("tags", fn -> fn.keyword(b -> b.index(false)))
-				.properties("contentType", fn -> fn.keyword(b -> b))
-				.properties("catalogAncestors", fn -> fn.keyword(b -> b))
-				.properties("logo", fn -> fn.keyword(b -> b.index(false)))
-				.properties("author", fn -> fn.keyword(b -> b))
-				.properties("editor", fn -> fn.keyword(b -> b))
-				.properties("status", fn -> fn.keyword(b -> b))
-				.properties("publishDate", fn -> fn.long_(l -> l))
-				.build();
-			CreateIndexResponse response = esClient.indices().create(fn -> fn
-					.index(indexName)
-					.mappings(typeMapping));
-			Assert.isTrue(response.acknowledged(), CmsSearchErrorCode.CREATE_INDEX_ERR::exception);
+			SearchModelDTO model = new SearchModelDTO();
+			model.setName(indexName);
+			SearchModelDTO.SearchIndexField title = newIndexField("title", SearchConsts.FieldType_Text, true);
+			title.setAnalyzer(analyzeType);
+			title.setSuggest(true);
+			model.getFields().add(title);
+			SearchModelDTO.SearchIndexField fullText = newIndexField("fullText", SearchConsts.FieldType_Text, true);
+			fullText.setAnalyzer(analyzeType);
+			model.getFields().add(fullText);
+			model.getFields().add(newIndexField("keywords", SearchConsts.FieldType_Keyword, false));
+			model.getFields().add(newIndexField("tags", SearchConsts.FieldType_Keyword, true));
+			model.getFields().add(newIndexField("contentType", SearchConsts.FieldType_Keyword, true));
+			model.getFields().add(newIndexField("catalogAncestors", SearchConsts.FieldType_Keyword, true));
+			model.getFields().add(newIndexField("logo", SearchConsts.FieldType_Keyword, false));
+			model.getFields().add(newIndexField("author", SearchConsts.FieldType_Keyword, true));
+			model.getFields().add(newIndexField("editor", SearchConsts.FieldType_Keyword, true));
+			model.getFields().add(newIndexField("status", SearchConsts.FieldType_Keyword, true));
+			model.getFields().add(newIndexField("publishDate", SearchConsts.FieldType_Long, true));
+			Assert.isTrue(searchType.addIndex(model), CmsSearchErrorCode.CREATE_INDEX_ERR::exception);
+			this.existsIndices.add(indexName);
 		} catch (IOException e) {
-			log.error("Create elasticsearch index failed: " + indexName, e);
+			log.error("Create search index failed: " + indexName, e);
 		}
 	}
 
+	private SearchModelDTO.SearchIndexField newIndexField(String name, String type, boolean index) {
+		SearchModelDTO.SearchIndexField field = new SearchModelDTO.SearchIndexField(name, name, type, false);
+		field.setIndex(index);
+		return field;
+	}
+
 	/**
 	 * 删除站点索引库
 	 */
 	public void deleteIndex(CmsSite site) {
 		String indexName = CmsSearchConstants.indexName(site.getSiteId().toString());
 		try {
-			boolean exists = esClient.indices().exists(fn -> fn.index(indexName)).value();
-			if (exists) {
+			ISearchType searchType = getSearchType();
+			this.existsIndices.remove(indexName);
+			if (!searchType.existsIndex(indexName)) {
 				return;
 			}
-			esClient.indices().delete(fn -> fn.index(indexName));
+			searchType.deleteIndex(indexName);
 		} catch (IOException e) {
-			log.error("Delete elasticsearch index failed: " + indexName, e);
+			log.error("Delete search index failed: " + indexName, e);
 		}
 	}
 
-	public void deleteContentIndices(CmsSite site) throws IOException {
-		createIndex(site);
-		// 删除站点索引文档数据
-		long total = this.contentService.dao().lambdaQuery().eq(CmsContent::getSiteId, site.getSiteId()).count();
-		long pageSize = 1000;
-		for (int i = 0; i * pageSize < total; i++) {
-			List<Long> contentIds = this.contentService.dao().lambdaQuery()
-					.select(List.of(CmsContent::getContentId))
-					.eq(CmsContent::getSiteId, site.getSiteId())
-					.page(new Page<>(i, pageSize, false))
-					.getRecords().stream().map(CmsContent::getContentId).toList();
-			deleteContentDoc(site.getSiteId(), contentIds);
+	/**
+	 * 创建/更新内容索引Document
+	 *
+	 * <p>
+	 * 文档加入待写入缓冲区（同一内容只保留最新文档），后台每秒或缓冲数量达到批量写入上限时批量写入检索引擎
+	 * </p>
+	 */
+	public void createContentDoc(IContent<?> content) {
+		if (!isIndexEnabled(content, content.getSite())) {
+			return;
+		}
+		DocKey key = new DocKey(content.getSiteId(), content.getContentEntity().getContentId().toString());
+		this.pendingDocs.put(key, newESContentDoc(content));
+		if (this.pendingDocs.size() >= this.searchProperties.getBulk().getActions()) {
+			this.flushContentDocs();
 		}
 	}
 
 	/**
-	 * 创建/更新内容索引Document
+	 * 批量写入缓冲区中的内容索引Document
 	 */
-	public void createContentDoc(IContent<?> content) {
-		CmsSite site = siteService.getSite(content.getSiteId());
-		createIndex(site);
-		// 判断栏目/站点配置是否生成索引
+	public void flushContentDocs() {
+		synchronized (this.pendingDocs) {
+			if (this.pendingDocs.isEmpty()) {
+				return;
+			}
+			Map<Long, Map<String, Map<String, Object>>> siteDocs = new HashMap<>();
+			for (DocKey key : this.pendingDocs.keySet()) {
+				Map<String, Object> doc = this.pendingDocs.remove(key);
+				if (Objects.nonNull(doc)) {
+					siteDocs.computeIfAbsent(key.siteId(), id -> new LinkedHashMap<>()).put(key.contentId(), doc);
+				}
+			}
+			siteDocs.forEach((siteId, docs) -> {
+				String indexName = CmsSearchConstants.indexName(siteId.toString());
+				try {
+					createIndex(indexName);
+					getSearchType().upsertDocuments(indexName, docs);
+				} catch (Exception e) {
+					log.error("Update search index documents failed, site: {}, size: {}", siteId, docs.size(), e);
+				}
+			});
+		}
+	}
+
+	/**
+	 * 判断栏目/站点配置是否生成索引
+	 */
+	private boolean isIndexEnabled(IContent<?> content, CmsSite site) {
 		String enableIndex = EnableIndexProperty.getValue(content.getCatalog().getConfigProps(),
-				content.getSite().getConfigProps());
-		if (YesOrNo.isNo(enableIndex)) {
+				site.getConfigProps());
+		return !YesOrNo.isNo(enableIndex);
+	}
+
+	/**
+	 * 删除内容索引
+	 */
+	public void deleteContentDoc(Long siteId, List<Long> contentIds) throws IOException {
+		String indexName = CmsSearchConstants.indexName(siteId.toString());
+		createIndex(indexName);
+		// 与缓冲区写入互斥，避免已删除的内容被缓冲区中的文档重新写入
+		synchronized (this.pendingDocs) {
+			contentIds.forEach(contentId -> this.pendingDocs.remove(new DocKey(siteId, contentId.toString())));
+			getSearchType().deleteDocument(indexName, contentIds.stream().map(Object::toString).toList());
+		}
+	}
+
+	/**
+	 * 重建栏目内容索引
+	 *
+	 * @param catalog 栏目
+	 * @param includeChild 是否包含子栏目内容
+	 */
+	public void rebuildCatalog(CmsCatalog catalog, boolean includeChild) throws InterruptedException {
+		// 栏目移动后祖级路径已变更，重新读取栏目信息
+		CmsCatalog current = this.catalogService.getCatalog(catalog.getCatalogId());
+		CmsCatalog target = Objects.isNull(current) ? catalog : current;
+		CmsSite site = this.siteService.getSite(target.getSiteId());
+		String indexName = CmsSearchConstants.indexName(site.getSiteId().toString());
+		createIndex(indexName);
+		reindex(site, indexName, "正在重建栏目【" + target.getName() + "】内容索引", q -> {
+			if (includeChild) {
+				q.likeRight(CmsContent::getCatalogAncestors, target.getAncestors());
+			} else {
+				q.eq(CmsContent::getCatalogId, target.getCatalogId());
+			}
+		});
+	}
+
+	/**
+	 * 按内容ID游标分页读取站点内容并写入指定索引
+	 *
+	 * <p>
+	 * 当前线程只负责读取内容，文档构建及批量写入由有界线程池并发执行，
+	 * 线程池队列满时由当前线程执行，从而限制内存中待处理的内容数量。
+	 * </p>
+	 *
+	 * @param site 站点
+	 * @param indexName 写入的索引名称
+	 * @param message 任务进度信息
+	 * @param condition 内容附加查询条件
+	 */
+	private void reindex(CmsSite site, String indexName, String message,
+						 Consumer<LambdaQueryWrapper<CmsContent>> condition) throws InterruptedException {
+		SearchProperties.Bulk bulk = this.searchProperties.getBulk();
+		LambdaQueryWrapper<CmsContent> countQuery = new LambdaQueryWrapper<CmsContent>()
+				.eq(CmsContent::getSiteId, site.getSiteId());
+		condition.accept(countQuery);
+		long total = this.contentService.dao().count(countQuery);
+		if (total == 0) {
 			return;
 		}
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix("CMS-REINDEX-");
+		executor.setCorePoolSize(bulk.getConcurrency());
+		executor.setMaxPoolSize(bulk.getConcurrency());
+		executor.setQueueCapacity(bulk.getConcurrency() * 2);
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.initialize();
+
+		List<Future<?>> futures = new ArrayList<>();
+		Queue<String> errors = new ConcurrentLinkedQueue<>();
+		AtomicLong indexedCount = new AtomicLong();
 		try {
-			esClient.update(fn -> fn
-					.index(CmsSearchConstants.indexName(content.getSiteId().toString()))
-					.id(content.getContentEntity().getContentId().toString())
-					.doc(newESContentDoc(content))
-					.docAsUpsert(true), ESContent.class);
-		} catch (ElasticsearchException | IOException e) {
-			AsyncTaskManager.addErrMessage(e.getMessage());
-			log.error("Update es index document failed", e);
+			long lastContentId = 0;
+			List<CmsContent> contents;
+			do {
+				AsyncTaskManager.checkInterrupt(); // 允许中断
+				LambdaQueryWrapper<CmsContent> q = new LambdaQueryWrapper<CmsContent>()
+						.eq(CmsContent::getSiteId, site.getSiteId())
+						.gt(CmsContent::getContentId, lastContentId)
+						.orderByAsc(CmsContent::getContentId);
+				condition.accept(q);
+				contents = this.contentService.dao().page(new Page<>(1, bulk.getActions(), false), q).getRecords();
+				if (contents.isEmpty()) {
+					break;
+				}
+				lastContentId = contents.get(contents.size() - 1).getContentId();
+				List<CmsContent> batch = contents;
+				futures.add(executor.submit(() -> {
+					indexContents(site, indexName, batch, errors);
+					indexedCount.addAndGet(batch.size());
+				}));
+				AsyncTaskManager.setTaskProgressInfo((int) Math.min(99, indexedCount.get() * 100 / total), message);
+				reportErrors(errors);
+			} while (contents.size() >= bulk.getActions());
+
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					errors.add(e.getCause().getMessage());
+				}
+			}
+			reportErrors(errors);
+		} finally {
+			executor.shutdown();
 		}
 	}
 
-	private void batchContentDoc(CmsSite site, CmsCatalog catalog, List<CmsContent> contents) throws IOException {
-		if (contents.isEmpty()) {
-			return;
-		}
-		List<BulkOperation> bulkOperationList = new ArrayList<>(contents.size());
+	private void indexContents(CmsSite site, String indexName, List<CmsContent> contents, Queue<String> errors) {
+		Map<String, Map<String, Object>> docs = new LinkedHashMap<>(contents.size());
 		for (CmsContent xContent : contents) {
-			// 判断栏目/站点配置是否生成索引
-			String enableIndex = EnableIndexProperty.getValue(catalog.getConfigProps(), site.getConfigProps());
 			try {
 				IContentType contentType = ContentCoreUtils.getContentType(xContent.getContentType());
 				IContent<?> icontent = contentType.loadContent(xContent);
-				BulkOperation bulkOperation = BulkOperation.of(b ->
-								b.update(up -> up.index(CmsSearchConstants.indexName(xContent.getSiteId().toString()))
-										.id(xContent.getContentId().toString())
-										.action(action -> action.docAsUpsert(true).doc(newESContentDoc(icontent))))
-				);
-				bulkOperationList.add(bulkOperation);
+				if (isIndexEnabled(icontent, site)) {
+					docs.put(xContent.getContentId().toString(), newESContentDoc(icontent));
+				}
 			} catch (Exception e) {
 				log.error("Generate es content instance fail.", e);
-				AsyncTaskManager.addErrMessage(e.getMessage());
+				errors.add(e.getMessage());
 			}
 		}
-		if (!bulkOperationList.isEmpty()) {
-			esClient.bulk(bulk -> bulk.operations(bulkOperationList));
+		if (docs.isEmpty()) {
+			return;
+		}
+		try {
+			getSearchType().upsertDocuments(indexName, docs);
+		} catch (Exception e) {
+			log.error("Create es documents fail.", e);
+			errors.add(e.getMessage());
 		}
 	}
 
 	/**
-	 * 删除内容索引
+	 * 工作线程无法访问当前异步任务，错误信息由任务线程统一记录
 	 */
-	public void deleteContentDoc(Long siteId, List<Long> contentIds) throws ElasticsearchException, IOException {
-		CmsSite site = siteService.getSite(siteId);
-		createIndex(site);
-		List<BulkOperation> bulkOperationList = contentIds.stream().map(contentId -> BulkOperation
-				.of(b -> b.delete(dq -> dq
-						.index(CmsSearchConstants.indexName(siteId.toString()))
-						.id(contentId.toString())
-				))).toList();
-		this.esClient.bulk(bulk -> bulk.operations(bulkOperationList));
-	}
-
-	public void rebuildCatalog(CmsCatalog catalog, boolean includeChild) throws InterruptedException {
-		CmsSite site = this.siteService.getSite(catalog.getSiteId());
-		String enableIndex = EnableIndexProperty.getValue(catalog.getConfigProps(), site.getConfigProps());
-
-		LambdaQueryWrapper<CmsContent> q = new LambdaQueryWrapper<CmsContent>();
-		long total = this.contentService.dao().count(q);
-		long pageSize = 200;
-		int count = 1;
-		for (int i = 0; i * pageSize < total; i++) {
-			try {
-				AsyncTaskManager.setTaskProgressInfo((int) (count++ * 100 / total),
-						"正在重建栏目【" + catalog.getName() + "】内容索引");
-				AsyncTaskManager.checkInterrupt(); // 允许中断
-				Page<CmsContent> page = contentService.dao().page(new Page<>(i, pageSize, false), q);
-				batchContentDoc(site, catalog, page.getRecords());
-			} catch (IOException e) {
-				log.error("Create es documents fail.", e);
-				AsyncTaskManager.addErrMessage(e.getMessage());
-			}
+	private void reportErrors(Queue<String> errors) {
+		String error;
+		while ((error = errors.poll()) != null) {
+			AsyncTaskManager.addErrMessage(error);
 		}
 	}
 
 	/**
 	 * 重建指定站点所有内容索引
+	 *
+	 * <p>
+	 * 全量写入新索引后原子切换站点索引别名，重建期间检索不受影响；
+	 * 切换后删除旧索引，并补齐重建期间更新的内容。
+	 * </p>
 	 */
 	public AsyncTask rebuildAll(CmsSite site) {
 		AsyncTask asyncTask = new AsyncTask() {
@@ -252,27 +386,24 @@ public class ContentIndexService implements CommandLineRunner {
 			@Override
 			public void run0() {
 				try {
-					String indexName = CmsSearchConstants.indexName(site.getSiteId().toString());
-					boolean exists = esClient.indices().exists(fn -> fn.index(indexName)).value();
-					if (exists) {
-						// 先删除内容索引文档
-						deleteContentIndices(site);
-
-						esClient.indices().delete(fn ->fn.index(indexName));
-						while(exists) {
-							exists = esClient.indices().exists(fn -> fn.index(indexName)).value();
-							if (exists) {
-								Thread.sleep(2000);
-							}
-						}
-					}
-					createIndex(site);
+					String alias = CmsSearchConstants.indexName(site.getSiteId().toString());
+					String indexName = alias + "_" + LocalDateTime.now().format(INDEX_SUFFIX_FORMATTER);
+					LocalDateTime startTime = LocalDateTime.now();
+					ISearchType searchType = getSearchType();
+
+					createIndex(indexName);
+					reindex(site, indexName, "正在重建全站内容索引", q -> {});
 
-					List<CmsCatalog> catalogs = catalogService.lambdaQuery()
-							.eq(CmsCatalog::getSiteId, site.getSiteId()).list();
-					for (CmsCatalog catalog : catalogs) {
-						rebuildCatalog(catalog, false);
+					this.setProgressInfo(99, "正在切换站点索引");
+					List<String> oldIndices = searchType.switchAlias(alias, indexName);
+					existsIndices.remove(indexName);
+					existsIndices.add(alias);
+					for (String oldIndex : oldIndices) {
+						searchType.deleteIndex(oldIndex);
 					}
+					// 补齐重建期间更新的内容
+					reindex(site, alias, "正在同步重建期间更新的内容",
+							q -> q.ge(CmsContent::getUpdateTime, startTime));
 					this.setProgressInfo(100, "重建全站索引完成");
 				} catch (Exception e) {
 					log.error("RebuildAllContentIndex failed.", e);
@@ -293,14 +424,53 @@ public class ContentIndexService implements CommandLineRunner {
 	 * @param contentId 内容ID
 	 * @return 索引Document详情
 	 */
-	public ESContent getContentDocDetail(Long siteId, Long contentId) throws ElasticsearchException, IOException {
+	public ESContent getContentDocDetail(Long siteId, Long contentId) throws IOException {
 		CmsSite site = siteService.getSite(siteId);
 		createIndex(site);
-		GetResponse<ESContent> res = this.esClient.get(qb -> qb
-						.index(CmsSearchConstants.indexName(siteId.toString()))
-						.id(contentId.toString()),
-				ESContent.class);
-		return res.source();
+		Map<String, Object> source = getSearchType().getDocument(CmsSearchConstants.indexName(siteId.toString()),
+				contentId.toString());
+		return Objects.isNull(source) ? null : JacksonUtils.getObjectMapper().convertValue(source, ESContent.class);
+	}
+
+	/**
+	 * 检索站点内容索引
+	 */
+	public SearchResult search(Long siteId, SearchQuery query) throws IOException {
+		return getSearchType().search(CmsSearchConstants.indexName(siteId.toString()), query);
+	}
+
+	/**
+	 * 内容标题输入词前缀匹配提示
+	 */
+	public List<String> suggest(Long siteId, String prefix, int size) throws IOException {
+		return getSearchType().suggest(CmsSearchConstants.indexName(siteId.toString()), "title", prefix, size);
+	}
+
+	/**
+	 * 按字段值分组统计站点内容索引文档数
+	 */
+	public Map<String, Long> countByField(Long siteId, SearchQuery query, String field, int size) throws IOException {
+		return getSearchType().countByField(CmsSearchConstants.indexName(siteId.toString()), query, field, size);
+	}
+
+	/**
+	 * 内容全文检索条件：标题权重10、正文权重1，高亮标题及正文，按相关度+发布时间倒序
+	 *
+	 * @param query 检索词
+	 * @param onlyTitle 是否只检索标题
+	 */
+	public static SearchQuery newFullTextQuery(String query, boolean onlyTitle) {
+		SearchQuery searchQuery = new SearchQuery().sortField("publishDate");
+		if (StringUtils.isNotEmpty(query)) {
+			Map<String, Float> fields = new LinkedHashMap<>();
+			fields.put("title", 10F);
+			if (!onlyTitle) {
+				fields.put("fullText", 1F);
+			}
+			searchQuery.query(query, SearchConsts.IKAnalyzeType_Smart, fields)
+					.highlight(List.of("title", "fullText"), "<font color='red'>", "</font>");
+		}
+		return searchQuery;
 	}
 
 	private Map<String, Object> newESContentDoc(IContent<?> content) {
@@ -338,24 +508,33 @@ public class ContentIndexService implements CommandLineRunner {
 		return data;
 	}
 
-	public boolean isElasticSearchAvailable() {
+	public boolean isSearchAvailable() {
 		try {
-			return esClient.ping().value();
+			return getSearchType().isAvailable();
 		} catch (Exception e) {
 			return false;
 		}
 	}
 
+	@PreDestroy
+	public void preDestroy() {
+		this.flushContentDocs();
+	}
+
 	@Override
 	public void run(String... args) throws Exception {
-		if (isElasticSearchAvailable()) {
+		threadPoolTaskScheduler.schedule(this::flushContentDocs, new PeriodicTrigger(Duration.ofSeconds(1)));
+		if (isSearchAvailable()) {
             // 创建内容索引库
             this.siteService.lambdaQuery()
 					.select(CmsSite::getSiteId)
 					.list()
 					.forEach(this::createIndex);
 		} else {
-			log.warn("ES service not available!");
+			log.warn("Search service not available: {}", searchProperties.getType());
 		}
 	}
+
+	private record DocKey(Long siteId, String contentId) {
+	}
 }
@@ -15,11 +15,7 @@
  */
 package com.chestnut.cms.search.template.tag;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.SortOrder;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.chestnut.cms.search.CmsSearchConstants;
 import com.chestnut.cms.search.service.ContentIndexService;
 import com.chestnut.common.staticize.FreeMarkerUtils;
 import com.chestnut.common.staticize.core.TemplateContext;
@@ -31,11 +27,12 @@ import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.domain.CmsCatalog;
 import com.chestnut.contentcore.domain.CmsContent;
 import com.chestnut.contentcore.domain.dto.ContentDTO;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.service.ICatalogService;
 import com.chestnut.contentcore.service.IContentService;
 import com.chestnut.contentcore.util.TemplateUtils;
 import com.chestnut.search.SearchConsts;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.chestnut.search.core.SearchQuery;
 import freemarker.core.Environment;
 import freemarker.template.TemplateException;
 import lombok.RequiredArgsConstructor;
@@ -62,8 +59,6 @@ public class CmsRelaContentTag extends AbstractListTag {
 
 	private final IContentService contentService;
 
-	private final ElasticsearchClient esClient;
-
 	private final ContentIndexService searchService;
 
 	@Override
@@ -79,7 +74,8 @@ public class CmsRelaContentTag extends AbstractListTag {
 		Long siteId = TemplateUtils.evalSiteId(env);
 		long catalogId = MapUtils.getLongValue(attrs, "catalogid", 0);
 		String keywords = StringUtils.replaceEx(MapUtils.getString(attrs, "keywords"), ",", " ");
-		if (this.searchService.isElasticSearchAvailable() && StringUtils.isNotEmpty(keywords)) {
+		FreeMarkerUtils.getTemplateContext(env).addDependency(PublishDependencyService.contentOfSite(siteId));
+		if (this.searchService.isSearchAvailable() && StringUtils.isNotEmpty(keywords)) {
 			try {
 				List<ContentDTO> list = findContentByIndex(siteId, catalogId, keywords, size);
 				return TagPageData.of(list, list.size());
@@ -131,33 +127,15 @@ public class CmsRelaContentTag extends AbstractListTag {
 	}
 
 	private List<ContentDTO> findContentByIndex(long siteId, long catalogId, String keywords, int size) throws IOException {
-		SearchResponse<ObjectNode> sr = esClient.search(s -> {
-			s.index(CmsSearchConstants.indexName(Long.toString(siteId))) // 索引
-					.query(q ->
-							q.bool(b -> {
-								b.must(must -> must.term(tq -> tq.field("siteId").value(siteId)));
-								if (catalogId > 0) {
-									b.must(must -> must.term(tq -> tq.field("catalogId").value(catalogId)));
-								}
-								if (StringUtils.isNotEmpty(keywords)) {
-									b.must(must -> must
-											.multiMatch(match -> match
-													.analyzer(SearchConsts.IKAnalyzeType_Smart)
-													.fields("title^10", "fullText^1")
-													.query(keywords)
-											)
-									);
-								}
-								return b;
-							})
-					);
-			s.sort(sort -> sort.field(f -> f.field("_score").order(SortOrder.Desc)));
-			s.sort(sort -> sort.field(f -> f.field("publishDate").order(SortOrder.Desc))); // 排序: _score:desc + publishDate:desc
-			s.source(source -> source.filter(f -> f.excludes("fullText"))); // 过滤字段
-			s.from(0).size(size);  // 分页，0开始
-			return s;
-		}, ObjectNode.class);
-		return sr.hits().hits().stream().map(hit -> JacksonUtils.getObjectMapper().convertValue(hit.source(), ContentDTO.class)).toList();
+		SearchQuery query = new SearchQuery()
+				.filter("siteId", siteId)
+				.filter("catalogId", catalogId > 0 ? catalogId : null)
+				.query(keywords, SearchConsts.IKAnalyzeType_Smart, Map.of("title", 10F, "fullText", 1F))
+				.sortField("publishDate")
+				.exclude("fullText")
+				.page(1, size);
+		return this.searchService.search(siteId, query).getHits().stream()
+				.map(hit -> JacksonUtils.getObjectMapper().convertValue(hit.getSource(), ContentDTO.class)).toList();
 	}
 
 	@Override
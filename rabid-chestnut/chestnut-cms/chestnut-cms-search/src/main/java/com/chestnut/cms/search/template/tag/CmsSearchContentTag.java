@@ -15,10 +15,7 @@
  */
 package com.chestnut.cms.search.template.tag;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.SortOrder;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
-import com.chestnut.cms.search.CmsSearchConstants;
+import com.chestnut.cms.search.service.ContentIndexService;
 import com.chestnut.cms.search.vo.ESContentVO;
 import com.chestnut.common.staticize.FreeMarkerUtils;
 import com.chestnut.common.staticize.core.TemplateContext;
@@ -29,11 +26,12 @@ import com.chestnut.common.staticize.tag.TagAttrOption;
 import com.chestnut.common.utils.IdUtils;
 import com.chestnut.common.utils.JacksonUtils;
 import com.chestnut.common.utils.StringUtils;
+import com.chestnut.contentcore.publish.PublishDependencyService;
 import com.chestnut.contentcore.util.InternalUrlUtils;
 import com.chestnut.contentcore.util.TemplateUtils;
 import com.chestnut.exmodel.CmsExtendMetaModelType;
-import com.chestnut.search.SearchConsts;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.chestnut.search.core.SearchQuery;
+import com.chestnut.search.core.SearchResult;
 import freemarker.core.Environment;
 import freemarker.template.TemplateException;
 import lombok.RequiredArgsConstructor;
@@ -44,6 +42,7 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -62,7 +61,7 @@ public class CmsSearchContentTag extends AbstractListTag {
     private final static String ATTR_CONTENT_TYPE = "contenttype";
     private final static String ATTR_MODE = "mode";
 
-    private final ElasticsearchClient esClient;
+    private final ContentIndexService searchService;
 
     @Override
     public List<TagAttr> getTagAttrs() {
@@ -85,80 +84,34 @@ public class CmsSearchContentTag extends AbstractListTag {
 //		}
         String contentType = MapUtils.getString(attrs, ATTR_CONTENT_TYPE);
         Long catalogId = MapUtils.getLong(attrs, ATTR_CATALOG_ID);
+        FreeMarkerUtils.getTemplateContext(env).addDependency(PublishDependencyService.contentOfSite(siteId));
         try {
-            SearchResponse<ObjectNode> sr = esClient.search(s -> {
-                s.index(CmsSearchConstants.indexName(siteId.toString())) // 索引
-                        .query(q ->
-                                q.bool(b -> {
-                                    b.must(must -> must.term(tq -> tq.field("siteId").value(siteId)));
-                                    if (StringUtils.isNotEmpty(contentType)) {
-                                        b.must(must -> must.term(tq -> tq.field("contentType").value(contentType)));
-                                    }
-                                    if (IdUtils.validate(catalogId)) {
-                                        b.must(must -> must.term(tq -> tq.field("catalogId").value(catalogId)));
-                                    }
-                                    if (StringUtils.isNotEmpty(query)) {
-                                        if (SearchMode.isFullText(mode)) {
-                                            b.must(must -> must
-                                                    .multiMatch(match -> match
-                                                            .analyzer(SearchConsts.IKAnalyzeType_Smart)
-                                                            .fields("title^10", "fullText^1")
-                                                            .query(query)
-                                                    )
-                                            );
-                                        } else if (SearchMode.isTagAnd(mode)) {
-                                            String[] keywords = StringUtils.split(query, ",");
-                                            for (String keyword : keywords) {
-                                                if (StringUtils.isNotEmpty(keyword)) {
-                                                    b.must(must -> must.match(term -> term.field("tags").query(keyword)));
-                                                }
-                                            }
-                                        } else {
-                                            b.must(must -> {
-                                                String[] keywords = StringUtils.split(query, ",");
-                                                for (String keyword : keywords) {
-                                                    if (StringUtils.isNotEmpty(keyword)) {
-                                                        must.match(m ->
-                                                                m.field("tags").query(keyword));
-//												must.constantScore(cs ->
-//														cs.boost(1F).filter(f ->
-//																f.match(m ->
-//																		m.field("tags").query(keyword))));
-                                                    }
-                                                }
-                                                return must;
-                                            });
-                                        }
-                                    }
-                                    return b;
-                                })
-                        );
-                if (SearchMode.isFullText(mode)) {
-                    s.highlight(h ->
-                            h.fields("title", f -> f.preTags("<font color='red'>").postTags("</font>"))
-                                    .fields("fullText", f -> f.preTags("<font color='red'>").postTags("</font>")));
-                }
-                s.sort(sort -> sort.field(f -> f.field("_score").order(SortOrder.Desc)));
-                s.sort(sort -> sort.field(f -> f.field("publishDate").order(SortOrder.Desc))); // 排序: _score:desc + publishDate:desc
-                s.source(source -> source.filter(f -> f.excludes("fullText"))); // 过滤字段
-                if (page) {
-                    s.from((pageIndex - 1) * size).size(size);  // 分页
-                } else {
-                    s.from(0).size(size);  // 分页，0开始
+            SearchQuery searchQuery;
+            if (SearchMode.isFullText(mode)) {
+                searchQuery = ContentIndexService.newFullTextQuery(query, false);
+            } else {
+                searchQuery = new SearchQuery().sortField("publishDate");
+                if (StringUtils.isNotEmpty(query)) {
+                    List<String> tags = Arrays.stream(StringUtils.split(query, ",")).filter(StringUtils::isNotEmpty).toList();
+                    searchQuery.tags("tags", tags, SearchMode.isTagAnd(mode));
                 }
-                return s;
-            }, ObjectNode.class);
-
-            List<ESContentVO> list = sr.hits().hits().stream().map(hit -> {
-                ESContentVO vo = JacksonUtils.getObjectMapper().convertValue(hit.source(), ESContentVO.class);
-                Objects.requireNonNull(hit.source()).fields().forEachRemaining(e -> {
-                    if (e.getKey().startsWith(CmsExtendMetaModelType.DATA_FIELD_PREFIX)) {
-                        String field = e.getKey().substring(CmsExtendMetaModelType.DATA_FIELD_PREFIX.length());
-                        String value = e.getValue().asText();
-                        vo.getExtendData().put(field, value);
+            }
+            searchQuery.filter("siteId", siteId)
+                    .filter("contentType", contentType)
+                    .filter("catalogId", IdUtils.validate(catalogId) ? catalogId : null)
+                    .exclude("fullText")
+                    .page(page ? pageIndex : 1, size);
+            SearchResult sr = this.searchService.search(siteId, searchQuery);
+
+            List<ESContentVO> list = sr.getHits().stream().map(hit -> {
+                ESContentVO vo = JacksonUtils.getObjectMapper().convertValue(hit.getSource(), ESContentVO.class);
+                hit.getSource().forEach((key, value) -> {
+                    if (key.startsWith(CmsExtendMetaModelType.DATA_FIELD_PREFIX) && Objects.nonNull(value)) {
+                        String field = key.substring(CmsExtendMetaModelType.DATA_FIELD_PREFIX.length());
+                        vo.getExtendData().put(field, String.valueOf(value));
                     }
                 });
-                vo.setHitScore(hit.score());
+                vo.setHitScore(hit.getScore());
                 vo.setPublishDateInstance(LocalDateTime.ofEpochSecond(vo.getPublishDate(), 0, ZoneOffset.UTC));
                 vo.setCreateTimeInstance(LocalDateTime.ofEpochSecond(vo.getCreateTime(), 0, ZoneOffset.UTC));
 
@@ -186,7 +139,7 @@ public class CmsSearchContentTag extends AbstractListTag {
                 }
 
                 if (SearchMode.isFullText(mode)) {
-                    hit.highlight().forEach((key, value) -> {
+                    hit.getHighlight().forEach((key, value) -> {
                         try {
                             if (key.equals("fullText")) {
                                 vo.setFullText(StringUtils.join(value.toArray(String[]::new)));
@@ -200,7 +153,7 @@ public class CmsSearchContentTag extends AbstractListTag {
                 }
                 return vo;
             }).toList();
-            return TagPageData.of(list, page ? Objects.requireNonNull(sr.hits().total()).value() : list.size());
+            return TagPageData.of(list, page ? sr.getTotal() : list.size());
         } catch (IOException e) {
             throw new TemplateException(e, env);
         }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.cms.stat;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 站点访问统计维度
+ *
+ * <p>sqlExpr为访问日志表上计算维度值的SQL表达式，汇总时按此表达式分组，仅限内部常量使用</p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+public enum SiteVisitStatDimension {
+
+	/**
+	 * 站点整体，维度值为空字符串
+	 */
+	Site("site", "''"),
+
+	Catalog("catalog", "IFNULL(catalog_id, 0)"),
+
+	Content("content", "IFNULL(content_id, 0)"),
+
+	/**
+	 * 来源域名，取referer中协议后第一段并去掉查询参数
+	 */
+	Referer("referer", "IFNULL(LEFT(SUBSTRING_INDEX(SUBSTRING_INDEX(SUBSTRING_INDEX(referer, '/', 3), '/', -1), '?', 1), 200), '')"),
+
+	Region("region", "IFNULL(LEFT(address, 200), '')"),
+
+	Browser("browser", "IFNULL(browser, '')"),
+
+	Device("device", "IFNULL(device_type, '')");
+
+	private final String value;
+
+	private final String sqlExpr;
+
+	SiteVisitStatDimension(String value, String sqlExpr) {
+		this.value = value;
+		this.sqlExpr = sqlExpr;
+	}
+
+	public String value() {
+		return value;
+	}
+
+	public String sqlExpr() {
+		return sqlExpr;
+	}
+
+	public static SiteVisitStatDimension of(String value) {
+		return Arrays.stream(values()).filter(d -> Objects.equals(d.value, value)).findFirst().orElse(null);
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.cms.stat.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * CMS访问统计配置属性
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = CmsStatProperties.PREFIX)
+public class CmsStatProperties {
+
+	public static final String PREFIX = "chestnut.cms.stat";
+
+	/**
+	 * 访问日志汇总延迟，统计周期结束超过此时长后才汇总，等待缓冲中的访问日志写入
+	 */
+	private Duration rollupDelay = Duration.ofMinutes(5);
+
+	/**
+	 * 单次任务最多汇总的小时数，首次执行或任务中断较久时分批追赶
+	 */
+	private int maxRollupHours = 168;
+
+	/**
+	 * 单次任务最多汇总的天数
+	 */
+	private int maxRollupDays = 7;
+
+	/**
+	 * 访问日志保留天数，小于等于0时不清理
+	 */
+	private int visitLogRetentionDays = 0;
+
+	/**
+	 * 访问日志单次删除数量
+	 */
+	private int purgeBatchSize = 10000;
+
+	/**
+	 * 访问日志表按evt_time范围分区时，直接删除过期分区代替逐行删除
+	 */
+	private boolean dropExpiredPartitions = false;
+}
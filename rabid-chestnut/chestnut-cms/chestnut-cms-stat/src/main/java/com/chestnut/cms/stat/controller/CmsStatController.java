@@ -19,18 +19,20 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.conditions.query.LambdaQueryChainWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.chestnut.cms.stat.domain.CmsCatalogContentStat;
-import com.chestnut.cms.stat.domain.CmsSiteVisitLog;
-import com.chestnut.cms.stat.domain.CmsUserContentStat;
+import com.chestnut.cms.stat.SiteVisitStatDimension;
+import com.chestnut.cms.stat.domain.*;
 import com.chestnut.cms.stat.domain.vo.ContentDynamicStatDataVO;
 import com.chestnut.cms.stat.domain.vo.ContentStatByCatalogVO;
-import com.chestnut.cms.stat.mapper.CmsCatalogContentStatMapper;
-import com.chestnut.cms.stat.mapper.CmsSiteVisitLogMapper;
-import com.chestnut.cms.stat.mapper.CmsUserContentStatMapper;
+import com.chestnut.cms.stat.mapper.*;
+import com.chestnut.cms.stat.service.ISiteVisitStatService;
+import com.chestnut.cms.stat.service.impl.SiteVisitStatServiceImpl;
 import com.chestnut.common.domain.R;
+import com.chestnut.common.exception.CommonErrorCode;
+import com.chestnut.common.security.anno.ExcelExportable;
 import com.chestnut.common.security.anno.Priv;
 import com.chestnut.common.security.web.BaseRestController;
 import com.chestnut.common.security.web.PageRequest;
+import com.chestnut.common.utils.Assert;
 import com.chestnut.common.utils.ServletUtils;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.contentcore.domain.CmsCatalog;
@@ -40,6 +42,8 @@ import com.chestnut.contentcore.service.ICatalogService;
 import com.chestnut.contentcore.service.IContentService;
 import com.chestnut.contentcore.service.ISiteService;
 import com.chestnut.system.security.AdminUserType;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -47,9 +51,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -76,13 +82,29 @@ public class CmsStatController extends BaseRestController {
 
 	private final CmsUserContentStatMapper contentStatByUserMapper;
 
+	private final CmsSiteVisitHourStatMapper visitHourStatMapper;
+
+	private final CmsSiteVisitDayStatMapper visitDayStatMapper;
+
+	private final ISiteVisitStatService siteVisitStatService;
+
+	@ExcelExportable(value = CmsSiteVisitLog.class, keyset = true, async = true)
 	@GetMapping
 	public R<?> getSiteVisitLogList() {
 		PageRequest pr = this.getPageRequest();
 		CmsSite site = this.siteService.getCurrentSite(ServletUtils.getRequest());
-		Page<CmsSiteVisitLog> page = new LambdaQueryChainWrapper<>(this.siteVisitLogMapper)
-				.eq(CmsSiteVisitLog::getSiteId, site.getSiteId()).orderByDesc(CmsSiteVisitLog::getEvtTime)
-				.page(new Page<>(pr.getPageNumber(), pr.getPageSize(), true));
+		LambdaQueryChainWrapper<CmsSiteVisitLog> q = new LambdaQueryChainWrapper<>(this.siteVisitLogMapper)
+				.eq(CmsSiteVisitLog::getSiteId, site.getSiteId());
+		if (pr.isExport()) {
+			// 导出时按日志ID游标分页
+			if (pr.getExportCursor() instanceof CmsSiteVisitLog last) {
+				q.lt(CmsSiteVisitLog::getLogId, last.getLogId());
+			}
+			q.orderByDesc(CmsSiteVisitLog::getLogId);
+		} else {
+			q.orderByDesc(CmsSiteVisitLog::getEvtTime);
+		}
+		Page<CmsSiteVisitLog> page = q.page(new Page<>(pr.getPageNumber(), pr.getPageSize(), !pr.isExport()));
 		return this.bindDataTable(page);
 	}
 
@@ -129,4 +151,72 @@ public class CmsStatController extends BaseRestController {
 				.selectList(new LambdaQueryWrapper<CmsUserContentStat>().eq(CmsUserContentStat::getSiteId, site.getSiteId()));
 		return R.ok(list);
 	}
+
+	/**
+	 * 站点访问趋势，数据来自访问日志小时/日统计
+	 *
+	 * @param gran 时间粒度：hour/day
+	 */
+	@GetMapping("/visit/trend")
+	public R<?> getSiteVisitTrend(@RequestParam Date beginTime, @RequestParam Date endTime,
+								  @RequestParam(required = false, defaultValue = "day") String gran) {
+		CmsSite site = this.siteService.getCurrentSite(ServletUtils.getRequest());
+		boolean hourly = "hour".equals(gran);
+		DateTimeFormatter format = hourly ? SiteVisitStatServiceImpl.HOUR_FORMAT : SiteVisitStatServiceImpl.DAY_FORMAT;
+		LocalDateTime begin = LocalDateTime.ofInstant(beginTime.toInstant(), ZoneId.systemDefault())
+				.truncatedTo(hourly ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+		LocalDateTime end = LocalDateTime.ofInstant(endTime.toInstant(), ZoneId.systemDefault());
+
+		Map<String, Long[]> dataMap = new HashMap<>();
+		if (hourly) {
+			new LambdaQueryChainWrapper<>(this.visitHourStatMapper)
+					.eq(CmsSiteVisitHourStat::getSiteId, site.getSiteId())
+					.eq(CmsSiteVisitHourStat::getDimType, SiteVisitStatDimension.Site.value())
+					.ge(CmsSiteVisitHourStat::getHour, begin.format(format))
+					.le(CmsSiteVisitHourStat::getHour, end.format(format))
+					.list().forEach(stat -> dataMap.put(stat.getHour(), new Long[] { stat.getPv(), stat.getIp() }));
+		} else {
+			new LambdaQueryChainWrapper<>(this.visitDayStatMapper)
+					.eq(CmsSiteVisitDayStat::getSiteId, site.getSiteId())
+					.eq(CmsSiteVisitDayStat::getDimType, SiteVisitStatDimension.Site.value())
+					.ge(CmsSiteVisitDayStat::getDay, begin.format(format))
+					.le(CmsSiteVisitDayStat::getDay, end.format(format))
+					.list().forEach(stat -> dataMap.put(stat.getDay(), new Long[] { stat.getPv(), stat.getIp() }));
+		}
+
+		List<String> xAxisDatas = new ArrayList<>();
+		Map<String, List<Long>> lineDatas = new HashMap<>();
+		List<Long> pvDatas = new ArrayList<>();
+		List<Long> ipDatas = new ArrayList<>();
+		while (!begin.isAfter(end)) {
+			String period = begin.format(format);
+			xAxisDatas.add(period);
+
+			Long[] data = dataMap.get(period);
+			pvDatas.add(Objects.isNull(data) ? 0L : data[0]);
+			ipDatas.add(Objects.isNull(data) ? 0L : data[1]);
+
+			begin = hourly ? begin.plusHours(1) : begin.plusDays(1);
+		}
+		lineDatas.put("PV", pvDatas);
+		lineDatas.put("IP", ipDatas);
+		return R.ok(Map.of("xAxisDatas", xAxisDatas, "lineDatas", lineDatas));
+	}
+
+	/**
+	 * 站点访问按维度排行，数据来自访问日志日统计
+	 *
+	 * @param dimType 统计维度：catalog/content/referer/region/browser/device
+	 */
+	@GetMapping("/visit/top")
+	public R<?> getSiteVisitTop(@RequestParam String dimType, @RequestParam Date beginTime, @RequestParam Date endTime,
+								@RequestParam(required = false, defaultValue = "10") @Min(1) @Max(100) Integer limit) {
+		SiteVisitStatDimension dimension = SiteVisitStatDimension.of(dimType);
+		Assert.notNull(dimension, () -> CommonErrorCode.INVALID_REQUEST_ARG.exception("dimType"));
+		CmsSite site = this.siteService.getCurrentSite(ServletUtils.getRequest());
+		List<CmsSiteVisitDayStat> list = this.siteVisitStatService.getTopStats(site.getSiteId(), dimension,
+				LocalDateTime.ofInstant(beginTime.toInstant(), ZoneId.systemDefault()).toLocalDate(),
+				LocalDateTime.ofInstant(endTime.toInstant(), ZoneId.systemDefault()).toLocalDate(), limit);
+		return R.ok(list);
+	}
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.cms.stat.domain;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 站点访问日统计数据
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Getter
+@Setter
+@TableName(CmsSiteVisitDayStat.TABLE_NAME)
+public class CmsSiteVisitDayStat implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	public final static String TABLE_NAME = "cms_site_visit_day_stat";
+
+	@TableId(value = "stat_id", type = IdType.AUTO)
+	private Long statId;
+
+	/**
+	 * 站点ID
+	 */
+	private Long siteId;
+
+	/**
+	 * 统计周期，格式：yyyyMMdd
+	 */
+	private String day;
+
+	/**
+	 * 统计维度
+	 *
+	 * @see com.chestnut.cms.stat.SiteVisitStatDimension
+	 */
+	private String dimType;
+
+	/**
+	 * 维度值
+	 */
+	private String dimValue;
+
+	/**
+	 * 浏览量
+	 */
+	private Long pv;
+
+	/**
+	 * 独立IP数
+	 */
+	private Long ip;
+
+	/**
+	 * 维度值名称，栏目/内容维度时为栏目名称/内容标题
+	 */
+	@TableField(exist = false)
+	private String dimName;
+}
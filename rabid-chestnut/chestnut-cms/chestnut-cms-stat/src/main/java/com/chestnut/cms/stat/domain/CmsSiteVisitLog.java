@@ -15,6 +15,9 @@
  */
 package com.chestnut.cms.stat.domain;
 
+import com.alibaba.excel.annotation.ExcelIgnore;
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.converters.longconverter.LongStringConverter;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
@@ -31,76 +34,91 @@ public class CmsSiteVisitLog implements Serializable {
 	
 	public final static String TABLE_NAME = "cms_site_visit_log";
 
+	@ExcelIgnore
 	@TableId(value = "log_id", type = IdType.INPUT)
 	private Long logId;
 
 	/**
 	 * 站点ID
 	 */
+	@ExcelIgnore
 	private Long siteId;
 	
 	/**
 	 * 栏目ID
 	 */
+	@ExcelProperty(value = "栏目ID", converter = LongStringConverter.class)
 	private Long catalogId;
 	
 	/**
 	 * 内容ID
 	 */
+	@ExcelProperty(value = "内容ID", converter = LongStringConverter.class)
 	private Long contentId;
 
 	/**
 	 * 请求域
 	 */
+	@ExcelProperty("请求域")
 	private String host;
 
 	/**
 	 * 请求地址
 	 */
+	@ExcelProperty("请求地址")
 	private String uri;
 
 	/**
 	 * IP地址
 	 */
+	@ExcelProperty("IP地址")
 	private String ip;
 
 	/**
 	 * IP所属地区
 	 */
+	@ExcelProperty("IP所属地区")
 	private String address;
 
 	/**
 	 * 来源地址
 	 */
+	@ExcelProperty("来源地址")
 	private String referer;
 
 	/**
 	 * 浏览器类型
 	 */
+	@ExcelProperty("浏览器类型")
 	private String browser;
 
 	/**
 	 * UserAgent
 	 */
+	@ExcelProperty("UserAgent")
 	private String userAgent;
 
 	/**
 	 * 操作系统
 	 */
+	@ExcelProperty("操作系统")
 	private String os;
 
 	/**
 	 * 设备类型
 	 */
+	@ExcelProperty("设备类型")
 	private String deviceType;
 
 	/**
 	 * 语言
 	 */
+	@ExcelProperty("语言")
 	private String locale;
 
 	/**
 	 * 发生时间
 	 */
+	@ExcelProperty("发生时间")
 	private LocalDateTime evtTime;
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.cms.stat.domain;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 站点访问日志汇总进度
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Getter
+@Setter
+@TableName(CmsSiteVisitRollup.TABLE_NAME)
+public class CmsSiteVisitRollup implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	public final static String TABLE_NAME = "cms_site_visit_rollup";
+
+	public final static String TYPE_HOUR = "hour";
+
+	public final static String TYPE_DAY = "day";
+
+	/**
+	 * 汇总类型：hour/day
+	 */
+	@TableId(value = "rollup_type", type = IdType.INPUT)
+	private String rollupType;
+
+	/**
+	 * 水位线，此时间之前的访问日志已汇总
+	 */
+	private LocalDateTime watermark;
+
+	/**
+	 * 更新时间
+	 */
+	private LocalDateTime updateTime;
+}
@@ -17,30 +17,61 @@ package com.chestnut.cms.stat.handler;
 
 import com.chestnut.cms.stat.domain.CmsSiteVisitLog;
 import com.chestnut.cms.stat.mapper.CmsSiteVisitLogMapper;
-import com.chestnut.common.async.AsyncTaskManager;
 import com.chestnut.common.redis.RedisCache;
 import com.chestnut.common.utils.IdUtils;
 import com.chestnut.contentcore.service.impl.ContentDynamicDataService;
 import com.chestnut.stat.core.IStatEventHandler;
+import com.chestnut.stat.core.RequestEventData;
 import com.chestnut.stat.core.StatEvent;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * 页面浏览事件
  *
+ * <p>
+ * 请求线程只记录原始访问信息到有界队列并累加计数，不做IP/UserAgent解析及数据库、Redis操作。
+ * 后台每秒批量解析写入访问日志，合并后的内容浏览量及页面访问计数同时刷新。
+ * 队列满时丢弃访问日志（计数仍然累加），避免访问高峰时内存无限增长。
+ * </p>
+ *
  * @author 兮玥
  * @email 190785909@qq.com
  */
+@Slf4j
 @RequiredArgsConstructor
 @Component(IStatEventHandler.BEAN_PREFIX + PageViewStatEventHandler.TYPE)
-public class PageViewStatEventHandler implements IStatEventHandler {
+public class PageViewStatEventHandler implements IStatEventHandler, CommandLineRunner {
 
     public static final String TYPE = "pv";
 
     static final String CACHE_PREFIX = "cms:stat:pv:";
 
-    private final AsyncTaskManager asyncTaskManager;
+    /**
+     * 待写入访问日志队列容量
+     */
+    private static final int QUEUE_CAPACITY = 100_000;
+
+    /**
+     * 访问日志单次批量写入数量
+     */
+    private static final int BATCH_SIZE = 500;
 
     private final CmsSiteVisitLogMapper siteVisitLogMapper;
 
@@ -48,6 +79,24 @@ public class PageViewStatEventHandler implements IStatEventHandler {
 
     private final RedisCache redisCache;
 
+    private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+
+    private final Queue<PageView> pageViews = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queueSize = new AtomicInteger();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * 页面访问计数 <uri, count>
+     */
+    private final Map<String, Long> uriCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 内容浏览量 <contentId, count>
+     */
+    private final Map<Long, Long> contentViewCounters = new ConcurrentHashMap<>();
+
     @Override
     public String getType() {
         return TYPE;
@@ -55,37 +104,121 @@ public class PageViewStatEventHandler implements IStatEventHandler {
 
     @Override
     public void handle(StatEvent event) {
-        CmsSiteVisitLog log = parseSiteVisitLog(event);
-        // 更新Redis数据
-        this.redisCache.incrLongCounter(CACHE_PREFIX + log.getUri());
-        // 更新内容浏览量
-        if (IdUtils.validate(log.getContentId())) {
-            contentDynamicDataService.increaseViewCount(log.getContentId());
+        PageView pv = new PageView(
+                event.getData().get("sid").asLong(),
+                event.getData().get("cid").asLong(0),
+                event.getData().get("id").asLong(0),
+                event.getRequestData(),
+                event.getEvtTime()
+        );
+        if (pv.requestData().getUri() != null) {
+            uriCounters.merge(pv.requestData().getUri(), 1L, Long::sum);
+        }
+        if (IdUtils.validate(pv.contentId())) {
+            contentViewCounters.merge(pv.contentId(), 1L, Long::sum);
+        }
+        if (queueSize.incrementAndGet() > QUEUE_CAPACITY) {
+            queueSize.decrementAndGet();
+            droppedCount.incrementAndGet();
+            return;
+        }
+        pageViews.offer(pv);
+    }
+
+    /**
+     * 刷新计数及写入访问日志
+     */
+    public synchronized void flush() {
+        try {
+            this.flushCounters();
+        } catch (Exception e) {
+            log.error("Flush page view counters failed.", e);
+        }
+        this.flushVisitLogs();
+        long dropped = droppedCount.getAndSet(0);
+        if (dropped > 0) {
+            log.warn("Page view queue is full, {} visit logs dropped.", dropped);
+        }
+    }
+
+    private void flushCounters() {
+        for (String uri : uriCounters.keySet()) {
+            Long count = uriCounters.remove(uri);
+            if (count != null) {
+                this.redisCache.incrLongCounter(CACHE_PREFIX + uri, count);
+            }
+        }
+        for (Long contentId : contentViewCounters.keySet()) {
+            Long count = contentViewCounters.remove(contentId);
+            if (count != null) {
+                this.contentDynamicDataService.increaseViewCount(contentId, count);
+            }
+        }
+    }
+
+    private void flushVisitLogs() {
+        List<CmsSiteVisitLog> batch = new ArrayList<>(BATCH_SIZE);
+        PageView pv;
+        while ((pv = pageViews.poll()) != null) {
+            queueSize.decrementAndGet();
+            batch.add(parseSiteVisitLog(pv));
+            if (batch.size() >= BATCH_SIZE) {
+                this.insertBatch(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            this.insertBatch(batch);
         }
-        asyncTaskManager.execute(() -> siteVisitLogMapper.insert(log));
     }
 
-    private CmsSiteVisitLog parseSiteVisitLog(StatEvent event) {
+    private void insertBatch(List<CmsSiteVisitLog> batch) {
+        try {
+            siteVisitLogMapper.insertBatch(batch);
+        } catch (Exception e) {
+            log.error("Insert site visit logs failed, size: " + batch.size(), e);
+        }
+    }
+
+    private CmsSiteVisitLog parseSiteVisitLog(PageView pv) {
         // 记录PV日志
         CmsSiteVisitLog log = new CmsSiteVisitLog();
         log.setLogId(IdUtils.getSnowflakeId());
-        log.setSiteId(event.getData().get("sid").asLong());
-        log.setCatalogId(event.getData().get("cid").asLong(0));
-        log.setContentId(event.getData().get("id").asLong(0));
-
-        log.setHost(event.getRequestData().getHost());
-        log.setUri(event.getRequestData().getUri());
-        log.setIp(event.getRequestData().getIp());
-        log.setAddress(event.getRequestData().getAddress());
-        log.setReferer(event.getRequestData().getReferer());
-        log.setLocale(event.getRequestData().getLocale());
-
-        log.setUserAgent(event.getRequestData().getUserAgent());
-        log.setBrowser(event.getRequestData().getBrowser());
-        log.setOs(event.getRequestData().getOs());
-        log.setDeviceType(event.getRequestData().getDeviceType());
-
-        log.setEvtTime(event.getEvtTime());
+        log.setSiteId(pv.siteId());
+        log.setCatalogId(pv.catalogId());
+        log.setContentId(pv.contentId());
+
+        RequestEventData requestData = pv.requestData();
+        log.setHost(requestData.getHost());
+        log.setUri(requestData.getUri());
+        log.setIp(requestData.getIp());
+        log.setAddress(requestData.getAddress());
+        log.setReferer(requestData.getReferer());
+        log.setLocale(requestData.getLocale());
+
+        log.setUserAgent(requestData.getUserAgent());
+        log.setBrowser(requestData.getBrowser());
+        log.setOs(requestData.getOs());
+        log.setDeviceType(requestData.getDeviceType());
+
+        log.setEvtTime(pv.evtTime());
         return log;
     }
+
+    @PreDestroy
+    public void preDestroy() {
+        this.flush();
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        threadPoolTaskScheduler.schedule(this::flush, new PeriodicTrigger(Duration.ofSeconds(1)));
+    }
+
+    /**
+     * 待写入的页面访问记录，IP所属地区及UserAgent在写入时解析
+     */
+    private record PageView(long siteId, long catalogId, long contentId, RequestEventData requestData,
+                            LocalDateTime evtTime) {
+    }
 }
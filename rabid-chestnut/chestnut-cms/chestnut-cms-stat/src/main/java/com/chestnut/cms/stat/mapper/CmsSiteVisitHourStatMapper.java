@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.cms.stat.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.chestnut.cms.stat.domain.CmsSiteVisitHourStat;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CmsSiteVisitHourStatMapper extends BaseMapper<CmsSiteVisitHourStat> {
+
+	/**
+	 * 汇总指定时间段访问日志，重复执行时覆盖已有数据
+	 *
+	 * @param hour 统计周期
+	 * @param dimType 统计维度
+	 * @param dimExpr 维度值SQL表达式，仅限SiteVisitStatDimension内置常量
+	 * @param begin 开始时间（包含）
+	 * @param end 结束时间（不包含）
+	 */
+	@Insert("""
+			INSERT INTO `cms_site_visit_hour_stat` (site_id, hour, dim_type, dim_value, pv, ip)
+			SELECT site_id, #{hour}, #{dimType}, ${dimExpr} AS dim_value, COUNT(*), COUNT(DISTINCT ip)
+			FROM `cms_site_visit_log`
+			WHERE evt_time >= #{begin} AND evt_time < #{end}
+			GROUP BY site_id, dim_value
+			ON DUPLICATE KEY UPDATE pv = VALUES(pv), ip = VALUES(ip)
+			""")
+	int rollup(@Param("hour") String hour, @Param("dimType") String dimType, @Param("dimExpr") String dimExpr,
+			   @Param("begin") LocalDateTime begin, @Param("end") LocalDateTime end);
+
+	/**
+	 * 指定维度时间段内浏览量排行，独立IP数为各周期之和
+	 */
+	@Select("""
+			SELECT dim_type, dim_value, SUM(pv) AS pv, SUM(ip) AS ip FROM `cms_site_visit_hour_stat`
+			WHERE site_id = #{siteId} AND dim_type = #{dimType} AND hour >= #{begin} AND hour <= #{end}
+			GROUP BY dim_type, dim_value ORDER BY pv DESC LIMIT #{limit}
+			""")
+	List<CmsSiteVisitHourStat> selectTopByDimension(@Param("siteId") Long siteId, @Param("dimType") String dimType,
+			@Param("begin") String begin, @Param("end") String end, @Param("limit") int limit);
+}
@@ -17,8 +17,60 @@ package com.chestnut.cms.stat.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.chestnut.cms.stat.domain.CmsSiteVisitLog;
+import org.apache.ibatis.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 public interface CmsSiteVisitLogMapper extends BaseMapper<CmsSiteVisitLog> {
 
-}
+	/**
+	 * 批量插入访问日志，单条SQL多行插入
+	 */
+	@Insert("""
+			<script>
+			INSERT INTO `cms_site_visit_log` (log_id, site_id, catalog_id, content_id, host, uri, ip, address, referer,
+			browser, user_agent, os, device_type, locale, evt_time) VALUES
+			<foreach collection='list' item='log' separator=','>
+			(#{log.logId}, #{log.siteId}, #{log.catalogId}, #{log.contentId}, #{log.host}, #{log.uri}, #{log.ip},
+			#{log.address}, #{log.referer}, #{log.browser}, #{log.userAgent}, #{log.os}, #{log.deviceType},
+			#{log.locale}, #{log.evtTime})
+			</foreach>
+			</script>
+			""")
+	int insertBatch(@Param("list") List<CmsSiteVisitLog> list);
+
+	/**
+	 * 最早的访问日志时间
+	 */
+	@Select("SELECT MIN(evt_time) FROM `cms_site_visit_log`")
+	LocalDateTime selectMinEvtTime();
 
+	/**
+	 * 删除指定时间之前的访问日志
+	 *
+	 * @param before 截止时间（不包含）
+	 * @param limit 单次删除数量
+	 */
+	@Delete("DELETE FROM `cms_site_visit_log` WHERE evt_time < #{before} LIMIT #{limit}")
+	int deleteBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+	/**
+	 * 访问日志表分区列表，未分区时返回空
+	 */
+	@Select("""
+			SELECT PARTITION_NAME AS name, PARTITION_DESCRIPTION AS description FROM information_schema.PARTITIONS
+			WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'cms_site_visit_log' AND PARTITION_NAME IS NOT NULL
+			ORDER BY PARTITION_ORDINAL_POSITION
+			""")
+	List<Map<String, Object>> selectPartitions();
+
+	/**
+	 * 删除访问日志表分区
+	 *
+	 * @param partitionName 分区名，来自{@link #selectPartitions()}
+	 */
+	@Update("ALTER TABLE `cms_site_visit_log` DROP PARTITION `${partitionName}`")
+	void dropPartition(@Param("partitionName") String partitionName);
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.cms.stat.service;
+
+import com.chestnut.cms.stat.SiteVisitStatDimension;
+import com.chestnut.cms.stat.domain.CmsSiteVisitDayStat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 站点访问统计汇总
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+public interface ISiteVisitStatService {
+
+	/**
+	 * 从水位线开始按小时汇总访问日志，每次最多汇总maxRollupHours个小时
+	 */
+	void rollupHourStat();
+
+	/**
+	 * 从水位线开始按天汇总访问日志，每次最多汇总maxRollupDays天
+	 */
+	void rollupDayStat();
+
+	/**
+	 * 清理超过保留天数且已汇总的访问日志
+	 */
+	void purgeVisitLogs();
+
+	/**
+	 * 指定维度浏览量排行，数据来自日统计
+	 *
+	 * @param siteId 站点ID
+	 * @param dimension 统计维度
+	 * @param begin 开始日期（包含）
+	 * @param end 结束日期（包含）
+	 * @param limit 返回数量
+	 */
+	List<CmsSiteVisitDayStat> getTopStats(Long siteId, SiteVisitStatDimension dimension, LocalDate begin,
+										  LocalDate end, int limit);
+}
@@ -23,6 +23,7 @@ import com.chestnut.cms.stat.properties.BaiduTjAccessTokenProperty;
 import com.chestnut.cms.stat.properties.BaiduTjRefreshTokenProperty;
 import com.chestnut.cms.stat.service.ICmsStatService;
 import com.chestnut.common.domain.R;
+import com.chestnut.common.exception.CommonErrorCode;
 import com.chestnut.common.utils.Assert;
 import com.chestnut.contentcore.domain.CmsSite;
 import com.chestnut.contentcore.service.ISiteService;
@@ -46,6 +47,7 @@ public class CmsStatServiceImpl implements ICmsStatService {
 		if (!result.isSuccess()) {
 			if (result.getMsg().equalsIgnoreCase("Access token expired")) {
 				refreshBaiduAccessToken(site);
+				config = BaiduTongjiConfig.read(this.siteService.getSite(site.getSiteId()).getConfigProps());
 				return BaiduTongjiUtils.getSiteList(config);
 			}
 		}
@@ -65,9 +67,12 @@ public class CmsStatServiceImpl implements ICmsStatService {
 		Map<String, Object> result = BaiduTongjiUtils.refreshAccessToken(config);
 		String accessToken = MapUtils.getString(result, "access_token");
 		String _refreshToken = MapUtils.getString(result, "refresh_token");
-		site.getConfigProps().put(BaiduTjAccessTokenProperty.ID, accessToken);
-		site.getConfigProps().put(BaiduTjRefreshTokenProperty.ID, _refreshToken);
-		this.siteService.updateById(site);
-		this.siteService.clearCache(site.getSiteId());
+		// 传入站点可能是缓存对象，从数据库重新读取后再修改
+		CmsSite dbSite = this.siteService.getById(site.getSiteId());
+		Assert.notNull(dbSite, () -> CommonErrorCode.DATA_NOT_FOUND_BY_ID.exception("siteId", site.getSiteId()));
+		dbSite.getConfigProps().put(BaiduTjAccessTokenProperty.ID, accessToken);
+		dbSite.getConfigProps().put(BaiduTjRefreshTokenProperty.ID, _refreshToken);
+		this.siteService.updateById(dbSite);
+		this.siteService.clearCache(dbSite.getSiteId());
 	}
 }
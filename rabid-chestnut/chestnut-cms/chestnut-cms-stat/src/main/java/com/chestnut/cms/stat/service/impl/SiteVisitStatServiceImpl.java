@@ -0,0 +1,242 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.cms.stat.service.impl;
+
+import com.chestnut.cms.stat.SiteVisitStatDimension;
+import com.chestnut.cms.stat.config.properties.CmsStatProperties;
+import com.chestnut.cms.stat.domain.CmsSiteVisitDayStat;
+import com.chestnut.cms.stat.domain.CmsSiteVisitRollup;
+import com.chestnut.cms.stat.mapper.CmsSiteVisitDayStatMapper;
+import com.chestnut.cms.stat.mapper.CmsSiteVisitHourStatMapper;
+import com.chestnut.cms.stat.mapper.CmsSiteVisitLogMapper;
+import com.chestnut.cms.stat.mapper.CmsSiteVisitRollupMapper;
+import com.chestnut.cms.stat.service.ISiteVisitStatService;
+import com.chestnut.common.utils.StringUtils;
+import com.chestnut.contentcore.domain.CmsCatalog;
+import com.chestnut.contentcore.domain.CmsContent;
+import com.chestnut.contentcore.service.ICatalogService;
+import com.chestnut.contentcore.service.IContentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.stereotype.Service;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 站点访问统计汇总
+ *
+ * <p>
+ * 访问日志按小时、天汇总到cms_site_visit_hour_stat、cms_site_visit_day_stat，
+ * 统计维度见{@link SiteVisitStatDimension}。汇总进度以水位线记录在cms_site_visit_rollup，
+ * 每次从水位线开始汇总已结束的统计周期，汇总SQL在数据库内完成分组计算且可重复执行。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SiteVisitStatServiceImpl implements ISiteVisitStatService {
+
+	public static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+	public static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+	private static final DateTimeFormatter PARTITION_BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	/**
+	 * MySQL TO_DAYS('1970-01-01')
+	 */
+	private static final long TO_DAYS_EPOCH = 719528;
+
+	private final CmsStatProperties properties;
+
+	private final CmsSiteVisitLogMapper visitLogMapper;
+
+	private final CmsSiteVisitHourStatMapper hourStatMapper;
+
+	private final CmsSiteVisitDayStatMapper dayStatMapper;
+
+	private final CmsSiteVisitRollupMapper rollupMapper;
+
+	private final ICatalogService catalogService;
+
+	private final IContentService contentService;
+
+	@Override
+	public void rollupHourStat() {
+		LocalDateTime limit = LocalDateTime.now().minus(properties.getRollupDelay()).truncatedTo(ChronoUnit.HOURS);
+		LocalDateTime watermark = this.getWatermark(CmsSiteVisitRollup.TYPE_HOUR, ChronoUnit.HOURS);
+		for (int i = 0; Objects.nonNull(watermark) && watermark.isBefore(limit) && i < properties.getMaxRollupHours(); i++) {
+			LocalDateTime end = watermark.plusHours(1);
+			String hour = watermark.format(HOUR_FORMAT);
+			for (SiteVisitStatDimension dimension : SiteVisitStatDimension.values()) {
+				this.hourStatMapper.rollup(hour, dimension.value(), dimension.sqlExpr(), watermark, end);
+			}
+			this.saveWatermark(CmsSiteVisitRollup.TYPE_HOUR, end);
+			watermark = end;
+		}
+	}
+
+	@Override
+	public void rollupDayStat() {
+		LocalDateTime limit = LocalDateTime.now().minus(properties.getRollupDelay()).truncatedTo(ChronoUnit.DAYS);
+		LocalDateTime watermark = this.getWatermark(CmsSiteVisitRollup.TYPE_DAY, ChronoUnit.DAYS);
+		for (int i = 0; Objects.nonNull(watermark) && watermark.isBefore(limit) && i < properties.getMaxRollupDays(); i++) {
+			LocalDateTime end = watermark.plusDays(1);
+			String day = watermark.format(DAY_FORMAT);
+			// 独立IP数不能由小时数据累加，日统计直接从访问日志汇总
+			for (SiteVisitStatDimension dimension : SiteVisitStatDimension.values()) {
+				this.dayStatMapper.rollup(day, dimension.value(), dimension.sqlExpr(), watermark, end);
+			}
+			this.saveWatermark(CmsSiteVisitRollup.TYPE_DAY, end);
+			watermark = end;
+		}
+	}
+
+	@Override
+	public void purgeVisitLogs() {
+		if (properties.getVisitLogRetentionDays() <= 0) {
+			return;
+		}
+		LocalDateTime before = LocalDate.now().minusDays(properties.getVisitLogRetentionDays()).atStartOfDay();
+		// 未汇总的访问日志不清理
+		for (String rollupType : List.of(CmsSiteVisitRollup.TYPE_HOUR, CmsSiteVisitRollup.TYPE_DAY)) {
+			CmsSiteVisitRollup rollup = this.rollupMapper.selectById(rollupType);
+			if (Objects.isNull(rollup)) {
+				return;
+			}
+			if (rollup.getWatermark().isBefore(before)) {
+				before = rollup.getWatermark();
+			}
+		}
+		if (properties.isDropExpiredPartitions() && this.dropExpiredPartitions(before)) {
+			return;
+		}
+		long total = 0;
+		int count;
+		do {
+			count = this.visitLogMapper.deleteBefore(before, properties.getPurgeBatchSize());
+			total += count;
+		} while (count >= properties.getPurgeBatchSize());
+		if (total > 0) {
+			log.info("Purge {} site visit logs before {}", total, before);
+		}
+	}
+
+	/**
+	 * 删除分区上界不晚于指定时间的访问日志分区，至少保留一个分区
+	 *
+	 * @return 访问日志表未分区时返回false
+	 */
+	private boolean dropExpiredPartitions(LocalDateTime before) {
+		List<Map<String, Object>> partitions = this.visitLogMapper.selectPartitions();
+		if (partitions.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < partitions.size() - 1; i++) {
+			String name = Objects.toString(partitions.get(i).get("name"), null);
+			LocalDateTime bound = parsePartitionBound(Objects.toString(partitions.get(i).get("description"), null));
+			if (Objects.isNull(bound) || bound.isAfter(before)) {
+				break;
+			}
+			this.visitLogMapper.dropPartition(name);
+			log.info("Drop site visit log partition: {}, less than: {}", name, bound);
+		}
+		return true;
+	}
+
+	/**
+	 * 解析分区上界，支持RANGE COLUMNS(evt_time)、RANGE(TO_DAYS(evt_time))及RANGE(UNIX_TIMESTAMP(evt_time))分区
+	 */
+	private static LocalDateTime parsePartitionBound(String description) {
+		if (StringUtils.isEmpty(description) || "MAXVALUE".equalsIgnoreCase(description)) {
+			return null;
+		}
+		String value = StringUtils.strip(description, "'");
+		try {
+			if (NumberUtils.isDigits(value)) {
+				long number = Long.parseLong(value);
+				if (number > 10_000_000L) {
+					return LocalDateTime.ofInstant(Instant.ofEpochSecond(number), ZoneId.systemDefault());
+				}
+				return LocalDate.ofEpochDay(number - TO_DAYS_EPOCH).atStartOfDay();
+			}
+			if (value.length() == 10) {
+				return LocalDate.parse(value).atStartOfDay();
+			}
+			return LocalDateTime.parse(value, PARTITION_BOUND_FORMAT);
+		} catch (DateTimeParseException | NumberFormatException e) {
+			log.warn("Unsupported site visit log partition bound: {}", description);
+			return null;
+		}
+	}
+
+	@Override
+	public List<CmsSiteVisitDayStat> getTopStats(Long siteId, SiteVisitStatDimension dimension, LocalDate begin,
+												 LocalDate end, int limit) {
+		List<CmsSiteVisitDayStat> list = this.dayStatMapper.selectTopByDimension(siteId, dimension.value(),
+				begin.format(DAY_FORMAT), end.format(DAY_FORMAT), limit);
+		if (dimension == SiteVisitStatDimension.Catalog) {
+			list.forEach(stat -> {
+				CmsCatalog catalog = this.catalogService.getCatalog(NumberUtils.toLong(stat.getDimValue()));
+				stat.setDimName(Objects.isNull(catalog) ? stat.getDimValue() : catalog.getName());
+			});
+		} else if (dimension == SiteVisitStatDimension.Content) {
+			List<Long> contentIds = list.stream().map(stat -> NumberUtils.toLong(stat.getDimValue()))
+					.filter(id -> id > 0).toList();
+			Map<String, String> titles = contentIds.isEmpty() ? Map.of() : this.contentService.dao().lambdaQuery()
+					.select(CmsContent::getContentId, CmsContent::getTitle)
+					.in(CmsContent::getContentId, contentIds).list().stream()
+					.collect(Collectors.toMap(c -> c.getContentId().toString(), CmsContent::getTitle));
+			list.forEach(stat -> stat.setDimName(titles.getOrDefault(stat.getDimValue(), stat.getDimValue())));
+		} else {
+			list.forEach(stat -> stat.setDimName(stat.getDimValue()));
+		}
+		return list;
+	}
+
+	/**
+	 * 读取水位线，首次汇总时从最早的访问日志所在周期开始，无访问日志时返回null
+	 */
+	private LocalDateTime getWatermark(String rollupType, ChronoUnit unit) {
+		CmsSiteVisitRollup rollup = this.rollupMapper.selectById(rollupType);
+		if (Objects.nonNull(rollup)) {
+			return rollup.getWatermark();
+		}
+		LocalDateTime minEvtTime = this.visitLogMapper.selectMinEvtTime();
+		return Objects.isNull(minEvtTime) ? null : minEvtTime.truncatedTo(unit);
+	}
+
+	private void saveWatermark(String rollupType, LocalDateTime watermark) {
+		CmsSiteVisitRollup rollup = new CmsSiteVisitRollup();
+		rollup.setRollupType(rollupType);
+		rollup.setWatermark(watermark);
+		rollup.setUpdateTime(LocalDateTime.now());
+		if (this.rollupMapper.updateById(rollup) == 0) {
+			this.rollupMapper.insert(rollup);
+		}
+	}
+}
@@ -30,6 +30,7 @@ import com.chestnut.common.utils.StringUtils;
 import com.chestnut.word.WordConstants;
 import com.chestnut.word.service.IHotWordService;
 
+import freemarker.template.SimpleNumber;
 import freemarker.template.SimpleScalar;
 import freemarker.template.TemplateModelException;
 import lombok.RequiredArgsConstructor;
@@ -77,16 +78,21 @@ public class ReplaceHotWord extends AbstractFunc  {
 		Long siteId = TemplateUtils.evalSiteId(Environment.getCurrentEnvironment());
 
 		String replacementTemplate = null;
-		if (args.length == 3) {
+		if (args.length >= 3) {
 			replacementTemplate = ConvertUtils.toStr(args[2]);
 		}
-		return this.hotWordService.replaceHotWords(text, siteId.toString(), codes, null, replacementTemplate);
+		int maxReplaceCount = 0;
+		if (args.length >= 4 && args[3] instanceof SimpleNumber number) {
+			maxReplaceCount = number.getAsNumber().intValue();
+		}
+		return this.hotWordService.replaceHotWords(text, siteId.toString(), codes, null, replacementTemplate, maxReplaceCount);
 	}
 
 	@Override
 	public List<FuncArg> getFuncArgs() {
 		return List.of(new FuncArg("待处理字符串", FuncArgType.String, true, null),
 				new FuncArg("热词分组编码", FuncArgType.String, true, "多个热词分组用因为逗号分隔"),
-				new FuncArg("自定义替换模板", FuncArgType.String, false, "默认：" + WordConstants.HOT_WORD_REPLACEMENT));
+				new FuncArg("自定义替换模板", FuncArgType.String, false, "默认：" + WordConstants.HOT_WORD_REPLACEMENT),
+				new FuncArg("每个热词最大替换次数", FuncArgType.Int, false, "默认：0，不限制"));
 	}
 }
@@ -33,7 +33,7 @@ public class FallibleWordTester {
 
 		ErrorProneWordProcessor p = new ErrorProneWordProcessor();
 		p.addWords(blackList);
-		System.out.println(p.getWordDFAModel().getRoot().toString());
+		System.out.println("words: " + p.getWordCount());
 
 		String text = "中国甘败下风人拉三等奖水笼头七风发斯蒂芬艹甘败下风妈的逼拉屎的发生看到了防碍公务上游行业拉萨到付凑和款啦草渡假";
 		p.listWords(text).forEach((k, v) -> {
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package comchestnut.word;
+
+import com.chestnut.word.sensitive.SensitiveWordProcessor;
+import com.chestnut.word.sensitive.SensitiveWordProcessor.MatchType;
+import com.chestnut.word.sensitive.SensitiveWordProcessor.ReplaceType;
+import com.chestnut.word.sensitive.SensitiveWordType;
+
+import java.util.*;
+
+/**
+ * 敏感词匹配性能对比：原DFA逐位置匹配 vs Aho-Corasick自动机
+ *
+ * <p>随机生成2万个敏感词及长文本，分别执行replace/check，校验结果一致后输出平均耗时</p>
+ */
+public class SensitiveWordBenchmark {
+
+	private static final int WORD_COUNT = 20000;
+
+	private static final int TEXT_LENGTH = 50000;
+
+	private static final int WARMUP = 200;
+
+	private static final int ITERATIONS = 200;
+
+	public static void main(String[] args) {
+		Random random = new Random(42);
+		Set<String> blackList = new HashSet<>();
+		while (blackList.size() < WORD_COUNT) {
+			blackList.add(randomWord(random, 2 + random.nextInt(5)));
+		}
+		Set<String> whiteList = new HashSet<>();
+		while (whiteList.size() < 200) {
+			String word = randomWord(random, 4 + random.nextInt(3));
+			if (!blackList.contains(word)) {
+				whiteList.add(word);
+			}
+		}
+		List<String> words = new ArrayList<>(blackList);
+		words.addAll(whiteList);
+		StringBuilder sb = new StringBuilder(TEXT_LENGTH + 16);
+		while (sb.length() < TEXT_LENGTH) {
+			if (random.nextInt(20) == 0) {
+				sb.append(words.get(random.nextInt(words.size())));
+			} else {
+				sb.append(randomWord(random, 1));
+			}
+		}
+		sb.append("。。。。。。");
+		String text = sb.toString();
+
+		LegacyDFA legacy = new LegacyDFA();
+		legacy.addWords(blackList, SensitiveWordType.BLACK);
+		legacy.addWords(whiteList, SensitiveWordType.WHITE);
+		SensitiveWordProcessor processor = new SensitiveWordProcessor();
+		processor.init(blackList, whiteList);
+
+		for (MatchType matchType : MatchType.values()) {
+			String expected = legacy.replace(text, matchType, "*");
+			String actual = processor.replace(text, matchType, ReplaceType.WORD, "*");
+			System.out.println(matchType + " replace consistent: " + expected.equals(actual));
+		}
+		System.out.println("check consistent: " + (legacy.check(text) == processor.check(text)));
+
+		run("legacy   replace", () -> legacy.replace(text, MatchType.MAX, "*"));
+		run("automaton replace", () -> processor.replace(text, MatchType.MAX, ReplaceType.WORD, "*"));
+		run("legacy   check", () -> legacy.check(text));
+		run("automaton check", () -> processor.check(text));
+		run("automaton rebuild", 5, 20, () -> processor.addWord("基准测试", SensitiveWordType.BLACK));
+
+		// 大量词共享前缀时原实现每个起始位置都要重新匹配整段前缀
+		String prefix = randomWord(random, 12);
+		Set<String> prefixWords = new HashSet<>();
+		while (prefixWords.size() < 1000) {
+			prefixWords.add(prefix + randomWord(random, 2));
+		}
+		sb.setLength(0);
+		while (sb.length() < TEXT_LENGTH) {
+			sb.append(prefix, 0, 1 + random.nextInt(prefix.length())).append(randomWord(random, 1));
+		}
+		String prefixText = sb.append("。。。。。。").toString();
+		LegacyDFA prefixLegacy = new LegacyDFA();
+		prefixLegacy.addWords(prefixWords, SensitiveWordType.BLACK);
+		SensitiveWordProcessor prefixProcessor = new SensitiveWordProcessor();
+		prefixProcessor.addWords(prefixWords, SensitiveWordType.BLACK);
+		System.out.println("prefix replace consistent: " + prefixLegacy.replace(prefixText, MatchType.MAX, "*")
+				.equals(prefixProcessor.replace(prefixText, MatchType.MAX, ReplaceType.WORD, "*")));
+		run("legacy   prefix replace", () -> prefixLegacy.replace(prefixText, MatchType.MAX, "*"));
+		run("automaton prefix replace", () -> prefixProcessor.replace(prefixText, MatchType.MAX, ReplaceType.WORD, "*"));
+	}
+
+	private static String randomWord(Random random, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char) (0x4E00 + random.nextInt(2000));
+		}
+		return new String(chars);
+	}
+
+	private static void run(String name, Runnable runnable) {
+		run(name, WARMUP, ITERATIONS, runnable);
+	}
+
+	private static void run(String name, int warmup, int iterations, Runnable runnable) {
+		for (int i = 0; i < warmup; i++) {
+			runnable.run();
+		}
+		long s = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			runnable.run();
+		}
+		System.out.printf("%s: %.3fms/op%n", name, (System.nanoTime() - s) / 1_000_000.0 / iterations);
+	}
+
+	/**
+	 * 原DFA实现：单字符String为键的HashMap字典树，每个起始位置重新匹配
+	 */
+	static class LegacyDFA {
+
+		private final Map<String, Node> root = new HashMap<>();
+
+		static class Node {
+			boolean end;
+			SensitiveWordType type;
+			Map<String, Node> children;
+		}
+
+		void addWords(Set<String> words, SensitiveWordType type) {
+			for (String word : words) {
+				Map<String, Node> current = root;
+				for (int i = 0; i < word.length(); i++) {
+					Node node = current.computeIfAbsent(String.valueOf(word.charAt(i)), k -> new Node());
+					if (i == word.length() - 1) {
+						node.end = true;
+						node.type = type;
+					} else {
+						if (node.children == null) {
+							node.children = new HashMap<>();
+						}
+						current = node.children;
+					}
+				}
+			}
+		}
+
+		String replace(String text, MatchType matchType, String replacement) {
+			StringBuilder sb = new StringBuilder();
+			int index = 0;
+			char[] charText = text.toCharArray();
+			for (int i = 0; i < charText.length; i++) {
+				int[] flag = this.match(charText, i, matchType);
+				if (flag == null) {
+					sb.append(charText, index, charText.length - index);
+					break;
+				}
+				if (flag[2] == SensitiveWordType.BLACK.ordinal()) {
+					sb.append(charText, index, flag[0] - index).append(replacement);
+					index = flag[0] + flag[1];
+				}
+				i = flag[0] + flag[1] - 1;
+			}
+			return sb.toString();
+		}
+
+		boolean check(String text) {
+			char[] charText = text.toCharArray();
+			for (int i = 0; i < charText.length; i++) {
+				int[] flag = this.match(charText, i, MatchType.MIN);
+				if (flag == null) {
+					break;
+				}
+				if (flag[2] == SensitiveWordType.BLACK.ordinal()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return [index, length, type]
+		 */
+		int[] match(char[] charText, int start, MatchType matchType) {
+			boolean hit = false;
+			int[] hitFlag = null;
+			int index = 0;
+			int length = 0;
+			Map<String, Node> current = root;
+			for (int i = start; i < charText.length; i++) {
+				Node node = current.get(String.valueOf(charText[i]));
+				if (node != null) {
+					if (!hit) {
+						hit = true;
+						index = i;
+						length = 1;
+					} else {
+						length++;
+					}
+					if (node.end) {
+						int[] flag = { index, length, node.type.ordinal() };
+						if (matchType == MatchType.MIN || node.children == null) {
+							return flag;
+						}
+						hitFlag = flag;
+					}
+					current = node.children;
+				} else {
+					if (hitFlag != null) {
+						return hitFlag;
+					}
+					if (hit) {
+						hit = false;
+						i = index;
+						current = root;
+					}
+				}
+			}
+			return null;
+		}
+	}
+}
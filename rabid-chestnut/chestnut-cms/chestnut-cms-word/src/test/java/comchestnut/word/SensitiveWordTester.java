@@ -42,14 +42,14 @@ public class SensitiveWordTester {
 		
 		SensitiveWordProcessor p = new SensitiveWordProcessor();
 		p.init(blackList, whiteList);
-		System.out.println(p.getWordDFAModel().getRoot().toString());
+		System.out.println("words: " + p.getWordCount());
 //		p.removeWord("中国人");
 //
 //		Set<String> set = new HashSet<>();
 //		set.add("中国人");
-//		p.getWordDFAModel().addWords(set, SensitiveWordType.WHITE);
+//		p.addWords(set, SensitiveWordType.WHITE);
 
-		System.out.println(p.getWordDFAModel().getRoot().toString());
+		System.out.println("words: " + p.getWordCount());
 		
 		String text = "妈的逼加大拉家带口中国拉市解放路卡士大夫七风妈的拉克丝七副风经理中国人拉三等奖七风发斯蒂芬艹妈的逼拉屎的发生看到了上游行业拉萨到付款啦草";
 		Set<String> wordList = p.listWords(text);
@@ -20,12 +20,16 @@ import jakarta.validation.constraints.NotNull;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.connection.DataType;
 import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.support.atomic.RedisAtomicLong;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -47,6 +51,25 @@ public class RedisCache {
 	 */
 	private final long nullValueExpire = 30;
 
+	/**
+	 * 缓存值未变更则写回新值并保留过期时间，否则删除
+	 */
+	private static final RedisScript<Long> COMPARE_AND_SET_SCRIPT = new DefaultRedisScript<>("""
+			for i = 1, #KEYS do
+			    if redis.call('get', KEYS[i]) == ARGV[i * 2 - 1] then
+			        local ttl = redis.call('pttl', KEYS[i])
+			        if ttl > 0 then
+			            redis.call('set', KEYS[i], ARGV[i * 2], 'px', ttl)
+			        else
+			            redis.call('set', KEYS[i], ARGV[i * 2])
+			        end
+			    else
+			        redis.call('del', KEYS[i])
+			    end
+			end
+			return #KEYS
+			""", Long.class);
+
 	public RedisCache(RedisTemplate<String, Object> redisTemplate, RedisCacheConfiguration config) {
 		this.redisTemplate = redisTemplate;
 		this.allowNullValue = config.getAllowCacheNullValues();
@@ -150,6 +173,100 @@ public class RedisCache {
 		return operation.get(key);
 	}
 
+	/**
+	 * 批量获得缓存的基本对象
+	 *
+	 * @param keys 缓存键值列表
+	 * @return 与keys顺序一致的数据列表，不存在的为null
+	 */
+	public <T> List<T> getMultiCacheObject(final Collection<String> keys) {
+		if (keys.isEmpty()) {
+			return List.of();
+		}
+		ValueOperations<String, T> operation = redisTemplate.opsForValue();
+		List<T> list = operation.multiGet(keys);
+		return Objects.nonNull(list) ? list : Collections.nCopies(keys.size(), null);
+	}
+
+	/**
+	 * 批量缓存基本的对象
+	 *
+	 * @param dataMap 缓存数据
+	 */
+	public <T> void setMultiCacheObject(final Map<String, T> dataMap) {
+		if (!dataMap.isEmpty()) {
+			redisTemplate.opsForValue().multiSet(dataMap);
+		}
+	}
+
+	/**
+	 * 批量缓存基本的对象
+	 *
+	 * @param dataMap  缓存数据
+	 * @param timeout  时间
+	 * @param timeUnit 时间颗粒度
+	 */
+	public <T> void setMultiCacheObject(final Map<String, T> dataMap, final long timeout, final TimeUnit timeUnit) {
+		if (dataMap.isEmpty()) {
+			return;
+		}
+		redisTemplate.executePipelined(new SessionCallback<Object>() {
+
+			@Override
+			public Object execute(RedisOperations operations) {
+				dataMap.forEach((key, value) -> operations.opsForValue().set(key, value, timeout, timeUnit));
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * 批量更新已存在的缓存对象，过期时间不变
+	 * <p>
+	 * 写回时缓存值已被修改或删除的键不写回并删除，避免覆盖其他线程的更新或恢复已删除的缓存
+	 *
+	 * @param keys    缓存键值列表
+	 * @param updater 根据当前缓存数据返回需要写回的数据，不存在的键不会传入
+	 */
+	public <T> void updateMultiCacheObject(final Collection<String> keys, final Function<Map<String, T>, Map<String, T>> updater) {
+		if (keys.isEmpty()) {
+			return;
+		}
+		RedisSerializer<String> keySerializer = redisTemplate.getKeySerializer();
+		RedisSerializer<T> valueSerializer = redisTemplate.getValueSerializer();
+		List<String> keyList = new ArrayList<>(keys);
+		List<byte[]> rawValues = (List<byte[]>) redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+				connection.stringCommands().mGet(keyList.stream().map(keySerializer::serialize).toArray(byte[][]::new)));
+		if (Objects.isNull(rawValues)) {
+			return;
+		}
+		Map<String, byte[]> rawMap = new HashMap<>();
+		Map<String, T> dataMap = new HashMap<>();
+		for (int i = 0; i < keyList.size(); i++) {
+			byte[] raw = rawValues.get(i);
+			if (Objects.nonNull(raw)) {
+				rawMap.put(keyList.get(i), raw);
+				dataMap.put(keyList.get(i), valueSerializer.deserialize(raw));
+			}
+		}
+		if (dataMap.isEmpty()) {
+			return;
+		}
+		List<String> updateKeys = new ArrayList<>();
+		List<byte[]> args = new ArrayList<>();
+		updater.apply(dataMap).forEach((key, value) -> {
+			if (rawMap.containsKey(key)) {
+				updateKeys.add(key);
+				args.add(rawMap.get(key));
+				args.add(valueSerializer.serialize(value));
+			}
+		});
+		if (!updateKeys.isEmpty()) {
+			redisTemplate.execute(COMPARE_AND_SET_SCRIPT, RedisSerializer.byteArray(), RedisSerializer.byteArray(),
+					updateKeys, args.toArray());
+		}
+	}
+
 	/**
 	 * 获得缓存的基本对象，如果不存在调用supplier获取数据。
 	 *
@@ -483,6 +600,34 @@ public class RedisCache {
 		return this.redisTemplate.opsForZSet().range(key, start, end);
 	}
 
+	/**
+	 * 获取指定范围zset数据及score，end=-1表示取所有
+	 *
+	 * @param key Cache key
+	 * @param start start index
+	 * @param end end index
+	 * @return <value, score>
+	 */
+	public <T> Map<T, Double> getZsetWithScores(String key, int start, int end) {
+		Set<ZSetOperations.TypedTuple<Object>> tuples = this.redisTemplate.opsForZSet().rangeWithScores(key, start, end);
+		Map<T, Double> map = new LinkedHashMap<>();
+		if (Objects.nonNull(tuples)) {
+			tuples.forEach(tuple -> map.put((T) tuple.getValue(), tuple.getScore()));
+		}
+		return map;
+	}
+
+	/**
+	 * 删除score在[min, max]范围内的zset数据
+	 *
+	 * @param key Cache key
+	 * @param min min score
+	 * @param max max score
+	 */
+	public void removeZsetRangeByScore(String key, double min, double max) {
+		this.redisTemplate.opsForZSet().removeRangeByScore(key, min, max);
+	}
+
 	/**
 	 * 获取指定值排名，不存在返回-1，0表示第一位
 	 *
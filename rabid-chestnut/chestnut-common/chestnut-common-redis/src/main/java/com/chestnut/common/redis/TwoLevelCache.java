@@ -0,0 +1,380 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.common.redis;
+
+import com.chestnut.common.redis.config.TwoLevelCacheProperties;
+import com.chestnut.common.utils.Assert;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 本地+Redis二级缓存
+ *
+ * <p>
+ * 本地缓存（Caffeine）在{@link RedisCache}前，命中时不再访问Redis和反序列化。
+ * 写入、删除缓存时先更新Redis，再失效本节点本地缓存并通过Redis发布订阅通知其他节点失效。
+ * 每个缓存Key按哈希映射到版本号分段，失效时版本号递增，从Redis读取期间版本号变化的数据不写入本地缓存，
+ * 避免读取旧值与失效通知并发时旧值写回本地缓存。
+ * </p>
+ * <p>
+ * 本地缓存返回的是共享对象，调用方不能修改返回对象，需要修改时应从数据库重新读取或复制。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Slf4j
+public class TwoLevelCache implements MessageListener {
+
+	private static final Object NULL_VALUE = new Object();
+
+	private static final String HASH_KEY_SEPARATOR = "#";
+
+	private static final int VERSION_STRIPES = 64;
+
+	private static final String OP_KEY = "K";
+
+	private static final String OP_PREFIX = "P";
+
+	private static final String MESSAGE_SEPARATOR = "\t";
+
+	private final RedisCache redisCache;
+
+	private final TwoLevelCacheProperties properties;
+
+	private final Cache<String, Object> localCache;
+
+	private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+	private final Map<String, RegionStats> regionStats = new ConcurrentHashMap<>();
+
+	/**
+	 * 自定义失效通知处理 <op, handler>
+	 */
+	private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+
+	private final String nodeId = UUID.randomUUID().toString();
+
+	public TwoLevelCache(RedisCache redisCache, TwoLevelCacheProperties properties) {
+		this.redisCache = redisCache;
+		this.properties = properties;
+		this.localCache = Caffeine.newBuilder()
+				.maximumSize(properties.getMaximumSize())
+				.expireAfterWrite(properties.getExpireAfterWrite())
+				.build();
+	}
+
+	/**
+	 * 获取缓存对象，本地缓存 -> Redis -> loader，loader结果写入Redis
+	 *
+	 * @param region 缓存Key前缀，同时作为命中统计分组
+	 * @param key 缓存Key（不含前缀）
+	 * @param loader 未获取到缓存时加载数据，可为null
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getCacheObject(String region, String key, Supplier<T> loader) {
+		String cacheKey = region + key;
+		RegionStats stats = this.getRegionStats(region);
+		Object value = this.getLocal(cacheKey);
+		if (Objects.nonNull(value)) {
+			stats.localHits.increment();
+			return value == NULL_VALUE ? null : (T) value;
+		}
+		long version = this.version(cacheKey);
+		T cacheObject = this.redisCache.getCacheObject(cacheKey);
+		if (Objects.nonNull(cacheObject)) {
+			stats.redisHits.increment();
+		} else {
+			stats.misses.increment();
+			if (Objects.nonNull(loader)) {
+				cacheObject = loader.get();
+				if (Objects.nonNull(cacheObject)) {
+					this.redisCache.setCacheObject(cacheKey, cacheObject);
+				}
+			}
+		}
+		if (Objects.nonNull(cacheObject)) {
+			this.putLocal(cacheKey, cacheObject, version);
+		}
+		return cacheObject;
+	}
+
+	/**
+	 * 获取Hash缓存中的数据，Hash中不存在的Key也会在本地缓存，直到失效
+	 *
+	 * @param region 缓存Key前缀，同时作为命中统计分组
+	 * @param key 缓存Key（不含前缀）
+	 * @param hashKey Hash键
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getCacheMapValue(String region, String key, String hashKey) {
+		String localKey = region + key + HASH_KEY_SEPARATOR + hashKey;
+		RegionStats stats = this.getRegionStats(region);
+		Object value = this.getLocal(localKey);
+		if (Objects.nonNull(value)) {
+			stats.localHits.increment();
+			return value == NULL_VALUE ? null : (T) value;
+		}
+		long version = this.version(localKey);
+		T cacheValue = this.redisCache.getCacheMapValue(region + key, hashKey);
+		if (Objects.nonNull(cacheValue)) {
+			stats.redisHits.increment();
+		} else {
+			stats.misses.increment();
+		}
+		this.putLocal(localKey, Objects.isNull(cacheValue) ? NULL_VALUE : cacheValue, version);
+		return cacheValue;
+	}
+
+	/**
+	 * 获取仅保存在本地缓存的对象，用于由Redis数据构建、无法或不适合序列化的对象（如编译后的匹配器）
+	 *
+	 * <p>与同Key的Redis缓存共用失效通知，{@link #deleteObject(String, String)}时各节点同时失效。
+	 * 同一Key不能同时用于{@link #getCacheObject(String, String, Supplier)}</p>
+	 *
+	 * @param region 缓存Key前缀，同时作为命中统计分组
+	 * @param key 缓存Key（不含前缀）
+	 * @param loader 本地缓存不存在时构建对象
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getLocalObject(String region, String key, Supplier<T> loader) {
+		String cacheKey = region + key;
+		RegionStats stats = this.getRegionStats(region);
+		Object value = this.getLocal(cacheKey);
+		if (Objects.nonNull(value)) {
+			stats.localHits.increment();
+			return (T) value;
+		}
+		stats.misses.increment();
+		long version = this.version(cacheKey);
+		T localObject = loader.get();
+		if (Objects.nonNull(localObject)) {
+			this.putLocal(cacheKey, localObject, version);
+		}
+		return localObject;
+	}
+
+	public <T> void setCacheObject(String region, String key, T value) {
+		this.redisCache.setCacheObject(region + key, value);
+		this.invalidate(region + key);
+	}
+
+	public void deleteObject(String region, String key) {
+		this.redisCache.deleteObject(region + key);
+		this.invalidate(region + key);
+	}
+
+	public <T> void setCacheMapValue(String region, String key, String hashKey, T value) {
+		this.redisCache.setCacheMapValue(region + key, hashKey, value);
+		this.invalidate(region + key + HASH_KEY_SEPARATOR + hashKey);
+	}
+
+	public void deleteCacheMapValue(String region, String key, String... hashKeys) {
+		this.redisCache.deleteCacheMapValue(region + key, (Object[]) hashKeys);
+		for (String hashKey : hashKeys) {
+			this.invalidate(region + key + HASH_KEY_SEPARATOR + hashKey);
+		}
+	}
+
+	/**
+	 * 删除指定前缀的所有缓存
+	 */
+	public void deleteByPrefix(String prefix) {
+		this.redisCache.deleteObject(this.redisCache.keys(prefix + "*"));
+		this.invalidatePrefix(prefix);
+	}
+
+	/**
+	 * 失效本地缓存，并通知其他节点
+	 *
+	 * @param cacheKey 缓存Key，Hash缓存为“key#hashKey”
+	 */
+	public void invalidate(String cacheKey) {
+		this.evictLocal(cacheKey);
+		this.publish(OP_KEY, cacheKey);
+	}
+
+	/**
+	 * 失效指定前缀的本地缓存，并通知其他节点，用于直接操作Redis批量更新后
+	 */
+	public void invalidatePrefix(String prefix) {
+		this.evictLocalPrefix(prefix);
+		this.publish(OP_PREFIX, prefix);
+	}
+
+	/**
+	 * 注册自定义失效通知处理，其他节点调用{@link #broadcast(String, String)}时在本节点执行
+	 *
+	 * @param op 通知类型，不能与内置类型重复
+	 * @param handler 处理通知目标
+	 */
+	public void subscribe(String op, Consumer<String> handler) {
+		Assert.isTrue(!OP_KEY.equals(op) && !OP_PREFIX.equals(op) && !op.contains(MESSAGE_SEPARATOR),
+				() -> new IllegalArgumentException("Invalid cache invalidation op: " + op));
+		this.handlers.put(op, handler);
+	}
+
+	/**
+	 * 通过失效通知通道通知其他节点，本节点不处理，不受本地缓存开关影响
+	 *
+	 * @param op 通知类型
+	 * @param target 通知目标
+	 */
+	public void broadcast(String op, String target) {
+		this.doPublish(op, target);
+	}
+
+	/**
+	 * 本地缓存命中统计
+	 *
+	 * @param region 缓存Key前缀
+	 * @return 未使用二级缓存的前缀返回null
+	 */
+	public CacheStats getStats(String region) {
+		RegionStats stats = this.regionStats.get(region);
+		if (Objects.isNull(stats)) {
+			return null;
+		}
+		return new CacheStats(stats.localHits.sum(), stats.redisHits.sum(), stats.misses.sum());
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(MESSAGE_SEPARATOR, 3);
+		if (parts.length != 3 || this.nodeId.equals(parts[0])) {
+			return;
+		}
+		if (OP_KEY.equals(parts[1])) {
+			this.evictLocal(parts[2]);
+		} else if (OP_PREFIX.equals(parts[1])) {
+			this.evictLocalPrefix(parts[2]);
+		} else {
+			Consumer<String> handler = this.handlers.get(parts[1]);
+			if (Objects.nonNull(handler)) {
+				try {
+					handler.accept(parts[2]);
+				} catch (Exception e) {
+					log.warn("Handle cache invalidation failed: {} {}", parts[1], parts[2], e);
+				}
+			}
+		}
+	}
+
+	public String getChannel() {
+		return this.properties.getChannel();
+	}
+
+	private RegionStats getRegionStats(String region) {
+		return this.regionStats.computeIfAbsent(region, r -> new RegionStats());
+	}
+
+	private Object getLocal(String cacheKey) {
+		if (!this.properties.isEnabled()) {
+			return null;
+		}
+		return this.localCache.getIfPresent(cacheKey);
+	}
+
+	private void putLocal(String cacheKey, Object value, long version) {
+		if (!this.properties.isEnabled()) {
+			return;
+		}
+		int stripe = this.stripe(cacheKey);
+		if (this.versions.get(stripe) != version) {
+			return;
+		}
+		this.localCache.put(cacheKey, value);
+		// 写入期间发生失效则移除，保证不会残留旧值
+		if (this.versions.get(stripe) != version) {
+			this.localCache.invalidate(cacheKey);
+		}
+	}
+
+	private void evictLocal(String cacheKey) {
+		this.versions.incrementAndGet(this.stripe(cacheKey));
+		this.localCache.invalidate(cacheKey);
+	}
+
+	private void evictLocalPrefix(String prefix) {
+		for (int i = 0; i < VERSION_STRIPES; i++) {
+			this.versions.incrementAndGet(i);
+		}
+		this.localCache.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+	}
+
+	private long version(String cacheKey) {
+		return this.versions.get(this.stripe(cacheKey));
+	}
+
+	private int stripe(String cacheKey) {
+		return (cacheKey.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+	}
+
+	private void publish(String op, String target) {
+		if (!this.properties.isEnabled()) {
+			return;
+		}
+		this.doPublish(op, target);
+	}
+
+	private void doPublish(String op, String target) {
+		byte[] channel = this.properties.getChannel().getBytes(StandardCharsets.UTF_8);
+		byte[] message = String.join(MESSAGE_SEPARATOR, this.nodeId, op, target).getBytes(StandardCharsets.UTF_8);
+		try {
+			this.redisCache.redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message));
+		} catch (Exception e) {
+			log.warn("Publish cache invalidation failed: {}", target, e);
+		}
+	}
+
+	private static class RegionStats {
+
+		private final LongAdder localHits = new LongAdder();
+
+		private final LongAdder redisHits = new LongAdder();
+
+		private final LongAdder misses = new LongAdder();
+	}
+
+	/**
+	 * 缓存命中统计
+	 *
+	 * @param localHits 本地缓存命中次数
+	 * @param redisHits 本地未命中、Redis命中次数
+	 * @param misses 均未命中次数
+	 */
+	public record CacheStats(long localHits, long redisHits, long misses) {
+
+		public double getLocalHitRate() {
+			long total = localHits + redisHits + misses;
+			return total == 0 ? 0 : (double) localHits / total;
+		}
+	}
+}
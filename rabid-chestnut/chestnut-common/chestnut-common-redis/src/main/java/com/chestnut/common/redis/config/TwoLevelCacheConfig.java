@@ -0,0 +1,53 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.common.redis.config;
+
+import com.chestnut.common.redis.RedisCache;
+import com.chestnut.common.redis.TwoLevelCache;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 本地+Redis二级缓存配置
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Configuration
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
+public class TwoLevelCacheConfig {
+
+	@Bean
+	public TwoLevelCache twoLevelCache(RedisCache redisCache, TwoLevelCacheProperties properties) {
+		return new TwoLevelCache(redisCache, properties);
+	}
+
+	/**
+	 * 订阅其他节点的本地缓存失效通知
+	 */
+	@Bean
+	public RedisMessageListenerContainer twoLevelCacheListenerContainer(RedisConnectionFactory connectionFactory,
+																		TwoLevelCache twoLevelCache) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		container.addMessageListener(twoLevelCache, new ChannelTopic(twoLevelCache.getChannel()));
+		return container;
+	}
+}
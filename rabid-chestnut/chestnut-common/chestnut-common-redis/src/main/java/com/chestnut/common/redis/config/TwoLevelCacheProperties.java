@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.common.redis.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 本地+Redis二级缓存配置属性
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = TwoLevelCacheProperties.PREFIX)
+public class TwoLevelCacheProperties {
+
+	public static final String PREFIX = "chestnut.cache.local";
+
+	/**
+	 * 是否启用本地缓存，关闭后直接读写Redis
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * 本地缓存最大条目数
+	 */
+	private long maximumSize = 10000;
+
+	/**
+	 * 本地缓存写入后过期时间，跨节点失效通知丢失时的兜底
+	 */
+	private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+	/**
+	 * 跨节点失效通知频道
+	 */
+	private String channel = "chestnut:cache:invalidate";
+}
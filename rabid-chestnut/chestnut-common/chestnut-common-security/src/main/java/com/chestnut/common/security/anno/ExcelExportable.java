@@ -25,6 +25,9 @@ import java.lang.annotation.*;
  * 1. 返回值类型为: R<TableData<注解指定的class>>
  * 2. 前端发起导出请求方式固定为: POST
  * 3. 前端发起导出请求带请求头：ExcelExportAspect.CONDITION_HEADER
+ *
+ * 导出时按`chestnut.excel.export.batch-size`分批调用请求方法，逐批写入Excel，
+ * 请求方法通过PageRequest获取批次分页信息，导出行数上限通过`chestnut.excel.export.max-rows`配置。
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -35,4 +38,19 @@ public @interface ExcelExportable {
      * 导出数据类型
      */
     Class<?> value();
+
+    /**
+     * 是否游标分页：开启后每批次页码固定为起始页，
+     * 请求方法需根据PageRequest#getExportCursor（上一批次最后一条数据）追加主键范围条件
+     */
+    boolean keyset() default false;
+
+    /**
+     * 是否异步导出：开启后导出请求返回异步任务ID，任务完成后通过异步任务下载导出文件。
+     *
+     * 首批次在请求线程中执行，后续批次在任务线程中直接调用请求方法（不经过切面）。
+     * 任务线程绑定请求快照（请求头、参数、Cookie、属性），请求方法可读取登录用户、当前站点等请求信息，
+     * 但不可读取请求体或会话。请求方法需使用@Priv注解，导出文件仅允许导出用户下载
+     */
+    boolean async() default false;
 }
@@ -15,27 +15,46 @@
  */
 package com.chestnut.common.security.aspectj;
 
+import cn.dev33.satoken.SaManager;
 import com.alibaba.excel.EasyExcel;
 import com.alibaba.excel.ExcelWriter;
 import com.alibaba.excel.write.metadata.WriteSheet;
+import com.chestnut.common.async.AsyncTaskManager;
 import com.chestnut.common.domain.R;
 import com.chestnut.common.security.anno.ExcelExportable;
+import com.chestnut.common.security.anno.Priv;
+import com.chestnut.common.security.config.ChestnutPageConfig;
+import com.chestnut.common.security.config.properties.ExcelExportProperties;
+import com.chestnut.common.security.web.DetachedHttpServletRequest;
+import com.chestnut.common.security.web.ExcelExportTask;
+import com.chestnut.common.security.web.PageRequest;
 import com.chestnut.common.security.web.TableData;
 import com.chestnut.common.utils.Assert;
 import com.chestnut.common.utils.DateUtils;
+import com.chestnut.common.utils.IdUtils;
 import com.chestnut.common.utils.ServletUtils;
+import com.chestnut.common.utils.StringUtils;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.io.FileUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.servlet.mvc.condition.HeadersRequestCondition;
 
+import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
@@ -43,6 +62,11 @@ import java.util.Objects;
 /**
  * 通用导出Excel切面
  *
+ * <p>
+ * 导出时按批次重复调用请求方法，每批次数据通过ExcelWriter追加写入后即释放，
+ * 内存中只保留当前批次数据。导出行数超过单Sheet上限时写入新Sheet。
+ * </p>
+ *
  * @author 兮玥
  * @email 190785909@qq.com
  */
@@ -56,33 +80,227 @@ public class ExcelExportAspect {
 
     private static final HeadersRequestCondition CONDITION = new HeadersRequestCondition(CONDITION_HEADER);
 
+    private static final String ASYNC_EXPORT_DIR = "chestnut-export";
+
+    private static final String FILE_SUFFIX = ".xlsx";
+
+    private final ExcelExportProperties properties;
+
+    private final AsyncTaskManager asyncTaskManager;
+
     @Around("@annotation(exportable)")
     public Object around(ProceedingJoinPoint joinPoint, ExcelExportable exportable) throws Throwable {
-        Object obj = joinPoint.proceed();
-        if (Objects.nonNull(CONDITION.getMatchingCondition(ServletUtils.getRequest()))
-            && ServletUtils.getRequest().getMethod().equalsIgnoreCase(HttpMethod.POST.name())) {
-            boolean flag = (obj instanceof R<?> r) && r.getData() instanceof TableData;
-            Assert.isTrue(flag, () -> new RuntimeException("Unsupported returnType except `R<TableData<?>>` for excel export."));
-
-            TableData<?> tableData = (TableData<?>) ((R<?>) obj).getData();
-            exportExcel(tableData.getRows(), exportable.value(), ServletUtils.getResponse());
-            return null;
+        if (Objects.isNull(CONDITION.getMatchingCondition(ServletUtils.getRequest()))
+            || !ServletUtils.getRequest().getMethod().equalsIgnoreCase(HttpMethod.POST.name())) {
+            return joinPoint.proceed();
         }
-        return obj;
-    }
-
-    private void exportExcel(List<?> list, Class<?> clazz, HttpServletResponse response) {
+        ExportState state = new ExportState(exportable, PageRequest.build().getSorts());
+        // 首批次在请求线程中执行，请求方法的权限校验等切面同时生效
+        List<?> firstBatch = nextBatch(state, joinPoint::proceed);
+        if (exportable.async()) {
+            return R.ok(exportAsync(joinPoint, state, firstBatch).getTaskId());
+        }
+        HttpServletResponse response = ServletUtils.getResponse();
         response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
         response.setCharacterEncoding(StandardCharsets.UTF_8.displayName());
-        String fileName = "Export_" + clazz.getSimpleName() + "_" + DateUtils.dateTimeNow("yyyyMMddHHmmss");
-        response.setHeader("Content-disposition", "attachment;filename*=utf-8''" + fileName + ".xlsx");
+        response.setHeader("Content-disposition", "attachment;filename*=utf-8''"
+                + URLEncoder.encode(state.fileName + FILE_SUFFIX, StandardCharsets.UTF_8).replace("+", "%20"));
 
-        try (ExcelWriter writer = EasyExcel.write(response.getOutputStream(), clazz).build()) {
-            WriteSheet sheet = EasyExcel.writerSheet(clazz.getSimpleName()).build();
-            writer.write(list, sheet);
+        try (ExcelWriter writer = EasyExcel.write(response.getOutputStream(), state.clazz).build()) {
+            export(writer, state, firstBatch, joinPoint::proceed);
             response.setStatus(HttpStatus.OK.value());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        return null;
+    }
+
+    /**
+     * 异步导出到文件，后续批次在任务线程中直接调用请求方法
+     */
+    private ExcelExportTask exportAsync(ProceedingJoinPoint joinPoint, ExportState state, List<?> firstBatch) {
+        File dir = StringUtils.isEmpty(properties.getAsyncPath())
+                ? new File(System.getProperty("java.io.tmpdir"), ASYNC_EXPORT_DIR)
+                : new File(properties.getAsyncPath());
+        cleanExpiredFiles(dir);
+        Assert.isTrue(dir.exists() || dir.mkdirs(),
+                () -> new RuntimeException("Create excel export directory failed: " + dir.getAbsolutePath()));
+
+        String taskId = ExcelExportTask.TYPE + "_" + IdUtils.simpleUUID();
+        File file = new File(dir, taskId + FILE_SUFFIX);
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object target = joinPoint.getTarget();
+        Object[] args = joinPoint.getArgs();
+        // 记录导出用户，仅允许导出用户下载文件
+        Priv priv = AnnotatedElementUtils.findMergedAnnotation(method, Priv.class);
+        if (Objects.isNull(priv)) {
+            priv = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), Priv.class);
+        }
+        Assert.notNull(priv, () -> new RuntimeException("Async excel export requires @Priv: " + method));
+        String ownerType = priv.type();
+        Object ownerId = SaManager.getStpLogic(ownerType, false).getLoginId();
+        // 请求结束后请求对象会被容器回收，任务线程使用请求快照
+        DetachedHttpServletRequest request = new DetachedHttpServletRequest(ServletUtils.getRequest());
+        ExcelExportTask task = new ExcelExportTask(file, state.fileName + FILE_SUFFIX, ownerType, String.valueOf(ownerId)) {
+
+            @Override
+            public void run0() throws Exception {
+                RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+                try (ExcelWriter writer = EasyExcel.write(file, state.clazz).build()) {
+                    export(writer, state, firstBatch, () -> invoke(method, target, args));
+                } catch (Exception | Error e) {
+                    FileUtils.deleteQuietly(file);
+                    throw e;
+                } catch (Throwable e) {
+                    FileUtils.deleteQuietly(file);
+                    throw new RuntimeException(e);
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+                this.setProgressInfo(100, state.rows + " rows exported.");
+            }
+        };
+        task.setTaskId(taskId);
+        this.asyncTaskManager.execute(task);
+        return task;
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void cleanExpiredFiles(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(FILE_SUFFIX));
+        if (Objects.isNull(files)) {
+            return;
+        }
+        long expireTime = System.currentTimeMillis() - properties.getAsyncFileRetention().toMillis();
+        for (File f : files) {
+            if (f.lastModified() < expireTime) {
+                FileUtils.deleteQuietly(f);
+            }
+        }
+    }
+
+    private void export(ExcelWriter writer, ExportState state, List<?> firstBatch, BatchInvoker invoker) throws Throwable {
+        List<?> rows = firstBatch;
+        while (true) {
+            writeRows(writer, state, rows);
+            if (state.finished) {
+                break;
+            }
+            AsyncTaskManager.checkInterrupt(); // 异步导出允许中断
+            AsyncTaskManager.setTaskMessage(state.rows + " rows exported.");
+            rows = nextBatch(state, invoker);
+        }
+        if (Objects.isNull(state.sheet)) {
+            // 无数据时输出表头
+            writer.write(List.of(), EasyExcel.writerSheet(0, state.clazz.getSimpleName()).build());
+        }
+    }
+
+    /**
+     * 读取下一批次数据
+     */
+    private List<?> nextBatch(ExportState state, BatchInvoker invoker) throws Throwable {
+        long remaining = properties.getMaxRows() - state.rows;
+        if (remaining <= 0) {
+            state.finished = true;
+            return List.of();
+        }
+        int batchSize = properties.getBatchSize();
+        int pageNumber = ChestnutPageConfig.getStartPageNumber() + (state.keyset ? 0 : state.batchCount);
+        PageRequest pageRequest = PageRequest.of(pageNumber, batchSize, state.sorts);
+        pageRequest.setExport(true);
+        pageRequest.setExportCursor(state.cursor);
+
+        Object obj;
+        PageRequest.setExportPageRequest(pageRequest);
+        try {
+            obj = invoker.invoke();
+        } finally {
+            PageRequest.clearExportPageRequest();
+        }
+        boolean flag = (obj instanceof R<?> r) && r.getData() instanceof TableData;
+        Assert.isTrue(flag, () -> new RuntimeException("Unsupported returnType except `R<TableData<?>>` for excel export."));
+
+        List<?> rows = ((TableData<?>) ((R<?>) obj).getData()).getRows();
+        state.batchCount++;
+        if (rows.size() < batchSize) {
+            state.finished = true;
+        }
+        if (rows.size() >= remaining) {
+            rows = rows.subList(0, (int) remaining);
+            state.finished = true;
+        }
+        if (!rows.isEmpty()) {
+            state.cursor = rows.get(rows.size() - 1);
+        }
+        state.rows += rows.size();
+        return rows;
+    }
+
+    /**
+     * 追加写入数据，当前Sheet行数达到上限时写入新Sheet
+     */
+    private void writeRows(ExcelWriter writer, ExportState state, List<?> rows) {
+        int sheetRows = properties.getSheetRows();
+        int offset = 0;
+        while (offset < rows.size()) {
+            if (Objects.isNull(state.sheet) || state.sheetRowCount >= sheetRows) {
+                String sheetName = state.clazz.getSimpleName() + (state.sheetNo > 0 ? "_" + (state.sheetNo + 1) : "");
+                state.sheet = EasyExcel.writerSheet(state.sheetNo++, sheetName).build();
+                state.sheetRowCount = 0;
+            }
+            int count = Math.min(rows.size() - offset, sheetRows - state.sheetRowCount);
+            writer.write(rows.subList(offset, offset + count), state.sheet);
+            offset += count;
+            state.sheetRowCount += count;
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchInvoker {
+
+        Object invoke() throws Throwable;
+    }
+
+    /**
+     * 导出进度状态
+     */
+    private static class ExportState {
+
+        private final Class<?> clazz;
+
+        private final boolean keyset;
+
+        private final List<PageRequest.SortOrder> sorts;
+
+        private final String fileName;
+
+        private int batchCount = 0;
+
+        private Object cursor;
+
+        private long rows = 0;
+
+        private boolean finished = false;
+
+        private WriteSheet sheet;
+
+        private int sheetNo = 0;
+
+        private int sheetRowCount = 0;
+
+        ExportState(ExcelExportable exportable, List<PageRequest.SortOrder> sorts) {
+            this.clazz = exportable.value();
+            this.keyset = exportable.keyset();
+            this.sorts = sorts;
+            this.fileName = "Export_" + clazz.getSimpleName() + "_" + DateUtils.dateTimeNow("yyyyMMddHHmmss");
+        }
     }
-}
\ No newline at end of file
+}
@@ -16,6 +16,7 @@
 package com.chestnut.common.security.config;
 
 import com.chestnut.common.security.config.properties.ChestnutPageProperties;
+import com.chestnut.common.security.config.properties.ExcelExportProperties;
 import com.chestnut.common.security.web.ExcelExportRequestMappingHandlerMapping;
 import com.chestnut.common.utils.SpringUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -37,7 +38,7 @@ import java.util.Set;
  */
 @Slf4j
 @Configuration
-@EnableConfigurationProperties(ChestnutPageProperties.class)
+@EnableConfigurationProperties({ ChestnutPageProperties.class, ExcelExportProperties.class })
 public class ChestnutPageConfig {
 
     private static int startPageNumber;
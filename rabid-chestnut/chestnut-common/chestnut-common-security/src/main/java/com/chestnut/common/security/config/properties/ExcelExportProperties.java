@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.common.security.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Excel导出配置
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = ExcelExportProperties.PREFIX)
+public class ExcelExportProperties {
+
+    public static final String PREFIX = "chestnut.excel.export";
+
+    /**
+     * 每批次读取数据行数
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 单次导出行数上限
+     */
+    private long maxRows = 1_000_000;
+
+    /**
+     * 单个Sheet行数上限，超出后写入新Sheet（xlsx单Sheet最多1048576行）
+     */
+    private int sheetRows = 200_000;
+
+    /**
+     * 异步导出文件存储目录，默认系统临时目录下chestnut-export
+     */
+    private String asyncPath;
+
+    /**
+     * 异步导出文件保留时长，过期文件在下次异步导出时清理
+     */
+    private Duration asyncFileRetention = Duration.ofDays(1);
+}
@@ -16,12 +16,16 @@
 package com.chestnut.common.security.domain;
 
 import com.chestnut.common.security.SecurityUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.io.Serializable;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * 登录用户身份权限
@@ -92,16 +96,40 @@ public class LoginUser implements Serializable {
 	 */
 	private List<String> permissions;
 
+	/**
+	 * 权限索引，首次校验权限时由权限列表生成，不参与序列化
+	 */
+	@JsonIgnore
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private transient Set<String> permissionIndex;
+
 	/**
 	 * 用户信息
 	 */
 	private Object user;
 
+	public void setPermissions(List<String> permissions) {
+		this.permissions = permissions;
+		this.permissionIndex = null;
+	}
+
 	public boolean isSuperAdministrator() {
 		return SecurityUtils.isSuperAdmin(userId);
 	}
 
 	public boolean hasPermission(String perm) {
-		return isSuperAdministrator() || (Objects.nonNull(this.permissions) && this.permissions.contains(perm));
+		if (isSuperAdministrator()) {
+			return true;
+		}
+		if (Objects.isNull(this.permissions)) {
+			return false;
+		}
+		Set<String> index = this.permissionIndex;
+		if (Objects.isNull(index)) {
+			index = new HashSet<>(this.permissions);
+			this.permissionIndex = index;
+		}
+		return index.contains(perm);
 	}
 }
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.common.security.web;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 脱离请求线程使用的请求快照
+ *
+ * <p>
+ * 复制请求的基本信息、请求头、参数、Cookie及属性，请求结束后仍可在异步线程中读取，
+ * 供异步任务中调用依赖当前请求（如登录用户、当前站点）的方法。
+ * 快照不包含的方法（如读取请求体、获取会话）调用时抛出UnsupportedOperationException。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+public class DetachedHttpServletRequest extends HttpServletRequestWrapper {
+
+	private static final HttpServletRequest UNAVAILABLE = (HttpServletRequest) Proxy.newProxyInstance(
+			DetachedHttpServletRequest.class.getClassLoader(), new Class<?>[] { HttpServletRequest.class },
+			(proxy, method, args) -> {
+				throw new UnsupportedOperationException("HttpServletRequest#" + method.getName()
+						+ " is not available outside the request thread.");
+			});
+
+	private final String method;
+
+	private final String requestURI;
+
+	private final String requestURL;
+
+	private final String queryString;
+
+	private final String contextPath;
+
+	private final String servletPath;
+
+	private final String pathInfo;
+
+	private final String scheme;
+
+	private final String serverName;
+
+	private final int serverPort;
+
+	private final boolean secure;
+
+	private final String remoteAddr;
+
+	private final String remoteHost;
+
+	private final String characterEncoding;
+
+	private final List<Locale> locales;
+
+	private final Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>();
+
+	private final Map<String, String[]> parameters;
+
+	private final Cookie[] cookies;
+
+	private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+	public DetachedHttpServletRequest(HttpServletRequest request) {
+		super(UNAVAILABLE);
+		this.method = request.getMethod();
+		this.requestURI = request.getRequestURI();
+		this.requestURL = request.getRequestURL().toString();
+		this.queryString = request.getQueryString();
+		this.contextPath = request.getContextPath();
+		this.servletPath = request.getServletPath();
+		this.pathInfo = request.getPathInfo();
+		this.scheme = request.getScheme();
+		this.serverName = request.getServerName();
+		this.serverPort = request.getServerPort();
+		this.secure = request.isSecure();
+		this.remoteAddr = request.getRemoteAddr();
+		this.remoteHost = request.getRemoteHost();
+		this.characterEncoding = request.getCharacterEncoding();
+		this.locales = Collections.list(request.getLocales());
+		Collections.list(request.getHeaderNames())
+				.forEach(name -> this.headers.put(name, Collections.list(request.getHeaders(name))));
+		Map<String, String[]> parameterMap = new LinkedHashMap<>();
+		request.getParameterMap().forEach((name, values) -> parameterMap.put(name, values.clone()));
+		this.parameters = Collections.unmodifiableMap(parameterMap);
+		this.cookies = Objects.isNull(request.getCookies()) ? null : request.getCookies().clone();
+		Collections.list(request.getAttributeNames()).forEach(name -> {
+			Object value = request.getAttribute(name);
+			if (Objects.nonNull(value)) {
+				this.attributes.put(name, value);
+			}
+		});
+	}
+
+	@Override
+	public String getMethod() {
+		return this.method;
+	}
+
+	@Override
+	public String getRequestURI() {
+		return this.requestURI;
+	}
+
+	@Override
+	public StringBuffer getRequestURL() {
+		return new StringBuffer(this.requestURL);
+	}
+
+	@Override
+	public String getQueryString() {
+		return this.queryString;
+	}
+
+	@Override
+	public String getContextPath() {
+		return this.contextPath;
+	}
+
+	@Override
+	public String getServletPath() {
+		return this.servletPath;
+	}
+
+	@Override
+	public String getPathInfo() {
+		return this.pathInfo;
+	}
+
+	@Override
+	public String getScheme() {
+		return this.scheme;
+	}
+
+	@Override
+	public String getServerName() {
+		return this.serverName;
+	}
+
+	@Override
+	public int getServerPort() {
+		return this.serverPort;
+	}
+
+	@Override
+	public boolean isSecure() {
+		return this.secure;
+	}
+
+	@Override
+	public String getRemoteAddr() {
+		return this.remoteAddr;
+	}
+
+	@Override
+	public String getRemoteHost() {
+		return this.remoteHost;
+	}
+
+	@Override
+	public String getCharacterEncoding() {
+		return this.characterEncoding;
+	}
+
+	@Override
+	public Locale getLocale() {
+		return this.locales.isEmpty() ? Locale.getDefault() : this.locales.get(0);
+	}
+
+	@Override
+	public Enumeration<Locale> getLocales() {
+		return Collections.enumeration(this.locales);
+	}
+
+	@Override
+	public String getHeader(String name) {
+		List<String> values = this.headers.get(name);
+		return Objects.isNull(values) || values.isEmpty() ? null : values.get(0);
+	}
+
+	@Override
+	public Enumeration<String> getHeaders(String name) {
+		return Collections.enumeration(this.headers.getOrDefault(name, List.of()));
+	}
+
+	@Override
+	public Enumeration<String> getHeaderNames() {
+		return Collections.enumeration(this.headers.keySet());
+	}
+
+	@Override
+	public int getIntHeader(String name) {
+		String value = this.getHeader(name);
+		return Objects.isNull(value) ? -1 : Integer.parseInt(value);
+	}
+
+	@Override
+	public String getParameter(String name) {
+		String[] values = this.parameters.get(name);
+		return Objects.isNull(values) || values.length == 0 ? null : values[0];
+	}
+
+	@Override
+	public Map<String, String[]> getParameterMap() {
+		return this.parameters;
+	}
+
+	@Override
+	public Enumeration<String> getParameterNames() {
+		return Collections.enumeration(this.parameters.keySet());
+	}
+
+	@Override
+	public String[] getParameterValues(String name) {
+		String[] values = this.parameters.get(name);
+		return Objects.isNull(values) ? null : values.clone();
+	}
+
+	@Override
+	public Cookie[] getCookies() {
+		return Objects.isNull(this.cookies) ? null : this.cookies.clone();
+	}
+
+	@Override
+	public Object getAttribute(String name) {
+		return this.attributes.get(name);
+	}
+
+	@Override
+	public Enumeration<String> getAttributeNames() {
+		return Collections.enumeration(this.attributes.keySet());
+	}
+
+	@Override
+	public void setAttribute(String name, Object value) {
+		if (Objects.isNull(value)) {
+			this.attributes.remove(name);
+		} else {
+			this.attributes.put(name, value);
+		}
+	}
+
+	@Override
+	public void removeAttribute(String name) {
+		this.attributes.remove(name);
+	}
+
+	@Override
+	public HttpSession getSession(boolean create) {
+		if (!create) {
+			return null;
+		}
+		return super.getSession(true);
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.common.security.web;
+
+import com.chestnut.common.async.AsyncTask;
+
+import java.io.File;
+import java.util.Objects;
+
+/**
+ * Excel异步导出任务
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+public abstract class ExcelExportTask extends AsyncTask {
+
+	public static final String TYPE = "ExcelExport";
+
+	/**
+	 * 导出文件
+	 */
+	private final File file;
+
+	/**
+	 * 下载文件名
+	 */
+	private final String fileName;
+
+	/**
+	 * 导出用户类型
+	 */
+	private final String ownerType;
+
+	/**
+	 * 导出用户ID
+	 */
+	private final String ownerId;
+
+	public ExcelExportTask(File file, String fileName, String ownerType, String ownerId) {
+		this.file = file;
+		this.fileName = fileName;
+		this.ownerType = ownerType;
+		this.ownerId = ownerId;
+		this.setType(TYPE);
+		this.setInterruptible(true);
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public String getOwnerType() {
+		return ownerType;
+	}
+
+	public String getOwnerId() {
+		return ownerId;
+	}
+
+	/**
+	 * 是否指定用户的导出任务
+	 */
+	public boolean isOwner(String userType, Object userId) {
+		return Objects.equals(this.ownerType, userType) && Objects.nonNull(userId)
+				&& Objects.equals(this.ownerId, String.valueOf(userId));
+	}
+}
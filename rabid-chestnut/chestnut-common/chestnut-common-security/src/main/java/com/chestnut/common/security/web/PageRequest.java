@@ -50,6 +50,11 @@ public class PageRequest {
 	 */
 	private static final String GET_PARAM_EXPORT = "export";
 
+	/**
+	 * Excel流式导出时当前线程的分页信息，由导出切面设置
+	 */
+	private static final ThreadLocal<PageRequest> EXPORT_PAGE_REQUEST = new ThreadLocal<>();
+
 	/**
 	 * 页码
 	 */
@@ -65,6 +70,18 @@ public class PageRequest {
 	 */
 	private List<SortOrder> sorts;
 
+	/**
+	 * 是否Excel导出分批查询，导出时分页查询无需统计总数
+	 */
+	private boolean export;
+
+	/**
+	 * Excel游标分页导出时上一批次最后一条数据，首批次为null
+	 *
+	 * @see com.chestnut.common.security.anno.ExcelExportable#keyset()
+	 */
+	private Object exportCursor;
+
 	public static PageRequest of(int pageNumber, int pageSize) {
 		PageRequest pageRequest = new PageRequest();
 		pageRequest.pageNum = pageNumber;
@@ -90,6 +107,10 @@ public class PageRequest {
 	 * RequestParameters: pageNum=1&pageSize=20&sorts=col1#asc@col2#desc
 	 */
 	public static PageRequest build() {
+		PageRequest exportPageRequest = EXPORT_PAGE_REQUEST.get();
+		if (Objects.nonNull(exportPageRequest)) {
+			return exportPageRequest;
+		}
 		HttpServletRequest request = ServletUtils.getRequest();
 		int page = ServletUtils.getParameterToInt(request, GET_PARAM_PAGENUM, ChestnutPageConfig.getStartPageNumber());
 		int size = ServletUtils.getParameterToInt(request, GET_PARAM_PAGESIZE, ChestnutPageConfig.getDefaultPageSize());
@@ -108,6 +129,17 @@ public class PageRequest {
 		return PageRequest.of(page, size, sorts);
 	}
 
+	/**
+	 * 设置当前线程Excel导出分批查询的分页信息
+	 */
+	public static void setExportPageRequest(PageRequest pageRequest) {
+		EXPORT_PAGE_REQUEST.set(pageRequest);
+	}
+
+	public static void clearExportPageRequest() {
+		EXPORT_PAGE_REQUEST.remove();
+	}
+
 	@Getter
 	@Setter
 	public static class SortOrder {
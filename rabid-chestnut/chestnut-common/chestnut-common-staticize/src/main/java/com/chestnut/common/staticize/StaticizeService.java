@@ -15,6 +15,8 @@
  */
 package com.chestnut.common.staticize;
 
+import com.chestnut.common.staticize.core.AtomicFileWriter;
+import com.chestnut.common.staticize.core.RenderProfiler;
 import com.chestnut.common.staticize.core.TemplateContext;
 import com.chestnut.common.staticize.func.IFunction;
 import com.chestnut.common.staticize.tag.ITag;
@@ -28,7 +30,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.List;
@@ -38,10 +39,13 @@ import java.util.List;
 public class StaticizeService {
 
 	private final Configuration cfg;
+
+	private final RenderProfiler renderProfiler;
 	
 	public StaticizeService(@Qualifier("staticizeConfiguration") Configuration cfg, List<ITag> tags,
-			List<IFunction> functions) {
+			List<IFunction> functions, RenderProfiler renderProfiler) {
 		this.cfg = cfg;
+		this.renderProfiler = renderProfiler;
 		tags.forEach(this::registerTag);
 		functions.forEach(this::registerFunction);
 	}
@@ -66,7 +70,12 @@ public class StaticizeService {
 		context.setTimeMillis(s);
 		Environment env = template.createProcessingEnvironment(context.getVariables(), writer);
 		FreeMarkerUtils.addGlobalVariables(env, context);
-		env.process();
+		RenderProfiler.RenderSample sample = renderProfiler.start(context.getTemplateId());
+		try {
+			env.process();
+		} finally {
+			renderProfiler.stop(sample);
+		}
 		log.debug("[{}], page：{}, cost: {}ms", context.getTemplateId(), context.getPageIndex(),
 				System.currentTimeMillis() - s);
 	}
@@ -74,6 +83,10 @@ public class StaticizeService {
 	/**
 	 * 生成静态化文件，自动处理分页
 	 * 
+	 * <p>
+	 * 文件以UTF-8编码写入临时文件后原子替换，内容未变化的文件不替换
+	 * </p>
+	 * 
 	 * @param context
 	 * @throws TemplateException
 	 * @throws IOException
@@ -86,13 +99,19 @@ public class StaticizeService {
 		context.setTimeMillis(s);
 		Environment env = null;
 		String filePath = context.getStaticizeFilePath(context.getPageIndex());
-		try (FileWriter writer = new FileWriter(filePath)) {
+		RenderProfiler.RenderSample sample = renderProfiler.start(context.getTemplateId());
+		try (AtomicFileWriter writer = new AtomicFileWriter(filePath)) {
 			env = template.createProcessingEnvironment(context.getVariables(), writer);
 			FreeMarkerUtils.addGlobalVariables(env, context);
 			// 生成静态化文件
 			env.process();
+			if (!writer.commit()) {
+				log.debug("[{}], page：{}, unchanged", filePath, context.getPageIndex());
+			}
 		} catch (Exception e) {
 			throw new TemplateException(e, env);
+		} finally {
+			renderProfiler.stop(sample);
 		}
 		log.debug("[{}], page：{}, cost: {}ms", filePath, context.getPageIndex(), System.currentTimeMillis() - s);
 
@@ -103,11 +122,17 @@ public class StaticizeService {
 			env.setGlobalVariable(StaticizeConstants.TemplateVariable_PageNo,
 					env.getObjectWrapper().wrap(context.getPageIndex()));
 			filePath = context.getStaticizeFilePath(context.getPageIndex());
-			try (FileWriter writer = new FileWriter(filePath)) {
+			sample = renderProfiler.start(context.getTemplateId());
+			try (AtomicFileWriter writer = new AtomicFileWriter(filePath)) {
 				env.setOut(writer);
 				env.process();
+				if (!writer.commit()) {
+					log.debug("[{}], page：{}, unchanged", filePath, context.getPageIndex());
+				}
 			} catch (Exception e) {
 				throw new TemplateException(e, env);
+			} finally {
+				renderProfiler.stop(sample);
 			}
 			log.debug("[{}], page：{}, cost: {}ms", filePath, context.getPageIndex(), System.currentTimeMillis() - s);
 		}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.common.staticize.core;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * 静态化文件原子写入
+ *
+ * <p>
+ * 内容以UTF-8编码先写入同目录下的临时文件，调用{@link #commit()}后原子替换目标文件，
+ * 避免读取方看到写了一半的文件。新内容与已有文件一致时不替换，保留原文件修改时间。
+ * 未调用commit直接close时丢弃临时文件，目标文件保持不变。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+public class AtomicFileWriter extends Writer {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+
+	private final Path target;
+
+	private final Path tempFile;
+
+	private final MessageDigest digest;
+
+	private final Writer writer;
+
+	private boolean closed = false;
+
+	private boolean committed = false;
+
+	public AtomicFileWriter(String filePath) throws IOException {
+		this.target = Path.of(filePath);
+		// 不使用Files.createTempFile，其创建的文件权限为600，替换后web服务器可能无法读取
+		this.tempFile = this.target.resolveSibling("." + this.target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+		this.digest = newDigest();
+		OutputStream out = new DigestOutputStream(new BufferedOutputStream(
+				Files.newOutputStream(this.tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), BUFFER_SIZE), this.digest);
+		this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		this.writer.write(cbuf, off, len);
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		this.writer.write(str, off, len);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		this.writer.flush();
+	}
+
+	/**
+	 * 写入完成，替换目标文件
+	 *
+	 * @return 目标文件是否有变更
+	 */
+	public boolean commit() throws IOException {
+		this.writer.close();
+		this.closed = true;
+		this.committed = true;
+		try {
+			if (isSameContent(this.target, Files.size(this.tempFile), this.digest.digest())) {
+				return false;
+			}
+			try {
+				Files.move(this.tempFile, this.target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(this.tempFile, this.target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			return true;
+		} finally {
+			Files.deleteIfExists(this.tempFile);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.committed) {
+			return;
+		}
+		try {
+			if (!this.closed) {
+				this.closed = true;
+				this.writer.close();
+			}
+		} finally {
+			this.committed = true;
+			Files.deleteIfExists(this.tempFile);
+		}
+	}
+
+	private static boolean isSameContent(Path file, long size, byte[] hash) throws IOException {
+		if (!Files.isRegularFile(file) || Files.size(file) != size) {
+			return false;
+		}
+		MessageDigest fileDigest = newDigest();
+		try (InputStream in = Files.newInputStream(file)) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int len;
+			while ((len = in.read(buffer)) != -1) {
+				fileDigest.update(buffer, 0, len);
+			}
+		}
+		return Arrays.equals(fileDigest.digest(), hash);
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
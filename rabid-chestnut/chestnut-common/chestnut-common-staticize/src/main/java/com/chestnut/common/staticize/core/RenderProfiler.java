@@ -0,0 +1,288 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.common.staticize.core;
+
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模板渲染耗时统计
+ *
+ * <p>
+ * 按模板、模板标签记录调用次数、耗时分布（p50/p99）及SQL执行次数，注册为Micrometer指标：
+ * <ul>
+ *     <li>chestnut.staticize.render：模板渲染耗时，标签template</li>
+ *     <li>chestnut.staticize.render.sql：模板单次渲染SQL次数，标签template</li>
+ *     <li>chestnut.staticize.tag：模板标签执行耗时，标签tag、template</li>
+ *     <li>chestnut.staticize.tag.sql：模板标签单次执行SQL次数，标签tag、template</li>
+ * </ul>
+ * 当前线程的渲染上下文保存在ThreadLocal中，SQL拦截器通过{@link #countSql()}累加当前渲染的SQL次数。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Component
+public class RenderProfiler {
+
+	public static final String METER_RENDER = "chestnut.staticize.render";
+
+	public static final String METER_RENDER_SQL = "chestnut.staticize.render.sql";
+
+	public static final String METER_TAG = "chestnut.staticize.tag";
+
+	public static final String METER_TAG_SQL = "chestnut.staticize.tag.sql";
+
+	private static final String TAG_TEMPLATE = "template";
+
+	private static final String TAG_TAG = "tag";
+
+	private static final double[] PERCENTILES = { 0.5, 0.99 };
+
+	private static final ThreadLocal<Deque<RenderSample>> CURRENT = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private final MeterRegistry meterRegistry;
+
+	public RenderProfiler(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+		this.meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+	}
+
+	/**
+	 * 开始模板渲染计时
+	 *
+	 * @param templateKey 模板标识
+	 */
+	public RenderSample start(String templateKey) {
+		RenderSample sample = new RenderSample(templateKey);
+		CURRENT.get().push(sample);
+		return sample;
+	}
+
+	/**
+	 * 结束模板渲染计时
+	 */
+	public void stop(RenderSample sample) {
+		Deque<RenderSample> samples = CURRENT.get();
+		samples.remove(sample);
+		if (samples.isEmpty()) {
+			CURRENT.remove();
+		}
+		long nanos = System.nanoTime() - sample.startNanos;
+		Timer.builder(METER_RENDER).tag(TAG_TEMPLATE, sample.templateKey)
+				.publishPercentiles(PERCENTILES).register(meterRegistry)
+				.record(nanos, TimeUnit.NANOSECONDS);
+		DistributionSummary.builder(METER_RENDER_SQL).tag(TAG_TEMPLATE, sample.templateKey)
+				.register(meterRegistry)
+				.record(sample.sqlCount);
+	}
+
+	/**
+	 * 开始模板标签计时，当前线程无模板渲染时返回null
+	 *
+	 * @param tagName 标签名
+	 */
+	public static TagSample startTag(String tagName) {
+		RenderSample sample = CURRENT.get().peek();
+		if (Objects.isNull(sample)) {
+			CURRENT.remove();
+			return null;
+		}
+		return new TagSample(sample, tagName);
+	}
+
+	/**
+	 * 结束模板标签计时
+	 */
+	public static void stopTag(TagSample tagSample) {
+		if (Objects.isNull(tagSample)) {
+			return;
+		}
+		long nanos = System.nanoTime() - tagSample.startNanos;
+		RenderSample sample = tagSample.renderSample;
+		MeterRegistry registry = sample.getProfiler().meterRegistry;
+		Timer.builder(METER_TAG).tags(TAG_TAG, tagSample.tagName, TAG_TEMPLATE, sample.templateKey)
+				.publishPercentiles(PERCENTILES).register(registry)
+				.record(nanos, TimeUnit.NANOSECONDS);
+		DistributionSummary.builder(METER_TAG_SQL).tags(TAG_TAG, tagSample.tagName, TAG_TEMPLATE, sample.templateKey)
+				.register(registry)
+				.record(sample.sqlCount - tagSample.startSqlCount);
+	}
+
+	/**
+	 * 当前线程模板渲染SQL次数+1
+	 */
+	public static void countSql() {
+		RenderSample sample = CURRENT.get().peek();
+		if (Objects.nonNull(sample)) {
+			sample.sqlCount++;
+		} else {
+			CURRENT.remove();
+		}
+	}
+
+	/**
+	 * 模板渲染统计，按总耗时倒序
+	 *
+	 * @param limit 返回数量
+	 */
+	public List<RenderStat> getTemplateStats(int limit) {
+		return getStats(METER_RENDER, METER_RENDER_SQL, limit);
+	}
+
+	/**
+	 * 模板标签执行统计，按总耗时倒序
+	 *
+	 * @param limit 返回数量
+	 */
+	public List<RenderStat> getTagStats(int limit) {
+		return getStats(METER_TAG, METER_TAG_SQL, limit);
+	}
+
+	/**
+	 * 清空统计数据
+	 */
+	public void reset() {
+		List.of(METER_RENDER, METER_RENDER_SQL, METER_TAG, METER_TAG_SQL)
+				.forEach(name -> meterRegistry.find(name).meters().forEach(meterRegistry::remove));
+	}
+
+	private List<RenderStat> getStats(String timerName, String sqlSummaryName, int limit) {
+		List<RenderStat> list = new ArrayList<>();
+		for (Timer timer : meterRegistry.find(timerName).timers()) {
+			RenderStat stat = new RenderStat();
+			stat.setTemplate(timer.getId().getTag(TAG_TEMPLATE));
+			stat.setTag(timer.getId().getTag(TAG_TAG));
+			HistogramSnapshot snapshot = timer.takeSnapshot();
+			stat.setCount(snapshot.count());
+			stat.setTotalTime(snapshot.total(TimeUnit.MILLISECONDS));
+			stat.setMeanTime(snapshot.mean(TimeUnit.MILLISECONDS));
+			stat.setMaxTime(snapshot.max(TimeUnit.MILLISECONDS));
+			for (ValueAtPercentile vp : snapshot.percentileValues()) {
+				if (vp.percentile() == 0.5) {
+					stat.setP50Time(vp.value(TimeUnit.MILLISECONDS));
+				} else if (vp.percentile() == 0.99) {
+					stat.setP99Time(vp.value(TimeUnit.MILLISECONDS));
+				}
+			}
+			DistributionSummary sqlSummary = meterRegistry.find(sqlSummaryName).tags(timer.getId().getTags()).summary();
+			if (Objects.nonNull(sqlSummary)) {
+				stat.setMeanSqlCount(sqlSummary.mean());
+				stat.setMaxSqlCount(sqlSummary.max());
+			}
+			list.add(stat);
+		}
+		list.sort(Comparator.comparingDouble(RenderStat::getTotalTime).reversed());
+		return list.size() > limit ? list.subList(0, limit) : list;
+	}
+
+	/**
+	 * 模板渲染计时
+	 */
+	public class RenderSample {
+
+		private final String templateKey;
+
+		private final long startNanos = System.nanoTime();
+
+		private int sqlCount = 0;
+
+		RenderSample(String templateKey) {
+			this.templateKey = templateKey;
+		}
+
+		RenderProfiler getProfiler() {
+			return RenderProfiler.this;
+		}
+	}
+
+	/**
+	 * 模板标签计时
+	 */
+	public static class TagSample {
+
+		private final RenderSample renderSample;
+
+		private final String tagName;
+
+		private final long startNanos = System.nanoTime();
+
+		private final int startSqlCount;
+
+		TagSample(RenderSample renderSample, String tagName) {
+			this.renderSample = renderSample;
+			this.tagName = tagName;
+			this.startSqlCount = renderSample.sqlCount;
+		}
+	}
+
+	@Getter
+	@Setter
+	public static class RenderStat {
+
+		/**
+		 * 模板标识
+		 */
+		private String template;
+
+		/**
+		 * 模板标签名，模板渲染统计时为空
+		 */
+		private String tag;
+
+		/**
+		 * 调用次数
+		 */
+		private long count;
+
+		/**
+		 * 总耗时（毫秒）
+		 */
+		private double totalTime;
+
+		/**
+		 * 平均耗时（毫秒）
+		 */
+		private double meanTime;
+
+		/**
+		 * 最大耗时（毫秒）
+		 */
+		private double maxTime;
+
+		private double p50Time;
+
+		private double p99Time;
+
+		/**
+		 * 平均SQL次数
+		 */
+		private double meanSqlCount;
+
+		/**
+		 * 最大SQL次数
+		 */
+		private double maxSqlCount;
+	}
+}
@@ -21,7 +21,9 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 模板上下文
@@ -99,6 +101,16 @@ public class TemplateContext {
 	 * 模板处理时间
 	 */
 	private Long timeMillis;
+
+	/**
+	 * 模板处理过程中读取的数据依赖标识，由模板标签记录，用于增量发布时判断页面是否需要重新生成
+	 */
+	private Set<String> dependencies = new HashSet<>();
+
+	/**
+	 * 模板标签数据缓存，同一上下文（包括分页）中相同属性的列表标签只查询一次
+	 */
+	private final Map<String, Object> tagDataCache = new HashMap<>();
 	
 	public TemplateContext(String templateId, boolean preview, String publishPipeCode) {
 		this.templateId = templateId;
@@ -128,6 +140,12 @@ public class TemplateContext {
 		this.paged = false; // 变更页码时重置分页激活标记
 	}
 
+	public void addDependency(String dependency) {
+		if (StringUtils.isNotEmpty(dependency)) {
+			this.dependencies.add(dependency);
+		}
+	}
+
 	public void setDirectory(String directory) {
 		this.directory = directory;
 		FileExUtils.mkdirs(directory);
@@ -24,10 +24,7 @@ import freemarker.template.TemplateException;
 import freemarker.template.TemplateModel;
 import org.apache.commons.collections4.MapUtils;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
 
 public abstract class AbstractListTag extends AbstractTag {
 
@@ -44,6 +41,18 @@ public abstract class AbstractListTag extends AbstractTag {
 
 	public abstract TagPageData prepareData(Environment env, Map<String, String> attrs, boolean page, int size, int pageIndex) throws TemplateException;
 
+	/**
+	 * 是否缓存标签数据
+	 *
+	 * <p>
+	 * 同一模板上下文中，标签名、属性、分页参数都相同的调用只执行一次prepareData。
+	 * 数据依赖模板变量（属性以外）或需要每次调用都重新获取数据的标签需要重写返回false。
+	 * </p>
+	 */
+	public boolean isMemoizable() {
+		return true;
+	}
+
 	@Override
 	public Map<String, TemplateModel> execute0(Environment env, Map<String, String> attrs)
 			throws TemplateException {
@@ -63,7 +72,7 @@ public abstract class AbstractListTag extends AbstractTag {
 		TagPageData pageData;
 		// 获取列表数据
 		try {
-			pageData = this.prepareData(env, attrs, isPage, size, isPage ? context.getPageIndex() : 1);
+			pageData = this.memoizedPrepareData(env, context, attrs, isPage, size, isPage ? context.getPageIndex() : 1);
 		} catch (Exception e) {
 			throw new TemplateException(e, env);
 		}
@@ -76,6 +85,35 @@ public abstract class AbstractListTag extends AbstractTag {
 		return Map.of(StaticizeConstants.TemplateVariable_DataList, this.wrap(env, pageData.list));
 	}
 
+	private TagPageData memoizedPrepareData(Environment env, TemplateContext context, Map<String, String> attrs,
+											boolean page, int size, int pageIndex) throws TemplateException {
+		if (!this.isMemoizable()) {
+			return this.prepareData(env, attrs, page, size, pageIndex);
+		}
+		String cacheKey = this.getTagName() + ":" + new TreeMap<>(MapUtils.emptyIfNull(attrs)) + ":" + page + ":" + size + ":" + pageIndex;
+		if (context.getTagDataCache().get(cacheKey) instanceof MemoizedData memoized) {
+			// 补充数据依赖，包含模板缓存渲染时使用独立的依赖集合
+			memoized.dependencies.forEach(context::addDependency);
+			return memoized.pageData;
+		}
+		// 单独记录本次调用的数据依赖，缓存命中时补充到当前依赖集合
+		Set<String> outerDependencies = context.getDependencies();
+		Set<String> dependencies = new HashSet<>();
+		context.setDependencies(dependencies);
+		TagPageData pageData;
+		try {
+			pageData = this.prepareData(env, attrs, page, size, pageIndex);
+		} finally {
+			outerDependencies.addAll(dependencies);
+			context.setDependencies(outerDependencies);
+		}
+		context.getTagDataCache().put(cacheKey, new MemoizedData(pageData, dependencies));
+		return pageData;
+	}
+
+	private record MemoizedData(TagPageData pageData, Set<String> dependencies) {
+	}
+
 	public static class TagPageData {
 		List<?> list;
 		long total;
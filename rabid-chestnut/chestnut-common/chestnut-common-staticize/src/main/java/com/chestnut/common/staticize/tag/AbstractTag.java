@@ -25,6 +25,7 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 
 import com.chestnut.common.staticize.FreeMarkerUtils;
+import com.chestnut.common.staticize.core.RenderProfiler;
 import com.chestnut.common.staticize.enums.TagAttrDataType;
 import com.chestnut.common.utils.StringUtils;
 
@@ -61,7 +62,13 @@ public abstract class AbstractTag implements ITag, TemplateDirectiveModel {
 
 		// 执行标签逻辑
 		this.onTagStart(env, tagAttrs, body);
-		Map<String, TemplateModel> tagVariables = this.execute0(env, tagAttrs);
+		Map<String, TemplateModel> tagVariables;
+		RenderProfiler.TagSample sample = RenderProfiler.startTag(this.getTagName());
+		try {
+			tagVariables = this.execute0(env, tagAttrs);
+		} finally {
+			RenderProfiler.stopTag(sample);
+		}
 		this.onTagEnd(env, tagAttrs, body, tagVariables);
 	}
 
@@ -29,6 +29,7 @@ import com.chestnut.common.storage.IFileStorageType;
 import com.chestnut.common.storage.OSSClient;
 import com.chestnut.common.storage.StorageCopyArgs;
 import com.chestnut.common.storage.StorageCreateBucketArgs;
+import com.chestnut.common.storage.StorageExistArgs;
 import com.chestnut.common.storage.StorageMoveArgs;
 import com.chestnut.common.storage.StorageReadArgs;
 import com.chestnut.common.storage.StorageRemoveArgs;
@@ -46,6 +47,8 @@ import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.errors.ErrorResponseException;
 
 @Component(IFileStorageType.BEAN_NAME_PREIFX + MinIOFileStorageType.TYPE)
 public class MinIOFileStorageType implements IFileStorageType {
@@ -123,6 +126,25 @@ public class MinIOFileStorageType implements IFileStorageType {
 		this.getClient(endpoint, accessKey, accessSecret);
 	}
 
+	@Override
+	public boolean exists(StorageExistArgs args) {
+		try {
+			OSSClient<MinioClient> client = this.getClient(args.getEndpoint(), args.getAccessKey(),
+					args.getAccessSecret());
+			StatObjectArgs statObjectArgs = StatObjectArgs.builder().bucket(args.getBucket()).object(args.getPath())
+					.build();
+			client.getClient().statObject(statObjectArgs);
+			return true;
+		} catch (ErrorResponseException e) {
+			if ("NoSuchKey".equals(e.errorResponse().code())) {
+				return false;
+			}
+			throw new FileStorageException(e);
+		} catch (Exception e) {
+			throw new FileStorageException(e);
+		}
+	}
+
 	@Override
 	public InputStream read(StorageReadArgs args) {
 		try {
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.comment.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 评论配置
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = CommentProperties.PREFIX)
+public class CommentProperties {
+
+    public static final String PREFIX = "chestnut.comment";
+
+    private final Counter counter = new Counter();
+
+    @Getter
+    @Setter
+    public static class Counter {
+
+        /**
+         * 评论点赞数、回复数是否合并后定时批量写入，热点评论高并发点赞时开启
+         */
+        private boolean batch = false;
+    }
+}
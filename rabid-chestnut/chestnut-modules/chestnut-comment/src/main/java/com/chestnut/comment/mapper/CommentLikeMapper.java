@@ -17,6 +17,7 @@ package com.chestnut.comment.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.chestnut.comment.domain.CommentLike;
+import org.apache.ibatis.annotations.Insert;
 
 /**
  * <p>
@@ -28,4 +29,11 @@ import com.chestnut.comment.domain.CommentLike;
  */
 public interface CommentLikeMapper extends BaseMapper<CommentLike> {
 
+	/**
+	 * 添加点赞记录，用户已点赞时忽略
+	 *
+	 * @return 插入行数，已点赞返回0
+	 */
+	@Insert("INSERT IGNORE INTO cc_comment_like (comment_id, uid, like_time) VALUES (#{commentId}, #{uid}, #{likeTime})")
+	int insertIgnore(CommentLike commentLike);
 }
\ No newline at end of file
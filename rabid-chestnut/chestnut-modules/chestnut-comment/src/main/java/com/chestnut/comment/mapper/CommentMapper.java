@@ -17,6 +17,13 @@ package com.chestnut.comment.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.chestnut.comment.domain.Comment;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -28,4 +35,74 @@ import com.chestnut.comment.domain.Comment;
  */
 public interface CommentMapper extends BaseMapper<Comment> {
 
+	/**
+	 * 批量查询多条评论的最新回复，每条评论最多取limit条
+	 *
+	 * @param parentIds 父级评论ID列表
+	 * @param auditStatus 审核状态
+	 * @param limit 每条评论回复数上限
+	 */
+	@Select("""
+			<script>
+			SELECT * FROM (
+			SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.parent_id ORDER BY c.comment_id DESC) AS rn FROM cc_comment c
+			WHERE c.audit_status = #{auditStatus} AND c.parent_id IN
+			<foreach collection='parentIds' item='parentId' open='(' separator=',' close=')'>#{parentId}</foreach>
+			) t WHERE t.rn &lt;= #{limit} ORDER BY t.parent_id, t.comment_id DESC
+			</script>
+			""")
+	List<Comment> selectLatestReplies(@Param("parentIds") Collection<Long> parentIds,
+									  @Param("auditStatus") Integer auditStatus, @Param("limit") int limit);
+
+	/**
+	 * 累加评论点赞数
+	 *
+	 * @param commentId 评论ID
+	 * @param delta 增量
+	 */
+	@Update("UPDATE cc_comment SET like_count = GREATEST(like_count + #{delta}, 0) WHERE comment_id = #{commentId}")
+	int increaseLikeCount(@Param("commentId") Long commentId, @Param("delta") long delta);
+
+	/**
+	 * 累加评论回复数
+	 *
+	 * @param commentId 评论ID
+	 * @param delta 增量
+	 */
+	@Update("UPDATE cc_comment SET reply_count = GREATEST(reply_count + #{delta}, 0) WHERE comment_id = #{commentId}")
+	int increaseReplyCount(@Param("commentId") Long commentId, @Param("delta") long delta);
+
+	/**
+	 * 批量累加评论点赞数
+	 *
+	 * @param increments <commentId, 增量>
+	 */
+	@Update("""
+			<script>
+			UPDATE cc_comment SET like_count = GREATEST(like_count + CASE comment_id
+			<foreach collection='increments' index='commentId' item='delta'>
+			WHEN #{commentId} THEN #{delta}
+			</foreach>
+			ELSE 0 END, 0) WHERE comment_id IN
+			<foreach collection='increments' index='commentId' open='(' separator=',' close=')'>#{commentId}</foreach>
+			</script>
+			""")
+	int increaseLikeCounts(@Param("increments") Map<Long, Long> increments);
+
+	/**
+	 * 批量累加评论回复数
+	 *
+	 * @param increments <commentId, 增量>
+	 */
+	@Update("""
+			<script>
+			UPDATE cc_comment SET reply_count = GREATEST(reply_count + CASE comment_id
+			<foreach collection='increments' index='commentId' item='delta'>
+			WHEN #{commentId} THEN #{delta}
+			</foreach>
+			ELSE 0 END, 0) WHERE comment_id IN
+			<foreach collection='increments' index='commentId' open='(' separator=',' close=')'>#{commentId}</foreach>
+			</script>
+			""")
+	int increaseReplyCounts(@Param("increments") Map<Long, Long> increments);
 }
\ No newline at end of file
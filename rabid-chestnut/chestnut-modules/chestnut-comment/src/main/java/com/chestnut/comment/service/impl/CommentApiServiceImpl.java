@@ -18,6 +18,7 @@ package com.chestnut.comment.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.chestnut.comment.CommentConsts;
+import com.chestnut.comment.config.properties.CommentProperties;
 import com.chestnut.comment.domain.Comment;
 import com.chestnut.comment.domain.CommentLike;
 import com.chestnut.comment.domain.dto.SubmitCommentDTO;
@@ -40,23 +41,48 @@ import com.chestnut.common.utils.ServletUtils;
 import com.chestnut.member.domain.vo.MemberCache;
 import com.chestnut.member.service.IMemberExpConfigService;
 import com.chestnut.member.service.IMemberStatDataService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
 import org.springframework.beans.BeansException;
+import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+/**
+ * 评论前台接口服务
+ *
+ * <p>
+ * 点赞记录依赖(comment_id, uid)唯一索引去重，点赞数、回复数使用原子累加更新，不加锁。
+ * 开启批量模式（chestnut.comment.counter.batch）时，计数增量在内存中合并，每秒批量写入。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Slf4j
 @RequiredArgsConstructor
 @Service
-public class CommentApiServiceImpl implements ICommentApiService, ApplicationContextAware {
+public class CommentApiServiceImpl implements ICommentApiService, ApplicationContextAware, CommandLineRunner {
+
+	/**
+	 * 计数增量单次批量写入数量
+	 */
+	private static final int BATCH_SIZE = 500;
 
 	private final CommentMapper commentMapper;
 
@@ -66,12 +92,24 @@ public class CommentApiServiceImpl implements ICommentApiService, ApplicationCon
 
 	private final AsyncTaskManager asyncTaskManager;
 
-	private final RedissonClient redissonClient;
-
 	private final IMemberStatDataService memberStatDataService;
 
 	private final IMemberExpConfigService memberExpConfigService;
 
+	private final CommentProperties properties;
+
+	private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+
+	/**
+	 * 待写入点赞数增量 <commentId, delta>
+	 */
+	private final Map<Long, Long> likeCountDeltas = new ConcurrentHashMap<>();
+
+	/**
+	 * 待写入回复数增量 <commentId, delta>
+	 */
+	private final Map<Long, Long> replyCountDeltas = new ConcurrentHashMap<>();
+
 	private ApplicationContext applicationContext;
 
 	@Override
@@ -80,7 +118,7 @@ public class CommentApiServiceImpl implements ICommentApiService, ApplicationCon
 		Comment comment = this.commentMapper.selectById(commentId);
 		Assert.notNull(comment, CommentErrorCode.API_COMMENT_NOT_FOUND::exception);
 
-		this.incrCommentLikeCount(commentId, uid);
+		this.changeCommentLikeCount(comment, uid, true);
 	}
 
 	@Override
@@ -89,51 +127,27 @@ public class CommentApiServiceImpl implements ICommentApiService, ApplicationCon
 		Comment comment = this.commentMapper.selectById(commentId);
 		Assert.notNull(comment, CommentErrorCode.API_COMMENT_NOT_FOUND::exception);
 
-		this.decrCommentLikeCount(commentId, uid);
-	}
-
-	private void incrCommentLikeCount(Long commentId, long uid) {
-		this.changeCommentLikeCount(commentId, uid, true);
+		this.changeCommentLikeCount(comment, uid, false);
 	}
 
-	private void decrCommentLikeCount(Long commentId, long uid) {
-		this.changeCommentLikeCount(commentId, uid, false);
-	}
-
-	private void changeCommentLikeCount(Long commentId, long uid, boolean increase) {
-		RLock lock = redissonClient.getLock("CommentLike-" + commentId);
-		lock.lock();
-		try {
-			Comment comment = this.commentService.lambdaQuery()
-					.select(Comment::getLikeCount, Comment::getCommentId, Comment::getUid)
-					.eq(Comment::getCommentId, commentId).one();
-			if (Objects.isNull(comment)) {
-				return;
+	private void changeCommentLikeCount(Comment comment, long uid, boolean increase) {
+		if (increase) {
+			CommentLike commentLike = new CommentLike();
+			commentLike.setCommentId(comment.getCommentId());
+			commentLike.setUid(uid);
+			commentLike.setLikeTime(LocalDateTime.now());
+			if (this.commentLikeMapper.insertIgnore(commentLike) == 0) {
+				return; // 已点赞
 			}
-			if (increase) {
-				Long count = this.commentLikeMapper.selectCount(new LambdaQueryWrapper<CommentLike>()
-						.eq(CommentLike::getCommentId, comment.getCommentId()).eq(CommentLike::getUid, uid));
-				if (count > 0) {
-					return;
-				}
-				this.commentService.lambdaUpdate().set(Comment::getLikeCount, comment.getLikeCount() + 1)
-						.eq(Comment::getCommentId, comment.getCommentId()).update();
-
-				CommentLike commentLike = new CommentLike();
-				commentLike.setCommentId(comment.getCommentId());
-				commentLike.setUid(uid);
-				commentLike.setLikeTime(LocalDateTime.now());
-				this.commentLikeMapper.insert(commentLike);
-				// 触发会员经验值操作
-				memberExpConfigService.triggerExpOperation(CommentExpOperation.ID, comment.getUid());
-			} else {
-				this.commentLikeMapper.delete(new LambdaQueryWrapper<CommentLike>()
-						.eq(CommentLike::getCommentId, comment.getCommentId()).eq(CommentLike::getUid, uid));
-				this.commentService.lambdaUpdate().set(Comment::getLikeCount, comment.getLikeCount() - 1)
-						.eq(Comment::getCommentId, comment.getCommentId()).update();
+			this.changeCommentCount(this.likeCountDeltas, this.commentMapper::increaseLikeCount, comment.getCommentId(), 1);
+			// 触发会员经验值操作
+			memberExpConfigService.triggerExpOperation(CommentExpOperation.ID, comment.getUid());
+		} else {
+			int count = this.commentLikeMapper.delete(new LambdaQueryWrapper<CommentLike>()
+					.eq(CommentLike::getCommentId, comment.getCommentId()).eq(CommentLike::getUid, uid));
+			if (count > 0) {
+				this.changeCommentCount(this.likeCountDeltas, this.commentMapper::increaseLikeCount, comment.getCommentId(), -count);
 			}
-		} finally {
-			lock.unlock();
 		}
 	}
 
@@ -192,20 +206,26 @@ public class CommentApiServiceImpl implements ICommentApiService, ApplicationCon
 				.orderByDesc(Comment::getCommentId)
 				.page(new Page<>(1, limit, false));
 		List<Comment> list = page.getRecords();
+		// 一次查询所有评论的最新2条回复
+		List<Long> parentIds = list.stream().filter(comment -> comment.getReplyCount() > 0)
+				.map(Comment::getCommentId).toList();
+		Map<Long, List<Comment>> replyMap = parentIds.isEmpty() ? Map.of() : this.commentMapper
+				.selectLatestReplies(parentIds, CommentAuditStatus.PASSED, 2)
+				.stream().collect(Collectors.groupingBy(Comment::getParentId));
+		// 一次加载评论、回复涉及的所有会员
+		Set<Long> memberIds = new HashSet<>();
+		list.forEach(comment -> memberIds.add(comment.getUid()));
+		replyMap.values().forEach(replies -> replies.forEach(reply -> {
+			memberIds.add(reply.getUid());
+			memberIds.add(reply.getReplyUid());
+		}));
+		Map<Long, MemberCache> members = this.memberStatDataService.getMemberCaches(memberIds);
         return list.stream().map(comment -> {
 			CommentVO vo = CommentVO.newInstance(comment);
-			vo.setUser(this.memberStatDataService.getMemberCache(comment.getUid()));
-			if (comment.getReplyCount() > 0) {
-				List<CommentVO> replyList = this.loadCommentReplyList(comment.getCommentId(), 2, 0L)
-						.stream().map(reply -> {
-							CommentVO voReply = CommentVO.newInstance(reply);
-							voReply.setUser(this.memberStatDataService.getMemberCache(reply.getUid()));
-							if (reply.getReplyUid() > 0) {
-								voReply.setReplyUser(this.memberStatDataService.getMemberCache(reply.getReplyUid()));
-							}
-							return voReply;
-						}).toList();
-				vo.setReplyList(replyList);
+			vo.setUser(members.get(comment.getUid()));
+			List<Comment> replies = replyMap.get(comment.getCommentId());
+			if (Objects.nonNull(replies)) {
+				vo.setReplyList(this.toCommentVOList(replies, members));
 			}
 			return vo;
 		}).toList();
@@ -221,15 +241,7 @@ public class CommentApiServiceImpl implements ICommentApiService, ApplicationCon
 				.orderByDesc(Comment::getCommentId)
 				.page(new Page<>(1, limit, false));
 		List<Comment> list = page.getRecords();
-		MemberCache memberCache = this.memberStatDataService.getMemberCache(memberId);
-        return list.stream().map(comment -> {
-			CommentVO vo = CommentVO.newInstance(comment);
-			vo.setUser(memberCache);
-			if (comment.getReplyUid() > 0) {
-				vo.setReplyUser(this.memberStatDataService.getMemberCache(comment.getReplyUid()));
-			}
-			return vo;
-		}).toList();
+		return this.toCommentVOList(list, this.loadCommentMembers(list));
 	}
 
 	private List<Comment> loadCommentReplyList(Long commentId, Integer limit, Long offset) {
@@ -244,11 +256,27 @@ public class CommentApiServiceImpl implements ICommentApiService, ApplicationCon
 	@Override
 	public List<CommentVO> getCommentReplyList(Long commentId, Integer limit, Long offset) {
 		List<Comment> list = loadCommentReplyList(commentId, limit, offset);
-        return list.stream().map(reply -> {
-			CommentVO vo = CommentVO.newInstance(reply);
-			vo.setUser(this.memberStatDataService.getMemberCache(reply.getUid()));
-			if (reply.getReplyUid() > 0) {
-				vo.setReplyUser(this.memberStatDataService.getMemberCache(reply.getReplyUid()));
+		return this.toCommentVOList(list, this.loadCommentMembers(list));
+	}
+
+	/**
+	 * 批量加载评论用户及回复对象用户
+	 */
+	private Map<Long, MemberCache> loadCommentMembers(List<Comment> list) {
+		Set<Long> memberIds = new HashSet<>();
+		list.forEach(comment -> {
+			memberIds.add(comment.getUid());
+			memberIds.add(comment.getReplyUid());
+		});
+		return this.memberStatDataService.getMemberCaches(memberIds);
+	}
+
+	private List<CommentVO> toCommentVOList(List<Comment> list, Map<Long, MemberCache> members) {
+		return list.stream().map(comment -> {
+			CommentVO vo = CommentVO.newInstance(comment);
+			vo.setUser(members.get(comment.getUid()));
+			if (comment.getReplyUid() > 0) {
+				vo.setReplyUser(members.get(comment.getReplyUid()));
 			}
 			return vo;
 		}).toList();
@@ -276,38 +304,90 @@ public class CommentApiServiceImpl implements ICommentApiService, ApplicationCon
 		}
 	}
 
+	private void incrCommentReplyCount(Long commentId) {
+		this.changeCommentCount(this.replyCountDeltas, this.commentMapper::increaseReplyCount, commentId, 1);
+	}
+
+	private void decrCommentReplyCount(Long commentId) {
+		this.changeCommentCount(this.replyCountDeltas, this.commentMapper::increaseReplyCount, commentId, -1);
+	}
+
 	/**
-	 * 修改评论回复数+1/-1
+	 * 修改评论计数，批量模式下合并增量等待定时写入，事务中调用时在事务提交后合并增量
 	 *
+	 * @param deltas 待写入增量
+	 * @param updater 直接累加更新
 	 * @param commentId 评论ID
-	 * @param increase  是否增加
+	 * @param delta 增量
 	 */
-	private void changeCommentReplyCount(Long commentId, boolean increase) {
-		RLock lock = redissonClient.getLock("Comment-" + commentId);
-		lock.lock();
-		try {
-			Comment comment = this.commentService.getById(commentId);
-			if (Objects.isNull(comment)) {
-				return;
+	private void changeCommentCount(Map<Long, Long> deltas, CountUpdater updater, Long commentId, long delta) {
+		if (!this.properties.getCounter().isBatch()) {
+			updater.update(commentId, delta);
+		} else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			// 事务回滚时点赞、回复记录已撤销，增量不能写入
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					deltas.merge(commentId, delta, Long::sum);
+				}
+			});
+		} else {
+			deltas.merge(commentId, delta, Long::sum);
+		}
+	}
+
+	/**
+	 * 批量写入合并后的评论计数增量
+	 */
+	public synchronized void flushCommentCounts() {
+		this.flushCommentCounts(this.likeCountDeltas, this.commentMapper::increaseLikeCounts);
+		this.flushCommentCounts(this.replyCountDeltas, this.commentMapper::increaseReplyCounts);
+	}
+
+	private void flushCommentCounts(Map<Long, Long> deltas, Consumer<Map<Long, Long>> batchUpdater) {
+		Map<Long, Long> increments = new HashMap<>();
+		for (Long commentId : deltas.keySet()) {
+			Long delta = deltas.remove(commentId);
+			if (Objects.nonNull(delta) && delta != 0) {
+				increments.put(commentId, delta);
 			}
-			if (increase) {
-				this.commentService.lambdaUpdate().set(Comment::getReplyCount, comment.getReplyCount() + 1)
-						.eq(Comment::getCommentId, comment.getCommentId()).update();
-			} else {
-				this.commentService.lambdaUpdate().set(Comment::getReplyCount, comment.getReplyCount() - 1)
-						.eq(Comment::getCommentId, comment.getCommentId()).update();
+			if (increments.size() >= BATCH_SIZE) {
+				this.updateCommentCounts(deltas, increments, batchUpdater);
+				increments = new HashMap<>();
 			}
-		} finally {
-			lock.unlock();
+		}
+		if (!increments.isEmpty()) {
+			this.updateCommentCounts(deltas, increments, batchUpdater);
 		}
 	}
 
-	private void incrCommentReplyCount(Long commentId) {
-		this.changeCommentReplyCount(commentId, true);
+	private void updateCommentCounts(Map<Long, Long> deltas, Map<Long, Long> increments,
+									 Consumer<Map<Long, Long>> batchUpdater) {
+		try {
+			batchUpdater.accept(increments);
+		} catch (Exception e) {
+			log.error("Flush comment counts failed, size: " + increments.size(), e);
+			// 写入失败的增量放回，下次重试
+			increments.forEach((commentId, delta) -> deltas.merge(commentId, delta, Long::sum));
+		}
 	}
 
-	private void decrCommentReplyCount(Long commentId) {
-		this.changeCommentReplyCount(commentId, false);
+	@PreDestroy
+	public void preDestroy() {
+		this.flushCommentCounts();
+	}
+
+	@Override
+	public void run(String... args) throws Exception {
+		if (this.properties.getCounter().isBatch()) {
+			threadPoolTaskScheduler.schedule(this::flushCommentCounts, new PeriodicTrigger(Duration.ofSeconds(1)));
+		}
+	}
+
+	@FunctionalInterface
+	private interface CountUpdater {
+
+		void update(Long commentId, long delta);
 	}
 
 	@Override
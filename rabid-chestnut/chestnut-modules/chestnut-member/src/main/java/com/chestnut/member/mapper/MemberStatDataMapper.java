@@ -18,6 +18,10 @@ package com.chestnut.member.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.chestnut.member.domain.MemberFollow;
 import com.chestnut.member.domain.MemberStatData;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Map;
 
 /**
  * <p>
@@ -29,4 +33,20 @@ import com.chestnut.member.domain.MemberStatData;
  */
 public interface MemberStatDataMapper extends BaseMapper<MemberStatData> {
 
+	/**
+	 * 批量累加会员统计数据，数据记录不存在时新增
+	 *
+	 * @param column 统计数据字段名，例如：int_value1
+	 * @param increments <memberId, 增量>
+	 */
+	@Insert("""
+			<script>
+			INSERT INTO cc_member_stat_data (member_id, ${column}) VALUES
+			<foreach collection='increments' index='memberId' item='delta' separator=','>
+			(#{memberId}, #{delta})
+			</foreach>
+			ON DUPLICATE KEY UPDATE ${column} = ${column} + VALUES(${column})
+			</script>
+			""")
+	int increaseStatData(@Param("column") String column, @Param("increments") Map<Long, Long> increments);
 }
\ No newline at end of file
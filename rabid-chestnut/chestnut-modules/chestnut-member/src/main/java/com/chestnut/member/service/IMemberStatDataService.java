@@ -21,6 +21,9 @@ import com.chestnut.member.domain.MemberStatData;
 import com.chestnut.member.domain.vo.MemberCache;
 import com.chestnut.member.service.impl.MemberStatDataServiceImpl;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface IMemberStatDataService extends IService<MemberStatData> {
 
     /**
@@ -31,10 +34,18 @@ public interface IMemberStatDataService extends IService<MemberStatData> {
      */
     MemberCache getMemberCache(Long memberId);
 
+    /**
+     * 批量获取会员基础数据缓存，未缓存的会员一次查询后批量写入缓存
+     *
+     * @param memberIds 会员ID列表
+     * @return <memberId, MemberCache>，不存在的会员不包含在结果中
+     */
+    Map<Long, MemberCache> getMemberCaches(Collection<Long> memberIds);
+
     void removeMemberCache(Long memberId);
 
     /**
-     * 更新统计数据
+     * 更新统计数据，增量合并后异步批量写入
      *
      * @param memberId
      * @param statDataType
@@ -33,23 +33,111 @@ import com.chestnut.member.service.IMemberExpConfigService;
 import com.chestnut.member.service.IMemberLevelConfigService;
 import com.chestnut.member.service.IMemberLevelExpLogService;
 import com.chestnut.member.service.IMemberLevelService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * 会员经验值操作配置服务
+ *
+ * <p>
+ * 经验值操作配置列表本地缓存；日/总次数上限使用Redis计数原子校验并累加，计数不存在时由经验值日志初始化；
+ * 经验值变更日志每秒批量写入。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Slf4j
 @RequiredArgsConstructor
 @Service
 public class MemberExpConfigServiceImpl extends ServiceImpl<MemberExpConfigMapper, MemberExpConfig>
-		implements IMemberExpConfigService {
+		implements IMemberExpConfigService, CommandLineRunner {
 
 	private static final String CACHE_PREFIX = "member_exp_op:";
 
+	/**
+	 * 会员经验值操作次数计数，hash结构：date=计数日期，day=当日次数，total=总次数
+	 */
+	private static final String LIMIT_COUNTER_PREFIX = "member_exp_op_limit:";
+
+	/**
+	 * 经验值日志单次批量写入数量
+	 */
+	private static final int LOG_BATCH_SIZE = 500;
+
+	/**
+	 * 校验日/总次数上限，未超限时累加次数返回1，超限返回0，计数不存在返回-1由调用方初始化后重试
+	 */
+	private static final RedisScript<Long> CHECK_LIMIT_SCRIPT = new DefaultRedisScript<>("""
+			if redis.call('exists', KEYS[1]) == 0 then
+			    return -1
+			end
+			local total = tonumber(redis.call('hget', KEYS[1], 'total') or '0')
+			local day = 0
+			if redis.call('hget', KEYS[1], 'date') == ARGV[1] then
+			    day = tonumber(redis.call('hget', KEYS[1], 'day') or '0')
+			end
+			if tonumber(ARGV[2]) > 0 and day >= tonumber(ARGV[2]) then
+			    return 0
+			end
+			if tonumber(ARGV[3]) > 0 and total >= tonumber(ARGV[3]) then
+			    return 0
+			end
+			redis.call('hset', KEYS[1], 'date', ARGV[1], 'day', day + 1, 'total', total + 1)
+			return 1
+			""", Long.class);
+
+	/**
+	 * 初始化次数计数，所有字段在同一脚本中HSETNX，避免并发校验在初始化过程中从0开始计数
+	 */
+	private static final RedisScript<Long> INIT_LIMIT_SCRIPT = new DefaultRedisScript<>("""
+			redis.call('hsetnx', KEYS[1], 'date', ARGV[1])
+			redis.call('hsetnx', KEYS[1], 'day', ARGV[2])
+			redis.call('hsetnx', KEYS[1], 'total', ARGV[3])
+			return 1
+			""", Long.class);
+
+	/**
+	 * 事务回滚时退回已累加的次数，ARGV[1]=计数日期
+	 */
+	private static final RedisScript<Long> REVERT_LIMIT_SCRIPT = new DefaultRedisScript<>("""
+			if redis.call('exists', KEYS[1]) == 0 then
+			    return 0
+			end
+			if redis.call('hget', KEYS[1], 'date') == ARGV[1] and tonumber(redis.call('hget', KEYS[1], 'day') or '0') > 0 then
+			    redis.call('hincrby', KEYS[1], 'day', -1)
+			end
+			if tonumber(redis.call('hget', KEYS[1], 'total') or '0') > 0 then
+			    redis.call('hincrby', KEYS[1], 'total', -1)
+			end
+			return 1
+			""", Long.class);
+
 	private final RedisCache redisCache;
 
 	private final Map<String, IExpOperation> expOperations;
@@ -64,6 +152,22 @@ public class MemberExpConfigServiceImpl extends ServiceImpl<MemberExpConfigMappe
 	
 	private final RedissonClient redissonClient;
 
+	private final StringRedisTemplate stringRedisTemplate;
+
+	private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+
+	/**
+	 * 经验值操作配置列表缓存 <opType, configs>
+	 */
+	private final Cache<String, List<MemberExpConfig>> expConfigCache = Caffeine.newBuilder()
+			.expireAfterWrite(Duration.ofMinutes(1))
+			.build();
+
+	/**
+	 * 待写入经验值变更日志
+	 */
+	private final Queue<MemberLevelExpLog> pendingExpLogs = new ConcurrentLinkedQueue<>();
+
 	@Override
 	public IExpOperation getExpOperation(String opType) {
 		IExpOperation eo = this.expOperations.get(IExpOperation.BEAN_PREFIX + opType);
@@ -96,6 +200,7 @@ public class MemberExpConfigServiceImpl extends ServiceImpl<MemberExpConfigMappe
 		expOp.setConfigId(IdUtils.getSnowflakeId());
 		expOp.createBy(expOp.getCreateBy());
 		this.save(expOp);
+		this.clearExpConfigCache(expOp);
 	}
 
 	@Override
@@ -108,28 +213,50 @@ public class MemberExpConfigServiceImpl extends ServiceImpl<MemberExpConfigMappe
 		db.setTotalLimit(expOp.getTotalLimit());
 		db.updateBy(expOp.getUpdateBy());
 		this.updateById(db);
+		this.clearExpConfigCache(db);
 	}
 
 	@Override
 	public void deleteExpOperations(List<Long> expOperationIds) {
+		List<MemberExpConfig> list = this.listByIds(expOperationIds);
 		this.removeByIds(expOperationIds);
+		list.forEach(this::clearExpConfigCache);
+	}
+
+	private void clearExpConfigCache(MemberExpConfig expOp) {
+		this.expConfigCache.invalidate(expOp.getOpType());
+		this.redisCache.deleteObject(CACHE_PREFIX + expOp.getOpType() + ":" + expOp.getLevelType());
+	}
+
+	private List<MemberExpConfig> getExpConfigs(String opType) {
+		return this.expConfigCache.get(opType, type -> this.lambdaQuery().eq(MemberExpConfig::getOpType, type).list());
 	}
 
 	@Override
 	@Transactional(rollbackFor = Throwable.class)
 	public void triggerExpOperation(String expOpType, Long memberId) {
+		// 先校验次数上限，未超限的才需要变更经验值
+		String today = LocalDate.now().toString();
+		List<String> limitKeys = new ArrayList<>();
+		List<MemberExpConfig> list = new ArrayList<>();
+		for (MemberExpConfig memberExpOperation : this.getExpConfigs(expOpType)) {
+			if (this.checkLimit(memberExpOperation, memberId, today, limitKeys)) {
+				list.add(memberExpOperation);
+			}
+		}
+		if (list.isEmpty()) {
+			return;
+		}
+		// 经验值日志在事务提交后写入，事务回滚时退回已累加的次数
+		List<MemberLevelExpLog> expLogs = new ArrayList<>(list.size());
+		boolean inTransaction = this.afterTransaction(expLogs, limitKeys, today);
 		// 获取用户锁，避免并发导致经验值错误
 		RLock lock = this.redissonClient.getLock("TriggerExpOp_" + memberId);
 		lock.lock();
 		try {
-			List<MemberExpConfig> list = this.lambdaQuery().eq(MemberExpConfig::getOpType, expOpType).list();
 			for (MemberExpConfig memberExpOperation : list) {
 				String levelType = memberExpOperation.getLevelType();
 				MemberLevel memberLevel = this.memberLevelService.getMemberLevel(memberId, levelType);
-				// 校验上限
-				if (!this.checkLimit(memberExpOperation, memberId)) {
-					continue;
-				}
 				// 执行通用经验值变更处理逻辑
 				LevelManager levelManager = memberLevelConfigService.getLevelManager(memberExpOperation.getLevelType());
 				levelManager.addExp(memberLevel, memberExpOperation.getExp());
@@ -143,36 +270,127 @@ public class MemberExpConfigServiceImpl extends ServiceImpl<MemberExpConfigMappe
 				expLog.setChangeExp(memberExpOperation.getExp());
 				expLog.setLevel(memberLevel.getLevel());
 				expLog.setExp(memberLevel.getExp());
-				this.expLogService.save(expLog);
+				expLogs.add(expLog);
 			}
 		} finally {
 			lock.unlock();
 		}
+		if (!inTransaction) {
+			this.pendingExpLogs.addAll(expLogs);
+		}
 	}
 
 	/**
-	 * 校验日/总次数上限
-	 * 
-	 * TODO: 数据量可以独立存储操作次数记录进行缓存优化
+	 * 事务提交后将经验值日志加入待写入队列，未提交时退回次数计数；无事务时立即处理
 	 */
-	private boolean checkLimit(MemberExpConfig memberExpOperation, Long memberId) {
-		if (memberExpOperation.getDayLimit() > 0) {
-			Long dayCount = this.expLogService.lambdaQuery().eq(MemberLevelExpLog::getMemberId, memberId)
-					.eq(MemberLevelExpLog::getOpType, memberExpOperation.getOpType())
-					.eq(MemberLevelExpLog::getLevelType, memberExpOperation.getLevelType())
-					.ge(MemberLevelExpLog::getLogTime, DateUtils.getTodayStart()).count();
-			if (dayCount >= memberExpOperation.getDayLimit()) {
-				return false;
+	private boolean afterTransaction(List<MemberLevelExpLog> expLogs, List<String> limitKeys, String today) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return false;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				pendingExpLogs.addAll(expLogs);
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				if (status != STATUS_COMMITTED) {
+					limitKeys.forEach(key -> stringRedisTemplate.execute(REVERT_LIMIT_SCRIPT, List.of(key), today));
+				}
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * 校验日/总次数上限，未超限时累加次数，累加过的计数KEY记录到limitKeys
+	 */
+	private boolean checkLimit(MemberExpConfig memberExpOperation, Long memberId, String today, List<String> limitKeys) {
+		if (memberExpOperation.getDayLimit() <= 0 && memberExpOperation.getTotalLimit() <= 0) {
+			return true;
+		}
+		String cacheKey = LIMIT_COUNTER_PREFIX + memberExpOperation.getOpType() + ":"
+				+ memberExpOperation.getLevelType() + ":" + memberId;
+		List<String> keys = List.of(cacheKey);
+		String dayLimit = String.valueOf(memberExpOperation.getDayLimit());
+		String totalLimit = String.valueOf(memberExpOperation.getTotalLimit());
+		Long result = this.stringRedisTemplate.execute(CHECK_LIMIT_SCRIPT, keys, today, dayLimit, totalLimit);
+		if (Objects.nonNull(result) && result < 0) {
+			this.initLimitCounter(cacheKey, today, memberExpOperation, memberId);
+			result = this.stringRedisTemplate.execute(CHECK_LIMIT_SCRIPT, keys, today, dayLimit, totalLimit);
+		}
+		boolean passed = Objects.nonNull(result) && result > 0;
+		if (passed) {
+			limitKeys.add(cacheKey);
+		}
+		return passed;
+	}
+
+	/**
+	 * 由经验值日志及本地待写入日志初始化次数计数，所有字段在同一脚本中HSETNX，避免覆盖并发初始化后已累加的计数
+	 * <p>
+	 * 与flushExpLogs使用同一监视器，避免统计时已从待写入队列取出但未提交的日志被遗漏
+	 */
+	private synchronized void initLimitCounter(String cacheKey, String today, MemberExpConfig memberExpOperation, Long memberId) {
+		LocalDateTime todayStart = DateUtils.getTodayStart();
+		long dayCount = this.expLogService.lambdaQuery().eq(MemberLevelExpLog::getMemberId, memberId)
+				.eq(MemberLevelExpLog::getOpType, memberExpOperation.getOpType())
+				.eq(MemberLevelExpLog::getLevelType, memberExpOperation.getLevelType())
+				.ge(MemberLevelExpLog::getLogTime, todayStart).count();
+		long total = this.expLogService.lambdaQuery().eq(MemberLevelExpLog::getMemberId, memberId)
+				.eq(MemberLevelExpLog::getOpType, memberExpOperation.getOpType())
+				.eq(MemberLevelExpLog::getLevelType, memberExpOperation.getLevelType()).count();
+		for (MemberLevelExpLog expLog : this.pendingExpLogs) {
+			if (memberId.equals(expLog.getMemberId()) && memberExpOperation.getOpType().equals(expLog.getOpType())
+					&& memberExpOperation.getLevelType().equals(expLog.getLevelType())) {
+				total++;
+				if (!expLog.getLogTime().isBefore(todayStart)) {
+					dayCount++;
+				}
 			}
 		}
-		if (memberExpOperation.getTotalLimit() > 0) {
-			Long total = this.expLogService.lambdaQuery().eq(MemberLevelExpLog::getMemberId, memberId)
-					.eq(MemberLevelExpLog::getOpType, memberExpOperation.getOpType())
-					.eq(MemberLevelExpLog::getLevelType, memberExpOperation.getLevelType()).count();
-			if (total >= memberExpOperation.getTotalLimit()) {
-				return false;
+		this.stringRedisTemplate.execute(INIT_LIMIT_SCRIPT, List.of(cacheKey), today, String.valueOf(dayCount),
+				String.valueOf(total));
+	}
+
+	/**
+	 * 批量写入经验值变更日志
+	 */
+	public synchronized void flushExpLogs() {
+		List<MemberLevelExpLog> failed = new ArrayList<>();
+		List<MemberLevelExpLog> batch = new ArrayList<>(LOG_BATCH_SIZE);
+		MemberLevelExpLog expLog;
+		while ((expLog = this.pendingExpLogs.poll()) != null) {
+			batch.add(expLog);
+			if (batch.size() >= LOG_BATCH_SIZE) {
+				this.saveExpLogs(batch, failed);
+				batch = new ArrayList<>(LOG_BATCH_SIZE);
 			}
 		}
-		return true;
+		if (!batch.isEmpty()) {
+			this.saveExpLogs(batch, failed);
+		}
+		// 写入失败的日志放回，下次重试，日志是次数计数初始化的依据不能丢弃
+		this.pendingExpLogs.addAll(failed);
+	}
+
+	private void saveExpLogs(List<MemberLevelExpLog> batch, List<MemberLevelExpLog> failed) {
+		try {
+			this.expLogService.saveBatch(batch);
+		} catch (Exception e) {
+			log.error("Save member exp logs failed, size: " + batch.size(), e);
+			failed.addAll(batch);
+		}
+	}
+
+	@PreDestroy
+	public void preDestroy() {
+		this.flushExpLogs();
+	}
+
+	@Override
+	public void run(String... args) throws Exception {
+		threadPoolTaskScheduler.schedule(this::flushExpLogs, new PeriodicTrigger(Duration.ofSeconds(1)));
 	}
 }
@@ -16,7 +16,9 @@
 package com.chestnut.member.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.chestnut.common.redis.CacheObject;
 import com.chestnut.common.redis.RedisCache;
+import com.chestnut.common.utils.IdUtils;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.member.core.IMemberStatData;
 import com.chestnut.member.domain.Member;
@@ -25,52 +27,119 @@ import com.chestnut.member.domain.vo.MemberCache;
 import com.chestnut.member.mapper.MemberStatDataMapper;
 import com.chestnut.member.service.IMemberService;
 import com.chestnut.member.service.IMemberStatDataService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
-import org.springframework.scheduling.annotation.Async;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-import java.util.Objects;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * 会员统计数据服务
+ *
+ * <p>
+ * 统计数据变更按会员+统计字段在内存中合并增量，后台每秒批量累加写入（INSERT ... ON DUPLICATE KEY UPDATE），
+ * 写入后直接更新已缓存会员数据中的统计值，不加锁也不删除会员缓存。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class MemberStatDataServiceImpl extends ServiceImpl<MemberStatDataMapper, MemberStatData> implements IMemberStatDataService {
+public class MemberStatDataServiceImpl extends ServiceImpl<MemberStatDataMapper, MemberStatData>
+        implements IMemberStatDataService, CommandLineRunner {
 
     private static final String CACHE_PREFIX = "cc:member:";
 
-    private final IMemberService memberService;
+    /**
+     * 会员缓存过期时间
+     */
+    private static final Duration CACHE_EXPIRE = Duration.ofDays(1);
+
+    /**
+     * 统计数据增量单次批量写入数量
+     */
+    private static final int BATCH_SIZE = 500;
 
-    private final RedissonClient redissonClient;
+    private final IMemberService memberService;
 
     private final RedisCache redisCache;
 
     private final Map<String, IMemberStatData> memberStatDataTypes;
 
+    private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+
+    /**
+     * 待写入统计数据增量 <field, <memberId, delta>>
+     */
+    private final Map<String, Map<Long, Long>> statDataDeltas = new ConcurrentHashMap<>();
+
     @Override
     public MemberCache getMemberCache(Long memberId) {
-        return this.redisCache.getCacheObject(CACHE_PREFIX + memberId, () -> {
+        return this.redisCache.getCacheObjectWithExpiresIn(CACHE_PREFIX + memberId, () -> {
             Member member = memberService.getById(memberId);
-            if (member == null) {
-                return null;
-            }
-            MemberCache memberCache = new MemberCache();
-            memberCache.setMemberId(memberId);
-            if (StringUtils.isNotEmpty(member.getNickName())) {
-                memberCache.setDisplayName(member.getNickName());
+            MemberCache memberCache = member == null ? null : this.newMemberCache(member, getById(memberId));
+            return CacheObject.create(memberCache, CACHE_EXPIRE.toSeconds(), TimeUnit.SECONDS);
+        });
+    }
+
+    @Override
+    public Map<Long, MemberCache> getMemberCaches(Collection<Long> memberIds) {
+        List<Long> ids = memberIds.stream().filter(IdUtils::validate).distinct().toList();
+        Map<Long, MemberCache> result = new HashMap<>(ids.size());
+        if (ids.isEmpty()) {
+            return result;
+        }
+        List<MemberCache> cached = this.redisCache.getMultiCacheObject(ids.stream().map(id -> CACHE_PREFIX + id).toList());
+        List<Long> missIds = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            MemberCache memberCache = cached.get(i);
+            if (Objects.nonNull(memberCache)) {
+                result.put(ids.get(i), memberCache);
             } else {
-                memberCache.setDisplayName(member.getUserName());
+                missIds.add(ids.get(i));
             }
-            memberCache.setCover(member.getCover());
-            memberCache.setAvatar(member.getAvatar());
-            memberCache.setSlogan(member.getSlogan());
-            MemberStatData data = getById(memberId);
-            memberStatDataTypes.values().forEach(t -> {
-                memberCache.getStat().put(t.getType(), Objects.nonNull(data) ? data.getValue(t.getField()) : 0);
-            });
-            return memberCache;
+        }
+        if (missIds.isEmpty()) {
+            return result;
+        }
+        Map<Long, MemberStatData> statDataMap = this.listByIds(missIds).stream()
+                .collect(Collectors.toMap(MemberStatData::getMemberId, Function.identity()));
+        Map<String, MemberCache> cacheMap = new HashMap<>(missIds.size());
+        this.memberService.listByIds(missIds).forEach(member -> {
+            MemberCache memberCache = this.newMemberCache(member, statDataMap.get(member.getMemberId()));
+            result.put(member.getMemberId(), memberCache);
+            cacheMap.put(CACHE_PREFIX + member.getMemberId(), memberCache);
+        });
+        this.redisCache.setMultiCacheObject(cacheMap, CACHE_EXPIRE.toSeconds(), TimeUnit.SECONDS);
+        return result;
+    }
+
+    private MemberCache newMemberCache(Member member, MemberStatData data) {
+        MemberCache memberCache = new MemberCache();
+        memberCache.setMemberId(member.getMemberId());
+        if (StringUtils.isNotEmpty(member.getNickName())) {
+            memberCache.setDisplayName(member.getNickName());
+        } else {
+            memberCache.setDisplayName(member.getUserName());
+        }
+        memberCache.setCover(member.getCover());
+        memberCache.setAvatar(member.getAvatar());
+        memberCache.setSlogan(member.getSlogan());
+        memberStatDataTypes.values().forEach(t -> {
+            memberCache.getStat().put(t.getType(), Objects.nonNull(data) ? data.getValue(t.getField()) : 0);
         });
+        return memberCache;
     }
 
     @Override
@@ -78,39 +147,87 @@ public class MemberStatDataServiceImpl extends ServiceImpl<MemberStatDataMapper,
         this.redisCache.deleteObject(CACHE_PREFIX + memberId);
     }
 
-    @Async
     @Override
     public void changeMemberStatData(Long memberId, String statDataType, Integer delta) {
         IMemberStatData memberStatData = this.getMemberStatData(statDataType);
-        if (memberStatData == null) {
+        if (memberStatData == null || !IdUtils.validate(memberId) || delta == 0) {
             return;
         }
-        Member member = this.memberService.getById(memberId);
-        if (member == null) {
-            return;
-        }
-        RLock lock = redissonClient.getLock("MemberStatData_" + memberId);
-        lock.lock();
-        try {
-            MemberStatData data = this.getById(memberId);
-            if (data == null) {
-                data = new MemberStatData();
-                data.setMemberId(memberId);
-            }
+        this.statDataDeltas.computeIfAbsent(memberStatData.getField(), field -> new ConcurrentHashMap<>())
+                .merge(memberId, delta.longValue(), Long::sum);
+    }
 
-            Integer value = data.getValue(memberStatData.getField());
-            if (value == null) {
-                value = 0;
+    /**
+     * 批量写入合并后的会员统计数据增量，并更新已缓存会员的统计数据
+     */
+    public synchronized void flushStatData() {
+        Set<Long> memberIds = new HashSet<>();
+        this.statDataDeltas.forEach((field, deltas) -> {
+            Map<Long, Long> increments = new HashMap<>();
+            for (Long memberId : deltas.keySet()) {
+                Long delta = deltas.remove(memberId);
+                if (Objects.nonNull(delta) && delta != 0) {
+                    increments.put(memberId, delta);
+                }
+                if (increments.size() >= BATCH_SIZE) {
+                    this.increaseStatData(field, deltas, increments, memberIds);
+                    increments = new HashMap<>();
+                }
+            }
+            if (!increments.isEmpty()) {
+                this.increaseStatData(field, deltas, increments, memberIds);
+            }
+        });
+        if (!memberIds.isEmpty()) {
+            try {
+                this.refreshMemberCacheStat(memberIds);
+            } catch (Exception e) {
+                log.error("Refresh member cache stat data failed.", e);
+                this.redisCache.deleteObject(memberIds.stream().map(id -> CACHE_PREFIX + id).toList());
             }
-            value += delta;
-            data.setValue(memberStatData.getField(), value);
-            this.saveOrUpdate(data);
-            this.redisCache.deleteObject(CACHE_PREFIX + memberId);
-        } finally {
-            lock.unlock();
         }
     }
 
+    private void increaseStatData(String field, Map<Long, Long> deltas, Map<Long, Long> increments, Set<Long> memberIds) {
+        try {
+            this.baseMapper.increaseStatData(StringUtils.toUnderScoreCase(field), increments);
+            memberIds.addAll(increments.keySet());
+        } catch (Exception e) {
+            log.error("Flush member stat data failed, field: " + field + ", size: " + increments.size(), e);
+            // 写入失败的增量放回，下次重试
+            increments.forEach((memberId, delta) -> deltas.merge(memberId, delta, Long::sum));
+        }
+    }
+
+    /**
+     * 已缓存的会员数据直接更新统计值，统计值以数据库为准
+     * <p>
+     * 写回时缓存已被删除或修改的会员不写回，直接删除缓存，下次读取时重新加载
+     */
+    private void refreshMemberCacheStat(Set<Long> memberIds) {
+        this.redisCache.<MemberCache>updateMultiCacheObject(memberIds.stream().map(id -> CACHE_PREFIX + id).toList(), cached -> {
+            Map<Long, MemberCache> cachedMembers = new HashMap<>(cached.size());
+            cached.values().forEach(memberCache -> cachedMembers.put(memberCache.getMemberId(), memberCache));
+            Map<String, MemberCache> cacheMap = new HashMap<>(cachedMembers.size());
+            this.listByIds(cachedMembers.keySet()).forEach(data -> {
+                MemberCache memberCache = cachedMembers.get(data.getMemberId());
+                memberStatDataTypes.values().forEach(t -> memberCache.getStat().put(t.getType(), data.getValue(t.getField())));
+                cacheMap.put(CACHE_PREFIX + data.getMemberId(), memberCache);
+            });
+            return cacheMap;
+        });
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        this.flushStatData();
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        threadPoolTaskScheduler.schedule(this::flushStatData, new PeriodicTrigger(Duration.ofSeconds(1)));
+    }
+
     private IMemberStatData getMemberStatData(String type) {
         return this.memberStatDataTypes.get(IMemberStatData.BEAN_PREFIX + type);
     }
@@ -24,4 +24,19 @@ package com.chestnut.search;
 public interface SearchConsts {
 
     String IKAnalyzeType_Smart = "ik_smart";
+
+    /**
+     * 索引字段类型：分词文本
+     */
+    String FieldType_Text = "Text";
+
+    /**
+     * 索引字段类型：不分词关键词
+     */
+    String FieldType_Keyword = "Keyword";
+
+    /**
+     * 索引字段类型：长整型
+     */
+    String FieldType_Long = "Long";
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.search.config.properties;
+
+import com.chestnut.search.core.ElasticSearchType;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 全文检索配置属性
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = SearchProperties.PREFIX)
+public class SearchProperties {
+
+	public static final String PREFIX = "chestnut.search";
+
+	/**
+	 * 检索引擎类型：ElasticSearch（默认）、Lucene
+	 */
+	private String type = ElasticSearchType.TYPE;
+
+	/**
+	 * 内嵌Lucene检索配置
+	 */
+	private Lucene lucene = new Lucene();
+
+	/**
+	 * 批量写入配置
+	 */
+	private Bulk bulk = new Bulk();
+
+	@Getter
+	@Setter
+	public static class Bulk {
+
+		/**
+		 * 单次批量请求最大文档数
+		 */
+		private int actions = 500;
+
+		/**
+		 * 单次批量请求最大数据量
+		 */
+		private DataSize size = DataSize.ofMegabytes(5);
+
+		/**
+		 * 检索服务繁忙（429）时最大重试次数
+		 */
+		private int maxRetries = 3;
+
+		/**
+		 * 重试间隔，每次重试翻倍
+		 */
+		private Duration retryBackoff = Duration.ofMillis(500);
+
+		/**
+		 * 重建索引时并发写入线程数
+		 */
+		private int concurrency = 4;
+	}
+
+	@Getter
+	@Setter
+	public static class Lucene {
+
+		/**
+		 * 索引文件根目录，每个索引一个子目录
+		 */
+		private String indexPath = "lucene-index";
+
+		/**
+		 * 分词器：smartcn（默认，中文智能分词）、cjk（二元分词）、standard
+		 */
+		private String analyzer = "smartcn";
+
+		/**
+		 * 近实时检索刷新间隔，写入的文档在此间隔后可被检索到
+		 */
+		private Duration refreshInterval = Duration.ofSeconds(1);
+
+		/**
+		 * 索引提交间隔，提交后的数据在进程异常退出时不丢失
+		 */
+		private Duration commitInterval = Duration.ofSeconds(30);
+
+		/**
+		 * 索引写入内存缓冲大小（MB）
+		 */
+		private double ramBufferSizeMb = 64;
+	}
+}
@@ -16,36 +16,72 @@
 package com.chestnut.search.core;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import org.springframework.stereotype.Component;
 
+import com.chestnut.search.config.properties.SearchProperties;
 import com.chestnut.search.domain.dto.SearchModelDTO;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
 import co.elastic.clients.elasticsearch._types.mapping.FieldType;
 import co.elastic.clients.elasticsearch._types.mapping.Property;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.GetResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.search.CompletionSuggestOption;
+import co.elastic.clients.elasticsearch.core.search.Suggestion;
 import co.elastic.clients.elasticsearch.indices.CreateIndexResponse;
 import co.elastic.clients.elasticsearch.indices.DeleteIndexResponse;
 import co.elastic.clients.transport.endpoints.BooleanResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @RequiredArgsConstructor
 @Component
 public class ElasticSearchType implements ISearchType {
 
 	public static final String TYPE = "ElasticSearch";
 
+	/**
+	 * 文本字段输入提示子字段名
+	 */
+	static final String SUGGEST_FIELD = "suggest";
+
+	private static final int STATUS_TOO_MANY_REQUESTS = 429;
+
 	private final ElasticsearchClient client;
 
+	private final SearchProperties properties;
+
 	@Override
 	public String getType() {
 		return TYPE;
 	}
 
+	@Override
+	public boolean isAvailable() {
+		try {
+			return client.ping().value();
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	@Override
+	public boolean existsIndex(String indexName) throws IOException {
+		return client.indices().exists(e -> e.index(indexName)).value();
+	}
+
 	@Override
 	public boolean addIndex(SearchModelDTO si) throws ElasticsearchException, IOException {
 		BooleanResponse b = client.indices().exists(e -> e.index(si.getName()));
@@ -73,10 +109,18 @@ public class ElasticSearchType implements ISearchType {
 					properties.put(f.getName(), Property
 							.of(pb -> pb.date(datep -> datep.format("yyyy-MM-dd HH:mm:ss").boost(f.getWeight()))));
 				} else if (FieldType.Text.name().equalsIgnoreCase(f.getType())) {
-					properties.put(f.getName(), Property.of(
-							pb -> pb.text(tp -> tp.index(f.isIndex()).analyzer(f.getAnalyzer()).boost(f.getWeight()))));
+					properties.put(f.getName(), Property.of(pb -> pb.text(tp -> {
+						tp.index(f.isIndex()).analyzer(f.getAnalyzer()).boost(f.getWeight());
+						if (f.isSuggest()) {
+							tp.fields(SUGGEST_FIELD, sp -> sp.completion(cp -> cp
+									.analyzer(f.getAnalyzer())
+									.searchAnalyzer(f.getAnalyzer())
+									.maxInputLength(50)));
+						}
+						return tp;
+					})));
 				} else {
-					properties.put(f.getName(), Property.of(pb -> pb.keyword(kp -> kp.boost(f.getWeight()))));
+					properties.put(f.getName(), Property.of(pb -> pb.keyword(kp -> kp.index(f.isIndex()).boost(f.getWeight()))));
 				}
 			});
 			CreateIndexResponse res = client.indices()
@@ -88,10 +132,33 @@ public class ElasticSearchType implements ISearchType {
 
 	@Override
 	public boolean deleteIndex(String indexName) throws IOException {
-		DeleteIndexResponse delete = client.indices().delete(d -> d.index(indexName));
+		List<String> indices = getAliasIndices(indexName);
+		DeleteIndexResponse delete = client.indices().delete(d -> d.index(indices.isEmpty() ? List.of(indexName) : indices));
 		return delete.acknowledged();
 	}
 
+	@Override
+	public List<String> switchAlias(String alias, String indexName) throws IOException {
+		List<String> oldIndices = getAliasIndices(alias);
+		if (oldIndices.isEmpty() && existsIndex(alias)) {
+			// 别名不能与索引同名，删除未使用别名的旧索引
+			client.indices().delete(d -> d.index(alias));
+		}
+		// 移除旧关联与添加新关联在同一请求中原子执行
+		client.indices().updateAliases(u -> {
+			oldIndices.forEach(index -> u.actions(a -> a.remove(r -> r.index(index).alias(alias))));
+			return u.actions(a -> a.add(add -> add.index(indexName).alias(alias)));
+		});
+		return oldIndices.stream().filter(index -> !index.equals(indexName)).toList();
+	}
+
+	private List<String> getAliasIndices(String alias) throws IOException {
+		if (!client.indices().existsAlias(e -> e.name(alias)).value()) {
+			return List.of();
+		}
+		return new ArrayList<>(client.indices().getAlias(g -> g.name(alias)).result().keySet());
+	}
+
 	@Override
 	public void addDocument(String indexName, List<BaseDocument> docs) throws ElasticsearchException, IOException {
 		this.client.bulk(br -> br.operations(op -> {
@@ -115,4 +182,230 @@ public class ElasticSearchType implements ISearchType {
 			return op;
 		}));
 	}
+
+	/**
+	 * 按文档数及数据量拆分为多个批量请求，检索服务繁忙（429）的文档按间隔翻倍重试
+	 */
+	@Override
+	public void upsertDocuments(String indexName, Map<String, Map<String, Object>> docs) throws IOException {
+		SearchProperties.Bulk bulk = this.properties.getBulk();
+		long maxBytes = bulk.getSize().toBytes();
+		Map<String, Map<String, Object>> batch = new LinkedHashMap<>();
+		long batchBytes = 0;
+		for (Map.Entry<String, Map<String, Object>> e : docs.entrySet()) {
+			long docBytes = estimateSize(e.getValue());
+			if (!batch.isEmpty() && (batch.size() >= bulk.getActions() || batchBytes + docBytes > maxBytes)) {
+				this.bulkUpsert(indexName, batch);
+				batch = new LinkedHashMap<>();
+				batchBytes = 0;
+			}
+			batch.put(e.getKey(), e.getValue());
+			batchBytes += docBytes;
+		}
+		if (!batch.isEmpty()) {
+			this.bulkUpsert(indexName, batch);
+		}
+	}
+
+	private void bulkUpsert(String indexName, Map<String, Map<String, Object>> docs) throws IOException {
+		SearchProperties.Bulk bulk = this.properties.getBulk();
+		Map<String, Map<String, Object>> pending = docs;
+		for (int retry = 0; ; retry++) {
+			List<BulkOperation> operations = new ArrayList<>(pending.size());
+			pending.forEach((docId, doc) -> operations.add(BulkOperation.of(b -> b
+					.update(up -> up.index(indexName).id(docId).action(action -> action.docAsUpsert(true).doc(doc))))));
+			Map<String, Map<String, Object>> rejected = new LinkedHashMap<>();
+			String error = null;
+			try {
+				BulkResponse response = this.client.bulk(br -> br.operations(operations));
+				if (response.errors()) {
+					for (BulkResponseItem item : response.items()) {
+						if (Objects.isNull(item.error())) {
+							continue;
+						}
+						if (item.status() == STATUS_TOO_MANY_REQUESTS) {
+							rejected.put(item.id(), pending.get(item.id()));
+						} else if (Objects.isNull(error)) {
+							error = item.id() + ": " + item.error().reason();
+						}
+					}
+				}
+			} catch (ElasticsearchException e) {
+				if (e.status() != STATUS_TOO_MANY_REQUESTS) {
+					throw e;
+				}
+				rejected = pending;
+			}
+			if (Objects.nonNull(error)) {
+				throw new IOException("Bulk upsert documents failed, " + error);
+			}
+			if (rejected.isEmpty()) {
+				return;
+			}
+			if (retry >= bulk.getMaxRetries()) {
+				throw new IOException("Bulk upsert documents rejected after " + retry + " retries, count: " + rejected.size());
+			}
+			long backoff = bulk.getRetryBackoff().toMillis() << retry;
+			log.warn("Bulk upsert rejected with 429, retry {} documents after {}ms.", rejected.size(), backoff);
+			try {
+				Thread.sleep(backoff);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Bulk upsert interrupted.", e);
+			}
+			pending = rejected;
+		}
+	}
+
+	/**
+	 * 估算文档序列化后的字节数，字符串按UTF-8计算
+	 */
+	private static long estimateSize(Object value) {
+		if (value instanceof CharSequence cs) {
+			long size = 2;
+			for (int i = 0; i < cs.length(); i++) {
+				char c = cs.charAt(i);
+				size += c < 0x80 ? 1 : (c < 0x800 ? 2 : 3);
+			}
+			return size;
+		} else if (value instanceof Map<?, ?> map) {
+			long size = 2;
+			for (Map.Entry<?, ?> e : map.entrySet()) {
+				size += estimateSize(String.valueOf(e.getKey())) + estimateSize(e.getValue()) + 2;
+			}
+			return size;
+		} else if (value instanceof Collection<?> collection) {
+			long size = 2;
+			for (Object item : collection) {
+				size += estimateSize(item) + 1;
+			}
+			return size;
+		} else if (value instanceof Object[] array) {
+			return estimateSize(Arrays.asList(array));
+		}
+		return Objects.isNull(value) ? 4 : String.valueOf(value).length();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Map<String, Object> getDocument(String indexName, String documentId) throws IOException {
+		GetResponse<Map> response = this.client.get(g -> g.index(indexName).id(documentId), Map.class);
+		return response.found() ? response.source() : null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public SearchResult search(String indexName, SearchQuery query) throws IOException {
+		SearchResponse<Map> sr = this.client.search(s -> {
+			s.index(indexName).query(buildQuery(query));
+			if (query.hasQuery() && !query.getHighlightFields().isEmpty()) {
+				s.highlight(h -> {
+					query.getHighlightFields().forEach(field -> h.fields(field, f -> f
+							.preTags(query.getHighlightPreTag()).postTags(query.getHighlightPostTag())));
+					return h;
+				});
+			}
+			s.sort(sort -> sort.field(f -> f.field("_score").order(SortOrder.Desc)));
+			if (Objects.nonNull(query.getSortField())) {
+				s.sort(sort -> sort.field(f -> f.field(query.getSortField()).order(SortOrder.Desc)));
+			}
+			if (!query.getExcludeFields().isEmpty()) {
+				s.source(source -> source.filter(f -> f.excludes(query.getExcludeFields())));
+			}
+			return s.from(query.getFrom()).size(query.getSize());
+		}, Map.class);
+		SearchResult result = new SearchResult();
+		result.setTotal(Objects.isNull(sr.hits().total()) ? 0 : sr.hits().total().value());
+		sr.hits().hits().forEach(hit -> {
+			SearchResult.Hit h = new SearchResult.Hit();
+			h.setId(hit.id());
+			h.setScore(hit.score());
+			h.setSource(hit.source());
+			h.setHighlight(hit.highlight());
+			result.getHits().add(h);
+		});
+		return result;
+	}
+
+	@Override
+	public List<String> suggest(String indexName, String field, String prefix, int size) throws IOException {
+		String suggester = field + "-suggest";
+		SearchResponse<Void> sr = this.client.search(s -> s
+				.index(indexName)
+				.suggest(suggest -> suggest
+						.suggesters(suggester, f -> f
+								.prefix(prefix)
+								.completion(c -> c
+										.field(field + "." + SUGGEST_FIELD)
+										.fuzzy(fuzzy -> fuzzy.fuzziness("2"))
+										.skipDuplicates(true)
+										.size(size)
+								)
+						)
+				)
+				.source(fn -> fn.fetch(false))
+				.size(0), Void.class);
+		Optional<Suggestion<Void>> first = sr.suggest().getOrDefault(suggester, List.of()).stream().findFirst();
+		if (first.isEmpty()) {
+			return List.of();
+		}
+		return first.get().completion().options().stream().map(CompletionSuggestOption::text).toList();
+	}
+
+	@Override
+	public Map<String, Long> countByField(String indexName, SearchQuery query, String field, int size) throws IOException {
+		String aggregation = "groupBy";
+		SearchResponse<Void> sr = this.client.search(s -> s
+				.index(indexName)
+				.query(buildQuery(query))
+				.aggregations(aggregation, a -> a.terms(terms -> terms.field(field).size(size)))
+				.source(fn -> fn.fetch(false))
+				.size(0), Void.class);
+		Map<String, Long> result = new LinkedHashMap<>();
+		Aggregate aggregate = sr.aggregations().get(aggregation);
+		if (aggregate.isLterms()) {
+			aggregate.lterms().buckets().array().forEach(b -> result.put(String.valueOf(b.key()), b.docCount()));
+		} else if (aggregate.isSterms()) {
+			aggregate.sterms().buckets().array().forEach(b -> result.put(b.key().stringValue(), b.docCount()));
+		}
+		return result;
+	}
+
+	private Query buildQuery(SearchQuery query) {
+		BoolQuery.Builder b = new BoolQuery.Builder();
+		query.getFilters().forEach((field, value) ->
+				b.filter(f -> f.term(tq -> tq.field(field).value(toFieldValue(value)))));
+		if (query.hasQuery()) {
+			List<String> fields = query.getQueryFields().entrySet().stream()
+					.map(e -> e.getValue() == 1F ? e.getKey() : e.getKey() + "^" + e.getValue()).toList();
+			b.must(must -> must.multiMatch(match -> {
+				match.fields(fields).query(query.getQuery());
+				if (Objects.nonNull(query.getAnalyzer())) {
+					match.analyzer(query.getAnalyzer());
+				}
+				return match;
+			}));
+		}
+		if (Objects.nonNull(query.getTagField()) && !query.getTags().isEmpty()) {
+			List<Query> tagQueries = query.getTags().stream()
+					.map(tag -> Query.of(q -> q.term(tq -> tq.field(query.getTagField()).value(tag)))).toList();
+			if (query.isMatchAllTags()) {
+				b.must(tagQueries);
+			} else {
+				b.must(must -> must.bool(tb -> tb.should(tagQueries).minimumShouldMatch("1")));
+			}
+		}
+		return Query.of(q -> q.bool(b.build()));
+	}
+
+	private static FieldValue toFieldValue(Object value) {
+		if (value instanceof Double || value instanceof Float) {
+			return FieldValue.of(((Number) value).doubleValue());
+		} else if (value instanceof Number number) {
+			return FieldValue.of(number.longValue());
+		} else if (value instanceof Boolean bool) {
+			return FieldValue.of(bool);
+		}
+		return FieldValue.of(value.toString());
+	}
 }
@@ -19,6 +19,7 @@ import com.chestnut.search.domain.dto.SearchModelDTO;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 public interface ISearchType {
 	
@@ -27,6 +28,18 @@ public interface ISearchType {
 	 */
 	String getType();
 
+	/**
+	 * 检索服务是否可用
+	 */
+	boolean isAvailable();
+
+	/**
+	 * 索引是否存在
+	 *
+	 * @param indexName 索引名
+	 */
+	boolean existsIndex(String indexName) throws IOException;
+
 	/**
 	 * 添加索引
 	 *
@@ -35,11 +48,22 @@ public interface ISearchType {
 	boolean addIndex(SearchModelDTO dto) throws IOException;
 
 	/**
-	 * 删除索引
+	 * 删除索引，索引名为别名时删除别名指向的索引
 	 *
 	 * @param indexName
 	 */
 	boolean deleteIndex(String indexName) throws IOException;
+
+	/**
+	 * 将别名切换到指定索引，原指向的索引解除关联但不删除
+	 *
+	 * <p>已存在与别名同名的索引时先删除该索引，用于未使用别名创建的旧索引迁移</p>
+	 *
+	 * @param alias 别名
+	 * @param indexName 索引名
+	 * @return 别名原来指向的索引
+	 */
+	List<String> switchAlias(String alias, String indexName) throws IOException;
 	
 	/**
 	 * 添加索引文档
@@ -55,4 +79,43 @@ public interface ISearchType {
 	 * 删除索引文档
 	 */
 	void deleteDocument(String indexName, List<String> documentIds) throws IOException;
+
+	/**
+	 * 添加或更新索引文档，文档不存在时新增，存在时覆盖文档字段
+	 *
+	 * @param indexName 索引名
+	 * @param docs <文档ID, 文档数据>
+	 */
+	void upsertDocuments(String indexName, Map<String, Map<String, Object>> docs) throws IOException;
+
+	/**
+	 * 获取索引文档数据，文档不存在返回null
+	 */
+	Map<String, Object> getDocument(String indexName, String documentId) throws IOException;
+
+	/**
+	 * 检索文档
+	 */
+	SearchResult search(String indexName, SearchQuery query) throws IOException;
+
+	/**
+	 * 输入词前缀匹配提示，字段需开启suggest
+	 *
+	 * @param indexName 索引名
+	 * @param field 字段名
+	 * @param prefix 输入词
+	 * @param size 提示数量
+	 */
+	List<String> suggest(String indexName, String field, String prefix, int size) throws IOException;
+
+	/**
+	 * 按字段值分组统计匹配文档数，按文档数倒序
+	 *
+	 * @param indexName 索引名
+	 * @param query 检索条件，分页及高亮设置无效
+	 * @param field 分组字段
+	 * @param size 分组数量
+	 * @return <字段值, 文档数>
+	 */
+	Map<String, Long> countByField(String indexName, SearchQuery query, String field, int size) throws IOException;
 }
@@ -0,0 +1,769 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.search.core;
+
+import com.chestnut.search.SearchConsts;
+import com.chestnut.search.config.properties.SearchProperties;
+import com.chestnut.search.domain.dto.SearchModelDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.analysis.cn.smart.SmartChineseAnalyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.*;
+import org.apache.lucene.search.highlight.Formatter;
+import org.apache.lucene.search.highlight.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 内嵌Lucene检索
+ *
+ * <p>
+ * 无需部署Elasticsearch的离线检索实现，通过配置chestnut.search.type=Lucene启用：
+ * <ul>
+ *     <li>每个索引一个目录，目录下schema.json记录字段类型，根目录下aliases.json记录索引别名</li>
+ *     <li>文档原始数据以JSON存储在_source字段，文本字段分词索引，其他字段不分词索引并生成DocValues用于排序及分组统计</li>
+ *     <li>写入后按刷新间隔近实时可见，按提交间隔持久化</li>
+ *     <li>未在索引模型中定义的字段按首次写入的值类型确定字段类型，超过256个字符的字符串不索引</li>
+ * </ul>
+ * 分词器使用配置的Lucene分词器，检索条件中指定的Elasticsearch分词器名称忽略。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = SearchProperties.PREFIX, name = "type", havingValue = LuceneSearchType.TYPE)
+public class LuceneSearchType implements ISearchType, CommandLineRunner {
+
+	public static final String TYPE = "Lucene";
+
+	private static final String FIELD_ID = "_id";
+
+	private static final String FIELD_SOURCE = "_source";
+
+	private static final String SUGGEST_SUFFIX = ".suggest";
+
+	private static final String SCHEMA_FILE = "schema.json";
+
+	private static final String ALIAS_FILE = "aliases.json";
+
+	private static final int SUGGEST_MAX_INPUT_LENGTH = 50;
+
+	private static final int KEYWORD_MAX_LENGTH = 256;
+
+	private static final int HIGHLIGHT_FRAGMENT_SIZE = 100;
+
+	private static final int HIGHLIGHT_FRAGMENT_COUNT = 5;
+
+	private static final ObjectMapper SOURCE_MAPPER = JsonMapper.builder().findAndAddModules().build();
+
+	private final SearchProperties properties;
+
+	private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+
+	private final Map<String, IndexHolder> holders = new ConcurrentHashMap<>();
+
+	/**
+	 * 索引别名 <别名, 索引名>
+	 */
+	private final Map<String, String> aliases = new ConcurrentHashMap<>();
+
+	private Analyzer analyzer;
+
+	@Override
+	public String getType() {
+		return TYPE;
+	}
+
+	@Override
+	public boolean isAvailable() {
+		return Objects.nonNull(this.analyzer);
+	}
+
+	@Override
+	public boolean existsIndex(String indexName) throws IOException {
+		indexName = resolveAlias(indexName);
+		if (this.holders.containsKey(indexName)) {
+			return true;
+		}
+		Path path = getIndexPath(indexName);
+		if (!Files.isDirectory(path)) {
+			return false;
+		}
+		try (Directory directory = FSDirectory.open(path)) {
+			return DirectoryReader.indexExists(directory);
+		}
+	}
+
+	@Override
+	public boolean addIndex(SearchModelDTO dto) throws IOException {
+		synchronized (this.holders) {
+			if (existsIndex(dto.getName())) {
+				return false;
+			}
+			IndexHolder holder = openIndex(dto.getName());
+			dto.getFields().forEach(f -> holder.fields.put(f.getName(), FieldSchema.of(f)));
+			holder.schemaChanged = true;
+			holder.commit();
+			this.holders.put(dto.getName(), holder);
+			return true;
+		}
+	}
+
+	@Override
+	public boolean deleteIndex(String indexName) throws IOException {
+		synchronized (this.holders) {
+			indexName = resolveAlias(indexName);
+			if (this.aliases.values().removeIf(indexName::equals)) {
+				saveAliases();
+			}
+			IndexHolder holder = this.holders.remove(indexName);
+			if (Objects.nonNull(holder)) {
+				holder.close(false);
+			} else if (!existsIndex(indexName)) {
+				return false;
+			}
+			try (Stream<Path> paths = Files.walk(getIndexPath(indexName))) {
+				for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+					Files.delete(path);
+				}
+			}
+			return true;
+		}
+	}
+
+	@Override
+	public List<String> switchAlias(String alias, String indexName) throws IOException {
+		synchronized (this.holders) {
+			String oldIndex = this.aliases.get(alias);
+			if (Objects.isNull(oldIndex) && existsIndex(alias)) {
+				// 别名不能与索引同名，删除未使用别名的旧索引
+				deleteIndex(alias);
+			}
+			this.aliases.put(alias, indexName);
+			saveAliases();
+			return Objects.isNull(oldIndex) || oldIndex.equals(indexName) ? List.of() : List.of(oldIndex);
+		}
+	}
+
+	@Override
+	public void addDocument(String indexName, List<BaseDocument> docs) throws IOException {
+		upsertDocuments(indexName, toSourceMap(docs));
+	}
+
+	@Override
+	public void updateDocument(String indexName, List<BaseDocument> docs) throws IOException {
+		upsertDocuments(indexName, toSourceMap(docs));
+	}
+
+	@Override
+	public void deleteDocument(String indexName, List<String> documentIds) throws IOException {
+		IndexHolder holder = getHolder(indexName, false);
+		if (Objects.isNull(holder) || documentIds.isEmpty()) {
+			return;
+		}
+		holder.writer.deleteDocuments(documentIds.stream().map(id -> new Term(FIELD_ID, id)).toArray(Term[]::new));
+	}
+
+	@Override
+	public void upsertDocuments(String indexName, Map<String, Map<String, Object>> docs) throws IOException {
+		if (docs.isEmpty()) {
+			return;
+		}
+		IndexHolder holder = getHolder(indexName, true);
+		for (Map.Entry<String, Map<String, Object>> e : docs.entrySet()) {
+			holder.writer.updateDocument(new Term(FIELD_ID, e.getKey()), toDocument(holder, e.getKey(), e.getValue()));
+		}
+	}
+
+	@Override
+	public Map<String, Object> getDocument(String indexName, String documentId) throws IOException {
+		IndexHolder holder = getHolder(indexName, false);
+		if (Objects.isNull(holder)) {
+			return null;
+		}
+		// 与Elasticsearch的实时get一致，读取最新写入的数据
+		holder.manager.maybeRefreshBlocking();
+		IndexSearcher searcher = holder.manager.acquire();
+		try {
+			TopDocs topDocs = searcher.search(new TermQuery(new Term(FIELD_ID, documentId)), 1);
+			if (topDocs.scoreDocs.length == 0) {
+				return null;
+			}
+			return readSource(searcher.storedFields().document(topDocs.scoreDocs[0].doc));
+		} finally {
+			holder.manager.release(searcher);
+		}
+	}
+
+	@Override
+	public SearchResult search(String indexName, SearchQuery query) throws IOException {
+		SearchResult result = new SearchResult();
+		IndexHolder holder = getHolder(indexName, false);
+		if (Objects.isNull(holder)) {
+			return result;
+		}
+		Query textQuery = query.hasQuery() ? buildTextQuery(query) : null;
+		IndexSearcher searcher = holder.manager.acquire();
+		try {
+			Query q = buildQuery(holder, query, textQuery);
+			result.setTotal(searcher.count(q));
+			int n = query.getFrom() + query.getSize();
+			if (query.getSize() <= 0 || query.getFrom() >= result.getTotal()) {
+				return result;
+			}
+			TopDocs topDocs = searcher.search(q, n, buildSort(holder, query.getSortField()), true);
+			StoredFields storedFields = searcher.storedFields();
+			for (int i = query.getFrom(); i < topDocs.scoreDocs.length; i++) {
+				ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+				Document doc = storedFields.document(scoreDoc.doc);
+				Map<String, Object> source = readSource(doc);
+				SearchResult.Hit hit = new SearchResult.Hit();
+				hit.setId(doc.get(FIELD_ID));
+				hit.setScore(Float.isNaN(scoreDoc.score) ? null : (double) scoreDoc.score);
+				if (Objects.nonNull(textQuery) && !query.getHighlightFields().isEmpty()) {
+					hit.setHighlight(highlight(textQuery, query, source));
+				}
+				query.getExcludeFields().forEach(source::remove);
+				hit.setSource(source);
+				result.getHits().add(hit);
+			}
+			return result;
+		} finally {
+			holder.manager.release(searcher);
+		}
+	}
+
+	@Override
+	public List<String> suggest(String indexName, String field, String prefix, int size) throws IOException {
+		IndexHolder holder = getHolder(indexName, false);
+		if (Objects.isNull(holder) || prefix.isBlank()) {
+			return List.of();
+		}
+		Query q = new PrefixQuery(new Term(field + SUGGEST_SUFFIX, toSuggestInput(prefix)));
+		IndexSearcher searcher = holder.manager.acquire();
+		try {
+			// 多取一些结果用于去重
+			TopDocs topDocs = searcher.search(q, size * 5);
+			StoredFields storedFields = searcher.storedFields();
+			Set<String> list = new LinkedHashSet<>();
+			for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+				Object value = readSource(storedFields.document(scoreDoc.doc)).get(field);
+				if (Objects.nonNull(value)) {
+					list.add(value.toString());
+					if (list.size() >= size) {
+						break;
+					}
+				}
+			}
+			return new ArrayList<>(list);
+		} finally {
+			holder.manager.release(searcher);
+		}
+	}
+
+	@Override
+	public Map<String, Long> countByField(String indexName, SearchQuery query, String field, int size) throws IOException {
+		IndexHolder holder = getHolder(indexName, false);
+		if (Objects.isNull(holder)) {
+			return Map.of();
+		}
+		FieldSchema schema = holder.fields.get(field);
+		boolean isDouble = Objects.nonNull(schema) && FieldSchema.KIND_DOUBLE.equals(schema.kind());
+		Map<String, Long> counts = new HashMap<>();
+		IndexSearcher searcher = holder.manager.acquire();
+		try {
+			Query q = buildQuery(holder, query, query.hasQuery() ? buildTextQuery(query) : null);
+			searcher.search(q, new SimpleCollector() {
+
+				private SortedNumericDocValues numericValues;
+
+				private SortedSetDocValues sortedSetValues;
+
+				@Override
+				protected void doSetNextReader(LeafReaderContext context) throws IOException {
+					this.numericValues = null;
+					this.sortedSetValues = null;
+					FieldInfo fieldInfo = context.reader().getFieldInfos().fieldInfo(field);
+					if (Objects.isNull(fieldInfo)) {
+						return;
+					}
+					if (fieldInfo.getDocValuesType() == DocValuesType.SORTED_NUMERIC) {
+						this.numericValues = DocValues.getSortedNumeric(context.reader(), field);
+					} else if (fieldInfo.getDocValuesType() == DocValuesType.SORTED_SET) {
+						this.sortedSetValues = DocValues.getSortedSet(context.reader(), field);
+					}
+				}
+
+				@Override
+				public void collect(int doc) throws IOException {
+					if (Objects.nonNull(numericValues) && numericValues.advanceExact(doc)) {
+						for (int i = 0; i < numericValues.docValueCount(); i++) {
+							long value = numericValues.nextValue();
+							String key = isDouble ? String.valueOf(NumericUtils.sortableLongToDouble(value)) : String.valueOf(value);
+							counts.merge(key, 1L, Long::sum);
+						}
+					} else if (Objects.nonNull(sortedSetValues) && sortedSetValues.advanceExact(doc)) {
+						for (int i = 0; i < sortedSetValues.docValueCount(); i++) {
+							String key = sortedSetValues.lookupOrd(sortedSetValues.nextOrd()).utf8ToString();
+							counts.merge(key, 1L, Long::sum);
+						}
+					}
+				}
+
+				@Override
+				public ScoreMode scoreMode() {
+					return ScoreMode.COMPLETE_NO_SCORES;
+				}
+			});
+		} finally {
+			holder.manager.release(searcher);
+		}
+		Map<String, Long> result = new LinkedHashMap<>();
+		counts.entrySet().stream()
+				.sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+				.limit(size)
+				.forEach(e -> result.put(e.getKey(), e.getValue()));
+		return result;
+	}
+
+	private Query buildQuery(IndexHolder holder, SearchQuery query, Query textQuery) {
+		BooleanQuery.Builder builder = new BooleanQuery.Builder();
+		query.getFilters().forEach((field, value) ->
+				builder.add(buildTermQuery(holder, field, value), BooleanClause.Occur.FILTER));
+		if (Objects.nonNull(textQuery)) {
+			builder.add(textQuery, BooleanClause.Occur.MUST);
+		}
+		if (Objects.nonNull(query.getTagField()) && !query.getTags().isEmpty()) {
+			BooleanQuery.Builder tagBuilder = new BooleanQuery.Builder();
+			BooleanClause.Occur occur = query.isMatchAllTags() ? BooleanClause.Occur.MUST : BooleanClause.Occur.SHOULD;
+			query.getTags().forEach(tag -> tagBuilder.add(new TermQuery(new Term(query.getTagField(), tag)), occur));
+			builder.add(tagBuilder.build(), BooleanClause.Occur.MUST);
+		}
+		BooleanQuery q = builder.build();
+		return q.clauses().isEmpty() ? new MatchAllDocsQuery() : q;
+	}
+
+	/**
+	 * 检索词在各字段分词后匹配，取得分最高的字段，与Elasticsearch的multi_match（best_fields）一致
+	 */
+	private Query buildTextQuery(SearchQuery query) {
+		QueryBuilder queryBuilder = new QueryBuilder(this.analyzer);
+		List<Query> disjuncts = new ArrayList<>();
+		query.getQueryFields().forEach((field, boost) -> {
+			Query q = queryBuilder.createBooleanQuery(field, query.getQuery());
+			if (Objects.nonNull(q)) {
+				disjuncts.add(boost == 1F ? q : new BoostQuery(q, boost));
+			}
+		});
+		if (disjuncts.isEmpty()) {
+			return new MatchNoDocsQuery();
+		}
+		return disjuncts.size() == 1 ? disjuncts.get(0) : new DisjunctionMaxQuery(disjuncts, 0F);
+	}
+
+	private Query buildTermQuery(IndexHolder holder, String field, Object value) {
+		FieldSchema schema = holder.fields.get(field);
+		String kind = Objects.nonNull(schema) ? schema.kind() : FieldSchema.inferKind(value);
+		try {
+			if (FieldSchema.KIND_LONG.equals(kind)) {
+				return LongPoint.newExactQuery(field, toLong(value));
+			} else if (FieldSchema.KIND_DOUBLE.equals(kind)) {
+				return DoublePoint.newExactQuery(field, toDouble(value));
+			}
+		} catch (NumberFormatException e) {
+			return new MatchNoDocsQuery("Invalid number: " + value);
+		}
+		return new TermQuery(new Term(field, value.toString()));
+	}
+
+	private Sort buildSort(IndexHolder holder, String sortField) {
+		FieldSchema schema = Objects.nonNull(sortField) ? holder.fields.get(sortField) : null;
+		if (Objects.isNull(schema) || !(FieldSchema.KIND_LONG.equals(schema.kind())
+				|| FieldSchema.KIND_DOUBLE.equals(schema.kind()))) {
+			return Sort.RELEVANCE;
+		}
+		// double字段DocValues存储的sortable long与原值顺序一致
+		return new Sort(SortField.FIELD_SCORE, new SortedNumericSortField(sortField, SortField.Type.LONG, true));
+	}
+
+	private Map<String, List<String>> highlight(Query textQuery, SearchQuery query, Map<String, Object> source) throws IOException {
+		Map<String, List<String>> highlights = new HashMap<>();
+		Formatter formatter = new SimpleHTMLFormatter(query.getHighlightPreTag(), query.getHighlightPostTag());
+		for (String field : query.getHighlightFields()) {
+			Object value = source.get(field);
+			if (Objects.isNull(value)) {
+				continue;
+			}
+			QueryScorer scorer = new QueryScorer(textQuery, field);
+			Highlighter highlighter = new Highlighter(formatter, scorer);
+			highlighter.setTextFragmenter(new SimpleSpanFragmenter(scorer, HIGHLIGHT_FRAGMENT_SIZE));
+			try {
+				String[] fragments = highlighter.getBestFragments(this.analyzer, field, value.toString(), HIGHLIGHT_FRAGMENT_COUNT);
+				if (fragments.length > 0) {
+					highlights.put(field, Arrays.asList(fragments));
+				}
+			} catch (InvalidTokenOffsetsException e) {
+				log.warn("Lucene highlight failed, field: {}", field, e);
+			}
+		}
+		return highlights;
+	}
+
+	private Document toDocument(IndexHolder holder, String docId, Map<String, Object> source) throws IOException {
+		Document doc = new Document();
+		doc.add(new StringField(FIELD_ID, docId, Field.Store.YES));
+		doc.add(new StoredField(FIELD_SOURCE, SOURCE_MAPPER.writeValueAsString(source)));
+		source.forEach((name, value) -> {
+			List<Object> values = toValues(value);
+			if (values.isEmpty()) {
+				return;
+			}
+			FieldSchema schema = holder.resolveField(name, values.get(0));
+			if (!schema.index()) {
+				return;
+			}
+			values.forEach(v -> addField(doc, name, schema, v));
+		});
+		return doc;
+	}
+
+	private void addField(Document doc, String name, FieldSchema schema, Object value) {
+		switch (schema.kind()) {
+			case FieldSchema.KIND_TEXT -> {
+				doc.add(new TextField(name, value.toString(), Field.Store.NO));
+				if (schema.suggest()) {
+					doc.add(new StringField(name + SUGGEST_SUFFIX, toSuggestInput(value.toString()), Field.Store.NO));
+				}
+			}
+			case FieldSchema.KIND_LONG -> {
+				try {
+					long v = toLong(value);
+					doc.add(new LongPoint(name, v));
+					doc.add(new SortedNumericDocValuesField(name, v));
+				} catch (NumberFormatException e) {
+					// 类型不匹配的值只保留在_source中
+				}
+			}
+			case FieldSchema.KIND_DOUBLE -> {
+				try {
+					double v = toDouble(value);
+					doc.add(new DoublePoint(name, v));
+					doc.add(new SortedNumericDocValuesField(name, NumericUtils.doubleToSortableLong(v)));
+				} catch (NumberFormatException e) {
+					// 类型不匹配的值只保留在_source中
+				}
+			}
+			default -> {
+				String v = value.toString();
+				if (v.length() <= KEYWORD_MAX_LENGTH) {
+					doc.add(new StringField(name, v, Field.Store.NO));
+					doc.add(new SortedSetDocValuesField(name, new BytesRef(v)));
+				}
+			}
+		}
+	}
+
+	private static List<Object> toValues(Object value) {
+		if (Objects.isNull(value)) {
+			return List.of();
+		}
+		Stream<?> stream;
+		if (value instanceof Collection<?> c) {
+			stream = c.stream();
+		} else if (value instanceof Object[] arr) {
+			stream = Arrays.stream(arr);
+		} else {
+			return List.of(value);
+		}
+		return stream.filter(Objects::nonNull).map(v -> (Object) v).toList();
+	}
+
+	private static long toLong(Object value) {
+		return value instanceof Number n ? n.longValue() : Long.parseLong(value.toString());
+	}
+
+	private static double toDouble(Object value) {
+		return value instanceof Number n ? n.doubleValue() : Double.parseDouble(value.toString());
+	}
+
+	private static String toSuggestInput(String value) {
+		String input = value.strip().toLowerCase(Locale.ROOT);
+		return input.length() > SUGGEST_MAX_INPUT_LENGTH ? input.substring(0, SUGGEST_MAX_INPUT_LENGTH) : input;
+	}
+
+	private static Map<String, Object> readSource(Document doc) throws JsonProcessingException {
+		return SOURCE_MAPPER.readValue(doc.get(FIELD_SOURCE), new TypeReference<Map<String, Object>>() {});
+	}
+
+	private static Map<String, Map<String, Object>> toSourceMap(List<BaseDocument> docs) {
+		Map<String, Map<String, Object>> map = new LinkedHashMap<>();
+		docs.forEach(doc -> map.put(doc.getDocId(), SOURCE_MAPPER.convertValue(doc, new TypeReference<Map<String, Object>>() {})));
+		return map;
+	}
+
+	private Path getIndexPath(String indexName) {
+		return Path.of(this.properties.getLucene().getIndexPath(), indexName);
+	}
+
+	private String resolveAlias(String name) {
+		return this.aliases.getOrDefault(name, name);
+	}
+
+	private void saveAliases() throws IOException {
+		Path root = Path.of(this.properties.getLucene().getIndexPath());
+		Files.createDirectories(root);
+		Files.writeString(root.resolve(ALIAS_FILE), SOURCE_MAPPER.writeValueAsString(this.aliases));
+	}
+
+	/**
+	 * 获取已打开的索引，未打开时打开索引
+	 *
+	 * @param create 索引不存在时是否创建
+	 * @return 索引不存在且不创建时返回null
+	 */
+	private IndexHolder getHolder(String indexName, boolean create) throws IOException {
+		indexName = resolveAlias(indexName);
+		IndexHolder holder = this.holders.get(indexName);
+		if (Objects.nonNull(holder)) {
+			return holder;
+		}
+		synchronized (this.holders) {
+			holder = this.holders.get(indexName);
+			if (Objects.isNull(holder)) {
+				if (!create && !existsIndex(indexName)) {
+					return null;
+				}
+				holder = openIndex(indexName);
+				if (create) {
+					holder.commit();
+				}
+				this.holders.put(indexName, holder);
+			}
+			return holder;
+		}
+	}
+
+	private IndexHolder openIndex(String indexName) throws IOException {
+		Path path = getIndexPath(indexName);
+		Files.createDirectories(path);
+		Directory directory = FSDirectory.open(path);
+		IndexWriterConfig config = new IndexWriterConfig(this.analyzer)
+				.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+				.setRAMBufferSizeMB(this.properties.getLucene().getRamBufferSizeMb());
+		IndexWriter writer = new IndexWriter(directory, config);
+		IndexHolder holder = new IndexHolder(path, directory, writer, new SearcherManager(writer, null));
+		Path schemaFile = path.resolve(SCHEMA_FILE);
+		if (Files.exists(schemaFile)) {
+			holder.fields.putAll(SOURCE_MAPPER.readValue(schemaFile.toFile(), new TypeReference<Map<String, FieldSchema>>() {}));
+		}
+		return holder;
+	}
+
+	private Analyzer createAnalyzer(String name) {
+		return switch (name.toLowerCase(Locale.ROOT)) {
+			case "cjk" -> new CJKAnalyzer();
+			case "standard" -> new StandardAnalyzer();
+			default -> new SmartChineseAnalyzer();
+		};
+	}
+
+	private void refresh() {
+		this.holders.forEach((indexName, holder) -> {
+			try {
+				holder.manager.maybeRefresh();
+			} catch (Exception e) {
+				log.error("Refresh lucene index failed: " + indexName, e);
+			}
+		});
+	}
+
+	private void commit() {
+		this.holders.forEach((indexName, holder) -> {
+			try {
+				holder.commit();
+			} catch (Exception e) {
+				log.error("Commit lucene index failed: " + indexName, e);
+			}
+		});
+	}
+
+	@Override
+	public void run(String... args) throws Exception {
+		threadPoolTaskScheduler.schedule(this::refresh, new PeriodicTrigger(this.properties.getLucene().getRefreshInterval()));
+		threadPoolTaskScheduler.schedule(this::commit, new PeriodicTrigger(this.properties.getLucene().getCommitInterval()));
+	}
+
+	@PostConstruct
+	public void init() throws IOException {
+		this.analyzer = createAnalyzer(this.properties.getLucene().getAnalyzer());
+		Path aliasFile = Path.of(this.properties.getLucene().getIndexPath(), ALIAS_FILE);
+		if (Files.exists(aliasFile)) {
+			this.aliases.putAll(SOURCE_MAPPER.readValue(aliasFile.toFile(), new TypeReference<Map<String, String>>() {}));
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		synchronized (this.holders) {
+			this.holders.forEach((indexName, holder) -> {
+				try {
+					holder.close(true);
+				} catch (Exception e) {
+					log.error("Close lucene index failed: " + indexName, e);
+				}
+			});
+			this.holders.clear();
+		}
+	}
+
+	/**
+	 * 索引字段定义
+	 *
+	 * @param kind 字段类型：Text、Keyword、Long、Double
+	 * @param index 是否索引
+	 * @param suggest 是否生成前缀输入提示
+	 */
+	record FieldSchema(String kind, boolean index, boolean suggest) {
+
+		static final String KIND_TEXT = SearchConsts.FieldType_Text;
+
+		static final String KIND_KEYWORD = SearchConsts.FieldType_Keyword;
+
+		static final String KIND_LONG = SearchConsts.FieldType_Long;
+
+		static final String KIND_DOUBLE = "Double";
+
+		static FieldSchema of(SearchModelDTO.SearchIndexField field) {
+			String kind;
+			if (KIND_TEXT.equalsIgnoreCase(field.getType())) {
+				kind = KIND_TEXT;
+			} else if (Stream.of(KIND_LONG, "Integer", "Short", "Byte").anyMatch(t -> t.equalsIgnoreCase(field.getType()))) {
+				kind = KIND_LONG;
+			} else if (Stream.of(KIND_DOUBLE, "Float").anyMatch(t -> t.equalsIgnoreCase(field.getType()))) {
+				kind = KIND_DOUBLE;
+			} else {
+				kind = KIND_KEYWORD;
+			}
+			return new FieldSchema(kind, field.isIndex(), KIND_TEXT.equals(kind) && field.isSuggest());
+		}
+
+		static String inferKind(Object value) {
+			if (value instanceof Double || value instanceof Float) {
+				return KIND_DOUBLE;
+			} else if (value instanceof Number) {
+				return KIND_LONG;
+			}
+			return KIND_KEYWORD;
+		}
+	}
+
+	private static class IndexHolder {
+
+		private final Path path;
+
+		private final Directory directory;
+
+		private final IndexWriter writer;
+
+		private final SearcherManager manager;
+
+		/**
+		 * 字段定义，未定义的字段首次写入时确定类型
+		 */
+		private final Map<String, FieldSchema> fields = new ConcurrentHashMap<>();
+
+		private volatile boolean schemaChanged = false;
+
+		IndexHolder(Path path, Directory directory, IndexWriter writer, SearcherManager manager) {
+			this.path = path;
+			this.directory = directory;
+			this.writer = writer;
+			this.manager = manager;
+		}
+
+		FieldSchema resolveField(String name, Object value) {
+			FieldSchema schema = this.fields.get(name);
+			if (Objects.isNull(schema)) {
+				schema = this.fields.computeIfAbsent(name, n -> {
+					this.schemaChanged = true;
+					return new FieldSchema(FieldSchema.inferKind(value), true, false);
+				});
+			}
+			return schema;
+		}
+
+		synchronized void commit() throws IOException {
+			if (this.schemaChanged) {
+				this.schemaChanged = false;
+				Files.writeString(this.path.resolve(SCHEMA_FILE), SOURCE_MAPPER.writeValueAsString(this.fields));
+			}
+			// 无变更时commit不写入
+			this.writer.commit();
+		}
+
+		/**
+		 * 关闭索引
+		 *
+		 * @param commit 是否提交未持久化的数据，删除索引时不提交
+		 */
+		synchronized void close(boolean commit) throws IOException {
+			try {
+				if (commit) {
+					this.commit();
+				}
+				this.manager.close();
+				if (commit) {
+					this.writer.close();
+				} else {
+					this.writer.rollback();
+				}
+			} finally {
+				this.directory.close();
+			}
+		}
+	}
+}
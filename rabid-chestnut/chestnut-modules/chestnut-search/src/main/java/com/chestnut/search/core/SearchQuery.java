@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.search.core;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 检索条件
+ *
+ * <p>
+ * 与检索引擎无关的查询描述，由{@link ISearchType}实现转换为各自的查询语句：
+ * <ul>
+ *     <li>过滤条件：字段值精确匹配，不参与相关度计算</li>
+ *     <li>检索词：按字段权重匹配分词后的检索词，多个字段取相关度最高的字段</li>
+ *     <li>标签：精确匹配标签字段，可选匹配任一标签或同时匹配所有标签</li>
+ * </ul>
+ * 结果按相关度倒序，相关度相同时按排序字段倒序。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Getter
+public class SearchQuery {
+
+	/**
+	 * 过滤条件 <字段名, 字段值>
+	 */
+	private final Map<String, Object> filters = new LinkedHashMap<>();
+
+	/**
+	 * 检索词
+	 */
+	private String query;
+
+	/**
+	 * 检索词匹配字段 <字段名, 权重>
+	 */
+	private final Map<String, Float> queryFields = new LinkedHashMap<>();
+
+	/**
+	 * 检索词分词器，为空时使用字段索引分词器
+	 */
+	private String analyzer;
+
+	/**
+	 * 标签字段
+	 */
+	private String tagField;
+
+	/**
+	 * 标签列表
+	 */
+	private final List<String> tags = new ArrayList<>();
+
+	/**
+	 * 是否同时匹配所有标签
+	 */
+	private boolean matchAllTags;
+
+	/**
+	 * 高亮字段
+	 */
+	private final List<String> highlightFields = new ArrayList<>();
+
+	private String highlightPreTag = "<em>";
+
+	private String highlightPostTag = "</em>";
+
+	/**
+	 * 排序字段，相关度相同时按此字段倒序
+	 */
+	private String sortField;
+
+	/**
+	 * 结果排除字段
+	 */
+	private final List<String> excludeFields = new ArrayList<>();
+
+	private int from = 0;
+
+	private int size = 10;
+
+	/**
+	 * 添加过滤条件，值为null或空字符串时忽略
+	 */
+	public SearchQuery filter(String field, Object value) {
+		if (Objects.nonNull(value) && !(value instanceof String str && str.isEmpty())) {
+			this.filters.put(field, value);
+		}
+		return this;
+	}
+
+	/**
+	 * 设置检索词
+	 *
+	 * @param query 检索词
+	 * @param analyzer 分词器
+	 * @param fields 匹配字段及权重
+	 */
+	public SearchQuery query(String query, String analyzer, Map<String, Float> fields) {
+		this.query = query;
+		this.analyzer = analyzer;
+		this.queryFields.putAll(fields);
+		return this;
+	}
+
+	/**
+	 * 设置标签匹配条件
+	 *
+	 * @param field 标签字段
+	 * @param tags 标签列表
+	 * @param matchAll 是否同时匹配所有标签
+	 */
+	public SearchQuery tags(String field, Collection<String> tags, boolean matchAll) {
+		this.tagField = field;
+		this.tags.addAll(tags);
+		this.matchAllTags = matchAll;
+		return this;
+	}
+
+	public SearchQuery highlight(List<String> fields, String preTag, String postTag) {
+		this.highlightFields.addAll(fields);
+		this.highlightPreTag = preTag;
+		this.highlightPostTag = postTag;
+		return this;
+	}
+
+	public SearchQuery sortField(String sortField) {
+		this.sortField = sortField;
+		return this;
+	}
+
+	public SearchQuery exclude(String... fields) {
+		this.excludeFields.addAll(Arrays.asList(fields));
+		return this;
+	}
+
+	/**
+	 * 分页
+	 *
+	 * @param pageNumber 页码，从1开始
+	 * @param pageSize 每页数量
+	 */
+	public SearchQuery page(int pageNumber, int pageSize) {
+		this.from = (Math.max(pageNumber, 1) - 1) * pageSize;
+		this.size = pageSize;
+		return this;
+	}
+
+	public boolean hasQuery() {
+		return Objects.nonNull(this.query) && !this.query.isBlank() && !this.queryFields.isEmpty();
+	}
+}
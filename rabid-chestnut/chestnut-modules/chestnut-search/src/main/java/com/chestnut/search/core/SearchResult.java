@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.search.core;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 检索结果
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Getter
+@Setter
+public class SearchResult {
+
+	/**
+	 * 匹配文档总数
+	 */
+	private long total;
+
+	/**
+	 * 当前页文档
+	 */
+	private List<Hit> hits = new ArrayList<>();
+
+	@Getter
+	@Setter
+	public static class Hit {
+
+		/**
+		 * 文档ID
+		 */
+		private String id;
+
+		/**
+		 * 相关度得分
+		 */
+		private Double score;
+
+		/**
+		 * 文档数据
+		 */
+		private Map<String, Object> source;
+
+		/**
+		 * 高亮片段 <字段名, 片段列表>
+		 */
+		private Map<String, List<String>> highlight = Map.of();
+	}
+}
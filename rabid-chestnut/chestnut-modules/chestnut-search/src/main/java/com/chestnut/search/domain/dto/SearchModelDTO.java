@@ -80,6 +80,11 @@ public class SearchModelDTO extends BaseDTO {
 		 * 分词策略
 		 */
 		private String analyzer;
+
+		/*
+		 * 是否生成前缀输入提示，仅文本字段有效
+		 */
+		private boolean suggest;
 		
 		public SearchIndexField(String label, String name, String type, boolean primary) {
 			this.label = label;
@@ -17,6 +17,10 @@ package com.chestnut.search.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.chestnut.search.domain.SearchLog;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * <p>
@@ -28,4 +32,17 @@ import com.chestnut.search.domain.SearchLog;
  */
 public interface SearchLogMapper extends BaseMapper<SearchLog> {
 
+	/**
+	 * 批量插入搜索日志，单条SQL多行插入
+	 */
+	@Insert("""
+			<script>
+			INSERT INTO `search_log` (log_id, word, user_agent, ip, location, referer, client_type, source, log_time) VALUES
+			<foreach collection='list' item='log' separator=','>
+			(#{log.logId}, #{log.word}, #{log.userAgent}, #{log.ip}, #{log.location}, #{log.referer}, #{log.clientType},
+			#{log.source}, #{log.logTime})
+			</foreach>
+			</script>
+			""")
+	int insertBatch(@Param("list") List<SearchLog> list);
 }
\ No newline at end of file
@@ -17,6 +17,12 @@ package com.chestnut.search.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.chestnut.search.domain.SearchWord;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -28,4 +34,33 @@ import com.chestnut.search.domain.SearchWord;
  */
 public interface SearchWordMapper extends BaseMapper<SearchWord> {
 
+	/**
+	 * 批量插入搜索词，搜索词+来源已存在的忽略
+	 */
+	@Insert("""
+			<script>
+			INSERT IGNORE INTO `search_word` (word_id, word, source, top_flag, search_total, create_by, create_time) VALUES
+			<foreach collection='list' item='w' separator=','>
+			(#{w.wordId}, #{w.word}, #{w.source}, #{w.topFlag}, #{w.searchTotal}, #{w.createBy}, #{w.createTime})
+			</foreach>
+			</script>
+			""")
+	int insertIgnoreBatch(@Param("list") List<SearchWord> list);
+
+	/**
+	 * 批量累加搜索词总搜索次数
+	 *
+	 * @param increments <wordId, 增量>
+	 */
+	@Update("""
+			<script>
+			UPDATE `search_word` SET search_total = search_total + CASE word_id
+			<foreach collection='increments' index='wordId' item='delta'>
+			WHEN #{wordId} THEN #{delta}
+			</foreach>
+			ELSE 0 END WHERE word_id IN
+			<foreach collection='increments' index='wordId' open='(' separator=',' close=')'>#{wordId}</foreach>
+			</script>
+			""")
+	int increaseSearchTotal(@Param("increments") Map<Long, Long> increments);
 }
\ No newline at end of file
@@ -28,5 +28,16 @@ public interface ISearchWordHourStatService extends IService<SearchWordHourStat>
 	/**
 	 * 处理搜索日志
 	 */
-	void handleSearchLog(SearchWord wordStat, LocalDateTime evtTime);
+	default void handleSearchLog(SearchWord wordStat, LocalDateTime evtTime) {
+		this.handleSearchLog(wordStat, evtTime, 1);
+	}
+
+	/**
+	 * 处理搜索日志，累加搜索词小时搜索次数
+	 *
+	 * @param wordStat 搜索词
+	 * @param evtTime 搜索时间
+	 * @param count 搜索次数
+	 */
+	void handleSearchLog(SearchWord wordStat, LocalDateTime evtTime, long count);
 }
\ No newline at end of file
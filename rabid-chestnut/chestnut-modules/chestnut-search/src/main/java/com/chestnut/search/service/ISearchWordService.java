@@ -19,14 +19,26 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import com.chestnut.search.domain.SearchWord;
 import com.chestnut.search.domain.dto.SearchWordToppingDTO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ISearchWordService extends IService<SearchWord> {
 
 	/**
 	 * 搜索词计数
 	 */
-	void increaseSearchCount(SearchWord searchWord);
+	default void increaseSearchCount(SearchWord searchWord) {
+		this.increaseSearchCount(searchWord.getWordId(), 1);
+	}
+
+	/**
+	 * 搜索词计数，累加到缓存，由定时任务同步到DB
+	 *
+	 * @param wordId 搜索词ID
+	 * @param count 增量
+	 */
+	void increaseSearchCount(Long wordId, long count);
 
 	/**
 	 * 创建搜索词数据
@@ -58,5 +70,20 @@ public interface ISearchWordService extends IService<SearchWord> {
 	 */
     void syncSearchWordStatToDB();
 
+	/**
+	 * 获取搜索词数据，不存在则创建
+	 *
+	 * @param word 搜索词
+	 * @param source 来源标识
+	 */
 	SearchWord getSearchWord(String word, String source);
+
+	/**
+	 * 批量获取同一来源的搜索词数据，不存在则创建
+	 *
+	 * @param words 搜索词列表
+	 * @param source 来源标识
+	 * @return <搜索词, 搜索词数据>，搜索词不区分大小写
+	 */
+	Map<String, SearchWord> getSearchWords(Collection<String> words, String source);
 }
\ No newline at end of file
@@ -16,10 +16,10 @@
 package com.chestnut.search.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.chestnut.common.async.AsyncTaskManager;
 import com.chestnut.common.utils.IP2RegionUtils;
 import com.chestnut.common.utils.IdUtils;
 import com.chestnut.common.utils.ServletUtils;
+import com.chestnut.common.utils.StringUtils;
 import com.chestnut.search.domain.SearchLog;
 import com.chestnut.search.domain.SearchWord;
 import com.chestnut.search.domain.dto.SearchLogDTO;
@@ -27,65 +27,170 @@ import com.chestnut.search.mapper.SearchLogMapper;
 import com.chestnut.search.service.ISearchLogService;
 import com.chestnut.search.service.ISearchWordHourStatService;
 import com.chestnut.search.service.ISearchWordService;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 搜索日志
+ *
+ * <p>
+ * 搜索请求只将日志放入有界队列，后台每秒批量写入搜索日志，
+ * 同一批次内的搜索词按来源合并后批量获取/创建搜索词数据，并按搜索词、小时合并累加搜索次数。
+ * 队列满时丢弃搜索日志，避免搜索高峰时内存无限增长。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Slf4j
 @RequiredArgsConstructor
 @Service
-public class SearchLogServiceImpl extends ServiceImpl<SearchLogMapper, SearchLog> implements ISearchLogService {
+public class SearchLogServiceImpl extends ServiceImpl<SearchLogMapper, SearchLog>
+		implements ISearchLogService, CommandLineRunner {
 
-	private final AsyncTaskManager asyncTaskManager;
+	/**
+	 * 待写入搜索日志队列容量
+	 */
+	private static final int QUEUE_CAPACITY = 100_000;
+
+	/**
+	 * 搜索日志单次批量写入数量
+	 */
+	private static final int BATCH_SIZE = 500;
 
 	private final ISearchWordService searchWordStatService;
 
 	private final ISearchWordHourStatService searchWordHourStatService;
 
+	private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+
+	private final Queue<SearchLog> searchLogs = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger queueSize = new AtomicInteger();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
 	@Override
 	public void addSearchLog(SearchLogDTO dto) {
-		asyncTaskManager.execute(() -> {
-			SearchLog sLog = new SearchLog();
-			sLog.setLogId(IdUtils.getSnowflakeId());
-			sLog.setWord(dto.getWord());
-			sLog.setIp(dto.getIp());
-			sLog.setLocation(IP2RegionUtils.ip2Region(dto.getIp()));
-			sLog.setLogTime(dto.getLogTime());
-			sLog.setUserAgent(dto.getUserAgent());
-			sLog.setReferer(dto.getReferer());
-			sLog.setSource(dto.getSource());
-			sLog.setClientType(ServletUtils.getDeviceType(dto.getUserAgent()));
-			this.save(sLog);
-
-			SearchWord searchWord = searchWordStatService.getSearchWord(sLog.getWord(), sLog.getSource());
-			searchWordStatService.increaseSearchCount(searchWord);
-			searchWordHourStatService.handleSearchLog(searchWord, sLog.getLogTime());
-		});
+		SearchLog sLog = new SearchLog();
+		sLog.setWord(dto.getWord());
+		sLog.setIp(dto.getIp());
+		sLog.setLogTime(Objects.requireNonNullElseGet(dto.getLogTime(), LocalDateTime::now));
+		sLog.setUserAgent(dto.getUserAgent());
+		sLog.setReferer(dto.getReferer());
+		sLog.setSource(dto.getSource());
+		this.offer(sLog);
 	}
 
 	@Override
 	public void addSearchLog(String source, String query, HttpServletRequest request) {
-		final String userAgent = ServletUtils.getUserAgent(request);
-		final String ip = ServletUtils.getIpAddr(request);
-		final String referer = ServletUtils.getReferer(request);
-		final LocalDateTime logTime = LocalDateTime.now();
-		asyncTaskManager.execute(() -> {
-			SearchLog sLog = new SearchLog();
+		SearchLog sLog = new SearchLog();
+		sLog.setWord(query);
+		sLog.setIp(ServletUtils.getIpAddr(request));
+		sLog.setLogTime(LocalDateTime.now());
+		sLog.setUserAgent(ServletUtils.getUserAgent(request));
+		sLog.setReferer(ServletUtils.getReferer(request));
+		sLog.setSource(source);
+		this.offer(sLog);
+	}
+
+	private void offer(SearchLog sLog) {
+		if (queueSize.incrementAndGet() > QUEUE_CAPACITY) {
+			queueSize.decrementAndGet();
+			droppedCount.incrementAndGet();
+			return;
+		}
+		searchLogs.offer(sLog);
+	}
+
+	/**
+	 * 写入搜索日志及搜索词统计
+	 */
+	public synchronized void flush() {
+		List<SearchLog> batch = new ArrayList<>(BATCH_SIZE);
+		SearchLog sLog;
+		while ((sLog = searchLogs.poll()) != null) {
+			queueSize.decrementAndGet();
+			batch.add(sLog);
+			if (batch.size() >= BATCH_SIZE) {
+				this.processBatch(batch);
+				batch = new ArrayList<>(BATCH_SIZE);
+			}
+		}
+		if (!batch.isEmpty()) {
+			this.processBatch(batch);
+		}
+		long dropped = droppedCount.getAndSet(0);
+		if (dropped > 0) {
+			log.warn("Search log queue is full, {} search logs dropped.", dropped);
+		}
+	}
+
+	private void processBatch(List<SearchLog> batch) {
+		for (SearchLog sLog : batch) {
 			sLog.setLogId(IdUtils.getSnowflakeId());
-			sLog.setWord(query);
-			sLog.setIp(ip);
-			sLog.setLocation(IP2RegionUtils.ip2Region(ip));
-			sLog.setLogTime(logTime);
-			sLog.setUserAgent(userAgent);
-			sLog.setReferer(referer);
-			sLog.setClientType(ServletUtils.getDeviceType(userAgent));
-			sLog.setSource(source);
-			this.save(sLog);
-
-			SearchWord searchWord = searchWordStatService.getSearchWord(sLog.getWord(), sLog.getSource());
-			searchWordStatService.increaseSearchCount(searchWord);
-			searchWordHourStatService.handleSearchLog(searchWord, sLog.getLogTime());
+			sLog.setLocation(IP2RegionUtils.ip2Region(sLog.getIp()));
+			sLog.setClientType(ServletUtils.getDeviceType(sLog.getUserAgent()));
+		}
+		try {
+			this.baseMapper.insertBatch(batch);
+		} catch (Exception e) {
+			log.error("Insert search logs failed, size: " + batch.size(), e);
+		}
+		try {
+			this.increaseSearchWordStat(batch);
+		} catch (Exception e) {
+			log.error("Increase search word stat failed, size: " + batch.size(), e);
+		}
+	}
+
+	private void increaseSearchWordStat(List<SearchLog> batch) {
+		// <来源, <搜索词, <小时, 搜索次数>>>
+		Map<String, Map<String, Map<LocalDateTime, Long>>> counts = new HashMap<>();
+		for (SearchLog sLog : batch) {
+			if (StringUtils.isEmpty(sLog.getWord())) {
+				continue;
+			}
+			String source = StringUtils.isEmpty(sLog.getSource()) ? StringUtils.EMPTY : sLog.getSource();
+			counts.computeIfAbsent(source, k -> new HashMap<>())
+					.computeIfAbsent(sLog.getWord(), k -> new HashMap<>())
+					.merge(sLog.getLogTime().truncatedTo(ChronoUnit.HOURS), 1L, Long::sum);
+		}
+		counts.forEach((source, wordCounts) -> {
+			Map<String, SearchWord> searchWords = searchWordStatService.getSearchWords(wordCounts.keySet(), source);
+			wordCounts.forEach((word, hourCounts) -> {
+				SearchWord searchWord = searchWords.get(word);
+				if (Objects.isNull(searchWord)) {
+					return;
+				}
+				long total = hourCounts.values().stream().mapToLong(Long::longValue).sum();
+				searchWordStatService.increaseSearchCount(searchWord.getWordId(), total);
+				hourCounts.forEach((hour, count) -> searchWordHourStatService.handleSearchLog(searchWord, hour, count));
+			});
 		});
 	}
-}
\ No newline at end of file
+
+	@PreDestroy
+	public void preDestroy() {
+		this.flush();
+	}
+
+	@Override
+	public void run(String... args) throws Exception {
+		threadPoolTaskScheduler.schedule(this::flush, new PeriodicTrigger(Duration.ofSeconds(1)));
+	}
+}
@@ -16,7 +16,6 @@
 package com.chestnut.search.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.chestnut.common.async.AsyncTaskManager;
 import com.chestnut.common.redis.RedisCache;
 import com.chestnut.common.utils.DateUtils;
 import com.chestnut.search.domain.SearchWord;
@@ -35,13 +34,10 @@ public class SearchWordHourStatServiceImpl extends ServiceImpl<SearchWordHourSta
 
 	private final RedisCache redisCache;
 
-	private final AsyncTaskManager asyncTaskManager;
-
-	public void handleSearchLog(SearchWord wordStat, LocalDateTime evtTime) {
-		this.asyncTaskManager.execute(() -> {
-			// redis 小时检索数+1
-			String cacheKey = CACHE_PREFIX + evtTime.format(DateUtils.FORMAT_YYYYMMDDHH);
-			redisCache.incrMapValue(cacheKey, wordStat.getWordId().toString(), 1);
-		});
+	@Override
+	public void handleSearchLog(SearchWord wordStat, LocalDateTime evtTime, long count) {
+		// redis 小时检索数累加
+		String cacheKey = CACHE_PREFIX + evtTime.format(DateUtils.FORMAT_YYYYMMDDHH);
+		redisCache.incrMapValue(cacheKey, wordStat.getWordId().toString(), count);
 	}
 }
\ No newline at end of file
@@ -37,17 +37,19 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 
 @RequiredArgsConstructor
 @Service
 public class SearchWordServiceImpl extends ServiceImpl<SearchWordMapper, SearchWord>
 		implements ISearchWordService {
 
-	private static final String CACHE_KEY = "search:word";
+	/**
+	 * 搜索词未同步到DB的搜索次数增量
+	 */
+	private static final String CACHE_KEY = "search:word:incr";
+
+	private static final int BATCH_SIZE = 500;
 
 	private final AsyncTaskManager asyncTaskManager;
 
@@ -58,13 +60,8 @@ public class SearchWordServiceImpl extends ServiceImpl<SearchWordMapper, SearchW
 	private final ISearchWordHourStatService searchWordHourStatService;
 
 	@Override
-	public void increaseSearchCount(SearchWord searchWord) {
-		if (!redisCache.isValueInZset(CACHE_KEY, searchWord.getWordId().toString())) {
-			redisCache.zsetIncr(CACHE_KEY, searchWord.getWordId().toString(),
-					searchWord.getSearchTotal() + 1);
-		} else {
-			redisCache.zsetIncr(CACHE_KEY, searchWord.getWordId().toString(), 1);
-		}
+	public void increaseSearchCount(Long wordId, long count) {
+		redisCache.zsetIncr(CACHE_KEY, wordId.toString(), count);
 	}
 
 	@Override
@@ -129,45 +126,69 @@ public class SearchWordServiceImpl extends ServiceImpl<SearchWordMapper, SearchW
 		RLock lock = redissonClient.getLock("SyncSearchWordStat");
 		lock.lock();
 		try {
-			Set<String> cacheMap = redisCache.getZset(CACHE_KEY, 0, -1);
-			cacheMap.forEach(wordId -> {
-				SearchWord searchWord = this.getById(wordId);
-				if (Objects.nonNull(searchWord)) {
-					long searchTotal = redisCache.getZsetScore(CACHE_KEY, wordId).longValue();
-					this.lambdaUpdate().set(SearchWord::getSearchTotal, searchTotal)
-							.eq(SearchWord::getWordId, wordId).update();
+			// 缓存中为未同步的搜索次数增量，同步后扣减，同步期间新增的计数保留到下次同步
+			Map<String, Double> increments = redisCache.getZsetWithScores(CACHE_KEY, 0, -1);
+			Map<Long, Long> batch = new HashMap<>(BATCH_SIZE);
+			for (Map.Entry<String, Double> e : increments.entrySet()) {
+				long delta = e.getValue().longValue();
+				if (delta > 0) {
+					batch.put(Long.valueOf(e.getKey()), delta);
 				}
-			});
-			redisCache.deleteObject(CACHE_KEY);
+				if (batch.size() >= BATCH_SIZE) {
+					this.flushSearchTotal(batch);
+					batch = new HashMap<>(BATCH_SIZE);
+				}
+			}
+			if (!batch.isEmpty()) {
+				this.flushSearchTotal(batch);
+			}
+			redisCache.removeZsetRangeByScore(CACHE_KEY, Double.NEGATIVE_INFINITY, 0);
 		} finally {
 			lock.unlock();
 		}
 	}
 
+	private void flushSearchTotal(Map<Long, Long> increments) {
+		this.baseMapper.increaseSearchTotal(increments);
+		increments.forEach((wordId, delta) -> redisCache.zsetIncr(CACHE_KEY, wordId.toString(), -delta));
+	}
+
 	@Override
 	public SearchWord getSearchWord(String word, String source) {
-		RLock lock = redissonClient.getLock("CreateSearchWord");
-		lock.lock();
-		try {
-			Optional<SearchWord> opt = this.lambdaQuery()
-					.eq(SearchWord::getWord, word)
-					.eq(StringUtils.isNotEmpty(source), SearchWord::getSource, source)
-					.isNull(StringUtils.isEmpty(source), SearchWord::getSource)
-					.oneOpt();
-			if (opt.isPresent()) {
-				return opt.get();
+		return this.getSearchWords(List.of(word), source).get(word);
+	}
+
+	@Override
+	public Map<String, SearchWord> getSearchWords(Collection<String> words, String source) {
+		String s = StringUtils.isEmpty(source) ? StringUtils.EMPTY : source;
+		// 数据库排序规则不区分大小写，大小写不同的搜索词视为同一个
+		Map<String, SearchWord> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		List<String> wordList = words.stream().distinct().toList();
+		for (int i = 0; i < wordList.size(); i += BATCH_SIZE) {
+			List<String> batch = wordList.subList(i, Math.min(i + BATCH_SIZE, wordList.size()));
+			this.listSearchWords(batch, s).forEach(w -> map.put(w.getWord(), w));
+
+			List<SearchWord> inserts = batch.stream().filter(w -> !map.containsKey(w)).map(w -> {
+				SearchWord searchWord = new SearchWord();
+				searchWord.setWordId(IdUtils.getSnowflakeId());
+				searchWord.setWord(w);
+				searchWord.setSource(s);
+				searchWord.setTopFlag(0L);
+				searchWord.setSearchTotal(0L);
+				searchWord.createBy(SysConstants.SYS_OPERATOR);
+				return searchWord;
+			}).toList();
+			if (!inserts.isEmpty()) {
+				// 并发插入相同搜索词时由唯一索引去重，插入后重新查询获取实际数据
+				this.baseMapper.insertIgnoreBatch(inserts);
+				this.listSearchWords(inserts.stream().map(SearchWord::getWord).toList(), s)
+						.forEach(w -> map.put(w.getWord(), w));
 			}
-			SearchWord searchWord = new SearchWord();
-			searchWord.setWordId(IdUtils.getSnowflakeId());
-			searchWord.setWord(word);
-			searchWord.setSource(source);
-			searchWord.setTopFlag(0L);
-			searchWord.setSearchTotal(0L);
-			searchWord.createBy(SysConstants.SYS_OPERATOR);
-			this.save(searchWord);
-			return searchWord;
-		} finally {
-			lock.unlock();
 		}
+		return map;
+	}
+
+	private List<SearchWord> listSearchWords(List<String> words, String source) {
+		return this.lambdaQuery().eq(SearchWord::getSource, source).in(SearchWord::getWord, words).list();
 	}
-}
\ No newline at end of file
+}
@@ -20,10 +20,12 @@ import com.chestnut.common.utils.ServletUtils;
 import com.chestnut.common.utils.StringUtils;
 import eu.bitwalker.useragentutils.UserAgent;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 /**
  * RequestData
@@ -90,23 +92,68 @@ public class RequestEventData {
      */
     private LocalDateTime evtTime;
 
+    /**
+     * IP所属地区及UserAgent是否已解析
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean resolved;
+
     /**
      * 提取request请求信息到RequestEvent
      *
+     * <p>
+     * 只读取请求原始信息，IP所属地区及UserAgent在首次获取时解析，
+     * 事件异步处理时解析开销不占用请求线程
+     * </p>
+     *
      * @param request
      */
     public void fill(HttpServletRequest request) {
         this.setHost(request.getRemoteHost());
         this.setUri(request.getRequestURI());
         this.setIp(ServletUtils.getIpAddr(request));
-        this.setAddress(IP2RegionUtils.ip2Region(this.getIp()));
         this.setReferer(ServletUtils.getReferer(request));
         this.setLocale(StringUtils.substringBefore(ServletUtils.getAcceptLanaguage(request), ","));
-
         this.setUserAgent(ServletUtils.getUserAgent(request));
-        UserAgent ua = ServletUtils.parseUserAgent(request);
-        this.setBrowser(ua.getBrowser().getName());
-        this.setOs(ua.getOperatingSystem().getName());
-        this.setDeviceType(ua.getOperatingSystem().getDeviceType().getName());
+    }
+
+    public String getAddress() {
+        this.resolve();
+        return this.address;
+    }
+
+    public String getBrowser() {
+        this.resolve();
+        return this.browser;
+    }
+
+    public String getOs() {
+        this.resolve();
+        return this.os;
+    }
+
+    public String getDeviceType() {
+        this.resolve();
+        return this.deviceType;
+    }
+
+    /**
+     * 解析IP所属地区及UserAgent
+     */
+    private void resolve() {
+        if (this.resolved) {
+            return;
+        }
+        this.resolved = true;
+        if (Objects.isNull(this.address) && StringUtils.isNotEmpty(this.ip)) {
+            this.address = IP2RegionUtils.ip2Region(this.ip);
+        }
+        if (Objects.isNull(this.browser) && StringUtils.isNotEmpty(this.userAgent)) {
+            UserAgent ua = UserAgent.parseUserAgentString(this.userAgent);
+            this.browser = ua.getBrowser().getName();
+            this.os = ua.getOperatingSystem().getName();
+            this.deviceType = ua.getOperatingSystem().getDeviceType().getName();
+        }
     }
 }
@@ -24,7 +24,7 @@ import java.util.Objects;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.support.AbstractMessageSource;
 
-import com.chestnut.common.redis.RedisCache;
+import com.chestnut.common.redis.TwoLevelCache;
 import com.chestnut.common.utils.ConvertUtils;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.system.service.ISysI18nDictService;
@@ -40,7 +40,7 @@ public class I18nMessageSource extends AbstractMessageSource implements Initiali
 
 	private final static String CACHE_PREFIX = "i18n:";
 
-	private final RedisCache redisCache;
+	private final TwoLevelCache twoLevelCache;
 
 	private String basename;
 
@@ -56,7 +56,7 @@ public class I18nMessageSource extends AbstractMessageSource implements Initiali
 
 	@Override
 	protected MessageFormat resolveCode(String code, Locale locale) {
-		Object value = this.redisCache.getCacheMapValue(CACHE_PREFIX + locale.toLanguageTag(), code);
+		Object value = this.twoLevelCache.getCacheMapValue(CACHE_PREFIX, locale.toLanguageTag(), code);
 		if (Objects.nonNull(value)) {
 			return new MessageFormat(value.toString(), locale);
 		}
@@ -65,13 +65,13 @@ public class I18nMessageSource extends AbstractMessageSource implements Initiali
 	
 	@Override
 	protected String resolveCodeWithoutArguments(String code, Locale locale) {
-		Object value = this.redisCache.getCacheMapValue(CACHE_PREFIX + locale.toLanguageTag(), code);
+		Object value = this.twoLevelCache.getCacheMapValue(CACHE_PREFIX, locale.toLanguageTag(), code);
 		return ConvertUtils.toStr(value);
 	}
 
 	@Override
 	protected String getDefaultMessage(String code) {
-		Object value = this.redisCache.getCacheMapValue(CACHE_PREFIX + this.getDefaultLocale().toLanguageTag(), code);
+		Object value = this.twoLevelCache.getCacheMapValue(CACHE_PREFIX, this.getDefaultLocale().toLanguageTag(), code);
 		return ConvertUtils.toStr(value, isUseCodeAsDefaultMessage() ? code : StringUtils.EMPTY);
 	}
 }
@@ -15,7 +15,7 @@
  */
 package com.chestnut.system.config;
 
-import com.chestnut.common.redis.RedisCache;
+import com.chestnut.common.redis.TwoLevelCache;
 import com.chestnut.common.utils.StringUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -41,7 +41,7 @@ import java.util.Locale;
 @RequiredArgsConstructor
 public class SysI18nConfig {
 
-	private final RedisCache redisCache;
+	private final TwoLevelCache twoLevelCache;
 
 	@Bean
 	@ConfigurationProperties(prefix = "spring.messages")
@@ -51,7 +51,7 @@ public class SysI18nConfig {
 
 	@Bean("messageSource")
 	public MessageSource messageSource(MessageSourceProperties properties) {
-		I18nMessageSource messageSource = new I18nMessageSource(this.redisCache);
+		I18nMessageSource messageSource = new I18nMessageSource(this.twoLevelCache);
 		if (StringUtils.isNotBlank(properties.getBasename())) {
 			messageSource.setBasename(properties.getBasename());
 		}
@@ -35,6 +35,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.chestnut.common.domain.R;
 import com.chestnut.common.redis.IMonitoredCache;
+import com.chestnut.common.redis.TwoLevelCache;
 import com.chestnut.common.security.anno.Priv;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.system.domain.SysCache;
@@ -58,6 +59,8 @@ public class CacheController {
 	
 	private final List<IMonitoredCache> monitoredCaches;
 
+	private final TwoLevelCache twoLevelCache;
+
 	@Priv(type = AdminUserType.TYPE, value = SysMenuPriv.MonitorCacheList)
 	@GetMapping
 	public R<?> getInfo() throws Exception {
@@ -86,7 +89,15 @@ public class CacheController {
 	@GetMapping("/getNames")
 	public R<?> cache() {
 		List<SysCache> list = this.monitoredCaches.stream().map(mc -> {
-			return new SysCache(mc.getCacheKey(), mc.getCacheName());
+			SysCache sysCache = new SysCache(mc.getCacheKey(), mc.getCacheName());
+			TwoLevelCache.CacheStats stats = this.twoLevelCache.getStats(mc.getCacheKey());
+			if (stats != null) {
+				sysCache.setLocalHits(stats.localHits());
+				sysCache.setRedisHits(stats.redisHits());
+				sysCache.setMisses(stats.misses());
+				sysCache.setLocalHitRate(stats.getLocalHitRate());
+			}
+			return sysCache;
 		}).collect(Collectors.toList());
 		return R.ok(list);
 	}
@@ -112,6 +123,7 @@ public class CacheController {
 	public R<?> clearCacheName(@PathVariable String cacheName) {
 		Collection<String> cacheKeys = redisTemplate.keys(cacheName + "*");
 		redisTemplate.delete(cacheKeys);
+		this.twoLevelCache.invalidatePrefix(cacheName);
 		return R.ok();
 	}
 
@@ -119,6 +131,7 @@ public class CacheController {
 	@DeleteMapping("/clearCacheKey/{cacheKey}")
 	public R<?> clearCacheKey(@PathVariable String cacheKey) {
 		redisTemplate.delete(cacheKey);
+		this.twoLevelCache.invalidatePrefix(cacheKey);
 		return R.ok();
 	}
 
@@ -127,6 +140,7 @@ public class CacheController {
 	public R<?> clearCacheAll() {
 		Collection<String> cacheKeys = redisTemplate.keys("*");
 		redisTemplate.delete(cacheKeys);
+		this.twoLevelCache.invalidatePrefix("");
 		return R.ok();
 	}
 }
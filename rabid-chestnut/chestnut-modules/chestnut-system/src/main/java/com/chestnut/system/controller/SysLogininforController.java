@@ -53,7 +53,7 @@ public class SysLogininforController extends BaseRestController {
 
 	private final ISysLogininforService logininforService;
 
-	@ExcelExportable(SysLogininfor.class)
+	@ExcelExportable(value = SysLogininfor.class, keyset = true)
 	@GetMapping("/list")
 	public R<TableData<SysLogininfor>> list(SysLogininfor logininfor, HttpServletRequest request) {
 		PageRequest pr = this.getPageRequest();
@@ -64,7 +64,10 @@ public class SysLogininforController extends BaseRestController {
 				.ge(Objects.nonNull(logininfor.getParams().get("beginTime")), SysLogininfor::getLoginTime, logininfor.getParams().get("beginTime"))
 				.le(Objects.nonNull(logininfor.getParams().get("endTime")), SysLogininfor::getLoginTime, logininfor.getParams().get("endTime"))
 				.orderByDesc(SysLogininfor::getInfoId);
-		Page<SysLogininfor> page = logininforService.page(new Page<>(pr.getPageNumber(), pr.getPageSize()), q);
+		if (pr.getExportCursor() instanceof SysLogininfor last) {
+			q.lt(SysLogininfor::getInfoId, last.getInfoId());
+		}
+		Page<SysLogininfor> page = logininforService.page(new Page<>(pr.getPageNumber(), pr.getPageSize(), !pr.isExport()), q);
 		LoginLogType.decode(page.getRecords(), SysLogininfor::getLogType, SysLogininfor::setLogType);
 		return bindDataTable(page);
 	}
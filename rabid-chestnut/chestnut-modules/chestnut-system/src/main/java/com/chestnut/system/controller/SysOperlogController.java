@@ -50,7 +50,7 @@ public class SysOperlogController extends BaseRestController {
 
 	private final ISysOperLogService operLogService;
 
-	@ExcelExportable(SysOperLog.class)
+	@ExcelExportable(value = SysOperLog.class, keyset = true, async = true)
 	@GetMapping("/list")
 	public R<?> list(SysOperLog operLog) {
 		PageRequest pr = this.getPageRequest();
@@ -62,7 +62,10 @@ public class SysOperlogController extends BaseRestController {
 				.ge(Objects.nonNull(operLog.getParams().get("beginTime")), SysOperLog::getOperTime, operLog.getParams().get("beginTime"))
 				.le(Objects.nonNull(operLog.getParams().get("endTime")), SysOperLog::getOperTime, operLog.getParams().get("endTime"))
 				.orderByDesc(SysOperLog::getOperId);
-		Page<SysOperLog> page = operLogService.page(new Page<>(pr.getPageNumber(), pr.getPageSize()), q);
+		if (pr.getExportCursor() instanceof SysOperLog last) {
+			q.lt(SysOperLog::getOperId, last.getOperId());
+		}
+		Page<SysOperLog> page = operLogService.page(new Page<>(pr.getPageNumber(), pr.getPageSize(), !pr.isExport()), q);
 		return bindDataTable(page);
 	}
 
@@ -37,6 +37,7 @@ import com.chestnut.system.mapper.SysUserRoleMapper;
 import com.chestnut.system.permission.SysMenuPriv;
 import com.chestnut.system.security.AdminUserType;
 import com.chestnut.system.security.StpAdminUtil;
+import com.chestnut.system.service.ISysPermissionService;
 import com.chestnut.system.service.ISysRoleService;
 import com.chestnut.system.validator.LongId;
 import jakarta.validation.constraints.NotEmpty;
@@ -63,6 +64,8 @@ public class SysRoleController extends BaseRestController {
 
 	private final SysUserRoleMapper userRoleMapper;
 
+	private final ISysPermissionService permissionService;
+
 	@ExcelExportable(SysRole.class)
 	@Priv(type = AdminUserType.TYPE, value = SysMenuPriv.SysRoleList)
 	@GetMapping("/list")
@@ -181,6 +184,7 @@ public class SysRoleController extends BaseRestController {
 	@PutMapping("/authUser/cancel")
 	public R<?> cancelAuthUserAll(@LongId Long roleId, @RequestBody @NotEmpty List<Long> userIds) {
 		roleService.deleteAuthUsers(roleId, userIds);
+		userIds.forEach(permissionService::resetLoginUserPermissions);
 		return R.ok();
 	}
 
@@ -192,6 +196,7 @@ public class SysRoleController extends BaseRestController {
 	@PutMapping("/authUser/grant")
 	public R<?> grantAuthUserAll(@LongId Long roleId, @RequestBody @NotEmpty List<Long> userIds) {
 		roleService.insertAuthUsers(roleId, userIds);
+		userIds.forEach(permissionService::resetLoginUserPermissions);
 		return R.ok();
 	}
 }
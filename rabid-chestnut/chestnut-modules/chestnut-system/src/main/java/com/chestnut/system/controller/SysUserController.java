@@ -44,6 +44,7 @@ import com.chestnut.system.permission.SysMenuPriv;
 import com.chestnut.system.security.AdminUserType;
 import com.chestnut.system.security.StpAdminUtil;
 import com.chestnut.system.service.ISysDeptService;
+import com.chestnut.system.service.ISysPermissionService;
 import com.chestnut.system.service.ISysPostService;
 import com.chestnut.system.service.ISysRoleService;
 import com.chestnut.system.service.ISysUserService;
@@ -88,6 +89,8 @@ public class SysUserController extends BaseRestController {
 
 	private final SysUserRoleMapper userRoleMapper;
 
+	private final ISysPermissionService permissionService;
+
 	protected final Validator validator;
 
 	/**
@@ -177,6 +180,7 @@ public class SysUserController extends BaseRestController {
 	public R<?> edit(@Validated @RequestBody SysUser user) {
 		user.setUpdateBy(StpAdminUtil.getLoginUser().getUsername());
 		userService.updateUser(user);
+		permissionService.resetLoginUserPermissions(user.getUserId());
 		return R.ok();
 	}
 
@@ -225,6 +229,7 @@ public class SysUserController extends BaseRestController {
 	@PutMapping("/authRole")
 	public R<?> insertAuthRole(@Validated @RequestBody AuthRoleDTO dto) {
 		userService.insertUserAuth(dto.getUserId(), dto.getRoleIds());
+		permissionService.resetLoginUserPermissions(dto.getUserId());
 		return R.ok();
 	}
 
@@ -15,6 +15,10 @@
  */
 package com.chestnut.system.controller.common;
 
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Comparator;
 import java.util.List;
 
@@ -29,16 +33,20 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.chestnut.common.async.AsyncTask;
 import com.chestnut.common.async.AsyncTaskManager;
+import com.chestnut.common.async.enums.TaskStatus;
 import com.chestnut.common.domain.R;
 import com.chestnut.common.security.anno.Priv;
 import com.chestnut.common.security.web.BaseRestController;
+import com.chestnut.common.security.web.ExcelExportTask;
 import com.chestnut.common.utils.Assert;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.system.domain.vo.AsyncTaskVO;
 import com.chestnut.system.exception.SysErrorCode;
 import com.chestnut.system.permission.SysMenuPriv;
 import com.chestnut.system.security.AdminUserType;
+import com.chestnut.system.security.StpAdminUtil;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
 
@@ -84,6 +92,27 @@ public class AsyncController extends BaseRestController {
 		return R.ok(new AsyncTaskVO(task));
 	}
 
+	/**
+	 * 下载Excel异步导出文件
+	 *
+	 * @param taskId 任务ID
+	 */
+	@Priv(type = AdminUserType.TYPE)
+	@GetMapping("/task/{taskId}/download")
+	public void downloadExportFile(@PathVariable("taskId") String taskId, HttpServletResponse response) throws IOException {
+		AsyncTask task = this.asyncTaskManager.getTask(taskId);
+		// 仅允许导出用户下载
+		if (!(task instanceof ExcelExportTask exportTask) || task.getStatus() != TaskStatus.SUCCESS
+				|| !exportTask.isOwner(AdminUserType.TYPE, StpAdminUtil.getLoginIdAsString())
+				|| !exportTask.getFile().exists()) {
+			throw SysErrorCode.ASYNC_TASK_NOT_FOUND.exception(taskId);
+		}
+		response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+		response.setHeader("Content-disposition", "attachment;filename*=utf-8''"
+				+ URLEncoder.encode(exportTask.getFileName(), StandardCharsets.UTF_8).replace("+", "%20"));
+		Files.copy(exportTask.getFile().toPath(), response.getOutputStream());
+	}
+
 	/**
 	 * 停止异步任务
 	 * 
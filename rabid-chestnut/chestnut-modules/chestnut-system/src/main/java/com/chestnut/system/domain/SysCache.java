@@ -47,6 +47,26 @@ public class SysCache {
 	/** 备注 */
 	private String remark = "";
 
+	/**
+	 * 本地缓存命中次数，未使用本地缓存时为null
+	 */
+	private Long localHits;
+
+	/**
+	 * 本地未命中、Redis命中次数
+	 */
+	private Long redisHits;
+
+	/**
+	 * 未命中次数
+	 */
+	private Long misses;
+
+	/**
+	 * 本地缓存命中率
+	 */
+	private Double localHitRate;
+
 	public SysCache() {
 
 	}
@@ -87,6 +87,13 @@ public interface ISysPermissionService extends IService<SysPermission> {
 	 */
 	void resetLoginUserPermissions(LoginUser loginUser);
 
+	/**
+	 * 重置指定用户所有登录Token的权限信息，用户未登录时不处理
+	 *
+	 * @param userId 用户ID
+	 */
+	void resetLoginUserPermissions(Long userId);
+
 	/**
 	 * 获取继承权限
 	 *
@@ -18,7 +18,7 @@ package com.chestnut.system.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chestnut.common.exception.CommonErrorCode;
-import com.chestnut.common.redis.RedisCache;
+import com.chestnut.common.redis.TwoLevelCache;
 import com.chestnut.common.utils.Assert;
 import com.chestnut.common.utils.IdUtils;
 import com.chestnut.common.utils.StringUtils;
@@ -49,7 +49,7 @@ import java.util.Objects;
 @RequiredArgsConstructor
 public class SysDictDataServiceImpl extends ServiceImpl<SysDictDataMapper, SysDictData> implements ISysDictDataService {
 
-	private final RedisCache redisCache;
+	private final TwoLevelCache twoLevelCache;
 
 	private final ISysI18nDictService i18nDictService;
 
@@ -66,7 +66,7 @@ public class SysDictDataServiceImpl extends ServiceImpl<SysDictDataMapper, SysDi
 		this.removeBatchByIds(list);
 		// 删除缓存
 		list.stream().map(SysDictData::getDictType).distinct().forEach(dictType -> {
-			this.redisCache.deleteObject(SysConstants.CACHE_SYS_DICT_KEY + dictType);
+			this.twoLevelCache.deleteObject(SysConstants.CACHE_SYS_DICT_KEY, dictType);
 			// 删除国际化配置
 			this.i18nDictService.remove(new LambdaQueryWrapper<SysI18nDict>()
 					.likeRight(SysI18nDict::getLangKey, "DICT." + dictType + "."));
@@ -111,7 +111,7 @@ public class SysDictDataServiceImpl extends ServiceImpl<SysDictDataMapper, SysDi
 		i18nDict.setLangValue(data.getDictLabel());
 		i18nDictService.batchSaveI18nDicts(List.of(i18nDict));
 
-		this.redisCache.deleteObject(SysConstants.CACHE_SYS_DICT_KEY + data.getDictType());
+		this.twoLevelCache.deleteObject(SysConstants.CACHE_SYS_DICT_KEY, data.getDictType());
 	}
 
 	/**
@@ -142,7 +142,7 @@ public class SysDictDataServiceImpl extends ServiceImpl<SysDictDataMapper, SysDi
 		dbData.setUpdateTime(LocalDateTime.now());
 
 		if (this.updateById(dbData)) {
-			this.redisCache.deleteObject(SysConstants.CACHE_SYS_DICT_KEY + data.getDictType());
+			this.twoLevelCache.deleteObject(SysConstants.CACHE_SYS_DICT_KEY, data.getDictType());
 		}
 	}
 
@@ -21,7 +21,7 @@ import com.baomidou.mybatisplus.extension.conditions.update.LambdaUpdateChainWra
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chestnut.common.exception.CommonErrorCode;
 import com.chestnut.common.i18n.I18nUtils;
-import com.chestnut.common.redis.RedisCache;
+import com.chestnut.common.redis.TwoLevelCache;
 import com.chestnut.common.utils.Assert;
 import com.chestnut.common.utils.IdUtils;
 import com.chestnut.common.utils.StringUtils;
@@ -36,6 +36,7 @@ import com.chestnut.system.mapper.SysDictTypeMapper;
 import com.chestnut.system.service.ISysDictTypeService;
 import com.chestnut.system.service.ISysI18nDictService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Service;
@@ -58,7 +59,7 @@ import java.util.stream.Collectors;
 public class SysDictTypeServiceImpl extends ServiceImpl<SysDictTypeMapper, SysDictType>
 		implements ISysDictTypeService, CommandLineRunner {
 
-	private final RedisCache redisCache;
+	private final TwoLevelCache twoLevelCache;
 
 	private final SysDictDataMapper dictDataMapper;
 
@@ -66,10 +67,15 @@ public class SysDictTypeServiceImpl extends ServiceImpl<SysDictTypeMapper, SysDi
 
 	@Override
 	public List<SysDictData> selectDictDatasByType(String dictType) {
-		List<SysDictData> dictDatas = this.redisCache.getCacheObject(SysConstants.CACHE_SYS_DICT_KEY + dictType, () -> {
+		List<SysDictData> dictDatas = this.twoLevelCache.getCacheObject(SysConstants.CACHE_SYS_DICT_KEY, dictType, () -> {
 			return new LambdaQueryChainWrapper<>(this.dictDataMapper).eq(SysDictData::getDictType, dictType).orderByAsc(SysDictData::getDictSort).list();
 		});
-		return dictDatas;
+		// 本地缓存为共享对象，调用方会替换国际化字段，返回副本
+		return dictDatas.stream().map(data -> {
+			SysDictData copy = new SysDictData();
+			BeanUtils.copyProperties(data, copy);
+			return copy;
+		}).collect(Collectors.toList());
 	}
 
 	@Override
@@ -162,15 +168,15 @@ public class SysDictTypeServiceImpl extends ServiceImpl<SysDictTypeMapper, SysDi
 
 	@Override
 	public void clearDictCache() {
-		this.redisCache.deleteObject(this.redisCache.keys(SysConstants.CACHE_SYS_DICT_KEY + "*"));
+		this.twoLevelCache.deleteByPrefix(SysConstants.CACHE_SYS_DICT_KEY);
 	}
 
 	private void deleteCache(String dictType) {
-		this.redisCache.deleteObject(SysConstants.CACHE_SYS_DICT_KEY + dictType);
+		this.twoLevelCache.deleteObject(SysConstants.CACHE_SYS_DICT_KEY, dictType);
 	}
 
 	private void setCache(String dictType, List<SysDictData> list) {
-		this.redisCache.setCacheObject(SysConstants.CACHE_SYS_DICT_KEY + dictType, list);
+		this.twoLevelCache.setCacheObject(SysConstants.CACHE_SYS_DICT_KEY, dictType, list);
 	}
 
 	/**
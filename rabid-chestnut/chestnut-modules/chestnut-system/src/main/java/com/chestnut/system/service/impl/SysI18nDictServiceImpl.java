@@ -32,6 +32,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chestnut.common.exception.CommonErrorCode;
 import com.chestnut.common.redis.RedisCache;
+import com.chestnut.common.redis.TwoLevelCache;
 import com.chestnut.common.utils.Assert;
 import com.chestnut.common.utils.IdUtils;
 import com.chestnut.common.utils.StringUtils;
@@ -53,11 +54,13 @@ public class SysI18nDictServiceImpl extends ServiceImpl<SysI18nDictMapper, SysI1
 
     private final RedisCache redisCache;
 
+    private final TwoLevelCache twoLevelCache;
+
     private final I18nMessageSource messageSource;
 
     @Override
     public String getLangValue(String languageTag, String langKey) {
-        return redisCache.getCacheMapValue(CACHE_PREFIX + languageTag, langKey);
+        return twoLevelCache.getCacheMapValue(CACHE_PREFIX, languageTag, langKey);
     }
 
     @Override
@@ -71,7 +74,7 @@ public class SysI18nDictServiceImpl extends ServiceImpl<SysI18nDictMapper, SysI1
 
         dict.setDictId(IdUtils.getSnowflakeId());
         this.save(dict);
-        redisCache.setCacheMapValue(CACHE_PREFIX + dict.getLangTag(), dict.getLangKey(), dict.getLangValue());
+        twoLevelCache.setCacheMapValue(CACHE_PREFIX, dict.getLangTag(), dict.getLangKey(), dict.getLangValue());
     }
 
     @Override
@@ -81,7 +84,7 @@ public class SysI18nDictServiceImpl extends ServiceImpl<SysI18nDictMapper, SysI1
         Assert.isTrue(this.checkUnique(dict), () -> CommonErrorCode.DATA_CONFLICT.exception(dict.getLangTag() + ":" + dict.getLangKey()));
 
         this.updateById(dict);
-        redisCache.setCacheMapValue(CACHE_PREFIX + dict.getLangTag(), dict.getLangKey(), dict.getLangValue());
+        twoLevelCache.setCacheMapValue(CACHE_PREFIX, dict.getLangTag(), dict.getLangKey(), dict.getLangValue());
     }
 
     @Override
@@ -90,7 +93,7 @@ public class SysI18nDictServiceImpl extends ServiceImpl<SysI18nDictMapper, SysI1
         this.removeBatchByIds(list);
 
         list.forEach(dict -> {
-            redisCache.deleteCacheMapValue(CACHE_PREFIX + dict.getLangTag(), dict.getLangKey());
+            twoLevelCache.deleteCacheMapValue(CACHE_PREFIX, dict.getLangTag(), dict.getLangKey());
         });
     }
 
@@ -127,6 +130,8 @@ public class SysI18nDictServiceImpl extends ServiceImpl<SysI18nDictMapper, SysI1
         list.forEach(dict -> {
             redisCache.setCacheMapValue(CACHE_PREFIX + dict.getLangTag(), dict.getLangKey(), dict.getLangValue());
         });
+        // 批量更新后统一失效本地缓存，避免逐条发送失效通知
+        twoLevelCache.invalidatePrefix(CACHE_PREFIX);
     }
 
     @Override
@@ -136,6 +141,7 @@ public class SysI18nDictServiceImpl extends ServiceImpl<SysI18nDictMapper, SysI1
         this.loadMessagesFromResources(messageSource);
         // 加载数据库数据，如果与配置文件重复则直接覆盖掉
         this.loadMessagesFromDB();
+        twoLevelCache.invalidatePrefix(CACHE_PREFIX);
         log.debug("Load i18n messages cost: {}ms", System.currentTimeMillis() - s);
     }
 
@@ -16,6 +16,7 @@
 package com.chestnut.system.service.impl;
 
 import cn.dev33.satoken.session.SaSession;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chestnut.common.security.SecurityUtils;
 import com.chestnut.common.security.domain.LoginUser;
@@ -24,9 +25,11 @@ import com.chestnut.common.utils.StringUtils;
 import com.chestnut.system.SysConstants;
 import com.chestnut.system.domain.SysPermission;
 import com.chestnut.system.domain.SysRole;
+import com.chestnut.system.domain.SysUserRole;
 import com.chestnut.system.domain.dto.SysPermissionDTO;
 import com.chestnut.system.enums.PermissionOwnerType;
 import com.chestnut.system.mapper.SysPermissionMapper;
+import com.chestnut.system.mapper.SysUserRoleMapper;
 import com.chestnut.system.permission.IPermissionType;
 import com.chestnut.system.security.StpAdminUtil;
 import com.chestnut.system.service.ISysPermissionService;
@@ -44,6 +47,8 @@ public class SysPermissionServiceImpl extends ServiceImpl<SysPermissionMapper, S
 
 	private final ISysRoleService roleService;
 
+	private final SysUserRoleMapper userRoleMapper;
+
 	private final Map<String, IPermissionType> permissionTypes;
 
 	private IPermissionType getPermissionType(String type) {
@@ -68,6 +73,7 @@ public class SysPermissionServiceImpl extends ServiceImpl<SysPermissionMapper, S
 		IPermissionType pt = getPermissionType(permissionType);
 		permissions.getPermissions().put(pt.getId(), pt.serialize(perms));
 		this.saveOrUpdate(permissions);
+		this.resetOwnerLoginUserPermissions(ownerType, owner);
 	}
 
 	@Override
@@ -81,33 +87,38 @@ public class SysPermissionServiceImpl extends ServiceImpl<SysPermissionMapper, S
 		// 权限
 		SysPermission userPermission = this.getPermission(ownerType, owner);
 		if (Objects.nonNull(userPermission)) {
-			this.permissionTypes.values().forEach(pt -> {
-				if (StringUtils.isEmpty(permissionType) || pt.getId().equals(permissionType)) {
-					String json = userPermission.getPermissions().get(pt.getId());
-					if (StringUtils.isNotEmpty(json)) {
-						permissionKeys.addAll(pt.deserialize(json));
-					}
-				}
-			});
+			this.collectPermissionKeys(userPermission, permissionType, permissionKeys);
 		}
 		return permissionKeys;
 	}
 
+	private void collectPermissionKeys(SysPermission permission, @Nullable String permissionType, Set<String> permissionKeys) {
+		this.permissionTypes.values().forEach(pt -> {
+			if (StringUtils.isEmpty(permissionType) || pt.getId().equals(permissionType)) {
+				String json = permission.getPermissions().get(pt.getId());
+				if (StringUtils.isNotEmpty(json)) {
+					permissionKeys.addAll(pt.deserialize(json));
+				}
+			}
+		});
+	}
+
 	@Override
 	public Set<String> getUserPermissions(Long userId, @Nullable String permissionType) {
 		Set<String> permissions = new HashSet<>();
 		if (SecurityUtils.isSuperAdmin(userId)) {
 			permissions.add(ALL_PERMISSION);
 		} else {
-			// 用户权限
-			Set<String> permissionKeys = getPermissionKeys(PermissionOwnerType.User.name(), userId.toString(), permissionType);
-			permissions.addAll(permissionKeys);
-			// 角色权限
-			List<SysRole> roles = this.roleService.selectRolesByUserId(userId);
-			roles.forEach(r -> {
-				Set<String> keys = getPermissionKeys(PermissionOwnerType.Role.name(), r.getRoleId().toString(), permissionType);
-				permissions.addAll(keys);
-			});
+			// 用户权限及角色权限一次查询
+			List<String> roleIds = this.roleService.selectRolesByUserId(userId).stream()
+					.map(r -> r.getRoleId().toString()).toList();
+			this.lambdaQuery()
+					.and(q -> q.eq(SysPermission::getOwnerType, PermissionOwnerType.User.name())
+							.eq(SysPermission::getOwner, userId.toString()))
+					.or(!roleIds.isEmpty(), q -> q.eq(SysPermission::getOwnerType, PermissionOwnerType.Role.name())
+							.in(SysPermission::getOwner, roleIds))
+					.list()
+					.forEach(p -> this.collectPermissionKeys(p, permissionType, permissions));
 		}
 		return permissions;
 	}
@@ -116,14 +127,42 @@ public class SysPermissionServiceImpl extends ServiceImpl<SysPermissionMapper, S
 	public void resetLoginUserPermissions(LoginUser loginUser) {
 		List<String> userPermissions = getUserPermissions(loginUser.getUserId(), null).stream().toList();
 		loginUser.setPermissions(userPermissions);
-		StpAdminUtil.getTokenValueListByLoginId(loginUser.getUserId()).forEach(token -> {
+		this.resetLoginUserPermissions(loginUser.getUserId(), userPermissions);
+	}
+
+	@Override
+	public void resetLoginUserPermissions(Long userId) {
+		if (StpAdminUtil.getTokenValueListByLoginId(userId).isEmpty()) {
+			return;
+		}
+		this.resetLoginUserPermissions(userId, getUserPermissions(userId, null).stream().toList());
+	}
+
+	private void resetLoginUserPermissions(Long userId, List<String> userPermissions) {
+		StpAdminUtil.getTokenValueListByLoginId(userId).forEach(token -> {
 			SaSession session = StpAdminUtil.getTokenSessionByToken(token);
-			LoginUser lu = (LoginUser) session.get(SaSession.USER);
-			lu.setPermissions(userPermissions);
-			session.set(SaSession.USER, loginUser);
+			LoginUser lu = session.getModel(SaSession.USER, LoginUser.class);
+			if (Objects.nonNull(lu)) {
+				lu.setPermissions(userPermissions);
+				session.set(SaSession.USER, lu);
+			}
 		});
 	}
 
+	/**
+	 * 权限变更后刷新权限所有者（用户或角色下所有用户）的登录权限信息
+	 */
+	private void resetOwnerLoginUserPermissions(String ownerType, String owner) {
+		if (PermissionOwnerType.isUser(ownerType)) {
+			this.resetLoginUserPermissions(Long.valueOf(owner));
+		} else if (PermissionOwnerType.Role.name().equals(ownerType)) {
+			this.userRoleMapper.selectList(new LambdaQueryWrapper<SysUserRole>()
+					.select(SysUserRole::getUserId)
+					.eq(SysUserRole::getRoleId, Long.valueOf(owner)))
+					.forEach(ur -> this.resetLoginUserPermissions(ur.getUserId()));
+		}
+	}
+
 	@Override
 	public Set<String> getInheritedPermissionKeys(String ownerType, String owner, String permissionType) {
 		Set<String> inheritedPermissionKeys = new HashSet<>();
@@ -158,12 +197,13 @@ public class SysPermissionServiceImpl extends ServiceImpl<SysPermissionMapper, S
 		}
 		permission.getPermissions().put(permissionType, permissionJson);
 		this.updateById(permission);
+		this.resetOwnerLoginUserPermissions(ownerType, owner);
 		return permission;
 	}
 
 	@Override
 	public SysPermission grantUserPermission(LoginUser user, String permissionType, String permissionJson) {
-		SysPermission permission = grantPermission(
+		SysPermission permission = doGrantPermission(
 				PermissionOwnerType.User.name(),
 				user.getUserId().toString(),
 				permissionType,
@@ -175,6 +215,12 @@ public class SysPermissionServiceImpl extends ServiceImpl<SysPermissionMapper, S
 
 	@Override
 	public SysPermission grantPermission(String ownerType, String owner, String permissionType, String permissionJson) {
+		SysPermission permission = doGrantPermission(ownerType, owner, permissionType, permissionJson);
+		this.resetOwnerLoginUserPermissions(ownerType, owner);
+		return permission;
+	}
+
+	private SysPermission doGrantPermission(String ownerType, String owner, String permissionType, String permissionJson) {
 		SysPermission permission = this.getPermission(ownerType, owner);
 		if (Objects.isNull(permission)) {
 			permission = new SysPermission();
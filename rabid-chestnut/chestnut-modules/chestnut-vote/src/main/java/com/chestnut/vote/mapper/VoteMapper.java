@@ -17,6 +17,8 @@ package com.chestnut.vote.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.chestnut.vote.domain.Vote;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
 
 /**
  * <p>
@@ -28,4 +30,12 @@ import com.chestnut.vote.domain.Vote;
  */
 public interface VoteMapper extends BaseMapper<Vote> {
 
+	/**
+	 * 累加问卷调查参与数
+	 *
+	 * @param voteId 问卷调查ID
+	 * @param delta 增量
+	 */
+	@Update("UPDATE cc_vote SET total = total + #{delta} WHERE vote_id = #{voteId}")
+	int increaseTotal(@Param("voteId") Long voteId, @Param("delta") long delta);
 }
\ No newline at end of file
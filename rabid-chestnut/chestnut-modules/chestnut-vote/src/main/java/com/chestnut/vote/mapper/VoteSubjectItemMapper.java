@@ -17,6 +17,10 @@ package com.chestnut.vote.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.chestnut.vote.domain.VoteSubjectItem;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Map;
 
 /**
  * <p>
@@ -28,4 +32,20 @@ import com.chestnut.vote.domain.VoteSubjectItem;
  */
 public interface VoteSubjectItemMapper extends BaseMapper<VoteSubjectItem> {
 
+	/**
+	 * 批量累加主题选项票数
+	 *
+	 * @param increments <itemId, 增量>
+	 */
+	@Update("""
+			<script>
+			UPDATE cc_vote_item SET total = total + CASE item_id
+			<foreach collection='increments' index='itemId' item='delta'>
+			WHEN #{itemId} THEN #{delta}
+			</foreach>
+			ELSE 0 END WHERE item_id IN
+			<foreach collection='increments' index='itemId' open='(' separator=',' close=')'>#{itemId}</foreach>
+			</script>
+			""")
+	int increaseTotals(@Param("increments") Map<Long, Long> increments);
 }
\ No newline at end of file
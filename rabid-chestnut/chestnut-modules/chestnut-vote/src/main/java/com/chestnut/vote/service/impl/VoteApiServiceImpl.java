@@ -15,7 +15,6 @@
  */
 package com.chestnut.vote.service.impl;
 
-import com.chestnut.common.async.AsyncTaskManager;
 import com.chestnut.common.exception.CommonErrorCode;
 import com.chestnut.common.utils.Assert;
 import com.chestnut.common.utils.DateUtils;
@@ -28,27 +27,101 @@ import com.chestnut.vote.exception.VoteErrorCode;
 import com.chestnut.vote.service.IVoteApiService;
 import com.chestnut.vote.service.IVoteLogService;
 import com.chestnut.vote.service.IVoteService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
+/**
+ * 问卷调查提交服务
+ *
+ * <p>
+ * 日/总提交次数上限使用Redis计数原子校验并累加，计数不存在时由投票日志初始化；投票日志每秒批量写入。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class VoteApiServiceImpl implements IVoteApiService {
+public class VoteApiServiceImpl implements IVoteApiService, CommandLineRunner {
+
+	/**
+	 * 投票次数计数，hash结构：date=计数日期，day=当日次数，total=总次数
+	 */
+	private static final String LIMIT_COUNTER_PREFIX = "vote_limit:";
+
+	/**
+	 * 投票日志单次批量写入数量
+	 */
+	private static final int LOG_BATCH_SIZE = 500;
+
+	/**
+	 * 校验日/总次数上限，未超限时累加次数返回0，超出总上限返回1，超出日上限返回2，计数不存在返回-1由调用方初始化后重试
+	 */
+	private static final RedisScript<Long> CHECK_LIMIT_SCRIPT = new DefaultRedisScript<>("""
+			if redis.call('exists', KEYS[1]) == 0 then
+			    return -1
+			end
+			local total = tonumber(redis.call('hget', KEYS[1], 'total') or '0')
+			local day = 0
+			if redis.call('hget', KEYS[1], 'date') == ARGV[1] then
+			    day = tonumber(redis.call('hget', KEYS[1], 'day') or '0')
+			end
+			if total >= tonumber(ARGV[3]) then
+			    return 1
+			end
+			if day >= tonumber(ARGV[2]) then
+			    return 2
+			end
+			redis.call('hset', KEYS[1], 'date', ARGV[1], 'day', day + 1, 'total', total + 1)
+			return 0
+			""", Long.class);
+
+	/**
+	 * 初始化次数计数，所有字段在同一脚本中HSETNX，避免并发校验在初始化过程中从0开始计数，ARGV[4]=过期时间戳（毫秒，0不过期）
+	 */
+	private static final RedisScript<Long> INIT_LIMIT_SCRIPT = new DefaultRedisScript<>("""
+			redis.call('hsetnx', KEYS[1], 'date', ARGV[1])
+			redis.call('hsetnx', KEYS[1], 'day', ARGV[2])
+			redis.call('hsetnx', KEYS[1], 'total', ARGV[3])
+			if tonumber(ARGV[4]) > 0 then
+			    redis.call('pexpireat', KEYS[1], ARGV[4])
+			end
+			return 1
+			""", Long.class);
 
 	private final IVoteService voteService;
 
 	private final IVoteLogService voteLogService;
-	
-	private final RedissonClient redissonClient;
-	
-	private final AsyncTaskManager asyncTaskManager;
+
+	private final StringRedisTemplate stringRedisTemplate;
+
+	private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+
+	/**
+	 * 待写入投票日志
+	 */
+	private final Queue<VoteLog> pendingVoteLogs = new ConcurrentLinkedQueue<>();
 
 	@Override
 	public VoteVO getVote(Long voteId) {
@@ -56,7 +129,6 @@ public class VoteApiServiceImpl implements IVoteApiService {
 	}
 
 	@Override
-	@Transactional(rollbackFor = Exception.class)
 	public void submitVote(VoteSubmitDTO dto) {
 		VoteVO vote = this.getVote(dto.getVoteId());
 		Assert.notNull(vote, () -> CommonErrorCode.DATA_NOT_FOUND_BY_ID.exception("voteId", dto.getVoteId()));
@@ -67,36 +139,113 @@ public class VoteApiServiceImpl implements IVoteApiService {
 		// 判断投票时间
 		boolean checkTime = DateUtils.isNowBetween(vote.getStartTime(), vote.getEndTime());
 		Assert.isTrue(checkTime, VoteErrorCode.TIME_ERR::exception);
-		
-		RLock lock = redissonClient.getLock("VoteSubmit-" + userId);
-		lock.lock();
+
+		Map<Long, String> result = dto.getSubjects().stream()
+				.collect(Collectors.toMap(SubjectResult::getSubjectId, SubjectResult::getResult));
+		// 判断提交上限
+		long limitResult = this.checkLimit(vote, userId);
+		Assert.isTrue(limitResult != 1, VoteErrorCode.VOTE_TOTAL_LIMIT::exception);
+		Assert.isTrue(limitResult != 2, VoteErrorCode.VOTE_DAY_LIMIT::exception);
+
+		// 记录日志
+		VoteLog voteLog = new VoteLog();
+		voteLog.setVoteId(dto.getVoteId());
+		voteLog.setUserType(vote.getUserType());
+		voteLog.setUserId(userId);
+		voteLog.setResult(result);
+		voteLog.setLogTime(LocalDateTime.now());
+		voteLog.setIp(dto.getIp());
+		voteLog.setUserAgent(dto.getUserAgent());
+		this.pendingVoteLogs.offer(voteLog);
+		// 更新问卷参与数和主题选项票数
+		this.voteService.onVoteSubmit(voteLog);
+	}
+
+	/**
+	 * 校验日/总次数上限，未超限时累加次数
+	 */
+	private long checkLimit(VoteVO vote, String userId) {
+		String cacheKey = LIMIT_COUNTER_PREFIX + vote.getVoteId() + ":" + vote.getUserType() + ":" + userId;
+		List<String> keys = List.of(cacheKey);
+		String today = LocalDate.now().toString();
+		String dayLimit = String.valueOf(vote.getDayLimit());
+		String totalLimit = String.valueOf(vote.getTotalLimit());
+		Long result = this.stringRedisTemplate.execute(CHECK_LIMIT_SCRIPT, keys, today, dayLimit, totalLimit);
+		if (Objects.nonNull(result) && result < 0) {
+			this.initLimitCounter(cacheKey, today, vote, userId);
+			result = this.stringRedisTemplate.execute(CHECK_LIMIT_SCRIPT, keys, today, dayLimit, totalLimit);
+		}
+		Assert.isTrue(Objects.nonNull(result) && result >= 0,
+				() -> CommonErrorCode.SYSTEM_ERROR.exception("Vote limit counter not available."));
+		return result;
+	}
+
+	/**
+	 * 由投票日志及本地待写入日志初始化次数计数，所有字段在同一脚本中HSETNX，避免覆盖并发初始化后已累加的计数，问卷结束一天后过期
+	 * <p>
+	 * 与flushVoteLogs使用同一监视器，避免统计时已从待写入队列取出但未提交的日志被遗漏
+	 */
+	private synchronized void initLimitCounter(String cacheKey, String today, VoteVO vote, String userId) {
+		LocalDateTime todayStart = DateUtils.getTodayStart();
+		long dayCount = this.voteLogService.lambdaQuery().eq(VoteLog::getVoteId, vote.getVoteId())
+				.eq(VoteLog::getUserType, vote.getUserType()).eq(VoteLog::getUserId, userId)
+				.ge(VoteLog::getLogTime, todayStart).count();
+		long total = this.voteLogService.lambdaQuery().eq(VoteLog::getVoteId, vote.getVoteId())
+				.eq(VoteLog::getUserType, vote.getUserType()).eq(VoteLog::getUserId, userId).count();
+		for (VoteLog voteLog : this.pendingVoteLogs) {
+			if (vote.getVoteId().equals(voteLog.getVoteId()) && vote.getUserType().equals(voteLog.getUserType())
+					&& userId.equals(voteLog.getUserId())) {
+				total++;
+				if (!voteLog.getLogTime().isBefore(todayStart)) {
+					dayCount++;
+				}
+			}
+		}
+		long expireAt = 0;
+		if (Objects.nonNull(vote.getEndTime())) {
+			expireAt = vote.getEndTime().plusDays(1).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		}
+		this.stringRedisTemplate.execute(INIT_LIMIT_SCRIPT, List.of(cacheKey), today, String.valueOf(dayCount),
+				String.valueOf(total), String.valueOf(expireAt));
+	}
+
+	/**
+	 * 批量写入投票日志
+	 */
+	public synchronized void flushVoteLogs() {
+		List<VoteLog> failed = new ArrayList<>();
+		List<VoteLog> batch = new ArrayList<>(LOG_BATCH_SIZE);
+		VoteLog voteLog;
+		while ((voteLog = this.pendingVoteLogs.poll()) != null) {
+			batch.add(voteLog);
+			if (batch.size() >= LOG_BATCH_SIZE) {
+				this.saveVoteLogs(batch, failed);
+				batch = new ArrayList<>(LOG_BATCH_SIZE);
+			}
+		}
+		if (!batch.isEmpty()) {
+			this.saveVoteLogs(batch, failed);
+		}
+		// 写入失败的日志放回，下次重试，日志是次数计数初始化的依据不能丢弃
+		this.pendingVoteLogs.addAll(failed);
+	}
+
+	private void saveVoteLogs(List<VoteLog> batch, List<VoteLog> failed) {
 		try {
-			// 判断提交上限
-			Long total = this.voteLogService.lambdaQuery().eq(VoteLog::getVoteId, dto.getVoteId())
-					.eq(VoteLog::getUserType, vote.getUserType()).eq(VoteLog::getUserId, userId).count();
-			Assert.isTrue(total < vote.getTotalLimit(), VoteErrorCode.VOTE_TOTAL_LIMIT::exception);
-			
-			Long dayCount = this.voteLogService.lambdaQuery().eq(VoteLog::getVoteId, dto.getVoteId())
-					.eq(VoteLog::getUserType, vote.getUserType()).eq(VoteLog::getUserId, userId)
-					.ge(VoteLog::getLogTime, DateUtils.getDayStart(LocalDateTime.now())).count();
-			Assert.isTrue(dayCount < vote.getDayLimit(), VoteErrorCode.VOTE_DAY_LIMIT::exception);
-	
-			// 记录日志
-			Map<Long, String> result = dto.getSubjects().stream()
-					.collect(Collectors.toMap(SubjectResult::getSubjectId, SubjectResult::getResult));
-			VoteLog voteLog = new VoteLog();
-			voteLog.setVoteId(dto.getVoteId());
-			voteLog.setUserType(vote.getUserType());
-			voteLog.setUserId(userId);
-			voteLog.setResult(result);
-			voteLog.setLogTime(LocalDateTime.now());
-			voteLog.setIp(dto.getIp());
-			voteLog.setUserAgent(dto.getUserAgent());
-			voteLogService.save(voteLog);
-			// 更新问卷参与数和主题选项票数
-			this.asyncTaskManager.execute(() -> this.voteService.onVoteSubmit(voteLog));
-		} finally {
-			lock.unlock();
+			this.voteLogService.saveBatch(batch);
+		} catch (Exception e) {
+			log.error("Save vote logs failed, size: " + batch.size(), e);
+			failed.addAll(batch);
 		}
 	}
+
+	@PreDestroy
+	public void preDestroy() {
+		this.flushVoteLogs();
+	}
+
+	@Override
+	public void run(String... args) throws Exception {
+		threadPoolTaskScheduler.schedule(this::flushVoteLogs, new PeriodicTrigger(Duration.ofSeconds(1)));
+	}
 }
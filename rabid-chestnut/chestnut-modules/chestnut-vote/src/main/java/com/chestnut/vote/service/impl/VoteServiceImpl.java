@@ -16,13 +16,12 @@
 package com.chestnut.vote.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.extension.conditions.query.LambdaQueryChainWrapper;
-import com.baomidou.mybatisplus.extension.conditions.update.LambdaUpdateChainWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chestnut.common.exception.CommonErrorCode;
 import com.chestnut.common.redis.RedisCache;
 import com.chestnut.common.utils.Assert;
 import com.chestnut.common.utils.IdUtils;
+import com.chestnut.common.utils.StringUtils;
 import com.chestnut.vote.core.IVoteItemType;
 import com.chestnut.vote.core.IVoteUserType;
 import com.chestnut.vote.domain.Vote;
@@ -40,26 +39,95 @@ import com.chestnut.vote.mapper.VoteMapper;
 import com.chestnut.vote.mapper.VoteSubjectItemMapper;
 import com.chestnut.vote.mapper.VoteSubjectMapper;
 import com.chestnut.vote.service.IVoteService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
 import org.springframework.beans.BeansException;
+import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * 问卷调查服务
+ *
+ * <p>
+ * 投票提交时问卷参与数及主题选项票数累加到Redis哈希，后台每秒取出合并后的增量以原子SQL累加写入数据库，
+ * 再由数据库刷新独立的票数缓存；问卷定义缓存不受投票影响，读取时叠加票数缓存。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+@Slf4j
 @RequiredArgsConstructor
 @Service
-public class VoteServiceImpl extends ServiceImpl<VoteMapper, Vote> implements IVoteService, ApplicationContextAware {
+public class VoteServiceImpl extends ServiceImpl<VoteMapper, Vote>
+		implements IVoteService, ApplicationContextAware, CommandLineRunner {
 
 	private static final String CACHE_PREFIX = "vote:";
 
+	/**
+	 * 待写入票数增量，hash结构：total=参与数增量，{itemId}=选项票数增量
+	 */
+	private static final String TALLY_PREFIX = "vote_tally:";
+
+	/**
+	 * 有待写入票数增量的问卷ID集合
+	 */
+	private static final String TALLY_PENDING_KEY = "vote_tally_pending";
+
+	private static final String TALLY_FIELD_TOTAL = "total";
+
+	/**
+	 * 问卷参与数及选项票数，hash结构：total=参与数，{itemId}=选项票数，由票数写入数据库后统一刷新
+	 */
+	private static final String TOTAL_PREFIX = "vote_total:";
+
+	/**
+	 * 票数缓存有效期，问卷无人投票时不再刷新
+	 */
+	private static final Duration TOTAL_EXPIRE = Duration.ofDays(1);
+
+	/**
+	 * 累加问卷参与数及选项票数，ARGV[1]=问卷ID，ARGV[2..n]=选项ID
+	 */
+	private static final RedisScript<Long> INCR_TALLY_SCRIPT = new DefaultRedisScript<>("""
+			redis.call('hincrby', KEYS[1], 'total', 1)
+			for i = 2, #ARGV do
+			    redis.call('hincrby', KEYS[1], ARGV[i], 1)
+			end
+			redis.call('sadd', KEYS[2], ARGV[1])
+			return 1
+			""", Long.class);
+
+	/**
+	 * 原子取出并删除问卷的票数增量，ARGV[1]=问卷ID
+	 */
+	@SuppressWarnings("rawtypes")
+	private static final RedisScript<List> DRAIN_TALLY_SCRIPT = new DefaultRedisScript<>("""
+			local tally = redis.call('hgetall', KEYS[1])
+			redis.call('del', KEYS[1])
+			redis.call('srem', KEYS[2], ARGV[1])
+			return tally
+			""", List.class);
+
 	private ApplicationContext applicationContext;
 	
 	private final VoteSubjectMapper subjectMapper;
@@ -74,8 +142,10 @@ public class VoteServiceImpl extends ServiceImpl<VoteMapper, Vote> implements IV
 	
 	private final Map<String, IVoteItemType> voteItemTypes;
 	
-	private final RedissonClient redissonClient;
-	
+	private final StringRedisTemplate stringRedisTemplate;
+
+	private final ThreadPoolTaskScheduler threadPoolTaskScheduler;
+
 	/**
 	 * 获取问卷调查参与用户类型
 	 * 
@@ -110,6 +180,27 @@ public class VoteServiceImpl extends ServiceImpl<VoteMapper, Vote> implements IV
 	 */
 	@Override
 	public VoteVO getVote(Long voteId) {
+		VoteVO vote = this.getVoteDefinition(voteId);
+		Map<Object, Object> totals = this.stringRedisTemplate.opsForHash().entries(TOTAL_PREFIX + voteId);
+		if (Objects.nonNull(vote) && !totals.isEmpty()) {
+			Object total = totals.get(TALLY_FIELD_TOTAL);
+			if (Objects.nonNull(total)) {
+				vote.setTotal(Integer.valueOf(total.toString()));
+			}
+			vote.getSubjects().forEach(subject -> subject.getItems().forEach(item -> {
+				Object itemTotal = totals.get(String.valueOf(item.getItemId()));
+				if (Objects.nonNull(itemTotal)) {
+					item.setVoteTotal(Long.valueOf(itemTotal.toString()));
+				}
+			}));
+		}
+		return vote;
+	}
+
+	/**
+	 * 获取问卷调查定义缓存，票数为缓存加载时的数据库值
+	 */
+	private VoteVO getVoteDefinition(Long voteId) {
 		return this.redisCache.getCacheObject(CACHE_PREFIX + voteId, () -> loadVoteDetail(voteId));
 	}
 
@@ -126,7 +217,7 @@ public class VoteServiceImpl extends ServiceImpl<VoteMapper, Vote> implements IV
 		voteVO.setDayLimit(vote.getDayLimit());
 		voteVO.setTotalLimit(vote.getTotalLimit());
 		voteVO.setViewType(vote.getViewType());
-		voteVO.setTotal(voteVO.getTotal());
+		voteVO.setTotal(vote.getTotal());
 
 		Map<Long, List<VoteSubjectItemVO>> itemMap = this.itemMapper
 				.selectList(new LambdaQueryWrapper<VoteSubjectItem>().eq(VoteSubjectItem::getVoteId, vote.getVoteId())
@@ -139,7 +230,7 @@ public class VoteServiceImpl extends ServiceImpl<VoteMapper, Vote> implements IV
 					vo.setContent(item.getContent());
 					vo.setDescription(item.getDescription());
 					vo.setSortFlag(item.getSortFlag());
-					vo.setVoteTotal(item.getVoteTotal().longValue());
+					vo.setVoteTotal(item.getTotal().longValue());
 					return vo;
 				}).collect(Collectors.groupingBy(VoteSubjectItemVO::getSubjectId));
 
@@ -166,6 +257,7 @@ public class VoteServiceImpl extends ServiceImpl<VoteMapper, Vote> implements IV
 	@Override
 	public void clearVoteCache(Long voteId) {
 		this.redisCache.deleteObject(CACHE_PREFIX + voteId);
+		this.stringRedisTemplate.delete(TOTAL_PREFIX + voteId);
 	}
 
 	@Override
@@ -227,38 +319,123 @@ public class VoteServiceImpl extends ServiceImpl<VoteMapper, Vote> implements IV
 	}
 
 	/**
-	 * 更新问卷参与数和主题选项票数
+	 * 累加问卷参与数和主题选项票数，由后台定时写入数据库
 	 * 
 	 * @param voteLog 投票日志
 	 */
+	@Override
 	public void onVoteSubmit(VoteLog voteLog) {
-		RLock lock = redissonClient.getLock("VoteTotalUpdate-" + voteLog.getVoteId());
-		lock.lock();
-		try {
-			VoteVO vote = this.getVote(voteLog.getVoteId());
-			// 问卷调查参与数+1
-			Vote voteEntity = this.lambdaQuery().select(Vote::getVoteId, Vote::getTotal)
-					.eq(Vote::getVoteId, voteLog.getVoteId()).one();
-			this.lambdaUpdate().set(Vote::getTotal, voteEntity.getTotal() + 1)
-					.eq(Vote::getVoteId, voteLog.getVoteId()).update();
-			// 单选/多选主题选项票数+1
-			vote.getSubjects().forEach(subject -> {
-				if (!VoteSubjectType.isInput(subject.getType())) {
-					String result = voteLog.getResult().get(subject.getSubjectId());
-					VoteSubjectItem item = new LambdaQueryChainWrapper<>(this.itemMapper)
-							.select(VoteSubjectItem::getItemId, VoteSubjectItem::getTotal)
-							.eq(VoteSubjectItem::getItemId, result)
-							.one();
-					new LambdaUpdateChainWrapper<>(this.itemMapper)
-							.set(VoteSubjectItem::getTotal, item.getTotal() + 1)
-							.eq(VoteSubjectItem::getItemId, item.getItemId())
-							.update();
+		VoteVO vote = this.getVoteDefinition(voteLog.getVoteId());
+		List<String> args = new ArrayList<>();
+		args.add(String.valueOf(voteLog.getVoteId()));
+		// 单选/多选主题选项票数+1，仅累加属于该主题的选项
+		vote.getSubjects().forEach(subject -> {
+			String result = voteLog.getResult().get(subject.getSubjectId());
+			if (VoteSubjectType.isInput(subject.getType()) || StringUtils.isBlank(result)) {
+				return;
+			}
+			Set<String> itemIds = subject.getItems().stream()
+					.map(item -> String.valueOf(item.getItemId())).collect(Collectors.toSet());
+			for (String itemId : StringUtils.split(result, ',')) {
+				if (itemIds.contains(itemId.trim())) {
+					args.add(itemId.trim());
 				}
-			});
-			// 更新缓存
-			this.redisCache.setCacheObject(CACHE_PREFIX + vote.getVoteId(), vote);
-		} finally {
-			lock.unlock();
+			}
+		});
+		List<String> keys = List.of(TALLY_PREFIX + voteLog.getVoteId(), TALLY_PENDING_KEY);
+		this.stringRedisTemplate.execute(INCR_TALLY_SCRIPT, keys, args.toArray());
+	}
+
+	/**
+	 * 将Redis中累加的问卷参与数和主题选项票数增量写入数据库
+	 */
+	public synchronized void flushVoteTallies() {
+		Set<String> voteIds = this.stringRedisTemplate.opsForSet().members(TALLY_PENDING_KEY);
+		if (Objects.isNull(voteIds)) {
+			return;
+		}
+		for (String voteId : voteIds) {
+			try {
+				this.flushVoteTally(Long.valueOf(voteId));
+			} catch (Exception e) {
+				log.error("Flush vote tally failed: " + voteId, e);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void flushVoteTally(Long voteId) {
+		List<String> keys = List.of(TALLY_PREFIX + voteId, TALLY_PENDING_KEY);
+		List<String> tally = this.stringRedisTemplate.execute(DRAIN_TALLY_SCRIPT, keys, String.valueOf(voteId));
+		if (Objects.isNull(tally) || tally.isEmpty()) {
+			return;
+		}
+		long total = 0;
+		Map<Long, Long> itemIncrements = new HashMap<>();
+		for (int i = 0; i + 1 < tally.size(); i += 2) {
+			long delta = Long.parseLong(tally.get(i + 1));
+			if (TALLY_FIELD_TOTAL.equals(tally.get(i))) {
+				total = delta;
+			} else {
+				itemIncrements.put(Long.valueOf(tally.get(i)), delta);
+			}
+		}
+		if (total > 0) {
+			try {
+				this.baseMapper.increaseTotal(voteId, total);
+			} catch (Exception e) {
+				log.error("Increase vote total failed: " + voteId, e);
+				this.restoreVoteTally(voteId, Map.of(TALLY_FIELD_TOTAL, total));
+			}
+		}
+		if (!itemIncrements.isEmpty()) {
+			try {
+				this.itemMapper.increaseTotals(itemIncrements);
+			} catch (Exception e) {
+				log.error("Increase vote item totals failed: " + voteId, e);
+				Map<String, Long> restore = new HashMap<>();
+				itemIncrements.forEach((itemId, delta) -> restore.put(String.valueOf(itemId), delta));
+				this.restoreVoteTally(voteId, restore);
+			}
 		}
+		// 刷新票数缓存，问卷定义缓存保持不变
+		this.refreshVoteTotals(voteId);
+	}
+
+	/**
+	 * 由数据库刷新问卷参与数及选项票数缓存
+	 */
+	private void refreshVoteTotals(Long voteId) {
+		Vote vote = this.lambdaQuery().select(Vote::getVoteId, Vote::getTotal).eq(Vote::getVoteId, voteId).one();
+		if (Objects.isNull(vote)) {
+			return;
+		}
+		Map<String, String> totals = new HashMap<>();
+		totals.put(TALLY_FIELD_TOTAL, String.valueOf(vote.getTotal()));
+		this.itemMapper.selectList(new LambdaQueryWrapper<VoteSubjectItem>()
+						.select(VoteSubjectItem::getItemId, VoteSubjectItem::getTotal)
+						.eq(VoteSubjectItem::getVoteId, voteId))
+				.forEach(item -> totals.put(String.valueOf(item.getItemId()), String.valueOf(item.getTotal())));
+		this.stringRedisTemplate.opsForHash().putAll(TOTAL_PREFIX + voteId, totals);
+		this.stringRedisTemplate.expire(TOTAL_PREFIX + voteId, TOTAL_EXPIRE);
+	}
+
+	/**
+	 * 写入失败的增量放回Redis，等待下次重试
+	 */
+	private void restoreVoteTally(Long voteId, Map<String, Long> increments) {
+		increments.forEach((field, delta) ->
+				this.stringRedisTemplate.opsForHash().increment(TALLY_PREFIX + voteId, field, delta));
+		this.stringRedisTemplate.opsForSet().add(TALLY_PENDING_KEY, String.valueOf(voteId));
+	}
+
+	@PreDestroy
+	public void preDestroy() {
+		this.flushVoteTallies();
+	}
+
+	@Override
+	public void run(String... args) throws Exception {
+		threadPoolTaskScheduler.schedule(this::flushVoteTallies, new PeriodicTrigger(Duration.ofSeconds(1)));
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.word.hotword;
+
+import com.chestnut.common.utils.StringUtils;
+import com.chestnut.word.sensitive.AhoCorasickAutomaton;
+import com.chestnut.word.sensitive.AhoCorasickAutomaton.Match;
+import com.chestnut.word.service.IHotWordService.HotWordCache;
+
+import java.util.*;
+
+/**
+ * 热词分组编译后的匹配器
+ *
+ * <p>
+ * 对HTML只扫描一遍：标签本身（包括属性）原样输出，a/script/style/textarea标签内的文本不处理，
+ * 其余文本区间使用{@link AhoCorasickAutomaton}最大匹配热词并替换为链接。
+ * 构建后不可修改，可被多线程并发使用。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+public class HotWordMatcher {
+
+	/**
+	 * 内部文本不替换热词的标签
+	 */
+	private static final Set<String> SKIP_CONTENT_TAGS = Set.of("a", "script", "style", "textarea");
+
+	private final AhoCorasickAutomaton<HotWordCache> automaton;
+
+	private HotWordMatcher(AhoCorasickAutomaton<HotWordCache> automaton) {
+		this.automaton = automaton;
+	}
+
+	/**
+	 * 编译热词
+	 *
+	 * @param hotWords 热词列表
+	 */
+	public static HotWordMatcher compile(Collection<HotWordCache> hotWords) {
+		Map<String, HotWordCache> words = new HashMap<>(hotWords.size());
+		hotWords.forEach(hotWord -> words.put(hotWord.getWord(), hotWord));
+		return new HotWordMatcher(AhoCorasickAutomaton.build(words));
+	}
+
+	/**
+	 * 热词数量
+	 */
+	public int size() {
+		return this.automaton.size();
+	}
+
+	/**
+	 * 替换热词链接
+	 *
+	 * @param html 待处理文本
+	 * @param target 链接打开方式，为空时使用热词配置
+	 * @param replacementTemplate 替换模板，{0}：链接，{1}：热词，{2}：打开方式
+	 * @param maxReplaceCount 每个热词最大替换次数，小于等于0不限制
+	 */
+	public String replace(String html, String target, String replacementTemplate, int maxReplaceCount) {
+		if (this.automaton.size() == 0 || StringUtils.isEmpty(html)) {
+			return html;
+		}
+		ReplaceContext context = new ReplaceContext(html.toCharArray(), target, replacementTemplate, maxReplaceCount);
+		char[] chars = context.chars;
+		String skipTag = null; // 当前所在的不处理文本的标签
+		int skipDepth = 0;
+		int textStart = 0;
+		int i = 0;
+		while (i < chars.length) {
+			if (chars[i] != '<' || !isTagStart(chars, i + 1)) {
+				i++;
+				continue;
+			}
+			int tagEnd = findTagEnd(chars, i);
+			if (tagEnd < 0) {
+				break; // 不完整的标签，剩余内容按文本处理
+			}
+			if (Objects.isNull(skipTag)) {
+				this.replaceText(context, textStart, i);
+			} else {
+				context.sb.append(chars, textStart, i - textStart);
+			}
+			context.sb.append(chars, i, tagEnd - i);
+			// 跟踪a/script/style/textarea标签嵌套
+			boolean closing = i + 1 < chars.length && chars[i + 1] == '/';
+			String tagName = getTagName(chars, closing ? i + 2 : i + 1, tagEnd);
+			if (Objects.isNull(skipTag)) {
+				if (!closing && SKIP_CONTENT_TAGS.contains(tagName) && chars[tagEnd - 2] != '/') {
+					skipTag = tagName;
+					skipDepth = 1;
+				}
+			} else if (skipTag.equals(tagName)) {
+				skipDepth += closing ? -1 : 1;
+				if (skipDepth == 0) {
+					skipTag = null;
+				}
+			}
+			i = tagEnd;
+			textStart = tagEnd;
+		}
+		if (Objects.isNull(skipTag)) {
+			this.replaceText(context, textStart, chars.length);
+		} else {
+			context.sb.append(chars, textStart, chars.length - textStart);
+		}
+		return context.replaced ? context.sb.toString() : html;
+	}
+
+	private void replaceText(ReplaceContext context, int from, int to) {
+		int index = from;
+		for (Match<HotWordCache> match : this.automaton.match(context.chars, from, to, true)) {
+			HotWordCache hotWord = match.data();
+			if (context.maxReplaceCount > 0
+					&& context.counts.merge(hotWord.getWord(), 1, Integer::sum) > context.maxReplaceCount) {
+				continue;
+			}
+			context.sb.append(context.chars, index, match.index() - index);
+			context.sb.append(context.getReplacement(hotWord));
+			index = match.index() + match.length();
+			context.replaced = true;
+		}
+		context.sb.append(context.chars, index, to - index);
+	}
+
+	/**
+	 * 查找标签结束位置（'>'之后的索引），注释查找“-->”，引号内的'>'不作为结束
+	 *
+	 * @return 未找到返回-1
+	 */
+	private static int findTagEnd(char[] chars, int start) {
+		if (startsWith(chars, start, "<!--")) {
+			for (int i = start + 4; i + 2 < chars.length; i++) {
+				if (chars[i] == '-' && chars[i + 1] == '-' && chars[i + 2] == '>') {
+					return i + 3;
+				}
+			}
+			return -1;
+		}
+		char quote = 0;
+		for (int i = start + 1; i < chars.length; i++) {
+			char c = chars[i];
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (c == '>') {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * '<'后为字母、'/'或'!'时视为标签开始，其他情况（如“a < b”）按文本处理
+	 */
+	private static boolean isTagStart(char[] chars, int index) {
+		if (index >= chars.length) {
+			return false;
+		}
+		char c = chars[index];
+		return c == '/' || c == '!' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static String getTagName(char[] chars, int start, int tagEnd) {
+		int end = start;
+		while (end < tagEnd && Character.isLetterOrDigit(chars[end])) {
+			end++;
+		}
+		return new String(chars, start, end - start).toLowerCase();
+	}
+
+	private static boolean startsWith(char[] chars, int start, String prefix) {
+		if (start + prefix.length() > chars.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if (chars[start + i] != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static class ReplaceContext {
+
+		private final char[] chars;
+
+		private final StringBuilder sb;
+
+		private final String target;
+
+		private final String replacementTemplate;
+
+		private final int maxReplaceCount;
+
+		private final Map<String, Integer> counts = new HashMap<>();
+
+		private final Map<String, String> replacements = new HashMap<>();
+
+		private boolean replaced = false;
+
+		ReplaceContext(char[] chars, String target, String replacementTemplate, int maxReplaceCount) {
+			this.chars = chars;
+			this.sb = new StringBuilder(chars.length + (chars.length >> 2));
+			this.target = target;
+			this.replacementTemplate = replacementTemplate;
+			this.maxReplaceCount = maxReplaceCount;
+		}
+
+		String getReplacement(HotWordCache hotWord) {
+			return this.replacements.computeIfAbsent(hotWord.getWord(), word -> StringUtils.messageFormat(
+					this.replacementTemplate, hotWord.getUrl(), word,
+					StringUtils.isEmpty(this.target) ? hotWord.getTarget() : this.target));
+		}
+	}
+}
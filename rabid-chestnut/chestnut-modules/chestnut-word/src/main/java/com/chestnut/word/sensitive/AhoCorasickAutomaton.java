@@ -0,0 +1,299 @@
+/*
+ * Copyright 2022-2024 兮玥(190785909@qq.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.chestnut.word.sensitive;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * 词表匹配Aho-Corasick自动机
+ *
+ * <p>
+ * 由词表一次性编译生成，构建后不可修改，可被多线程并发读取；词表变更时重新构建新实例整体替换。
+ * 状态转移以“状态<<16|字符”为键存储在开放寻址哈希表中，匹配时不创建字符串对象；
+ * 失配时沿失败链转移，文本只需扫描一遍，复杂度O(n + 命中数)。
+ * </p>
+ * <p>
+ * 匹配结果与原DFA逐位置匹配语义一致：从左到右取存在词的起始位置，
+ * 最小匹配取该位置开始的最短词，最大匹配取最长词，匹配到的词不重叠。
+ * </p>
+ *
+ * @author 兮玥
+ * @email 190785909@qq.com
+ */
+public final class AhoCorasickAutomaton<T> {
+
+	private static final long EMPTY_KEY = -1L;
+
+	private static final long HASH_SEED = 0x9E3779B97F4A7C15L;
+
+	private static final AhoCorasickAutomaton<?> EMPTY = new AhoCorasickAutomaton<>(Map.of());
+
+	/**
+	 * 状态转移表键：状态 << 16 | 字符
+	 */
+	private final long[] edgeKeys;
+
+	/**
+	 * 状态转移表值：目标状态
+	 */
+	private final int[] edgeTargets;
+
+	private final int edgeMask;
+
+	private final int edgeShift;
+
+	/**
+	 * 根状态转移表，按字符直接寻址，未命中为0
+	 */
+	private final int[] rootNext = new int[Character.MAX_VALUE + 1];
+
+	/**
+	 * 失败链
+	 */
+	private final int[] fail;
+
+	/**
+	 * 当前状态或失败链上最近的词结束状态，无则为-1
+	 */
+	private final int[] output;
+
+	/**
+	 * 状态深度，词结束状态即为词长度
+	 */
+	private final int[] depth;
+
+	/**
+	 * 词结束状态关联数据
+	 */
+	private final Object[] data;
+
+	private final int wordCount;
+
+	@SuppressWarnings("unchecked")
+	public static <T> AhoCorasickAutomaton<T> empty() {
+		return (AhoCorasickAutomaton<T>) EMPTY;
+	}
+
+	/**
+	 * 编译词表
+	 *
+	 * @param words <词, 关联数据>
+	 */
+	public static <T> AhoCorasickAutomaton<T> build(Map<String, T> words) {
+		return words.isEmpty() ? empty() : new AhoCorasickAutomaton<>(words);
+	}
+
+	private AhoCorasickAutomaton(Map<String, T> words) {
+		// 构建字典树
+		List<Map<Character, Integer>> goTo = new ArrayList<>();
+		List<Integer> depthList = new ArrayList<>();
+		goTo.add(new HashMap<>());
+		depthList.add(0);
+		Map<Integer, Object> terminals = new HashMap<>();
+		for (Map.Entry<String, T> e : words.entrySet()) {
+			String word = e.getKey();
+			if (Objects.isNull(word) || word.isEmpty()) {
+				continue;
+			}
+			int state = 0;
+			for (int i = 0; i < word.length(); i++) {
+				Integer next = goTo.get(state).get(word.charAt(i));
+				if (Objects.isNull(next)) {
+					next = goTo.size();
+					goTo.get(state).put(word.charAt(i), next);
+					goTo.add(new HashMap<>());
+					depthList.add(i + 1);
+				}
+				state = next;
+			}
+			terminals.put(state, e.getValue());
+		}
+		int stateCount = goTo.size();
+		this.wordCount = terminals.size();
+		this.depth = new int[stateCount];
+		this.data = new Object[stateCount];
+		boolean[] terminal = new boolean[stateCount];
+		for (int i = 0; i < stateCount; i++) {
+			this.depth[i] = depthList.get(i);
+		}
+		terminals.forEach((state, value) -> {
+			terminal[state] = true;
+			this.data[state] = value;
+		});
+		// 状态转移表
+		int capacity = Integer.highestOneBit(Math.max(2, (stateCount - goTo.get(0).size() - 1) * 2 - 1)) << 1;
+		this.edgeKeys = new long[capacity];
+		this.edgeTargets = new int[capacity];
+		this.edgeMask = capacity - 1;
+		this.edgeShift = 64 - Integer.numberOfTrailingZeros(capacity);
+		Arrays.fill(this.edgeKeys, EMPTY_KEY);
+		goTo.get(0).forEach((c, child) -> this.rootNext[c] = child);
+		for (int state = 1; state < stateCount; state++) {
+			for (Map.Entry<Character, Integer> e : goTo.get(state).entrySet()) {
+				this.putEdge(state, e.getKey(), e.getValue());
+			}
+		}
+		// 按层级计算失败链及输出链
+		this.fail = new int[stateCount];
+		this.output = new int[stateCount];
+		this.output[0] = -1;
+		ArrayDeque<Integer> queue = new ArrayDeque<>(goTo.get(0).values());
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			this.output[state] = terminal[state] ? state : this.output[this.fail[state]];
+			for (Map.Entry<Character, Integer> e : goTo.get(state).entrySet()) {
+				int child = e.getValue();
+				this.fail[child] = state == 0 ? 0 : this.next(this.fail[state], e.getKey());
+				queue.add(child);
+			}
+		}
+	}
+
+	/**
+	 * 词数量
+	 */
+	public int size() {
+		return this.wordCount;
+	}
+
+	/**
+	 * 匹配文本中的词，结果按位置顺序排列且不重叠
+	 *
+	 * @param text 文本
+	 * @param longest true：最大匹配，false：最小匹配
+	 */
+	public List<Match<T>> match(char[] text, boolean longest) {
+		return this.match(text, 0, text.length, longest);
+	}
+
+	/**
+	 * 匹配文本指定区间中的词，结果按位置顺序排列且不重叠，位置为在text中的索引
+	 *
+	 * @param text 文本
+	 * @param from 起始位置（包含）
+	 * @param to 结束位置（不包含）
+	 * @param longest true：最大匹配，false：最小匹配
+	 */
+	public List<Match<T>> match(char[] text, int from, int to, boolean longest) {
+		if (this.wordCount == 0 || from >= to) {
+			return List.of();
+		}
+		// 以各位置开始的最短/最长词结束状态+1，0表示无
+		int[] best = new int[to - from];
+		int state = 0;
+		for (int i = from; i < to; i++) {
+			state = this.next(state, text[i]);
+			for (int o = this.output[state]; o >= 0; o = this.output[this.fail[o]]) {
+				int start = i - from - this.depth[o] + 1;
+				// 同一起始位置较短的词先结束
+				if (longest || best[start] == 0) {
+					best[start] = o + 1;
+				}
+			}
+		}
+		List<Match<T>> list = new ArrayList<>();
+		int p = 0;
+		while (p < best.length) {
+			int s = best[p] - 1;
+			if (s < 0) {
+				p++;
+				continue;
+			}
+			list.add(new Match<>(from + p, this.depth[s], this.getData(s)));
+			p += this.depth[s];
+		}
+		return list;
+	}
+
+	/**
+	 * 文本中是否存在以某位置开始的最短词关联数据满足条件
+	 *
+	 * @param text 文本
+	 * @param predicate 关联数据判断条件
+	 */
+	public boolean anyMatch(char[] text, Predicate<T> predicate) {
+		if (this.wordCount == 0 || text.length == 0) {
+			return false;
+		}
+		boolean[] visited = new boolean[text.length];
+		int state = 0;
+		for (int i = 0; i < text.length; i++) {
+			state = this.next(state, text[i]);
+			for (int o = this.output[state]; o >= 0; o = this.output[this.fail[o]]) {
+				int start = i - this.depth[o] + 1;
+				if (!visited[start]) {
+					visited[start] = true;
+					if (predicate.test(this.getData(o))) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private int next(int state, char c) {
+		while (state != 0) {
+			int target = this.getEdge(state, c);
+			if (target >= 0) {
+				return target;
+			}
+			state = this.fail[state];
+		}
+		return this.rootNext[c];
+	}
+
+	private int getEdge(int state, char c) {
+		long key = ((long) state << 16) | c;
+		int i = (int) ((key * HASH_SEED) >>> this.edgeShift);
+		while (true) {
+			long k = this.edgeKeys[i];
+			if (k == key) {
+				return this.edgeTargets[i];
+			}
+			if (k == EMPTY_KEY) {
+				return -1;
+			}
+			i = (i + 1) & this.edgeMask;
+		}
+	}
+
+	private void putEdge(int state, char c, int target) {
+		long key = ((long) state << 16) | c;
+		int i = (int) ((key * HASH_SEED) >>> this.edgeShift);
+		while (this.edgeKeys[i] != EMPTY_KEY) {
+			i = (i + 1) & this.edgeMask;
+		}
+		this.edgeKeys[i] = key;
+		this.edgeTargets[i] = target;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T getData(int state) {
+		return (T) this.data[state];
+	}
+
+	/**
+	 * 匹配结果
+	 *
+	 * @param index 起始位置
+	 * @param length 长度
+	 * @param data 词关联数据
+	 */
+	public record Match<T>(int index, int length, T data) {
+	}
+}
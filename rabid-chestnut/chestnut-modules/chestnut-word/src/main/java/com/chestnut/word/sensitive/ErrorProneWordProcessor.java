@@ -15,15 +15,15 @@
  */
 package com.chestnut.word.sensitive;
 
-import com.chestnut.common.utils.StringUtils;
-import com.chestnut.word.domain.ErrorProneWord;
+import com.chestnut.word.sensitive.AhoCorasickAutomaton.Match;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 易错词处理器
+ *
+ * <p>词表变更时重新编译{@link AhoCorasickAutomaton}并整体替换，匹配过程读取不可变快照，无需加锁</p>
  */
 @Component
 public class ErrorProneWordProcessor {
@@ -31,24 +31,53 @@ public class ErrorProneWordProcessor {
 	/**
 	 * 易错词表
 	 */
-	private DFAModel<String> wordDFAModel = new DFAModel<>();
+	private final Map<String, String> words = new HashMap<>();
+
+	/**
+	 * 易错词表编译后的自动机
+	 */
+	private volatile AhoCorasickAutomaton<String> automaton = AhoCorasickAutomaton.empty();
 
 	public void addWord(String word, String replaceWord) {
-		this.wordDFAModel.addWord(word, replaceWord);
+		this.addWords(Collections.singletonMap(word, replaceWord));
 	}
 
-	public void addWords(Map<String, String> words) {
-		words.forEach((k, v) -> {
-			this.wordDFAModel.addWord(k, v);
-		});
+	public synchronized void addWords(Map<String, String> words) {
+		this.words.putAll(words);
+		this.rebuild();
+	}
+
+	/**
+	 * 修改易错词
+	 *
+	 * @param oldWord 原易错词
+	 * @param word 新易错词
+	 * @param replaceWord 替换词
+	 */
+	public synchronized void updateWord(String oldWord, String word, String replaceWord) {
+		this.words.remove(oldWord);
+		this.words.put(word, replaceWord);
+		this.rebuild();
 	}
 
 	public void removeWord(String word) {
-		wordDFAModel.removeWord(word);
+		this.removeWords(Set.of(word));
 	}
 	
-	public void removeWords(Set<String> words) {
-		words.forEach(word -> removeWord(word));
+	public synchronized void removeWords(Set<String> words) {
+		words.forEach(this.words::remove);
+		this.rebuild();
+	}
+
+	/**
+	 * 易错词数量
+	 */
+	public int getWordCount() {
+		return this.automaton.size();
+	}
+
+	private void rebuild() {
+		this.automaton = AhoCorasickAutomaton.build(this.words);
 	}
 
 	/**
@@ -58,18 +87,9 @@ public class ErrorProneWordProcessor {
 	 * @param matchType
 	 */
 	public Map<String, String> listWords(final String text, MatchType matchType) {
-		List<MatchFlag> matchList = new ArrayList<>();
-		char[] charText = text.toCharArray();
-		for (int i = 0; i < charText.length; i++) {
-			MatchFlag flag = this.match(charText, i, matchType);
-			if (flag == null) {
-				break;
-			}
-			matchList.add(flag);
-			i = flag.index + flag.length - 1;
-		}
 		Map<String, String> map = new HashMap<>();
-		matchList.forEach(flag -> map.put(text.substring(flag.index, flag.index + flag.length), flag.replacement));
+		this.match(text.toCharArray(), matchType)
+				.forEach(flag -> map.put(text.substring(flag.index(), flag.index() + flag.length()), flag.data()));
 		return map;
 	}
 
@@ -88,15 +108,7 @@ public class ErrorProneWordProcessor {
 	 * @param text
 	 */
 	public boolean check(final String text) {
-		char[] charText = text.toCharArray();
-		for (int i = 0; i < charText.length; i++) {
-			MatchFlag flag = this.match(charText, i, MatchType.MIN);
-			if (flag == null) {
-				break;
-			}
-			return true;
-		}
-		return false;
+		return this.automaton.anyMatch(text.toCharArray(), replacement -> true);
 	}
 
 	/**
@@ -106,17 +118,7 @@ public class ErrorProneWordProcessor {
 	 * @param matchType
 	 */
 	public int count(final String text, MatchType matchType) {
-		int count = 0;
-		char[] charText = text.toCharArray();
-		for (int i = 0; i < charText.length; i++) {
-			MatchFlag flag = this.match(charText, i, matchType);
-			if (flag == null) {
-				break;
-			}
-			count++;
-			i = flag.index + flag.length - 1;
-		}
-		return count;
+		return this.match(text.toCharArray(), matchType).size();
 	}
 
 	/**
@@ -135,80 +137,23 @@ public class ErrorProneWordProcessor {
 	 * @param matchType
 	 */
 	public String replace(final String text, MatchType matchType) {
-		StringBuilder sb = new StringBuilder();
+		StringBuilder sb = new StringBuilder(text.length());
 		int index = 0;
 		char[] charText = text.toCharArray();
-		for (int i = 0; i < charText.length; i++) {
-			MatchFlag flag = this.match(charText, i, matchType);
-			if (flag == null) {
-				for (int j = index; j < charText.length; j++) {
-					sb.append(charText[j]);
-				}
-				break;
-			}
-			for (int j = index; j < flag.index; j++) {
-				sb.append(charText[j]);
-			}
-			sb.append(flag.replacement);
-			index = flag.index + flag.length;
-			i = flag.index + flag.length - 1;
+		for (Match<String> flag : this.match(charText, matchType)) {
+			sb.append(charText, index, flag.index() - index);
+			sb.append(flag.data());
+			index = flag.index() + flag.length();
 		}
+		sb.append(charText, index, charText.length - index);
 		return sb.toString();
 	}
-	
-	public MatchFlag match(final char[] charText, int start, MatchType matchType) {
-		boolean hit = false;
-		MatchFlag hitFlag = null;
-		int index = 0; // match start index
-		int length = 0; // match length
-		Map<String, DFANode<String>> current = this.getWordDFAModel().getRoot();
-		for (int i = start; i < charText.length; i++) {
-			String c = String.valueOf(charText[i]);
-			DFANode<String> node = current.get(c);
-			if (node != null) {
-				if (!hit) {
-					hit = true;
-					index = i;
-					length = 1;
-				} else {
-					length++;
-				}
-				if (node.end) {
-					// matched
-					MatchFlag matchFlag = new MatchFlag();
-					matchFlag.index = index;
-					matchFlag.length = length;
-					matchFlag.replacement = node.data;
-					if (matchType == MatchType.MIN || node.children == null) {
-						return matchFlag; // 最小匹配碰到结束字符完成本次匹配 || 无子节点完成本次匹配
-					} else {
-						hitFlag = matchFlag;
-					}
-				}
-				current = node.children;
-			} else {
-				if (hitFlag != null) {
-					return hitFlag;
-				}
-				if (hit) {
-					// mismatch, reset
-					hit = false;
-					i = index; // 索引回退到上次未匹配成功的匹配起始点继续
-					current = this.getWordDFAModel().getRoot();
-				}
-			}
-		}
-		return null;
-	}
 
 	/**
-	 * 匹配标识
+	 * 获取易错词索引标记
 	 */
-	class MatchFlag {
-		int index; // match start index
-		int length; // match length
-
-		String replacement;
+	public List<Match<String>> match(final char[] charText, MatchType matchType) {
+		return this.automaton.match(charText, matchType == MatchType.MAX);
 	}
 	
 	/**
@@ -219,65 +164,4 @@ public class ErrorProneWordProcessor {
 	public enum MatchType {
 		MIN, MAX
 	}
-	
-	/**
-	 * 获取敏感词索引标记
-	 * 
-	 * @return
-	 */
-	public List<MatchFlag> match(final char[] charText, MatchType matchType) {
-		List<MatchFlag> list = new ArrayList<>();
-		boolean hit = false;
-		MatchFlag hitFlag = null;
-		int index = 0;
-		int length = 0;
-		Map<String, DFANode<String>> current = this.getWordDFAModel().getRoot();
-		for (int i = 0; i < charText.length; i++) {
-			String c = String.valueOf(charText[i]);
-			DFANode<String> node = current.get(c);
-			if (node != null) {
-				// hit node
-				if (!hit) {
-					// first hit
-					hit = true;
-					index = i;
-					length = 1;
-				} else {
-					length++;
-				}
-				if (node.end) {
-					// matched
-					MatchFlag matchFlag = new MatchFlag();
-					matchFlag.index = index;
-					matchFlag.length = length;
-					matchFlag.replacement = node.data;
-					if (matchType == MatchType.MIN) {
-						list.add(matchFlag);
-						// 最小匹配碰到结束字符重新开始匹配
-						current = this.getWordDFAModel().getRoot();
-						hit = false;
-					} else {
-						hitFlag = matchFlag;
-					}
-				} else {
-					current = node.children;
-				}
-			} else {
-				if (hitFlag != null) {
-					list.add(hitFlag);
-				}
-				hit = false;
-			}
-		}
-		return list;
-	}
-
-	public void setWordDFAModel(DFAModel<String> wordDFAModel) {
-		this.wordDFAModel = wordDFAModel;
-	}
-
-	public DFAModel<String> getWordDFAModel() {
-		return this.wordDFAModel;
-	}
 }
-
@@ -15,19 +15,21 @@
  */
 package com.chestnut.word.sensitive;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.apache.commons.collections4.SetUtils;
 import org.springframework.stereotype.Component;
 
 import com.chestnut.word.domain.SensitiveWord;
+import com.chestnut.word.sensitive.AhoCorasickAutomaton.Match;
 
 /**
  * 敏感词处理器
+ *
+ * <p>词表变更时重新编译{@link AhoCorasickAutomaton}并整体替换，匹配过程读取不可变快照，无需加锁</p>
  */
 @Component
 public class SensitiveWordProcessor {
@@ -35,7 +37,12 @@ public class SensitiveWordProcessor {
 	/**
 	 * 敏感词表
 	 */
-	private DFAModel<SensitiveWordType> wordDFAModel = new DFAModel<SensitiveWordType>();
+	private final Map<String, SensitiveWordType> words = new HashMap<>();
+
+	/**
+	 * 敏感词表编译后的自动机
+	 */
+	private volatile AhoCorasickAutomaton<SensitiveWordType> automaton = AhoCorasickAutomaton.empty();
 
 	/**
 	 * 初始化敏感词模型数据
@@ -48,9 +55,10 @@ public class SensitiveWordProcessor {
 				whiteList.stream().map(SensitiveWord::getWord).collect(Collectors.toSet()));
 	}
 	
-	public void init(Set<String> blackList, Set<String> whiteList) {
-		this.addWords(blackList, SensitiveWordType.BLACK);
-		this.addWords(whiteList, SensitiveWordType.WHITE);
+	public synchronized void init(Set<String> blackList, Set<String> whiteList) {
+		blackList.forEach(word -> this.words.put(word, SensitiveWordType.BLACK));
+		whiteList.forEach(word -> this.words.put(word, SensitiveWordType.WHITE));
+		this.rebuild();
 	}
 	
 	/**
@@ -59,11 +67,25 @@ public class SensitiveWordProcessor {
 	 * @param word
 	 */
 	public void addWord(String word, SensitiveWordType wordType) {
-		addWords(SetUtils.unmodifiableSet(word), wordType);
+		addWords(Set.of(word), wordType);
 	}
 	
-	public void addWords(Set<String> words, SensitiveWordType wordType) {
-		this.wordDFAModel.addWords(words, wordType);
+	public synchronized void addWords(Set<String> words, SensitiveWordType wordType) {
+		words.forEach(word -> this.words.put(word, wordType));
+		this.rebuild();
+	}
+
+	/**
+	 * 修改敏感词
+	 *
+	 * @param oldWord 原敏感词
+	 * @param word 新敏感词
+	 * @param wordType 新敏感词类型
+	 */
+	public synchronized void updateWord(String oldWord, String word, SensitiveWordType wordType) {
+		this.words.remove(oldWord);
+		this.words.put(word, wordType);
+		this.rebuild();
 	}
 	
 	/**
@@ -72,11 +94,23 @@ public class SensitiveWordProcessor {
 	 * @param word
 	 */
 	public void removeWord(String word) {
-		wordDFAModel.removeWord(word);
+		removeWords(Set.of(word));
 	}
 	
-	public void removeWords(Set<String> words) {
-		words.forEach(word -> removeWord(word));
+	public synchronized void removeWords(Set<String> words) {
+		words.forEach(this.words::remove);
+		this.rebuild();
+	}
+
+	/**
+	 * 敏感词数量，包括白名单
+	 */
+	public int getWordCount() {
+		return this.automaton.size();
+	}
+
+	private void rebuild() {
+		this.automaton = AhoCorasickAutomaton.build(this.words);
 	}
 
 	/**
@@ -88,17 +122,12 @@ public class SensitiveWordProcessor {
 	 */
 	public String replace(final String text, MatchType matchType, final char replacement) {
 		char[] charText = text.toCharArray();
-		for (int i = 0; i < charText.length; i++) {
-			MatchFlag flag = this.match(charText, i, matchType);
-			if (flag == null) {
-				break;
-			}
-			if (flag.type == SensitiveWordType.BLACK) {
-				for (int j = flag.index; j < flag.index + flag.length; j++) {
+		for (Match<SensitiveWordType> flag : this.match(charText, matchType)) {
+			if (flag.data() == SensitiveWordType.BLACK) {
+				for (int j = flag.index(); j < flag.index() + flag.length(); j++) {
 					charText[j] = replacement;
 				}
 			}
-			i = flag.index + flag.length - 1;
 		}
 		return new String(charText);
 	}
@@ -111,32 +140,22 @@ public class SensitiveWordProcessor {
 	 * @param replacement
 	 */
 	public String replace(final String text, MatchType matchType, ReplaceType replaceType, final String replacement) {
-		StringBuilder sb = new StringBuilder();
+		StringBuilder sb = new StringBuilder(text.length());
 		int index = 0;
 		char[] charText = text.toCharArray();
-		for (int i = 0; i < charText.length; i++) {
-			MatchFlag flag = this.match(charText, i, matchType);
-			if (flag == null) {
-				for (int j = index; j < charText.length; j++) {
-					sb.append(charText[j]);
-				}
-				break;
+		for (Match<SensitiveWordType> flag : this.match(charText, matchType)) {
+			if (flag.data() != SensitiveWordType.BLACK) {
+				continue;
 			}
-			if (flag.type == SensitiveWordType.BLACK) {
-				for (int j = index; j < flag.index; j++) {
-					sb.append(charText[j]);
-				}
-				if (replaceType == ReplaceType.CHAR) {
-					for (int j = 0; j < flag.length; j++) {
-						sb.append(replacement);
-					}
-				} else {
-					sb.append(replacement);
-				}
-				index = flag.index + flag.length;
+			sb.append(charText, index, flag.index() - index);
+			if (replaceType == ReplaceType.CHAR) {
+				sb.append(replacement.repeat(flag.length()));
+			} else {
+				sb.append(replacement);
 			}
-			i = flag.index + flag.length - 1;
+			index = flag.index() + flag.length();
 		}
+		sb.append(charText, index, charText.length - index);
 		return sb.toString();
 	}
 
@@ -147,19 +166,10 @@ public class SensitiveWordProcessor {
 	 * @param matchType
 	 */
 	public Set<String> listWords(final String text, MatchType matchType) {
-		List<MatchFlag> matchList = new ArrayList<>();
-		char[] charText = text.toCharArray();
-		for (int i = 0; i < charText.length; i++) {
-			MatchFlag flag = this.match(charText, i, matchType);
-			if (flag == null) {
-				break;
-			}
-			if (flag.type == SensitiveWordType.BLACK) {
-				matchList.add(flag);
-			}
-			i = flag.index + flag.length - 1;
-		}
-		return matchList.stream().map(flag -> text.substring(flag.index, flag.index + flag.length)).collect(Collectors.toSet());
+		return this.match(text.toCharArray(), matchType).stream()
+				.filter(flag -> flag.data() == SensitiveWordType.BLACK)
+				.map(flag -> text.substring(flag.index(), flag.index() + flag.length()))
+				.collect(Collectors.toSet());
 	}
 
 	/**
@@ -177,17 +187,7 @@ public class SensitiveWordProcessor {
 	 * @param text
 	 */
 	public boolean check(final String text) {
-		char[] charText = text.toCharArray();
-		for (int i = 0; i < charText.length; i++) {
-			MatchFlag flag = this.match(charText, i, MatchType.MIN);
-			if (flag == null) {
-				break;
-			}
-			if (flag.type == SensitiveWordType.BLACK) {
-				return true;
-			}
-		}
-		return false;
+		return this.automaton.anyMatch(text.toCharArray(), type -> type == SensitiveWordType.BLACK);
 	}
 
 	/**
@@ -197,19 +197,8 @@ public class SensitiveWordProcessor {
 	 * @param matchType
 	 */
 	public int count(final String text, MatchType matchType) {
-		int count = 0;
-		char[] charText = text.toCharArray();
-		for (int i = 0; i < charText.length; i++) {
-			MatchFlag flag = this.match(charText, i, matchType);
-			if (flag == null) {
-				break;
-			}
-			if (flag.type == SensitiveWordType.BLACK) {
-				count++;
-			}
-			i = flag.index + flag.length - 1;
-		}
-		return count;
+		return (int) this.match(text.toCharArray(), matchType).stream()
+				.filter(flag -> flag.data() == SensitiveWordType.BLACK).count();
 	}
 
 	/**
@@ -220,59 +209,12 @@ public class SensitiveWordProcessor {
 	public int count(final String text) {
 		return this.count(text, MatchType.MAX);
 	}
-	
-	public MatchFlag match(final char[] charText, int start, MatchType matchType) {
-		boolean hit = false;
-		MatchFlag hitFlag = null;
-		int index = 0; // match start index
-		int length = 0; // match length
-		Map<String, DFANode<SensitiveWordType>> current = this.getWordDFAModel().getRoot();
-		for (int i = start; i < charText.length; i++) {
-			String c = String.valueOf(charText[i]);
-			DFANode<SensitiveWordType> node = current.get(c);
-			if (node != null) {
-				if (!hit) {
-					hit = true;
-					index = i;
-					length = 1;
-				} else {
-					length++;
-				}
-				if (node.end) {
-					// matched
-					MatchFlag matchFlag = new MatchFlag();
-					matchFlag.index = index;
-					matchFlag.length = length;
-					matchFlag.type = node.data;
-					if (matchType == MatchType.MIN || node.children == null) {
-						return matchFlag; // 最小匹配碰到结束字符完成本次匹配 || 无子节点完成本次匹配
-					} else {
-						hitFlag = matchFlag;
-					}
-				}
-				current = node.children;
-			} else {
-				if (hitFlag != null) {
-					return hitFlag;
-				}
-				if (hit) {
-					// mismatch, reset
-					hit = false;
-					i = index; // 索引回退到上次未匹配成功的匹配起始点继续
-					current = this.getWordDFAModel().getRoot();
-				}
-			}
-		}
-		return null;
-	}
-	
+
 	/**
-	 * 匹配标识
+	 * 获取敏感词索引标记，包括白名单词
 	 */
-	static class MatchFlag {
-		int index; // match start index
-		int length; // match length
-		SensitiveWordType type; // 敏感词类型
+	public List<Match<SensitiveWordType>> match(final char[] charText, MatchType matchType) {
+		return this.automaton.match(charText, matchType == MatchType.MAX);
 	}
 	
 	/**
@@ -292,65 +234,4 @@ public class SensitiveWordProcessor {
 	public enum ReplaceType {
 		CHAR, WORD
 	}
-	
-	/**
-	 * 获取敏感词索引标记
-	 * 
-	 * @return
-	 */
-	public List<MatchFlag> match(final char[] charText, MatchType matchType) {
-		List<MatchFlag> list = new ArrayList<>();
-		boolean hit = false;
-		MatchFlag hitFlag = null;
-		int index = 0;
-		int length = 0;
-		Map<String, DFANode<SensitiveWordType>> current = this.getWordDFAModel().getRoot();
-		for (int i = 0; i < charText.length; i++) {
-			String c = String.valueOf(charText[i]);
-			DFANode<SensitiveWordType> node = current.get(c);
-			if (node != null) {
-				// hit node
-				if (!hit) {
-					// first hit
-					hit = true;
-					index = i;
-					length = 1;
-				} else {
-					length++;
-				}
-				if (node.end) {
-					// matched
-					MatchFlag matchFlag = new MatchFlag();
-					matchFlag.index = index;
-					matchFlag.length = length;
-					matchFlag.type = node.data;
-					if (matchType == MatchType.MIN) {
-						list.add(matchFlag);
-						// 最小匹配碰到结束字符重新开始匹配
-						current = this.getWordDFAModel().getRoot();
-						hit = false;
-					} else {
-						hitFlag = matchFlag;
-					}
-				} else {
-					current = node.children;
-				}
-			} else {
-				if (hitFlag != null) {
-					list.add(hitFlag);
-				}
-				hit = false;
-			}
-		}
-		return list;
-	}
-
-	public void setWordDFAModel(DFAModel<SensitiveWordType> wordDFAModel) {
-		this.wordDFAModel = wordDFAModel;
-	}
-
-	public DFAModel<SensitiveWordType> getWordDFAModel() {
-		return this.wordDFAModel;
-	}
 }
-
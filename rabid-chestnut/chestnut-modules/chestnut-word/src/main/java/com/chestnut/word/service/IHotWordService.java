@@ -65,5 +65,28 @@ public interface IHotWordService extends IService<HotWord> {
 	 * @param target 热词链接跳转方式
 	 * @param replacementTemplate 自定义替换模板
 	 */
-	String replaceHotWords(String text, String owner, String[] groupCodes, String target, String replacementTemplate);
+	default String replaceHotWords(String text, String owner, String[] groupCodes, String target, String replacementTemplate) {
+		return this.replaceHotWords(text, owner, groupCodes, target, replacementTemplate, 0);
+	}
+
+	/**
+	 * 按指定热词分组处理内容中的热词，HTML标签及已有链接内的文本不处理
+	 *
+	 * @param text 待处理文本
+	 * @param owner 热词分组所有者
+	 * @param groupCodes 热词分组编码列表
+	 * @param target 热词链接跳转方式
+	 * @param replacementTemplate 自定义替换模板
+	 * @param maxReplaceCount 每个热词最大替换次数，小于等于0不限制
+	 */
+	String replaceHotWords(String text, String owner, String[] groupCodes, String target, String replacementTemplate,
+						   int maxReplaceCount);
+
+	/**
+	 * 清理热词分组缓存，事务中调用时在事务提交后清理
+	 *
+	 * @param owner 热词分组所有者
+	 * @param groupCode 热词分组编码
+	 */
+	void clearHotWordCache(String owner, String groupCode);
 }
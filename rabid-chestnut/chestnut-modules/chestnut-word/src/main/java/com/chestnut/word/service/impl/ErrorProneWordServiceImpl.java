@@ -105,8 +105,7 @@ public class ErrorProneWordServiceImpl extends ServiceImpl<ErrorProneWordMapper,
 		db.setRemark(word.getRemark());
 		db.updateBy(word.getUpdateBy());
 		this.updateById(db);
-		this.processor.removeWord(oldWord);
-		this.processor.addWord(db.getWord(), db.getReplaceWord());
+		this.processor.updateWord(oldWord, db.getWord(), db.getReplaceWord());
 	}
 
 	@Override
@@ -29,10 +29,12 @@ import com.chestnut.word.exception.WordErrorCode;
 import com.chestnut.word.mapper.HotWordGroupMapper;
 import com.chestnut.word.mapper.HotWordMapper;
 import com.chestnut.word.service.IHotWordGroupService;
+import com.chestnut.word.service.IHotWordService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -41,6 +43,8 @@ public class HotWordGroupServiceImpl extends ServiceImpl<HotWordGroupMapper, Hot
 
 	private final HotWordMapper hotWordMapper;
 
+	private final IHotWordService hotWordService;
+
 	@Override
 	public HotWordGroup addHotWordGroup(HotWordGroup group) {
 		this.checkUnique(group.getOwner(), group.getGroupId(), group.getCode());
@@ -60,18 +64,25 @@ public class HotWordGroupServiceImpl extends ServiceImpl<HotWordGroupMapper, Hot
 
 		this.checkUnique(group.getOwner(), group.getGroupId(), group.getCode());
 
+		String oldCode = db.getCode();
 		db.setName(group.getName());
 		db.setCode(group.getCode());
 		db.setRemark(group.getRemark());
 		db.updateBy(group.getUpdateBy());
 		this.updateById(db);
+		this.hotWordService.clearHotWordCache(db.getOwner(), oldCode);
+		this.hotWordService.clearHotWordCache(db.getOwner(), db.getCode());
 	}
 
 	@Override
 	public void deleteHotWordGroups(List<Long> groupIds) {
 		for (Long groupId : groupIds) {
+			HotWordGroup group = this.getById(groupId);
 			this.removeById(groupId);
 			this.hotWordMapper.delete(new LambdaQueryWrapper<HotWord>().eq(HotWord::getGroupId, groupId));
+			if (Objects.nonNull(group)) {
+				this.hotWordService.clearHotWordCache(group.getOwner(), group.getCode());
+			}
 		}
 	}
 
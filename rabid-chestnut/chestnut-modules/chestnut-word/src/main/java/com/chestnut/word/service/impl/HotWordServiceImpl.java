@@ -19,12 +19,14 @@ import com.baomidou.mybatisplus.extension.conditions.query.LambdaQueryChainWrapp
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.chestnut.common.exception.CommonErrorCode;
 import com.chestnut.common.redis.RedisCache;
+import com.chestnut.common.redis.TwoLevelCache;
 import com.chestnut.common.utils.Assert;
 import com.chestnut.common.utils.IdUtils;
 import com.chestnut.common.utils.StringUtils;
 import com.chestnut.word.WordConstants;
 import com.chestnut.word.domain.HotWord;
 import com.chestnut.word.domain.HotWordGroup;
+import com.chestnut.word.hotword.HotWordMatcher;
 import com.chestnut.word.mapper.HotWordGroupMapper;
 import com.chestnut.word.mapper.HotWordMapper;
 import com.chestnut.word.service.IHotWordService;
@@ -33,9 +35,10 @@ import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
-import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
 @Service
@@ -46,13 +49,15 @@ public class HotWordServiceImpl extends ServiceImpl<HotWordMapper, HotWord> impl
 
 	private final RedisCache redisCache;
 
+	private final TwoLevelCache twoLevelCache;
+
 	private final RedissonClient redissonClient;
 
 	private final HotWordGroupMapper hotWordGroupMapper;
 
 	@Override
 	public Map<String, HotWordCache> getHotWords(String owner, String groupCode) {
-		return this.redisCache.getCacheMap(CACHE_PREFIX + groupCode, () -> {
+		return this.redisCache.getCacheMap(CACHE_PREFIX + getCacheKey(owner, groupCode), () -> {
 			Optional<HotWordGroup> groupOpt = new LambdaQueryChainWrapper<>(this.hotWordGroupMapper)
 					.eq(HotWordGroup::getOwner, owner)
 					.eq(HotWordGroup::getCode, groupCode).oneOpt();
@@ -66,28 +71,50 @@ public class HotWordServiceImpl extends ServiceImpl<HotWordMapper, HotWord> impl
 		});
 	}
 
+	/**
+	 * 获取热词分组编译后的匹配器，本地缓存，分组热词变更时失效
+	 */
+	private HotWordMatcher getHotWordMatcher(String owner, String groupCode) {
+		return this.twoLevelCache.getLocalObject(CACHE_PREFIX, getCacheKey(owner, groupCode),
+				() -> HotWordMatcher.compile(this.getHotWords(owner, groupCode).values()));
+	}
+
 	@Override
-	public String replaceHotWords(String text, String owner, String[] groupCodes, String target, String replacementTemplate) {
-		if (Objects.isNull(groupCodes) || groupCodes.length == 0) {
+	public String replaceHotWords(String text, String owner, String[] groupCodes, String target,
+								  String replacementTemplate, int maxReplaceCount) {
+		if (Objects.isNull(groupCodes) || groupCodes.length == 0 || StringUtils.isEmpty(text)) {
 			return text;
 		}
 		if (StringUtils.isEmpty(replacementTemplate)) {
 			replacementTemplate = WordConstants.HOT_WORD_REPLACEMENT;
 		}
 		for (String groupCode : groupCodes) {
-			Map<String, HotWordCache> hotWords = this.getHotWords(owner, groupCode);
-            for (Entry<String, HotWordCache> e : hotWords.entrySet()) {
-                if (StringUtils.isEmpty(target)) {
-                    target = e.getValue().getTarget();
-                }
-                String replacement = StringUtils.messageFormat(replacementTemplate, e.getValue().getUrl(),
-                        e.getValue().getWord(), target);
-                text = StringUtils.replaceEx(text, e.getKey(), replacement);
-            }
+			HotWordMatcher matcher = this.getHotWordMatcher(owner, groupCode);
+			text = matcher.replace(text, target, replacementTemplate, maxReplaceCount);
 		}
 		return text;
 	}
 
+	@Override
+	public void clearHotWordCache(String owner, String groupCode) {
+		String cacheKey = getCacheKey(owner, groupCode);
+		// 事务提交前清理时，并发读取会将旧数据重新写入缓存
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					twoLevelCache.deleteObject(CACHE_PREFIX, cacheKey);
+				}
+			});
+		} else {
+			this.twoLevelCache.deleteObject(CACHE_PREFIX, cacheKey);
+		}
+	}
+
+	private static String getCacheKey(String owner, String groupCode) {
+		return owner + ":" + groupCode;
+	}
+
 	@Override
 	@Transactional(rollbackFor = Exception.class)
 	public void addHotWord(HotWord hotWord) {
@@ -106,6 +133,7 @@ public class HotWordServiceImpl extends ServiceImpl<HotWordMapper, HotWord> impl
 
 			tagWordGroup.setWordTotal(tagWordGroup.getWordTotal() + 1);
 			hotWordGroupMapper.updateById(tagWordGroup);
+			this.clearHotWordCache(tagWordGroup.getOwner(), tagWordGroup.getCode());
 		} finally {
 			lock.unlock();
 		}
@@ -123,6 +151,11 @@ public class HotWordServiceImpl extends ServiceImpl<HotWordMapper, HotWord> impl
 		dbWord.setRemark(hotWord.getRemark());
 		dbWord.updateBy(hotWord.getUpdateBy());
 		this.updateById(hotWord);
+
+		HotWordGroup group = hotWordGroupMapper.selectById(dbWord.getGroupId());
+		if (Objects.nonNull(group)) {
+			this.clearHotWordCache(group.getOwner(), group.getCode());
+		}
 	}
 
 	@Override
@@ -141,6 +174,7 @@ public class HotWordServiceImpl extends ServiceImpl<HotWordMapper, HotWord> impl
 				HotWordGroup group = hotWordGroupMapper.selectById(k);
 				group.setWordTotal(group.getWordTotal() - v);
 				hotWordGroupMapper.updateById(group);
+				this.clearHotWordCache(group.getOwner(), group.getCode());
 			});
 		} finally {
 			lock.unlock();
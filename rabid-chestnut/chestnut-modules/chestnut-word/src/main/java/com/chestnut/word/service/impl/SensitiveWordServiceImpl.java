@@ -88,8 +88,7 @@ public class SensitiveWordServiceImpl extends ServiceImpl<SensitiveWordMapper, S
 		this.updateById(word);
 
 		if (!dbSensitiveWord.getWord().equals(oldWord) || !dbSensitiveWord.getType().equals(oldType)) {
-			this.processor.removeWord(oldWord);
-			this.processor.addWord(dbSensitiveWord.getWord(), SensitiveWordType.valueOf(dbSensitiveWord.getType()));
+			this.processor.updateWord(oldWord, dbSensitiveWord.getWord(), SensitiveWordType.valueOf(dbSensitiveWord.getType()));
 		}
 	}
 
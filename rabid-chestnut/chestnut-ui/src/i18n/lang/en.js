@@ -804,6 +804,7 @@ export default {
       ClearCache: "Clear All",
       ExpireTime: "Expire Time In Seconds",
       ClearSuccess: "Clear cache [{0}] success.",
+      LocalHitRate: "L1 Hit Rate",
     },
     Async: {
       Type: "Type",
@@ -790,6 +790,7 @@ export default {
       ClearCache: "清理全部",
       ExpireTime: "过期时间（单位：秒）",
       ClearSuccess: "清理缓存名称[{0}]成功",
+      LocalHitRate: "本地缓存命中率",
     },
     Async: {
       Type: "类型",
@@ -781,6 +781,7 @@ export default {
       ClearCache: "清理全部",
       ExpireTime: "過期時間（單位：秒）",
       ClearSuccess: "清理緩存名稱[{0}]成功"
+      LocalHitRate: "本地緩存命中率",
     },
     Async: {
       Type: "類型",
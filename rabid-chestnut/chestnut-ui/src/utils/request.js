@@ -221,9 +221,14 @@ function download0(url, params, filename, headers, config) {
       } else {
         const resText = await data.text();
         const rspObj = JSON.parse(resText);
-        const errMsg =
-          errorCode[rspObj.code] || rspObj.msg || errorCode["default"];
-        Message.error(errMsg);
+        if (rspObj.code === 200 && rspObj.data) {
+          // 异步导出返回任务ID，等待任务完成后下载导出文件
+          await downloadAsyncExport(rspObj.data, filename);
+        } else {
+          const errMsg =
+            errorCode[rspObj.code] || rspObj.msg || errorCode["default"];
+          Message.error(errMsg);
+        }
       }
       downloadLoadingInstance.close();
     })
@@ -234,4 +239,34 @@ function download0(url, params, filename, headers, config) {
     });
 }
 
+// 轮询异步导出任务状态，成功后下载导出文件
+function downloadAsyncExport(taskId, filename) {
+  return new Promise((resolve, reject) => {
+    const poll = () => {
+      service
+        .get("/async/task/" + taskId)
+        .then((res) => {
+          const status = res.data.status;
+          if (status === "SUCCESS") {
+            service
+              .get("/async/task/" + taskId + "/download", {
+                responseType: "blob",
+              })
+              .then((data) => {
+                saveAs(new Blob([data]), filename);
+                resolve();
+              })
+              .catch(reject);
+          } else if (status === "FAILED" || status === "INTERRUPTED") {
+            reject(new Error((res.data.errMessages || []).join("\n")));
+          } else {
+            setTimeout(poll, 1000);
+          }
+        })
+        .catch(reject);
+    };
+    poll();
+  });
+}
+
 export default service;